@@ -0,0 +1,99 @@
+package org.pac4j.async.benchmarks;
+
+import org.pac4j.async.benchmarks.client.HeaderDirectClient;
+import org.pac4j.async.benchmarks.client.ParameterIndirectClient;
+import org.pac4j.async.benchmarks.context.InMemoryAsyncWebContext;
+import org.pac4j.async.benchmarks.session.InMemoryAsyncSessionStore;
+import org.pac4j.async.core.authorization.authorizer.AsyncAuthorizer;
+import org.pac4j.async.core.config.AsyncConfig;
+import org.pac4j.core.client.Clients;
+import org.pac4j.core.context.Pac4jConstants;
+import org.pac4j.core.engine.SecurityGrantedAccessAdapter;
+import org.pac4j.core.http.HttpActionAdapter;
+import org.pac4j.core.profile.CommonProfile;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Configuration, clients and requests shared by the benchmarks. Every asynchronous stage completes immediately on the
+ * calling thread, so that what is measured is the cost of the logic itself and of its future chains.
+ */
+public final class BenchmarkFixtures {
+
+    public static final String DIRECT_CLIENT = "HeaderClient";
+    public static final String INDIRECT_CLIENT = "ParameterClient";
+    public static final String CALLBACK_URL = "http://localhost:8080/callback";
+    public static final String PROTECTED_URL = "http://localhost:8080/protected";
+    public static final String USER_ID = "benchmark-user";
+    public static final String SESSION_ID = "benchmark-session";
+    public static final int AUTHORIZER_COUNT = 8;
+    public static final int OK = 200;
+
+    public static final HttpActionAdapter<Integer, InMemoryAsyncWebContext> HTTP_ACTION_ADAPTER = (code, context) -> code;
+    public static final SecurityGrantedAccessAdapter<Integer, InMemoryAsyncWebContext> ACCESS_GRANTED_ADAPTER =
+            (context, parameters) -> OK;
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * @return configuration with a direct and an indirect client, and {@link #AUTHORIZER_COUNT} authorizers named
+     * by {@link #authorizerNames()}, all of which grant access
+     */
+    public static AsyncConfig<Integer, CommonProfile, InMemoryAsyncWebContext> config() {
+        final AsyncConfig<Integer, CommonProfile, InMemoryAsyncWebContext> config = new AsyncConfig<>();
+        config.setClients(new Clients(CALLBACK_URL, new HeaderDirectClient(DIRECT_CLIENT), new ParameterIndirectClient(INDIRECT_CLIENT)));
+        final Map<String, AsyncAuthorizer<CommonProfile>> authorizers = new HashMap<>();
+        for (int i = 0; i < AUTHORIZER_COUNT; i++) {
+            final String requiredId = USER_ID;
+            authorizers.put("authorizer" + i, (context, profiles) ->
+                    CompletableFuture.completedFuture(profiles.stream().anyMatch(p -> requiredId.equals(p.getId()))));
+        }
+        config.setAuthorizers(authorizers);
+        return config;
+    }
+
+    /**
+     * @return the names of all the configured authorizers, plus the built-in isAuthenticated authorizer
+     */
+    public static String authorizerNames() {
+        final StringBuilder names = new StringBuilder();
+        for (int i = 0; i < AUTHORIZER_COUNT; i++) {
+            names.append("authorizer").append(i).append(Pac4jConstants.ELEMENT_SEPRATOR);
+        }
+        return names.append("isAuthenticated").toString();
+    }
+
+    /**
+     * @return session contents for a user who has already logged in via the indirect client
+     */
+    public static Map<String, Object> authenticatedSession() {
+        final CommonProfile profile = new CommonProfile();
+        profile.setId(USER_ID);
+        profile.setClientName(INDIRECT_CLIENT);
+        final LinkedHashMap<String, CommonProfile> profiles = new LinkedHashMap<>();
+        profiles.put(INDIRECT_CLIENT, profile);
+        final Map<String, Object> session = new HashMap<>();
+        session.put(Pac4jConstants.USER_PROFILES, profiles);
+        return session;
+    }
+
+    public static InMemoryAsyncWebContext request(final String url,
+                                                  final Map<String, String[]> parameters,
+                                                  final Map<String, String> headers,
+                                                  final InMemoryAsyncSessionStore sessionStore) {
+        return new InMemoryAsyncWebContext(url, parameters, headers, sessionStore);
+    }
+
+    public static Map<String, String[]> noParameters() {
+        return Collections.emptyMap();
+    }
+
+    public static Map<String, String> noHeaders() {
+        return Collections.emptyMap();
+    }
+}
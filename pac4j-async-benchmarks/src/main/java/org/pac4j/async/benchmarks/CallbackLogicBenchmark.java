@@ -0,0 +1,50 @@
+package org.pac4j.async.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.pac4j.async.benchmarks.client.ParameterIndirectClient;
+import org.pac4j.async.benchmarks.context.InMemoryAsyncWebContext;
+import org.pac4j.async.benchmarks.session.InMemoryAsyncSessionStore;
+import org.pac4j.async.core.logic.DefaultAsyncCallbackLogic;
+import org.pac4j.core.client.Clients;
+import org.pac4j.core.context.Pac4jConstants;
+import org.pac4j.core.profile.CommonProfile;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.pac4j.async.benchmarks.BenchmarkFixtures.*;
+
+/**
+ * Benchmark for {@link DefaultAsyncCallbackLogic#perform}, for a successful return from the identity provider to a
+ * session holding the originally requested url. Each invocation gets a fresh session, since the callback writes to it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CallbackLogicBenchmark {
+
+    private DefaultAsyncCallbackLogic<Integer, CommonProfile, InMemoryAsyncWebContext> callbackLogic;
+    private Map<String, String[]> callbackParameters;
+    private Map<String, Object> sessionBeforeCallback;
+
+    @Setup
+    public void setUp() {
+        callbackLogic = new DefaultAsyncCallbackLogic<>(false, false, config(), HTTP_ACTION_ADAPTER);
+        callbackParameters = new HashMap<>();
+        callbackParameters.put(Clients.DEFAULT_CLIENT_NAME_PARAMETER, new String[] { INDIRECT_CLIENT });
+        callbackParameters.put(ParameterIndirectClient.USER_PARAMETER, new String[] { USER_ID });
+        sessionBeforeCallback = Collections.singletonMap(Pac4jConstants.REQUESTED_URL, PROTECTED_URL);
+    }
+
+    @Benchmark
+    public Integer callback() {
+        final InMemoryAsyncWebContext context = request(CALLBACK_URL, callbackParameters, noHeaders(),
+                new InMemoryAsyncSessionStore(SESSION_ID, sessionBeforeCallback));
+        return callbackLogic.perform(context, null).join();
+    }
+}
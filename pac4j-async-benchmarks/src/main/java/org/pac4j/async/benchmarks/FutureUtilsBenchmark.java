@@ -0,0 +1,107 @@
+package org.pac4j.async.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.pac4j.async.core.authorization.authorizer.AsyncAuthorizer;
+import org.pac4j.async.core.authorization.checker.DefaultAsyncAuthorizationChecker;
+import org.pac4j.async.core.future.FutureUtils;
+import org.pac4j.core.profile.CommonProfile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.pac4j.async.benchmarks.BenchmarkFixtures.*;
+
+/**
+ * Benchmarks for the {@link FutureUtils} combinators, and for an authorization check built on them, over a chain of
+ * {@link BenchmarkFixtures#AUTHORIZER_COUNT} authorizers whose futures are already complete (as for authorizers
+ * wrapping non-blocking code). The reduce chain which the combinators used to build, one thenCompose stage per item,
+ * is measured alongside as a baseline, both for the fixture authorizers and for items which all share one completed
+ * future, which leaves only the cost of the combinators themselves.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FutureUtilsBenchmark {
+
+    private List<AsyncAuthorizer<CommonProfile>> authorizers;
+    // the same authorizers, typed as the authorization checker takes them
+    private List<AsyncAuthorizer> checkedAuthorizers;
+    private List<CommonProfile> profiles;
+    private final CompletableFuture<Boolean> granted = completedFuture(true);
+    private DefaultAsyncAuthorizationChecker sequentialChecker;
+    private DefaultAsyncAuthorizationChecker parallelChecker;
+
+    @Setup
+    public void setUp() {
+        authorizers = new ArrayList<>(config().getAuthorizers().values());
+        checkedAuthorizers = new ArrayList<>(authorizers);
+        final CommonProfile profile = new CommonProfile();
+        profile.setId(USER_ID);
+        profiles = Collections.singletonList(profile);
+        sequentialChecker = new DefaultAsyncAuthorizationChecker(false);
+        parallelChecker = new DefaultAsyncAuthorizationChecker(true);
+    }
+
+    @Benchmark
+    public Boolean reduceChainBaseline() {
+        return reduceChain(suppliers(), false).join();
+    }
+
+    @Benchmark
+    public Boolean reduceChainBaselineCombinatorOnly() {
+        return reduceChain(authorizers.stream().map(a -> () -> granted), false).join();
+    }
+
+    @Benchmark
+    public Boolean shortCircuitedListCombinatorOnly() {
+        return FutureUtils.shortCircuitedFuture(authorizers, a -> granted, false).join();
+    }
+
+    @Benchmark
+    public Boolean shortCircuitedStream() {
+        return FutureUtils.shortCircuitedFuture(suppliers(), false).join();
+    }
+
+    @Benchmark
+    public Boolean shortCircuitedList() {
+        return FutureUtils.shortCircuitedFuture(authorizers, a -> a.isAuthorized(null, profiles), false).join();
+    }
+
+    @Benchmark
+    public Boolean shortCircuitedInParallel() {
+        return FutureUtils.shortCircuitedInParallel(authorizers, a -> a.isAuthorized(null, profiles), false).join();
+    }
+
+    @Benchmark
+    public Boolean authorizerChainSequential() {
+        return sequentialChecker.isAuthorized(null, profiles, checkedAuthorizers).join();
+    }
+
+    @Benchmark
+    public Boolean authorizerChainParallel() {
+        return parallelChecker.isAuthorized(null, profiles, checkedAuthorizers).join();
+    }
+
+    private Stream<Supplier<CompletableFuture<Boolean>>> suppliers() {
+        return authorizers.stream().map(a -> () -> a.isAuthorized(null, profiles));
+    }
+
+    /*
+     * FutureUtils.shortCircuitedFuture as it was before completed futures were evaluated in a loop
+     */
+    private static CompletableFuture<Boolean> reduceChain(final Stream<Supplier<CompletableFuture<Boolean>>> futureSuppliers,
+                                                          final Boolean fallbackOn) {
+        return futureSuppliers.reduce(completedFuture(!fallbackOn),
+                (f, a) -> f.thenCompose(b -> (b != fallbackOn) ? a.get() : completedFuture(fallbackOn)),
+                (bf1, bf2) -> bf1.thenCompose(b -> (b != fallbackOn) ? bf2 : completedFuture(fallbackOn)));
+    }
+}
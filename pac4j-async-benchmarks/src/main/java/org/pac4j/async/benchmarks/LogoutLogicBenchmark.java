@@ -0,0 +1,41 @@
+package org.pac4j.async.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.pac4j.async.benchmarks.context.InMemoryAsyncWebContext;
+import org.pac4j.async.benchmarks.session.InMemoryAsyncSessionStore;
+import org.pac4j.async.core.logic.DefaultAsyncLogoutLogic;
+import org.pac4j.core.profile.CommonProfile;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.pac4j.async.benchmarks.BenchmarkFixtures.*;
+
+/**
+ * Benchmark for {@link DefaultAsyncLogoutLogic#perform}, for local logout of a user in session with the session
+ * destroyed. Each invocation gets a fresh session, since logout empties it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LogoutLogicBenchmark {
+
+    private DefaultAsyncLogoutLogic<Integer, CommonProfile, InMemoryAsyncWebContext> logoutLogic;
+    private Map<String, Object> sessionBeforeLogout;
+
+    @Setup
+    public void setUp() {
+        logoutLogic = new DefaultAsyncLogoutLogic<>(config(), HTTP_ACTION_ADAPTER, "/", null, true, true, false);
+        sessionBeforeLogout = authenticatedSession();
+    }
+
+    @Benchmark
+    public Integer logout() {
+        final InMemoryAsyncWebContext context = request(PROTECTED_URL, noParameters(), noHeaders(),
+                new InMemoryAsyncSessionStore(SESSION_ID, sessionBeforeLogout));
+        return logoutLogic.perform(context).join();
+    }
+}
@@ -0,0 +1,66 @@
+package org.pac4j.async.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.pac4j.async.benchmarks.client.HeaderDirectClient;
+import org.pac4j.async.benchmarks.context.InMemoryAsyncWebContext;
+import org.pac4j.async.benchmarks.session.InMemoryAsyncSessionStore;
+import org.pac4j.async.core.logic.DefaultAsyncSecurityLogic;
+import org.pac4j.core.profile.CommonProfile;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.pac4j.async.benchmarks.BenchmarkFixtures.*;
+
+/**
+ * Benchmarks for {@link DefaultAsyncSecurityLogic#perform}, for a user already authenticated in session, for a user
+ * authenticated on each request by a direct client, and for a user in session checked against a long list of
+ * authorizers. Plans are precompiled, as a framework handler would, so that name resolution is not measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SecurityLogicBenchmark {
+
+    private DefaultAsyncSecurityLogic<Integer, CommonProfile, InMemoryAsyncWebContext> sessionSecurityLogic;
+    private DefaultAsyncSecurityLogic<Integer, CommonProfile, InMemoryAsyncWebContext> directSecurityLogic;
+    private InMemoryAsyncSessionStore authenticatedSession;
+    private Map<String, String> directClientHeaders;
+    private String authorizers;
+
+    @Setup
+    public void setUp() {
+        sessionSecurityLogic = new DefaultAsyncSecurityLogic<>(true, false, config(), HTTP_ACTION_ADAPTER);
+        directSecurityLogic = new DefaultAsyncSecurityLogic<>(false, false, config(), HTTP_ACTION_ADAPTER);
+        authorizers = authorizerNames();
+        sessionSecurityLogic.precompile(INDIRECT_CLIENT, null, null);
+        sessionSecurityLogic.precompile(INDIRECT_CLIENT, authorizers, null);
+        directSecurityLogic.precompile(DIRECT_CLIENT, null, null);
+        // the session is only read by these benchmarks, so can be shared across invocations
+        authenticatedSession = new InMemoryAsyncSessionStore(SESSION_ID, authenticatedSession());
+        directClientHeaders = Collections.singletonMap(HeaderDirectClient.USER_HEADER, USER_ID);
+    }
+
+    @Benchmark
+    public Integer profileInSession() {
+        final InMemoryAsyncWebContext context = request(PROTECTED_URL, noParameters(), noHeaders(), authenticatedSession);
+        return sessionSecurityLogic.perform(context, ACCESS_GRANTED_ADAPTER, INDIRECT_CLIENT, null, null).join();
+    }
+
+    @Benchmark
+    public Integer directClient() {
+        final InMemoryAsyncWebContext context = request(PROTECTED_URL, noParameters(), directClientHeaders,
+                new InMemoryAsyncSessionStore(SESSION_ID));
+        return directSecurityLogic.perform(context, ACCESS_GRANTED_ADAPTER, DIRECT_CLIENT, null, null).join();
+    }
+
+    @Benchmark
+    public Integer authorizerHeavy() {
+        final InMemoryAsyncWebContext context = request(PROTECTED_URL, noParameters(), noHeaders(), authenticatedSession);
+        return sessionSecurityLogic.perform(context, ACCESS_GRANTED_ADAPTER, INDIRECT_CLIENT, authorizers, null).join();
+    }
+}
@@ -0,0 +1,29 @@
+package org.pac4j.async.benchmarks.client;
+
+import org.pac4j.core.credentials.Credentials;
+
+/**
+ * Credentials carrying nothing but the id of the user they identify
+ */
+public class BenchmarkCredentials extends Credentials {
+
+    private final String userId;
+
+    public BenchmarkCredentials(final String userId) {
+        this.userId = userId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        return o instanceof BenchmarkCredentials && userId.equals(((BenchmarkCredentials) o).userId);
+    }
+
+    @Override
+    public int hashCode() {
+        return userId.hashCode();
+    }
+}
@@ -0,0 +1,55 @@
+package org.pac4j.async.benchmarks.client;
+
+import org.pac4j.async.core.client.AsyncDirectClient;
+import org.pac4j.async.core.context.AsyncWebContext;
+import org.pac4j.core.exception.CredentialsException;
+import org.pac4j.core.exception.HttpAction;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.redirect.RedirectAction;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Direct client which takes the user id from a request header, with every stage completing immediately
+ */
+public class HeaderDirectClient extends AsyncDirectClient<BenchmarkCredentials, CommonProfile> {
+
+    public static final String USER_HEADER = "X-Benchmark-User";
+
+    public HeaderDirectClient(final String name) {
+        setName(name);
+        setCredentialsExtractor(context -> {
+            final String userId = context.getRequestHeader(USER_HEADER);
+            return CompletableFuture.completedFuture(userId == null ? null : new BenchmarkCredentials(userId));
+        });
+        setAuthenticator((credentials, context) -> {
+            final CompletableFuture<Void> future = new CompletableFuture<>();
+            if (credentials.getUserId().isEmpty()) {
+                future.completeExceptionally(new CredentialsException("Empty user id"));
+            } else {
+                future.complete(null);
+            }
+            return future;
+        });
+        setProfileCreator((credentials, context) -> {
+            final CommonProfile profile = new CommonProfile();
+            profile.setId(credentials.getUserId());
+            return CompletableFuture.completedFuture(profile);
+        });
+    }
+
+    @Override
+    protected void internalInit(final AsyncWebContext context) {
+        // Nothing to initialise, all components are set up on construction
+    }
+
+    @Override
+    public CompletableFuture<HttpAction> redirect(final AsyncWebContext context) {
+        throw new UnsupportedOperationException("Direct clients cannot redirect");
+    }
+
+    @Override
+    public RedirectAction getLogoutAction(final AsyncWebContext context, final CommonProfile profile, final String targetUrl) {
+        return null;
+    }
+}
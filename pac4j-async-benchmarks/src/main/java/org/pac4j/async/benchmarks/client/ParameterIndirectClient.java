@@ -0,0 +1,38 @@
+package org.pac4j.async.benchmarks.client;
+
+import org.pac4j.async.core.client.AsyncIndirectClient;
+import org.pac4j.async.core.context.AsyncWebContext;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.redirect.RedirectAction;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Indirect client which redirects to a fixed login url, and on callback takes the user id from a request parameter,
+ * with every stage completing immediately. This stands in for a real identity provider so that the callback logic can
+ * be measured without any i/o.
+ */
+public class ParameterIndirectClient extends AsyncIndirectClient<BenchmarkCredentials, CommonProfile> {
+
+    public static final String USER_PARAMETER = "user";
+    public static final String LOGIN_URL = "http://idp.example.com/login";
+
+    public ParameterIndirectClient(final String name) {
+        setName(name);
+    }
+
+    @Override
+    protected void clientInit(final AsyncWebContext context) {
+        defaultRedirectActionBuilder(ctx -> CompletableFuture.completedFuture(RedirectAction.redirect(LOGIN_URL)));
+        defaultCredentialsExtractor(ctx -> {
+            final String userId = ctx.getRequestParameter(USER_PARAMETER);
+            return CompletableFuture.completedFuture(userId == null ? null : new BenchmarkCredentials(userId));
+        });
+        defaultAuthenticator((credentials, ctx) -> CompletableFuture.completedFuture(null));
+        defaultProfileCreator((credentials, ctx) -> {
+            final CommonProfile profile = new CommonProfile();
+            profile.setId(credentials.getUserId());
+            return CompletableFuture.completedFuture(profile);
+        });
+    }
+}
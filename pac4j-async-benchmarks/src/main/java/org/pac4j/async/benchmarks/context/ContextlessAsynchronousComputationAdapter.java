@@ -0,0 +1,27 @@
+package org.pac4j.async.benchmarks.context;
+
+import org.pac4j.async.core.AsynchronousComputationAdapter;
+import org.pac4j.async.core.execution.context.AsyncPac4jExecutionContext;
+import org.pac4j.async.core.execution.context.ContextlessPac4jExecutionContext;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Computation adapter which runs everything, including blocking computations, on the calling thread. Only suitable
+ * for benchmarking, where nothing actually blocks and we want a whole request to run on the benchmark thread.
+ */
+public class ContextlessAsynchronousComputationAdapter implements AsynchronousComputationAdapter {
+
+    private final AsyncPac4jExecutionContext executionContext = new ContextlessPac4jExecutionContext();
+
+    @Override
+    public <T> CompletableFuture<T> fromBlocking(final Supplier<T> syncComputation) {
+        return CompletableFuture.completedFuture(syncComputation.get());
+    }
+
+    @Override
+    public AsyncPac4jExecutionContext getExecutionContext() {
+        return executionContext;
+    }
+}
@@ -0,0 +1,161 @@
+package org.pac4j.async.benchmarks.context;
+
+import org.pac4j.async.core.AsynchronousComputationAdapter;
+import org.pac4j.async.core.context.AsyncWebContext;
+import org.pac4j.async.core.session.AsyncSessionStore;
+import org.pac4j.core.context.Cookie;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Web context for a single request held entirely in memory. Request parameters and headers are supplied up front,
+ * and the response is recorded so that benchmarks can check they ran the path they meant to.
+ */
+public class InMemoryAsyncWebContext implements AsyncWebContext {
+
+    private static final AsynchronousComputationAdapter COMPUTATION_ADAPTER = new ContextlessAsynchronousComputationAdapter();
+
+    private final String fullRequestUrl;
+    private final Map<String, String[]> requestParameters;
+    private final Map<String, String> requestHeaders;
+    private final Map<String, Object> requestAttributes = new HashMap<>();
+    private final Map<String, String> responseHeaders = new HashMap<>();
+    private final Collection<Cookie> responseCookies = new ArrayList<>();
+    private final StringBuilder responseContent = new StringBuilder();
+    private AsyncSessionStore sessionStore;
+    private int responseStatus = -1;
+
+    public InMemoryAsyncWebContext(final String fullRequestUrl,
+                                   final Map<String, String[]> requestParameters,
+                                   final Map<String, String> requestHeaders,
+                                   final AsyncSessionStore sessionStore) {
+        this.fullRequestUrl = fullRequestUrl;
+        this.requestParameters = requestParameters;
+        this.requestHeaders = requestHeaders;
+        this.sessionStore = sessionStore;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends AsyncSessionStore> T getSessionStore() {
+        return (T) sessionStore;
+    }
+
+    @Override
+    public <T extends AsyncSessionStore> void setSessionStore(final T sessionStore) {
+        this.sessionStore = sessionStore;
+    }
+
+    @Override
+    public AsynchronousComputationAdapter getAsyncComputationAdapter() {
+        return COMPUTATION_ADAPTER;
+    }
+
+    @Override
+    public String getRequestParameter(final String name) {
+        final String[] values = requestParameters.get(name);
+        return values == null || values.length == 0 ? null : values[0];
+    }
+
+    @Override
+    public Map<String, String[]> getRequestParameters() {
+        return requestParameters;
+    }
+
+    @Override
+    public Object getRequestAttribute(final String name) {
+        return requestAttributes.get(name);
+    }
+
+    @Override
+    public void setRequestAttribute(final String name, final Object value) {
+        requestAttributes.put(name, value);
+    }
+
+    @Override
+    public String getRequestHeader(final String name) {
+        return requestHeaders.get(name);
+    }
+
+    @Override
+    public String getRequestMethod() {
+        return "GET";
+    }
+
+    @Override
+    public String getRemoteAddr() {
+        return "127.0.0.1";
+    }
+
+    @Override
+    public void writeResponseContent(final String content) {
+        responseContent.append(content);
+    }
+
+    @Override
+    public void setResponseStatus(final int code) {
+        this.responseStatus = code;
+    }
+
+    @Override
+    public void setResponseHeader(final String name, final String value) {
+        responseHeaders.put(name, value);
+    }
+
+    @Override
+    public void setResponseContentType(final String content) {
+        setResponseHeader("Content-Type", content);
+    }
+
+    @Override
+    public String getServerName() {
+        return "localhost";
+    }
+
+    @Override
+    public int getServerPort() {
+        return 8080;
+    }
+
+    @Override
+    public String getScheme() {
+        return "http";
+    }
+
+    @Override
+    public boolean isSecure() {
+        return false;
+    }
+
+    @Override
+    public String getFullRequestURL() {
+        return fullRequestUrl;
+    }
+
+    @Override
+    public Collection<Cookie> getRequestCookies() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void addResponseCookie(final Cookie cookie) {
+        responseCookies.add(cookie);
+    }
+
+    @Override
+    public String getPath() {
+        return fullRequestUrl;
+    }
+
+    public int getResponseStatus() {
+        return responseStatus;
+    }
+
+    public Map<String, String> getResponseHeaders() {
+        return responseHeaders;
+    }
+}
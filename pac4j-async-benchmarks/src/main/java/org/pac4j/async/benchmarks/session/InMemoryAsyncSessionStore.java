@@ -0,0 +1,66 @@
+package org.pac4j.async.benchmarks.session;
+
+import org.pac4j.async.core.context.AsyncWebContext;
+import org.pac4j.async.core.session.AsyncSessionStore;
+import org.pac4j.core.context.WebContext;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Session store holding a single session in a map, with every operation completing immediately. This is so that the
+ * benchmarks measure the cost of the logic's future chains rather than that of any session storage.
+ */
+public class InMemoryAsyncSessionStore implements AsyncSessionStore {
+
+    private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+
+    private final String sessionId;
+    private final Map<String, Object> session;
+
+    public InMemoryAsyncSessionStore(final String sessionId) {
+        this(sessionId, new HashMap<>());
+    }
+
+    public InMemoryAsyncSessionStore(final String sessionId, final Map<String, Object> initialContents) {
+        this.sessionId = sessionId;
+        this.session = new HashMap<>(initialContents);
+    }
+
+    @Override
+    public CompletableFuture<String> getOrCreateSessionId(final AsyncWebContext context) {
+        return CompletableFuture.completedFuture(sessionId);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> get(final WebContext<AsyncSessionStore> context, final String key) {
+        return CompletableFuture.completedFuture((T) session.get(key));
+    }
+
+    @Override
+    public <T> CompletableFuture<Void> set(final WebContext<AsyncSessionStore> context, final String key, final T value) {
+        session.put(key, value);
+        return DONE;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> destroySession(final AsyncWebContext context) {
+        session.clear();
+        return CompletableFuture.completedFuture(true);
+    }
+
+    @Override
+    public CompletableFuture<Optional<Object>> getTrackableSession(final AsyncWebContext context) {
+        return CompletableFuture.completedFuture(Optional.of(session));
+    }
+
+    /**
+     * @return the current contents of the session
+     */
+    public Map<String, Object> getContents() {
+        return session;
+    }
+}
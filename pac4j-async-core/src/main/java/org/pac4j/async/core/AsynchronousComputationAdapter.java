@@ -36,7 +36,8 @@ public interface AsynchronousComputationAdapter {
      *
      * Note that in general a context will be associated with only one thread, therefore it is sensible to offer an
      * AsynchronousComputationAdapter per context-related thread. The "OnContext" converters are to be used when a computation
-     * will mutate state on that context, the aim being to preserve thread-safety.
+     * will mutate state on that context, the aim being to preserve thread-safety. If we are already on the context, the
+     * computation is run straight away.
      *
      * @param syncComputation computation which will return the value with which to complete the future
      * @param <T> The type with which the CompletableFuture will complete
@@ -44,7 +45,7 @@ public interface AsynchronousComputationAdapter {
      */
     default <T> CompletableFuture<T> fromNonBlockingOnContext(final Supplier<T> syncComputation) {
         final CompletableFuture<T> future = new CompletableFuture<>();
-        getExecutionContext().runOnContext(() -> future.complete(syncComputation.get()));
+        getExecutionContext().executeOnContext(() -> future.complete(syncComputation.get()));
         return future;
     }
 
@@ -63,7 +64,7 @@ public interface AsynchronousComputationAdapter {
      */
     default CompletableFuture<Void> fromNonBlockingOnContext(final Runnable syncComputation) {
         final CompletableFuture<Void> future = new CompletableFuture<>();
-        getExecutionContext().runOnContext(() -> {
+        getExecutionContext().executeOnContext(() -> {
             syncComputation.run();
             future.complete(null);
         });
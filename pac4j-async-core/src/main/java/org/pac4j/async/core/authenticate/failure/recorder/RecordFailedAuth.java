@@ -5,6 +5,8 @@ import org.pac4j.async.core.context.AsyncWebContext;
 import org.pac4j.core.credentials.Credentials;
 import org.pac4j.core.util.CommonHelper;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -43,6 +45,15 @@ public enum RecordFailedAuth implements RecordFailedAuthenticationStrategy {
                     .thenApply(v -> credentials);
         }
 
+        @Override
+        public CompletableFuture<Void> clearFailedAuthenticationAndWrite(final AsyncClient client,
+                                                                 final Map<String, Object> sessionWrites,
+                                                                 final AsyncWebContext webContext) {
+            final Map<String, Object> writes = new LinkedHashMap<>(sessionWrites);
+            writes.put(client.getName() + ATTEMPTED_AUTHENTICATION_SUFFIX, "");
+            return webContext.getSessionStore().setAll(webContext, writes);
+        }
+
         @Override
         public CompletableFuture<Boolean> isFailedAuthenticationPresent(AsyncClient client, AsyncWebContext webContext) {
             return webContext.getSessionStore().<String>get(webContext, client.getName() + ATTEMPTED_AUTHENTICATION_SUFFIX)
@@ -4,6 +4,7 @@ import org.pac4j.async.core.client.AsyncClient;
 import org.pac4j.async.core.context.AsyncWebContext;
 import org.pac4j.core.credentials.Credentials;
 
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -17,4 +18,20 @@ public interface RecordFailedAuthenticationStrategy {
     <C extends Credentials> CompletableFuture<C> recordFailedAuthentication(final AsyncClient client, final C credentials, final AsyncWebContext webContext);
     <C extends Credentials> CompletableFuture<C> clearFailedAuthentication(final AsyncClient client, final C credentials, final AsyncWebContext webContext);
     CompletableFuture<Boolean> isFailedAuthenticationPresent(final AsyncClient client, final AsyncWebContext webContext);
+
+    /**
+     * Clear the record of a failed authentication and make some other session writes. By default these are two
+     * separate operations; strategies which record in the session make them a single batch write.
+     *
+     * @param client the client whose failed authentication is to be cleared
+     * @param sessionWrites the other session writes to be made, by key
+     * @param webContext the web context
+     * @return future which completes once the record is cleared and the writes are made
+     */
+    default CompletableFuture<Void> clearFailedAuthenticationAndWrite(final AsyncClient client,
+                                                              final Map<String, Object> sessionWrites,
+                                                              final AsyncWebContext webContext) {
+        return clearFailedAuthentication(client, null, webContext)
+                .thenCompose(c -> webContext.getSessionStore().setAll(webContext, sessionWrites));
+    }
 }
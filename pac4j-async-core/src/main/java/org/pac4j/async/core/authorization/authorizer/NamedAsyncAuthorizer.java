@@ -0,0 +1,51 @@
+package org.pac4j.async.core.authorization.authorizer;
+
+import org.pac4j.async.core.Named;
+import org.pac4j.async.core.context.AsyncWebContext;
+import org.pac4j.core.profile.CommonProfile;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.pac4j.core.util.CommonHelper.assertNotBlank;
+import static org.pac4j.core.util.CommonHelper.assertNotNull;
+
+/**
+ * An authorizer together with the name it was configured under, so that whatever reports on the authorizer (such as
+ * its metrics) can tell it apart from others of the same class. Most authorizers are lambdas wrapping a synchronous
+ * authorizer, so the class alone says little, and the same authorizer may be configured under more than one name.
+ */
+public final class NamedAsyncAuthorizer<U extends CommonProfile> implements AsyncAuthorizer<U>, Named {
+
+    private final String name;
+    private final AsyncAuthorizer<U> authorizer;
+
+    public NamedAsyncAuthorizer(final String name, final AsyncAuthorizer<U> authorizer) {
+        assertNotBlank("name", name);
+        assertNotNull("authorizer", authorizer);
+        this.name = name;
+        this.authorizer = authorizer;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> isAuthorized(final AsyncWebContext context, final List<U> profiles) {
+        return authorizer.isAuthorized(context, profiles);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the authorizer which was configured under the name
+     */
+    public AsyncAuthorizer<U> getAuthorizer() {
+        return authorizer;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -34,7 +34,7 @@ public class AsyncCsrfTokenGeneratorAuthorizer implements AsyncAuthorizer<Common
         CommonHelper.assertNotNull("csrfTokenGenerator", csrfTokenGenerator);
         final CompletableFuture<String> tokenFuture = csrfTokenGenerator.get(context);
         final CompletableFuture<Boolean> result = new CompletableFuture<>();
-        tokenFuture.thenAccept(token -> context.getExecutionContext().runOnContext(() -> {
+        tokenFuture.thenAccept(token -> context.getExecutionContext().executeOnContext(() -> {
             context.setRequestAttribute(Pac4jConstants.CSRF_TOKEN, token);
             final Cookie cookie = new Cookie(Pac4jConstants.CSRF_TOKEN, token);
             if (domain != null) {
@@ -21,5 +21,27 @@ public interface AsyncAuthorizationChecker<U extends CommonProfile> {
      * @param authorizersMap the map of authorizers
      * @return whether the user is authorized. Note that the future will complete exceptionally, possibly with an HttpAction, if required
      */
-    CompletableFuture<Boolean> isAuthorized(AsyncWebContext context, List<U> profiles, String authorizerNames, Map<String, AsyncAuthorizer> authorizersMap);
+    default CompletableFuture<Boolean> isAuthorized(AsyncWebContext context, List<U> profiles, String authorizerNames, Map<String, AsyncAuthorizer> authorizersMap) {
+        return isAuthorized(context, profiles, resolveAuthorizers(authorizerNames, authorizersMap));
+    }
+
+    /**
+     * Resolve a list of authorizer names into the authorizers which they represent. As this involves no i/o it is
+     * synchronous, and its result can be retained and reused for subsequent checks against the same names.
+     *
+     * @param authorizerNames the authorizers
+     * @param authorizersMap the map of authorizers
+     * @return the resolved authorizers, in the order in which they were named
+     */
+    List<AsyncAuthorizer> resolveAuthorizers(String authorizerNames, Map<String, AsyncAuthorizer> authorizersMap);
+
+    /**
+     * Check whether the user is authorized by an already resolved list of authorizers.
+     *
+     * @param context the web context
+     * @param profiles the profile
+     * @param authorizers the resolved authorizers
+     * @return whether the user is authorized. Note that the future will complete exceptionally, possibly with an HttpAction, if required
+     */
+    CompletableFuture<Boolean> isAuthorized(AsyncWebContext context, List<U> profiles, List<AsyncAuthorizer> authorizers);
 }
@@ -1,20 +1,29 @@
 package org.pac4j.async.core.authorization.checker;
 
 import org.pac4j.async.core.authorization.authorizer.AsyncAuthorizer;
-import org.pac4j.async.core.authorization.authorizer.csrf.AsyncCsrfAuthorizer;
-import org.pac4j.async.core.authorization.authorizer.csrf.AsyncCsrfTokenGeneratorAuthorizer;
-import org.pac4j.async.core.authorization.authorizer.csrf.DefaultAsyncCsrfTokenGenerator;
+import org.pac4j.async.core.config.AsyncConfigRegistry;
 import org.pac4j.async.core.context.AsyncWebContext;
-import org.pac4j.core.authorization.authorizer.*;
-import org.pac4j.core.context.HttpConstants;
-import org.pac4j.core.context.Pac4jConstants;
+import org.pac4j.async.core.deadline.AsyncStage;
+import org.pac4j.async.core.metrics.AsyncCounter;
+import org.pac4j.async.core.metrics.AsyncMetrics;
+import org.pac4j.async.core.metrics.AsyncTimer;
+import org.pac4j.async.core.metrics.NoopAsyncMetrics;
 import org.pac4j.core.profile.CommonProfile;
 
-import java.util.*;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 
-import static org.pac4j.async.core.authorization.authorizer.AsyncAuthorizer.fromNonBlockingAuthorizer;
+import static org.pac4j.async.core.deadline.AsyncDeadlines.enforce;
 import static org.pac4j.async.core.future.FutureUtils.shortCircuitedFuture;
+import static org.pac4j.async.core.future.FutureUtils.shortCircuitedInParallel;
+import static org.pac4j.async.core.metrics.AsyncMetricNames.AUTHORIZER;
+import static org.pac4j.async.core.metrics.AsyncMetricNames.AUTHORIZER_DENIED;
+import static org.pac4j.async.core.metrics.AsyncMetricNames.tagValueFor;
+import static org.pac4j.async.core.metrics.AsyncMetrics.AUTHORIZER_TAG;
 import static org.pac4j.core.util.CommonHelper.*;
 
 /**
@@ -22,112 +31,99 @@ import static org.pac4j.core.util.CommonHelper.*;
  */
 public class DefaultAsyncAuthorizationChecker implements AsyncAuthorizationChecker<CommonProfile> {
 
-    private static final CorsAuthorizer SYNC_CORS_AUTHORIZER = new CorsAuthorizer();
-
-    final static AsyncAuthorizer<CommonProfile> STRICT_TRANSPORT_SECURITY_HEADER = fromNonBlockingAuthorizer(new StrictTransportSecurityHeader());
-    final static AsyncAuthorizer<CommonProfile> X_CONTENT_TYPE_OPTIONS_HEADER = fromNonBlockingAuthorizer(new XContentTypeOptionsHeader());
-    final static AsyncAuthorizer<CommonProfile> X_FRAME_OPTIONS_HEADER = fromNonBlockingAuthorizer(new XFrameOptionsHeader());
-    final static AsyncAuthorizer<CommonProfile> XSS_PROTECTION_HEADER = fromNonBlockingAuthorizer(new XSSProtectionHeader());
-    final static AsyncAuthorizer<CommonProfile> CACHE_CONTROL_HEADER = fromNonBlockingAuthorizer(new CacheControlHeader());
-    final static AsyncAuthorizer<CommonProfile> CSRF_AUTHORIZER = new AsyncCsrfAuthorizer();
-    final static AsyncAuthorizer<CommonProfile> CSRF_TOKEN_GENERATOR_AUTHORIZER = new AsyncCsrfTokenGeneratorAuthorizer(new DefaultAsyncCsrfTokenGenerator());
-    final static AsyncAuthorizer<CommonProfile> CORS_AUTHORIZER = fromNonBlockingAuthorizer(SYNC_CORS_AUTHORIZER);
-    final static AsyncAuthorizer<CommonProfile> IS_ANONYMOUS_AUTHORIZER = fromNonBlockingAuthorizer(new IsAnonymousAuthorizer());
-    final static AsyncAuthorizer<CommonProfile> IS_AUTHENTICATED_AUTHORIZER = fromNonBlockingAuthorizer(new IsAuthenticatedAuthorizer());
-    final static AsyncAuthorizer<CommonProfile> IS_FULLY_AUTHENTICATED_AUTHORIZER = fromNonBlockingAuthorizer(new IsFullyAuthenticatedAuthorizer());
-    final static AsyncAuthorizer<CommonProfile> IS_REMEMBERED_AUTHORIZER = fromNonBlockingAuthorizer(new IsRememberedAuthorizer());
-
-    // Configure underlying authorizer as we want it to behave
-    static {
-        SYNC_CORS_AUTHORIZER.setAllowOrigin("*");
-        SYNC_CORS_AUTHORIZER.setAllowCredentials(true);
-        final Set<HttpConstants.HTTP_METHOD> methods = new HashSet<>();
-        methods.add(HttpConstants.HTTP_METHOD.GET);
-        methods.add(HttpConstants.HTTP_METHOD.PUT);
-        methods.add(HttpConstants.HTTP_METHOD.POST);
-        methods.add(HttpConstants.HTTP_METHOD.DELETE);
-        methods.add(HttpConstants.HTTP_METHOD.OPTIONS);
-        SYNC_CORS_AUTHORIZER.setAllowMethods(methods);
+    private final boolean parallel;
+    private final AsyncMetrics metrics;
+    // The timer and denial counter for each authorizer tag value, so that metrics are not looked up per request
+    private final ConcurrentMap<String, AuthorizerMetrics> authorizerMetrics = new ConcurrentHashMap<>();
+
+    public DefaultAsyncAuthorizationChecker() {
+        this(false);
+    }
+
+    /**
+     * @param parallel whether to start all authorizers at once rather than evaluating them one after another. This
+     *                 is worth doing where several authorizers make remote calls, but means all authorizers are run
+     *                 even where an earlier one would have refused access.
+     */
+    public DefaultAsyncAuthorizationChecker(final boolean parallel) {
+        this(parallel, NoopAsyncMetrics.INSTANCE);
     }
 
+    /**
+     * @param parallel whether to start all authorizers at once rather than evaluating them one after another
+     * @param metrics the metrics into which each authorizer's latency and denials are reported, tagged by the
+     *                authorizer's name (or class, where it has no name). Authorizers resolved from their names, by the
+     *                security logic or {@link #isAuthorized(AsyncWebContext, List, String, Map)}, are tagged by the
+     *                name they were configured under.
+     */
+    public DefaultAsyncAuthorizationChecker(final boolean parallel, final AsyncMetrics metrics) {
+        assertNotNull("metrics", metrics);
+        this.parallel = parallel;
+        this.metrics = metrics;
+    }
 
+    @Override
+    public List<AsyncAuthorizer> resolveAuthorizers(final String authorizerNames,
+                                                    final Map<String, AsyncAuthorizer> authorizersMap) {
+        return AsyncConfigRegistry.lookUpAuthorizers(authorizersMap, authorizerNames, false);
+    }
 
     @Override
     public CompletableFuture<Boolean> isAuthorized(final AsyncWebContext context, final List<CommonProfile> profiles,
                                                    final String authorizerNames,
                                                    final Map<String, AsyncAuthorizer> authorizersMap) {
-
-        final List<AsyncAuthorizer> authorizers = new LinkedList<>();
-
-        // if we have an authorizer name (which may be a list of authorizer names)
-        if (isNotBlank(authorizerNames)) {
-            final String[] names = authorizerNames.split(Pac4jConstants.ELEMENT_SEPRATOR);
-            final int nb = names.length;
-            for (int i = 0; i < nb; i++) {
-                final String name = names[i].trim();
-                if ("hsts".equalsIgnoreCase(name)) {
-                    authorizers.add(STRICT_TRANSPORT_SECURITY_HEADER);
-                } else if ("nosniff".equalsIgnoreCase(name)) {
-                    authorizers.add(X_CONTENT_TYPE_OPTIONS_HEADER);
-                } else if ("noframe".equalsIgnoreCase(name)) {
-                    authorizers.add(X_FRAME_OPTIONS_HEADER);
-                } else if ("xssprotection".equalsIgnoreCase(name)) {
-                    authorizers.add(XSS_PROTECTION_HEADER);
-                } else if ("nocache".equalsIgnoreCase(name)) {
-                    authorizers.add(CACHE_CONTROL_HEADER);
-                } else if ("securityheaders".equalsIgnoreCase(name)) {
-                    authorizers.add(CACHE_CONTROL_HEADER);
-                    authorizers.add(X_CONTENT_TYPE_OPTIONS_HEADER);
-                    authorizers.add(STRICT_TRANSPORT_SECURITY_HEADER);
-                    authorizers.add(X_FRAME_OPTIONS_HEADER);
-                    authorizers.add(XSS_PROTECTION_HEADER);
-                } else if ("csrfToken".equalsIgnoreCase(name)) {
-                    authorizers.add(CSRF_TOKEN_GENERATOR_AUTHORIZER);
-                } else if ("csrfCheck".equalsIgnoreCase(name)) {
-                    authorizers.add(CSRF_AUTHORIZER);
-                } else if ("csrf".equalsIgnoreCase(name)) {
-                    authorizers.add(CSRF_TOKEN_GENERATOR_AUTHORIZER);
-                    authorizers.add(CSRF_AUTHORIZER);
-                } else if ("allowAjaxRequests".equalsIgnoreCase(name)) {
-                    authorizers.add(CORS_AUTHORIZER);
-                } else if ("isAnonymous".equalsIgnoreCase(name)) {
-                    authorizers.add(IS_ANONYMOUS_AUTHORIZER);
-                } else if ("isAuthenticated".equalsIgnoreCase(name)) {
-                    authorizers.add(IS_AUTHENTICATED_AUTHORIZER);
-                } else if ("isFullyAuthenticated".equalsIgnoreCase(name)) {
-                    authorizers.add(IS_FULLY_AUTHENTICATED_AUTHORIZER);
-                } else if ("isRemembered".equalsIgnoreCase(name)) {
-                    authorizers.add(IS_REMEMBERED_AUTHORIZER);
-                } else {
-                    // we must have authorizers
-                    assertNotNull("authorizersMap", authorizersMap);
-                    AsyncAuthorizer result = null;
-                    for (final Map.Entry<String, AsyncAuthorizer> entry : authorizersMap.entrySet()) {
-                        if (areEqualsIgnoreCaseAndTrim(entry.getKey(), name)) {
-                            result = entry.getValue();
-                            break;
-                        }
-                    }
-                    // we must have an authorizer defined for this name
-                    assertNotNull("authorizersMap['" + name + "']", result);
-                    authorizers.add(result);
-                }
-            }
-        }
-        return isAuthorized(context, profiles, authorizers);
+        return isAuthorized(context, profiles, AsyncConfigRegistry.lookUpAuthorizers(authorizersMap, authorizerNames, true));
     }
 
-    protected CompletableFuture<Boolean> isAuthorized(final AsyncWebContext context, final List<CommonProfile> profiles,
-                                                      final List<AsyncAuthorizer> authorizers) {
+    @Override
+    public CompletableFuture<Boolean> isAuthorized(final AsyncWebContext context, final List<CommonProfile> profiles,
+                                                   final List<AsyncAuthorizer> authorizers) {
         // authorizations check comes after authentication and profile must not be null nor empty
         assertTrue(isNotEmpty(profiles), "profiles must not be null or empty");
 
         if ( isNotEmpty(authorizers)) {
-            return shortCircuitedFuture(authorizers.stream()
-                    .map(a -> () -> a.isAuthorized(context, profiles)), false);
+            // only work out tag values where metrics are actually being recorded
+            final Function<AsyncAuthorizer, CompletableFuture<Boolean>> evaluation = metrics == NoopAsyncMetrics.INSTANCE ?
+                    a -> enforce(context, AsyncStage.AUTHORIZER, () -> a.isAuthorized(context, profiles)) :
+                    a -> {
+                        final AuthorizerMetrics measuredBy = metricsFor(a);
+                        return measured(measuredBy, enforce(context, AsyncStage.AUTHORIZER,
+                                () -> measuredBy.timer.time(() -> a.isAuthorized(context, profiles))));
+                    };
+            return parallel ? shortCircuitedInParallel(authorizers, evaluation, false) :
+                    shortCircuitedFuture(authorizers, evaluation, false);
         } else {
             return CompletableFuture.completedFuture(true);
         }
     }
 
+    private AuthorizerMetrics metricsFor(final AsyncAuthorizer authorizer) {
+        final String tagValue = tagValueFor(authorizer);
+        // get first, as computeIfAbsent locks even when the entry is already present
+        final AuthorizerMetrics existing = authorizerMetrics.get(tagValue);
+        return existing != null ? existing : authorizerMetrics.computeIfAbsent(tagValue,
+                t -> new AuthorizerMetrics(metrics.timer(AUTHORIZER, AUTHORIZER_TAG, t),
+                        metrics.counter(AUTHORIZER_DENIED, AUTHORIZER_TAG, t)));
+    }
+
+    private static CompletableFuture<Boolean> measured(final AuthorizerMetrics measuredBy, final CompletableFuture<Boolean> result) {
+        result.thenAccept(authorized -> {
+            if (Boolean.FALSE.equals(authorized)) {
+                measuredBy.denied.increment();
+            }
+        });
+        return result;
+    }
+
+    private static final class AuthorizerMetrics {
+
+        private final AsyncTimer timer;
+        private final AsyncCounter denied;
+
+        private AuthorizerMetrics(final AsyncTimer timer, final AsyncCounter denied) {
+            this.timer = timer;
+            this.denied = denied;
+        }
+    }
+
 }
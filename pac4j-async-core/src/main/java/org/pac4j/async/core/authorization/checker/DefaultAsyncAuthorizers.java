@@ -0,0 +1,107 @@
+package org.pac4j.async.core.authorization.checker;
+
+import org.pac4j.async.core.authorization.authorizer.AsyncAuthorizer;
+import org.pac4j.async.core.authorization.authorizer.NamedAsyncAuthorizer;
+import org.pac4j.async.core.authorization.authorizer.csrf.AsyncCsrfAuthorizer;
+import org.pac4j.async.core.authorization.authorizer.csrf.AsyncCsrfTokenGeneratorAuthorizer;
+import org.pac4j.async.core.authorization.authorizer.csrf.DefaultAsyncCsrfTokenGenerator;
+import org.pac4j.core.authorization.authorizer.*;
+import org.pac4j.core.context.HttpConstants;
+import org.pac4j.core.profile.CommonProfile;
+
+import java.util.*;
+
+import static org.pac4j.async.core.authorization.authorizer.AsyncAuthorizer.fromNonBlockingAuthorizer;
+
+/**
+ * The built-in authorizers which can be referred to by name without being defined in the configuration, keyed on
+ * their normalised (trimmed, lower case) names. Some names (securityheaders, csrf) stand for more than one authorizer.
+ * Each is also available named, under the name which stands for it alone.
+ */
+public final class DefaultAsyncAuthorizers {
+
+    private static final CorsAuthorizer SYNC_CORS_AUTHORIZER = new CorsAuthorizer();
+
+    final static AsyncAuthorizer<CommonProfile> STRICT_TRANSPORT_SECURITY_HEADER = fromNonBlockingAuthorizer(new StrictTransportSecurityHeader());
+    final static AsyncAuthorizer<CommonProfile> X_CONTENT_TYPE_OPTIONS_HEADER = fromNonBlockingAuthorizer(new XContentTypeOptionsHeader());
+    final static AsyncAuthorizer<CommonProfile> X_FRAME_OPTIONS_HEADER = fromNonBlockingAuthorizer(new XFrameOptionsHeader());
+    final static AsyncAuthorizer<CommonProfile> XSS_PROTECTION_HEADER = fromNonBlockingAuthorizer(new XSSProtectionHeader());
+    final static AsyncAuthorizer<CommonProfile> CACHE_CONTROL_HEADER = fromNonBlockingAuthorizer(new CacheControlHeader());
+    final static AsyncAuthorizer<CommonProfile> CSRF_AUTHORIZER = new AsyncCsrfAuthorizer();
+    final static AsyncAuthorizer<CommonProfile> CSRF_TOKEN_GENERATOR_AUTHORIZER = new AsyncCsrfTokenGeneratorAuthorizer(new DefaultAsyncCsrfTokenGenerator());
+    final static AsyncAuthorizer<CommonProfile> CORS_AUTHORIZER = fromNonBlockingAuthorizer(SYNC_CORS_AUTHORIZER);
+    final static AsyncAuthorizer<CommonProfile> IS_ANONYMOUS_AUTHORIZER = fromNonBlockingAuthorizer(new IsAnonymousAuthorizer());
+    final static AsyncAuthorizer<CommonProfile> IS_AUTHENTICATED_AUTHORIZER = fromNonBlockingAuthorizer(new IsAuthenticatedAuthorizer());
+    final static AsyncAuthorizer<CommonProfile> IS_FULLY_AUTHENTICATED_AUTHORIZER = fromNonBlockingAuthorizer(new IsFullyAuthenticatedAuthorizer());
+    final static AsyncAuthorizer<CommonProfile> IS_REMEMBERED_AUTHORIZER = fromNonBlockingAuthorizer(new IsRememberedAuthorizer());
+
+    private static final Map<String, List<AsyncAuthorizer>> BY_NAME;
+    private static final Map<String, List<AsyncAuthorizer>> NAMED_BY_NAME;
+
+    // Configure underlying authorizer as we want it to behave
+    static {
+        SYNC_CORS_AUTHORIZER.setAllowOrigin("*");
+        SYNC_CORS_AUTHORIZER.setAllowCredentials(true);
+        final Set<HttpConstants.HTTP_METHOD> methods = new HashSet<>();
+        methods.add(HttpConstants.HTTP_METHOD.GET);
+        methods.add(HttpConstants.HTTP_METHOD.PUT);
+        methods.add(HttpConstants.HTTP_METHOD.POST);
+        methods.add(HttpConstants.HTTP_METHOD.DELETE);
+        methods.add(HttpConstants.HTTP_METHOD.OPTIONS);
+        SYNC_CORS_AUTHORIZER.setAllowMethods(methods);
+    }
+
+    static {
+        final Map<String, List<AsyncAuthorizer>> byName = new HashMap<>();
+        byName.put("hsts", list(STRICT_TRANSPORT_SECURITY_HEADER));
+        byName.put("nosniff", list(X_CONTENT_TYPE_OPTIONS_HEADER));
+        byName.put("noframe", list(X_FRAME_OPTIONS_HEADER));
+        byName.put("xssprotection", list(XSS_PROTECTION_HEADER));
+        byName.put("nocache", list(CACHE_CONTROL_HEADER));
+        byName.put("securityheaders", list(CACHE_CONTROL_HEADER, X_CONTENT_TYPE_OPTIONS_HEADER,
+                STRICT_TRANSPORT_SECURITY_HEADER, X_FRAME_OPTIONS_HEADER, XSS_PROTECTION_HEADER));
+        byName.put("csrftoken", list(CSRF_TOKEN_GENERATOR_AUTHORIZER));
+        byName.put("csrfcheck", list(CSRF_AUTHORIZER));
+        byName.put("csrf", list(CSRF_TOKEN_GENERATOR_AUTHORIZER, CSRF_AUTHORIZER));
+        byName.put("allowajaxrequests", list(CORS_AUTHORIZER));
+        byName.put("isanonymous", list(IS_ANONYMOUS_AUTHORIZER));
+        byName.put("isauthenticated", list(IS_AUTHENTICATED_AUTHORIZER));
+        byName.put("isfullyauthenticated", list(IS_FULLY_AUTHENTICATED_AUTHORIZER));
+        byName.put("isremembered", list(IS_REMEMBERED_AUTHORIZER));
+        BY_NAME = Collections.unmodifiableMap(byName);
+
+        // every built-in has a name standing for it alone, which names it within those standing for several
+        final Map<AsyncAuthorizer, NamedAsyncAuthorizer> named = new IdentityHashMap<>();
+        byName.forEach((name, authorizers) -> {
+            if (authorizers.size() == 1) {
+                named.put(authorizers.get(0), new NamedAsyncAuthorizer<>(name, authorizers.get(0)));
+            }
+        });
+        final Map<String, List<AsyncAuthorizer>> namedByName = new HashMap<>();
+        byName.forEach((name, authorizers) -> namedByName.put(name, list(authorizers.stream()
+                .map(named::get)
+                .toArray(AsyncAuthorizer[]::new))));
+        NAMED_BY_NAME = Collections.unmodifiableMap(namedByName);
+    }
+
+    private DefaultAsyncAuthorizers() {
+    }
+
+    /**
+     * @return the built-in authorizers, keyed on normalised name
+     */
+    public static Map<String, List<AsyncAuthorizer>> byNormalisedName() {
+        return BY_NAME;
+    }
+
+    /**
+     * @return the built-in authorizers, each as a {@link NamedAsyncAuthorizer}, keyed on normalised name
+     */
+    public static Map<String, List<AsyncAuthorizer>> namedByNormalisedName() {
+        return NAMED_BY_NAME;
+    }
+
+    private static List<AsyncAuthorizer> list(final AsyncAuthorizer... authorizers) {
+        return Collections.unmodifiableList(Arrays.asList(authorizers));
+    }
+}
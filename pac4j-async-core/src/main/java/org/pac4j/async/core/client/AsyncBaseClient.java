@@ -5,7 +5,10 @@ import org.pac4j.async.core.authenticate.failure.recorder.RecordFailedAuthentica
 import org.pac4j.async.core.authorization.generator.AsyncAuthorizationGenerator;
 import org.pac4j.async.core.context.AsyncWebContext;
 import org.pac4j.async.core.credentials.authenticator.AsyncAuthenticator;
+import org.pac4j.async.core.deadline.AsyncStage;
 import org.pac4j.async.core.credentials.extractor.AsyncCredentialsExtractor;
+import org.pac4j.async.core.metrics.AsyncMetrics;
+import org.pac4j.async.core.metrics.NoopAsyncMetrics;
 import org.pac4j.async.core.profile.creator.AsyncProfileCreator;
 import org.pac4j.core.client.Clients;
 import org.pac4j.core.client.CommonBaseClient;
@@ -23,7 +26,14 @@ import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 import static java.util.stream.Collectors.toList;
+import static org.pac4j.async.core.deadline.AsyncDeadlines.enforce;
+import static org.pac4j.async.core.deadline.AsyncDeadlines.isTimeout;
 import static org.pac4j.async.core.future.FutureUtils.combineFuturesToList;
+import static org.pac4j.async.core.metrics.AsyncMetricNames.CLIENT_CREDENTIALS;
+import static org.pac4j.async.core.metrics.AsyncMetricNames.CLIENT_NO_CREDENTIALS;
+import static org.pac4j.async.core.metrics.AsyncMetricNames.CLIENT_PROFILE;
+import static org.pac4j.async.core.metrics.AsyncMetrics.CLIENT_TAG;
+import static org.pac4j.core.util.CommonHelper.assertNotNull;
 
 /**
  *
@@ -37,6 +47,7 @@ public abstract class AsyncBaseClient<C extends Credentials, U extends CommonPro
     private AsyncCredentialsExtractor<C> credentialsExtractor;
     private AsyncAuthenticator<C> authenticator;
     private AsyncProfileCreator<C, U> profileCreator;
+    private AsyncMetrics metrics = NoopAsyncMetrics.INSTANCE;
 
     @Override
     public CompletableFuture<Optional<U>> getUserProfileFuture(final C credentials, final AsyncWebContext context) {
@@ -47,11 +58,12 @@ public abstract class AsyncBaseClient<C extends Credentials, U extends CommonPro
             return CompletableFuture.completedFuture(Optional.empty());
         }
 
+        final long startNanos = System.nanoTime();
         final CompletableFuture<Optional<U>> profileFuture = retrieveUserProfileFuture(credentials, context);
 
         // We need to end up with a CompletableFuture of Optional<P>
 
-        return profileFuture.thenCompose(profileOption -> {
+        final CompletableFuture<Optional<U>> generatedProfileFuture = profileFuture.thenCompose(profileOption -> {
             final Optional<CompletableFuture<Optional<U>>> optionalCompletableFuture = profileOption.map(p -> {
                 p.setClientName(getName());
                 // Frustratingly because we want to use the same set of futures twice (to ensure they will have
@@ -59,10 +71,10 @@ public abstract class AsyncBaseClient<C extends Credentials, U extends CommonPro
                 // the stream, collect, then map to the result
                 final List<CompletableFuture<Consumer<U>>> profileModifierFutures = authorizationGenerators
                         .stream()
-                        .map(g -> g.generate(context, p))
+                        .map(g -> enforce(context, AsyncStage.AUTHORIZATION_GENERATOR, () -> g.generate(context, p)))
                         .collect(toList());
                 return combineFuturesToList(profileModifierFutures).thenApply(l -> {
-                            context.getExecutionContext().runOnContext(() -> l.forEach(c -> c.accept(p)));
+                            context.getExecutionContext().executeOnContext(() -> l.forEach(c -> c.accept(p)));
                             return Optional.of(p);
                         });
             });
@@ -70,6 +82,7 @@ public abstract class AsyncBaseClient<C extends Credentials, U extends CommonPro
                     // Unwrap, substituting the empty future if we don't get anything, I think (to review)
                     orElse(CompletableFuture.completedFuture(Optional.empty()));
         });
+        return metrics.timer(CLIENT_PROFILE, CLIENT_TAG, getName()).timeFrom(startNanos, generatedProfileFuture);
 
     }
 
@@ -83,13 +96,17 @@ public abstract class AsyncBaseClient<C extends Credentials, U extends CommonPro
      * rather than the future wrapper
      */
     protected CompletableFuture<Optional<U>> retrieveUserProfileFuture(final C credentials, final AsyncWebContext context) {
-        final CompletableFuture<U> profileFuture = this.profileCreator.create(credentials, context);
-        return profileFuture.handle((profile, failure) -> {
+        final CompletableFuture<U> profileFuture = enforce(context, AsyncStage.PROFILE_CREATOR,
+                () -> this.profileCreator.create(credentials, context));
+        return profileFuture.handle(ExceptionSoftener.softenBiFunction((profile, failure) -> {
             if (failure == null) {
                 logger.debug("profile: {}", profile);
+            } else if (isTimeout(failure)) {
+                // Running out of time is not the same as finding no profile
+                throw failure;
             }
             return Optional.ofNullable(profile);
-        });
+        }));
     }
 
 
@@ -110,9 +127,10 @@ public abstract class AsyncBaseClient<C extends Credentials, U extends CommonPro
     @Override
     public final CompletableFuture<C> getCredentials(AsyncWebContext context) {
         init(context);
-        return retrieveCredentials(context)
+        return metrics.timer(CLIENT_CREDENTIALS, CLIENT_TAG, getName()).time(() -> retrieveCredentials(context))
                 .thenCompose(c -> {
                     if (c == null) {
+                        metrics.counter(CLIENT_NO_CREDENTIALS, CLIENT_TAG, getName()).increment();
                         return authFailureRecorder().recordFailedAuthentication(this, c, context);
                     } else {
                         return authFailureRecorder().clearFailedAuthentication(this, c, context);
@@ -120,6 +138,21 @@ public abstract class AsyncBaseClient<C extends Credentials, U extends CommonPro
                 });
     }
 
+    public AsyncMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Set the metrics into which this client reports. Where not set, the client reports into the metrics of the
+     * configuration it belongs to.
+     *
+     * @param metrics the metrics
+     */
+    public void setMetrics(final AsyncMetrics metrics) {
+        assertNotNull("metrics", metrics);
+        this.metrics = metrics;
+    }
+
     public AsyncCredentialsExtractor<C> getCredentialsExtractor() {
         return credentialsExtractor;
     }
@@ -170,10 +203,11 @@ public abstract class AsyncBaseClient<C extends Credentials, U extends CommonPro
      * @throws HttpAction whether an additional HTTP action is required
      */
     protected CompletableFuture<C> retrieveCredentials(final AsyncWebContext context) throws HttpAction {
-        return this.credentialsExtractor.extract(context)
+        return enforce(context, AsyncStage.CREDENTIALS_EXTRACTION, () -> this.credentialsExtractor.extract(context))
                 .thenCompose(creds -> {
                     return Optional.ofNullable(creds)
-                            .map(c -> this.authenticator.validate(creds, context).thenApply(v -> creds))
+                            .map(c -> enforce(context, AsyncStage.AUTHENTICATOR, () -> this.authenticator.validate(creds, context))
+                                    .thenApply(v -> creds))
                             .orElse(CompletableFuture.completedFuture(creds)); // The orElse leaves any null returns
                 })
                 // Now translate a CredentialsException to null
@@ -20,6 +20,7 @@ import org.pac4j.core.profile.CommonProfile;
 import org.pac4j.core.redirect.RedirectAction;
 import org.pac4j.core.util.CommonHelper;
 
+import java.util.Collections;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -56,8 +57,9 @@ public abstract class AsyncIndirectClient<C extends Credentials, U extends Commo
         return authFailureRecorder().isFailedAuthenticationPresent(this, context)
                 .thenCompose(authAttempted -> {
                    if (authAttempted) {
-                       return authFailureRecorder().clearFailedAuthentication(this, null, context)
-                               .thenCompose(v -> cleanRequestedUrl(context))
+                       // Clear the failed authentication record and the requested url together
+                       return authFailureRecorder().clearFailedAuthenticationAndWrite(this,
+                               Collections.singletonMap(Pac4jConstants.REQUESTED_URL, ""), context)
                                .thenApply(v -> {
                                    throw HttpAction.unauthorized("authentication already tried -> forbidden", context, null);
                                });
@@ -2,20 +2,80 @@ package org.pac4j.async.core.config;
 
 import org.pac4j.async.core.authorization.authorizer.AsyncAuthorizer;
 import org.pac4j.async.core.authorization.generator.AsyncAuthorizationGenerator;
+import org.pac4j.async.core.client.AsyncBaseClient;
 import org.pac4j.async.core.client.AsyncClient;
 import org.pac4j.async.core.context.AsyncWebContext;
 import org.pac4j.async.core.logic.AsyncCallbackLogic;
 import org.pac4j.async.core.logic.AsyncLogoutLogic;
 import org.pac4j.async.core.logic.AsyncSecurityLogic;
 import org.pac4j.async.core.matching.AsyncMatcher;
+import org.pac4j.async.core.metrics.AsyncMetrics;
+import org.pac4j.async.core.metrics.NoopAsyncMetrics;
 import org.pac4j.async.core.profile.AsyncProfileManager;
 import org.pac4j.async.core.session.AsyncSessionStore;
+import org.pac4j.core.client.Clients;
 import org.pac4j.core.config.Config;
 import org.pac4j.core.credentials.Credentials;
 import org.pac4j.core.profile.CommonProfile;
 
+import static org.pac4j.core.util.CommonHelper.assertNotNull;
+
 /**
  *
  */
 public class AsyncConfig<R, U extends CommonProfile, C extends AsyncWebContext> extends Config<AsyncClient<? extends Credentials, ? extends U>, C, AsyncAuthorizer<CommonProfile>, AsyncMatcher, AsyncSecurityLogic<R, C>, AsyncCallbackLogic<R, U, C>, AsyncLogoutLogic<R, C>, AsyncSessionStore, AsyncProfileManager<U, C>, U, AsyncAuthorizationGenerator<U>> {
+
+    private AsyncMetrics metrics = NoopAsyncMetrics.INSTANCE;
+
+    private boolean sessionUnitOfWork = false;
+
+    @Override
+    public void setClients(final Clients clients) {
+        super.setClients(clients);
+        shareMetricsWithClients();
+    }
+
+    public AsyncMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Set the metrics into which the logic classes, and any clients which do not have metrics of their own, report.
+     * The logic classes take the metrics from the configuration when they are created, so these must be set before
+     * any of them is.
+     *
+     * @param metrics the metrics
+     */
+    public void setMetrics(final AsyncMetrics metrics) {
+        assertNotNull("metrics", metrics);
+        this.metrics = metrics;
+        shareMetricsWithClients();
+    }
+
+    public boolean isSessionUnitOfWork() {
+        return sessionUnitOfWork;
+    }
+
+    /**
+     * Set whether the logic classes should handle each request's session reads and writes as an
+     * {@link org.pac4j.async.core.session.AsyncSessionUnitOfWork}, reading each key at most once and writing the
+     * changed keys in one batch before the response is sent. Worthwhile where the session store is remote.
+     *
+     * @param sessionUnitOfWork whether to use a session unit of work per request
+     */
+    public void setSessionUnitOfWork(final boolean sessionUnitOfWork) {
+        this.sessionUnitOfWork = sessionUnitOfWork;
+    }
+
+    private void shareMetricsWithClients() {
+        // may be called from the superclass constructors, before metrics has been initialised
+        if (metrics == null || getClients() == null || getClients().getClients() == null) {
+            return;
+        }
+        for (final Object client : getClients().getClients()) {
+            if (client instanceof AsyncBaseClient && ((AsyncBaseClient) client).getMetrics() == NoopAsyncMetrics.INSTANCE) {
+                ((AsyncBaseClient) client).setMetrics(metrics);
+            }
+        }
+    }
 }
@@ -0,0 +1,235 @@
+package org.pac4j.async.core.config;
+
+import org.pac4j.async.core.authorization.authorizer.AsyncAuthorizer;
+import org.pac4j.async.core.authorization.authorizer.NamedAsyncAuthorizer;
+import org.pac4j.async.core.authorization.checker.DefaultAsyncAuthorizers;
+import org.pac4j.async.core.matching.AsyncMatcher;
+import org.pac4j.core.context.Pac4jConstants;
+import org.pac4j.core.exception.TechnicalException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+import static org.pac4j.core.util.CommonHelper.assertNotNull;
+import static org.pac4j.core.util.CommonHelper.isNotBlank;
+
+/**
+ * Immutable index of the authorizers and matchers which can be referred to by name, built once from the
+ * configuration. Names are normalised (trimmed and lower cased) when the registry is built, so that resolving a name
+ * is a single hash lookup rather than a case-insensitive scan of the configured names.
+ *
+ * The built-in authorizers are indexed alongside those from the configuration and, as before, take precedence over a
+ * configured authorizer of the same name. Two configured names which only differ by case or surrounding whitespace
+ * are rejected when the registry is built, since there is no way to tell which one is meant.
+ *
+ * Authorizers can also be resolved wrapped with the name they were configured under, for whatever needs to tell them
+ * apart, such as the metrics of the authorization checker.
+ */
+public final class AsyncConfigRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncConfigRegistry.class);
+
+    private final int configVersion;
+    private final Map<String, List<AsyncAuthorizer>> authorizers;
+    private final Map<String, List<AsyncAuthorizer>> namedAuthorizers;
+    private final Map<String, AsyncMatcher> matchers;
+
+    public AsyncConfigRegistry(final Map<String, ? extends AsyncAuthorizer> configAuthorizers,
+                               final Map<String, ? extends AsyncMatcher> configMatchers) {
+        this(0, configAuthorizers, configMatchers);
+    }
+
+    public AsyncConfigRegistry(final int configVersion,
+                               final Map<String, ? extends AsyncAuthorizer> configAuthorizers,
+                               final Map<String, ? extends AsyncMatcher> configMatchers) {
+        this.configVersion = configVersion;
+
+        final Map<String, List<AsyncAuthorizer>> authorizersByName = new HashMap<>(DefaultAsyncAuthorizers.byNormalisedName());
+        final Map<String, List<AsyncAuthorizer>> namedAuthorizersByName = new HashMap<>(DefaultAsyncAuthorizers.namedByNormalisedName());
+        final Set<String> configuredAuthorizerNames = new HashSet<>();
+        if (configAuthorizers != null) {
+            for (final Map.Entry<String, ? extends AsyncAuthorizer> entry : configAuthorizers.entrySet()) {
+                final String name = normalise(entry.getKey());
+                assertNotNull("authorizersMap['" + entry.getKey() + "']", entry.getValue());
+                if (!configuredAuthorizerNames.add(name)) {
+                    throw new TechnicalException("Duplicate authorizer name in configuration: " + entry.getKey());
+                }
+                if (authorizersByName.containsKey(name)) {
+                    logger.warn("Configured authorizer {} is hidden by the built-in authorizer of the same name", entry.getKey());
+                } else {
+                    authorizersByName.put(name, Collections.singletonList(entry.getValue()));
+                    namedAuthorizersByName.put(name, Collections.singletonList(
+                            new NamedAsyncAuthorizer<>(entry.getKey().trim(), entry.getValue())));
+                }
+            }
+        }
+        this.authorizers = authorizersByName;
+        this.namedAuthorizers = namedAuthorizersByName;
+
+        final Map<String, AsyncMatcher> matchersByName = new HashMap<>();
+        if (configMatchers != null) {
+            for (final Map.Entry<String, ? extends AsyncMatcher> entry : configMatchers.entrySet()) {
+                assertNotNull("matchersMap['" + entry.getKey() + "']", entry.getValue());
+                if (matchersByName.put(normalise(entry.getKey()), entry.getValue()) != null) {
+                    throw new TechnicalException("Duplicate matcher name in configuration: " + entry.getKey());
+                }
+            }
+        }
+        this.matchers = matchersByName;
+    }
+
+    /**
+     * Build the registry for the current state of a configuration.
+     *
+     * @param config the configuration
+     * @return the registry
+     */
+    public static AsyncConfigRegistry from(final AsyncConfig<?, ?, ?> config) {
+        assertNotNull("config", config);
+        return new AsyncConfigRegistry(config.getVersion(), config.getAuthorizers(), config.getMatchers());
+    }
+
+    /**
+     * @return the version of the configuration this registry was built from
+     */
+    public int getConfigVersion() {
+        return configVersion;
+    }
+
+    /**
+     * Resolve a list of authorizer names into the authorizers they refer to, in order.
+     *
+     * @param authorizerNames the authorizer names, separated by {@link Pac4jConstants#ELEMENT_SEPRATOR}
+     * @return the authorizers, empty if no names were supplied
+     * @throws TechnicalException if any of the names is not known
+     */
+    public List<AsyncAuthorizer> resolveAuthorizers(final String authorizerNames) {
+        return resolveAuthorizers(authorizers, authorizerNames);
+    }
+
+    /**
+     * As {@link #resolveAuthorizers(String)}, but with each authorizer wrapped as a {@link NamedAsyncAuthorizer}
+     * carrying the name it was configured under. Where a built-in name stands for several authorizers, each has the
+     * built-in name which stands for it alone.
+     *
+     * @param authorizerNames the authorizer names, separated by {@link Pac4jConstants#ELEMENT_SEPRATOR}
+     * @return the named authorizers, empty if no names were supplied
+     * @throws TechnicalException if any of the names is not known
+     */
+    public List<AsyncAuthorizer> resolveNamedAuthorizers(final String authorizerNames) {
+        return resolveAuthorizers(namedAuthorizers, authorizerNames);
+    }
+
+    private static List<AsyncAuthorizer> resolveAuthorizers(final Map<String, List<AsyncAuthorizer>> authorizers,
+                                                            final String authorizerNames) {
+        if (!isNotBlank(authorizerNames)) {
+            return Collections.emptyList();
+        }
+        final List<AsyncAuthorizer> result = new ArrayList<>();
+        for (final String name : authorizerNames.split(Pac4jConstants.ELEMENT_SEPRATOR)) {
+            final List<AsyncAuthorizer> resolved = authorizers.get(normalise(name));
+            // we must have an authorizer defined for this name
+            assertNotNull("authorizersMap['" + name.trim() + "']", resolved);
+            result.addAll(resolved);
+        }
+        return result;
+    }
+
+    /**
+     * Look a list of authorizer names up directly, without building a registry: each name is looked up among the
+     * built-in authorizers, then by a scan of the configured names, the first match being used. This suits lookups
+     * against a map which may change between calls, such as those of the String based authorization checker methods;
+     * names resolved repeatedly against the same configuration are better resolved by a registry built once.
+     *
+     * @param configAuthorizers the configured authorizers
+     * @param authorizerNames the authorizer names, separated by {@link Pac4jConstants#ELEMENT_SEPRATOR}
+     * @param named whether to wrap each authorizer as a {@link NamedAsyncAuthorizer}, as
+     *              {@link #resolveNamedAuthorizers(String)} does
+     * @return the authorizers, empty if no names were supplied
+     * @throws TechnicalException if any of the names is not known
+     */
+    public static List<AsyncAuthorizer> lookUpAuthorizers(final Map<String, ? extends AsyncAuthorizer> configAuthorizers,
+                                                          final String authorizerNames, final boolean named) {
+        if (!isNotBlank(authorizerNames)) {
+            return Collections.emptyList();
+        }
+        final Map<String, List<AsyncAuthorizer>> builtIns = named ? DefaultAsyncAuthorizers.namedByNormalisedName() :
+                DefaultAsyncAuthorizers.byNormalisedName();
+        final List<AsyncAuthorizer> result = new ArrayList<>();
+        for (final String name : authorizerNames.split(Pac4jConstants.ELEMENT_SEPRATOR)) {
+            final String normalisedName = normalise(name);
+            final List<AsyncAuthorizer> builtIn = builtIns.get(normalisedName);
+            if (builtIn != null) {
+                result.addAll(builtIn);
+                continue;
+            }
+            final Map.Entry<String, ? extends AsyncAuthorizer> configured = lookUp(configAuthorizers, normalisedName);
+            // we must have an authorizer defined for this name
+            assertNotNull("authorizersMap['" + name.trim() + "']", configured == null ? null : configured.getValue());
+            result.add(named ? new NamedAsyncAuthorizer<>(configured.getKey().trim(), configured.getValue()) :
+                    configured.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Look a list of matcher names up directly by a scan of the configured names, without building a registry. See
+     * {@link #lookUpAuthorizers(Map, String, boolean)}.
+     *
+     * @param configMatchers the configured matchers
+     * @param matcherNames the matcher names, separated by {@link Pac4jConstants#ELEMENT_SEPRATOR}
+     * @return the matchers, empty if no names were supplied
+     * @throws TechnicalException if any of the names is not known
+     */
+    public static List<AsyncMatcher> lookUpMatchers(final Map<String, ? extends AsyncMatcher> configMatchers,
+                                                    final String matcherNames) {
+        if (!isNotBlank(matcherNames)) {
+            return Collections.emptyList();
+        }
+        final List<AsyncMatcher> result = new ArrayList<>();
+        for (final String name : matcherNames.split(Pac4jConstants.ELEMENT_SEPRATOR)) {
+            final Map.Entry<String, ? extends AsyncMatcher> configured = lookUp(configMatchers, normalise(name));
+            // we must have a matcher defined for this name
+            assertNotNull("matchersMap['" + name.trim() + "']", configured == null ? null : configured.getValue());
+            result.add(configured.getValue());
+        }
+        return result;
+    }
+
+    private static <T> Map.Entry<String, T> lookUp(final Map<String, T> configured, final String normalisedName) {
+        if (configured != null) {
+            for (final Map.Entry<String, T> entry : configured.entrySet()) {
+                if (normalise(entry.getKey()).equals(normalisedName)) {
+                    return entry;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Resolve a list of matcher names into the matchers they refer to, in order.
+     *
+     * @param matcherNames the matcher names, separated by {@link Pac4jConstants#ELEMENT_SEPRATOR}
+     * @return the matchers, empty if no names were supplied
+     * @throws TechnicalException if any of the names is not known
+     */
+    public List<AsyncMatcher> resolveMatchers(final String matcherNames) {
+        if (!isNotBlank(matcherNames)) {
+            return Collections.emptyList();
+        }
+        final List<AsyncMatcher> result = new ArrayList<>();
+        for (final String name : matcherNames.split(Pac4jConstants.ELEMENT_SEPRATOR)) {
+            final AsyncMatcher resolved = matchers.get(normalise(name));
+            // we must have a matcher defined for this name
+            assertNotNull("matchersMap['" + name.trim() + "']", resolved);
+            result.add(resolved);
+        }
+        return result;
+    }
+
+    private static String normalise(final String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+}
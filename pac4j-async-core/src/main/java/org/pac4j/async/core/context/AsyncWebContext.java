@@ -1,15 +1,20 @@
 package org.pac4j.async.core.context;
 
 import org.pac4j.async.core.AsynchronousComputationAdapter;
+import org.pac4j.async.core.deadline.AsyncDeadline;
 import org.pac4j.async.core.execution.context.AsyncPac4jExecutionContext;
 import org.pac4j.async.core.session.AsyncSessionStore;
 import org.pac4j.core.context.WebContext;
 
+import java.util.Optional;
+
 /**
  *
  */
 public interface AsyncWebContext extends WebContext<AsyncSessionStore> {
 
+    String DEADLINE_ATTRIBUTE = "pac4jAsyncDeadline";
+
     /**
      * Get the session store.
      *
@@ -48,4 +53,36 @@ public interface AsyncWebContext extends WebContext<AsyncSessionStore> {
      * on the context.
      */
     AsynchronousComputationAdapter getAsyncComputationAdapter();
+
+    /**
+     * Set the deadline by which the security pipeline must have finished with this request. This is normally done by
+     * the framework handler when the web context is created. By default the deadline is held as a request attribute.
+     *
+     * @param deadline the deadline, or null for none
+     */
+    default void setDeadline(final AsyncDeadline deadline) {
+        setRequestAttribute(DEADLINE_ATTRIBUTE, deadline);
+    }
+
+    /**
+     * Get the deadline by which the security pipeline must have finished with this request, if one has been set.
+     *
+     * @return the deadline
+     */
+    default Optional<AsyncDeadline> getDeadline() {
+        final Object deadline = getRequestAttribute(DEADLINE_ATTRIBUTE);
+        return deadline instanceof AsyncDeadline ? Optional.of((AsyncDeadline) deadline) : Optional.empty();
+    }
+
+    /**
+     * Register an action to be run as the response is committed, just before its headers are written, so that headers
+     * and cookies reflecting everything done while handling the request can be added once at the end. Frameworks
+     * which cannot run such actions leave this unsupported, which is the default.
+     *
+     * @param action the action to run
+     * @return whether the action has been registered, and so will be run
+     */
+    default boolean onResponseCommit(final Runnable action) {
+        return false;
+    }
 }
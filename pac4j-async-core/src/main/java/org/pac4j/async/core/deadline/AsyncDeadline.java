@@ -0,0 +1,91 @@
+package org.pac4j.async.core.deadline;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.pac4j.core.util.CommonHelper.assertNotNull;
+import static org.pac4j.core.util.CommonHelper.assertTrue;
+
+/**
+ * Immutable point in time by which processing of a request must be complete, optionally with a budget for each
+ * {@link AsyncStage} of the pipeline. A stage must complete within its budget (measured from when the stage starts)
+ * and by the overall deadline, whichever comes first.
+ *
+ * Set on the web context by the framework handler, see
+ * {@link org.pac4j.async.core.context.AsyncWebContext#setDeadline(AsyncDeadline)}.
+ */
+public final class AsyncDeadline {
+
+    private final long expiresAtNanos;
+    private final Map<AsyncStage, Long> stageBudgetNanos;
+
+    private AsyncDeadline(final long expiresAtNanos, final Map<AsyncStage, Long> stageBudgetNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+        this.stageBudgetNanos = stageBudgetNanos;
+    }
+
+    /**
+     * Create a deadline the given time from now.
+     *
+     * @param duration the time allowed
+     * @param unit the unit of the time allowed
+     * @return the deadline
+     */
+    public static AsyncDeadline after(final long duration, final TimeUnit unit) {
+        assertNotNull("unit", unit);
+        return new AsyncDeadline(System.nanoTime() + unit.toNanos(duration), Collections.emptyMap());
+    }
+
+    /**
+     * Copy this deadline, giving a stage its own budget.
+     *
+     * @param stage the stage
+     * @param budget the time allowed for each execution of the stage
+     * @param unit the unit of the time allowed
+     * @return the new deadline
+     */
+    public AsyncDeadline withStageBudget(final AsyncStage stage, final long budget, final TimeUnit unit) {
+        assertNotNull("stage", stage);
+        assertNotNull("unit", unit);
+        assertTrue(budget > 0, "budget must be positive");
+        final Map<AsyncStage, Long> budgets = new EnumMap<>(AsyncStage.class);
+        budgets.putAll(stageBudgetNanos);
+        budgets.put(stage, unit.toNanos(budget));
+        return new AsyncDeadline(expiresAtNanos, Collections.unmodifiableMap(budgets));
+    }
+
+    /**
+     * @param unit the unit in which to express the time remaining
+     * @return the time remaining before the deadline, negative once it has passed
+     */
+    public long remaining(final TimeUnit unit) {
+        return unit.convert(expiresAtNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    public boolean isExpired() {
+        return expiresAtNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Determine by when (in {@link System#nanoTime()} terms) a stage starting now must complete.
+     *
+     * @param stage the stage
+     * @param nowNanos the current {@link System#nanoTime()}
+     * @return the time by which the stage must complete
+     */
+    long expiryFor(final AsyncStage stage, final long nowNanos) {
+        final Long budget = stageBudgetNanos.get(stage);
+        if (budget == null) {
+            return expiresAtNanos;
+        }
+        final long stageExpiry = nowNanos + budget;
+        return stageExpiry - expiresAtNanos < 0 ? stageExpiry : expiresAtNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncDeadline{remainingMs=" + remaining(TimeUnit.MILLISECONDS) + ", stageBudgets=" + stageBudgetNanos + "}";
+    }
+}
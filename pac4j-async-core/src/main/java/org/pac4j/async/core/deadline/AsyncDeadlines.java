@@ -0,0 +1,125 @@
+package org.pac4j.async.core.deadline;
+
+import org.pac4j.async.core.context.AsyncWebContext;
+import org.pac4j.core.exception.HttpAction;
+import org.pac4j.core.http.HttpActionAdapter;
+import org.pac4j.core.context.WebContext;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.pac4j.async.core.exception.handler.AsyncExceptionHandler.unwrapAsyncException;
+
+/**
+ * Enforcement of the deadline set on a web context for the stages of the async security pipeline. A stage which is
+ * started after the deadline has passed fails immediately, without being run. A stage which is still pending when
+ * its deadline passes fails with a timeout action (see {@link #timeoutAction(AsyncStage, WebContext)}) on the
+ * context's execution context, and the stage's own future is cancelled.
+ *
+ * Where the web context has no deadline, or a stage completes immediately (as most non-blocking stages do), the
+ * stage's own future is returned as is, so enforcement costs next to nothing.
+ */
+public final class AsyncDeadlines {
+
+    /**
+     * Status of the action with which a stage fails when it exceeds its deadline
+     */
+    public static final int GATEWAY_TIMEOUT = 504;
+
+    private AsyncDeadlines() {
+    }
+
+    /**
+     * Run a stage of the pipeline within the deadline set on the web context (if any).
+     *
+     * @param context the web context, which may be null in which case no deadline applies
+     * @param stage the stage being run
+     * @param stageSupplier supplier which starts the stage
+     * @return future which completes as the stage does, or fails with a timeout action if the deadline passes first
+     */
+    public static <T> CompletableFuture<T> enforce(final WebContext<?> context,
+                                                   final AsyncStage stage,
+                                                   final Supplier<CompletableFuture<T>> stageSupplier) {
+        final AsyncDeadline deadline = context instanceof AsyncWebContext ?
+                ((AsyncWebContext) context).getDeadline().orElse(null) : null;
+        if (deadline == null) {
+            return stageSupplier.get();
+        }
+
+        final AsyncWebContext asyncContext = (AsyncWebContext) context;
+        final long nowNanos = System.nanoTime();
+        final long remainingNanos = deadline.expiryFor(stage, nowNanos) - nowNanos;
+        if (remainingNanos <= 0) {
+            final CompletableFuture<T> timedOut = new CompletableFuture<>();
+            timedOut.completeExceptionally(timeoutAction(stage, asyncContext));
+            return timedOut;
+        }
+
+        final CompletableFuture<T> stageFuture = stageSupplier.get();
+        if (stageFuture.isDone()) {
+            return stageFuture;
+        }
+
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final DeadlineTimerWheel.Timeout timeout = DeadlineTimerWheel.shared().schedule(remainingNanos, TimeUnit.NANOSECONDS,
+                () -> asyncContext.getExecutionContext().runOnContext(() -> {
+                    if (!result.isDone()) {
+                        result.completeExceptionally(timeoutAction(stage, asyncContext));
+                        stageFuture.cancel(true);
+                    }
+                }));
+        stageFuture.whenComplete((v, t) -> {
+            timeout.cancel();
+            if (t != null) {
+                result.completeExceptionally(t);
+            } else {
+                result.complete(v);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Build the action with which a stage fails when it exceeds its deadline. This sets the response status, so must
+     * be called on the web context's execution context.
+     *
+     * @param stage the stage which exceeded its deadline
+     * @param context the web context
+     * @return the timeout action
+     */
+    public static HttpAction timeoutAction(final AsyncStage stage, final WebContext<?> context) {
+        return HttpAction.status("Deadline exceeded during " + stage, GATEWAY_TIMEOUT, context);
+    }
+
+    /**
+     * @param t a failure, possibly wrapped in a CompletionException
+     * @return whether the failure is the result of a deadline being exceeded
+     */
+    public static boolean isTimeout(final Throwable t) {
+        final Throwable unwrapped = unwrapAsyncException(t);
+        return unwrapped instanceof HttpAction && ((HttpAction) unwrapped).getCode() == GATEWAY_TIMEOUT;
+    }
+
+    /**
+     * Adapt a deadline being exceeded anywhere in a logic's pipeline into the framework's response for a timeout, so
+     * that it is handled as any other http action would be, rather than surfacing as an unexpected failure. Other
+     * failures are passed through unchanged.
+     *
+     * @param future the result of the logic
+     * @param httpActionAdapter the framework's http action adapter
+     * @param context the web context
+     * @return the result, with any timeout adapted
+     */
+    public static <R, C extends AsyncWebContext> CompletableFuture<R> adaptTimeout(final CompletableFuture<R> future,
+                                                                                  final HttpActionAdapter<R, C> httpActionAdapter,
+                                                                                  final C context) {
+        return future.exceptionally(t -> {
+            if (isTimeout(t)) {
+                return httpActionAdapter.adapt(GATEWAY_TIMEOUT, context);
+            }
+            throw t instanceof CompletionException ? (CompletionException) t : new CompletionException(t);
+        });
+    }
+}
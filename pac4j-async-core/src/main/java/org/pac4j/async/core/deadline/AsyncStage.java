@@ -0,0 +1,15 @@
+package org.pac4j.async.core.deadline;
+
+/**
+ * The stages of the async security pipeline which are bound by a request's {@link AsyncDeadline}, and which may each
+ * be given their own budget within it.
+ */
+public enum AsyncStage {
+    MATCHER,
+    SESSION_STORE,
+    CREDENTIALS_EXTRACTION,
+    AUTHENTICATOR,
+    PROFILE_CREATOR,
+    AUTHORIZATION_GENERATOR,
+    AUTHORIZER
+}
@@ -0,0 +1,181 @@
+package org.pac4j.async.core.deadline;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.pac4j.core.util.CommonHelper.assertTrue;
+
+/**
+ * Hashed timer wheel used to enforce deadlines. Deadlines are set on a great many futures, almost all of which
+ * complete well before their deadline, so rather than scheduling (and then cancelling) a task per future on a
+ * scheduled executor, timeouts are dropped into one of a ring of buckets, and a single thread advances around the ring
+ * once per tick expiring the timeouts in each bucket as it reaches them. Scheduling and cancelling are therefore
+ * constant time and lock free, at the cost of timeouts firing up to one tick late.
+ *
+ * Expiry tasks are run on the timer thread, so should do no more than hand off to the appropriate execution context.
+ */
+public final class DeadlineTimerWheel {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadlineTimerWheel.class);
+
+    private static final DeadlineTimerWheel SHARED = new DeadlineTimerWheel(10, TimeUnit.MILLISECONDS, 512);
+
+    /**
+     * Handle on a scheduled timeout, allowing it to be cancelled
+     */
+    public static final class Timeout {
+
+        private static final AtomicReferenceFieldUpdater<Timeout, Runnable> TASK =
+                AtomicReferenceFieldUpdater.newUpdater(Timeout.class, Runnable.class, "task");
+
+        private final long deadlineNanos;
+        // cleared once the timeout is cancelled or expires, so that whatever the task holds on to (typically the
+        // request it set a deadline for) is not kept reachable while the timeout waits in the wheel for its tick
+        private volatile Runnable task;
+        // only accessed from the timer thread
+        private long remainingRounds;
+
+        private Timeout(final long deadlineNanos, final Runnable task) {
+            this.deadlineNanos = deadlineNanos;
+            this.task = task;
+        }
+
+        /**
+         * Cancel the timeout, so that its task will not be run.
+         *
+         * @return whether this call cancelled the timeout
+         */
+        public boolean cancel() {
+            return take() != null;
+        }
+
+        public boolean isCancelled() {
+            return task == null;
+        }
+
+        // Returns the task if it was still to run, in which case it now never will be by anyone else
+        private Runnable take() {
+            final Runnable current = task;
+            return current != null && TASK.compareAndSet(this, current, null) ? current : null;
+        }
+    }
+
+    private final long tickNanos;
+    private final int mask;
+    // buckets are only accessed from the timer thread, new timeouts reach it via the queue
+    private final Queue<Timeout>[] wheel;
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private long startNanos;
+    private long tick;
+
+    /**
+     * @param tickDuration the resolution of the wheel
+     * @param unit the unit of the resolution
+     * @param wheelSize the number of buckets, which must be a power of two
+     */
+    @SuppressWarnings("unchecked")
+    public DeadlineTimerWheel(final long tickDuration, final TimeUnit unit, final int wheelSize) {
+        assertTrue(tickDuration > 0, "tickDuration must be positive");
+        assertTrue(wheelSize > 0 && (wheelSize & (wheelSize - 1)) == 0, "wheelSize must be a power of two");
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.mask = wheelSize - 1;
+        this.wheel = new Queue[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * @return the timer wheel shared by all deadlines in the JVM
+     */
+    public static DeadlineTimerWheel shared() {
+        return SHARED;
+    }
+
+    /**
+     * Schedule a task to run once a delay has passed, unless cancelled first.
+     *
+     * @param delay the delay
+     * @param unit the unit of the delay
+     * @param task the task to run
+     * @return the timeout, which can be used to cancel the task
+     */
+    public Timeout schedule(final long delay, final TimeUnit unit, final Runnable task) {
+        start();
+        final Timeout timeout = new Timeout(System.nanoTime() + unit.toNanos(delay), task);
+        scheduled.add(timeout);
+        return timeout;
+    }
+
+    private void start() {
+        if (!started.get() && started.compareAndSet(false, true)) {
+            // written before the thread is started, so safely visible to it
+            startNanos = System.nanoTime();
+            final Thread worker = new Thread(this::run, "pac4j-async-deadline-timer");
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            waitForNextTick();
+            transferScheduledTimeouts();
+            expireTimeouts(wheel[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    private void waitForNextTick() {
+        final long tickEndNanos = startNanos + (tick + 1) * tickNanos;
+        long remaining;
+        while ((remaining = tickEndNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(this, remaining);
+        }
+    }
+
+    private void transferScheduledTimeouts() {
+        Timeout timeout;
+        while ((timeout = scheduled.poll()) != null) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            // the tick at whose end the deadline will have passed, or the current one if it already has
+            final long expiryTick = Math.max((timeout.deadlineNanos - startNanos) / tickNanos, tick);
+            timeout.remainingRounds = (expiryTick - tick) / wheel.length;
+            wheel[(int) (expiryTick & mask)].add(timeout);
+        }
+    }
+
+    private void expireTimeouts(final Queue<Timeout> bucket) {
+        final Iterator<Timeout> timeouts = bucket.iterator();
+        while (timeouts.hasNext()) {
+            final Timeout timeout = timeouts.next();
+            if (timeout.isCancelled()) {
+                timeouts.remove();
+            } else if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+            } else {
+                timeouts.remove();
+                final Runnable task = timeout.take();
+                if (task != null) {
+                    try {
+                        task.run();
+                    } catch (Throwable t) {
+                        logger.warn("Deadline expiry task failed", t);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -13,6 +13,8 @@ public class DefaultAsyncExceptionHandler<T> implements AsyncExceptionHandler<T>
     public CompletableFuture<T> applyExceptionHandling(CompletableFuture<T> future, AsyncWebContext webContext) {
         return future.handle((v, t) -> {
             if (t != null) {
+                // Always scheduled, even when already on the context, as the exception has to be thrown out to the
+                // context rather than into the future being handled
                 webContext.getExecutionContext().runOnContext(ExceptionSoftener.softenRunnable(() -> {
                     throw t;
                 }));
@@ -12,4 +12,29 @@ public interface AsyncPac4jExecutionContext {
 
     void runOnContext(Runnable operation);
 
+    /**
+     * Whether the calling thread is already running on this context, in which case there is no need to schedule work
+     * onto it. Implementations which cannot tell should leave this returning false, so that work is always scheduled.
+     *
+     * @return true if the caller is already running on this context
+     */
+    default boolean isOnContext() {
+        return false;
+    }
+
+    /**
+     * Run the operation on this context, running it straight away if the caller is already on the context and
+     * scheduling it via runOnContext otherwise. Note that when run inline, the operation runs before any work already
+     * queued on the context, and any exception it throws goes to the caller rather than to the context.
+     *
+     * @param operation the operation to run
+     */
+    default void executeOnContext(final Runnable operation) {
+        if (isOnContext()) {
+            operation.run();
+        } else {
+            runOnContext(operation);
+        }
+    }
+
 }
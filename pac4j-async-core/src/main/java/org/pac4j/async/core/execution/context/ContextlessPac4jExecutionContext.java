@@ -11,4 +11,9 @@ public class ContextlessPac4jExecutionContext implements AsyncPac4jExecutionCont
     public void runOnContext(Runnable operation) {
         operation.run();
     }
+
+    @Override
+    public boolean isOnContext() {
+        return true;
+    }
 }
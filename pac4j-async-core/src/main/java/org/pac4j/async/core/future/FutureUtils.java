@@ -3,9 +3,14 @@ package org.pac4j.async.core.future;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
@@ -74,16 +79,220 @@ public class FutureUtils {
      * @return completable future representing the combined result above
      */
     public static CompletableFuture<Boolean> allInSequence(final Stream<Supplier<CompletableFuture<Boolean>>> futureSuppliers) {
-        return futureSuppliers.reduce(completedFuture(Boolean.FALSE),
-                (f, a) -> f.thenCompose(b1 -> a.get().thenCompose(b2 -> CompletableFuture.completedFuture(b1 || b2))),
-                (bf1, bf2) -> bf1.thenCompose(b1 -> bf2.thenCompose(b2 -> CompletableFuture.completedFuture(b1 || b2))));
+        return allInSequenceFrom(futureSuppliers.iterator(), Supplier::get, false);
     }
 
+    /**
+     * As {@link #allInSequence(Stream)}, but evaluating each of a list of items in turn, which saves building a stream
+     * and a supplier per item
+     * @param items the items to evaluate
+     * @param evaluation the (possibly asynchronous) evaluation to apply to each item
+     * @return completable future which completes with true if any evaluation completed with true, otherwise false
+     */
+    public static <T> CompletableFuture<Boolean> allInSequence(final List<T> items,
+                                                               final Function<? super T, CompletableFuture<Boolean>> evaluation) {
+        return allInSequenceFrom(items.iterator(), evaluation, false);
+    }
+
+    /**
+     * Execute the computations in the stream in sequence until one completes with the fallback value. Return a
+     * completable future which completes with the fallback value if any computation did so, otherwise with the result
+     * of the last computation (the negation of the fallback value if there were none)
+     * @param futureSuppliers suppliers of the computations to execute
+     * @param fallbackOn the value on which to stop evaluating further computations
+     * @return completable future representing the combined result above
+     */
     public static CompletableFuture<Boolean> shortCircuitedFuture(final Stream<Supplier<CompletableFuture<Boolean>>> futureSuppliers,
                                                                   final Boolean fallbackOn) {
-        return futureSuppliers.reduce(completedFuture(!fallbackOn),
-                (f, a) -> f.thenCompose(b -> (b != fallbackOn) ? a.get() : completedFuture(fallbackOn)),
-                (bf1, bf2) -> bf1.thenCompose(b  -> (b != fallbackOn) ? bf2 : CompletableFuture.completedFuture(fallbackOn)));
+        return shortCircuitFrom(futureSuppliers.iterator(), Supplier::get, fallbackOn, null);
+    }
+
+    /**
+     * As {@link #shortCircuitedFuture(Stream, Boolean)}, but evaluating each of a list of items in turn, which saves
+     * building a stream and a supplier per item
+     * @param items the items to evaluate
+     * @param evaluation the (possibly asynchronous) evaluation to apply to each item
+     * @param fallbackOn the value on which to stop evaluating further items
+     * @return completable future representing the combined result
+     */
+    public static <T> CompletableFuture<Boolean> shortCircuitedFuture(final List<T> items,
+                                                                      final Function<? super T, CompletableFuture<Boolean>> evaluation,
+                                                                      final Boolean fallbackOn) {
+        return shortCircuitFrom(items.iterator(), evaluation, fallbackOn, null);
+    }
+
+    /**
+     * Start evaluating every item of a list at once. Return a completable future which completes with the fallback
+     * value as soon as an evaluation does so (or exceptionally as soon as an evaluation fails), and every evaluation
+     * before it in list order has completed with neither; otherwise with the negation of the fallback value once all
+     * evaluations have completed. Once the result is known any evaluations still running are cancelled.
+     *
+     * Evaluations are resolved in list order, as by {@link #shortCircuitedFuture(List, Function, Boolean)}, so the
+     * result is always the same as that of evaluating in sequence, whichever evaluation happens to finish first, but
+     * latency is that of the slowest evaluation needed to decide it rather than the sum of all of them.
+     *
+     * @param items the items to evaluate
+     * @param evaluation the (possibly asynchronous) evaluation to apply to each item
+     * @param fallbackOn the value which decides the result once an evaluation completes with it
+     * @return completable future representing the combined result
+     */
+    public static <T> CompletableFuture<Boolean> shortCircuitedInParallel(final List<T> items,
+                                                                          final Function<? super T, CompletableFuture<Boolean>> evaluation,
+                                                                          final Boolean fallbackOn) {
+        if (items.isEmpty()) {
+            return completedFuture(!fallbackOn);
+        }
+        final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        final InOrderResolution resolution = new InOrderResolution(items.size(), fallbackOn, result);
+        for (final T item : items) {
+            if (result.isDone()) {
+                // decided by evaluations which completed immediately, so no point starting any more
+                break;
+            }
+            resolution.started(evaluate(evaluation, item));
+        }
+        result.whenComplete((b, t) -> resolution.cancelAll());
+        return result;
+    }
+
+    /**
+     * Resolves evaluations started in parallel in the order they were started, looking at each in turn only once
+     * all of those before it have completed without deciding the result.
+     */
+    private static final class InOrderResolution {
+
+        private final CompletableFuture<Boolean>[] futures;
+        private final Boolean fallbackOn;
+        private final CompletableFuture<Boolean> result;
+        // Guarded by this
+        private int startedCount = 0;
+        private int nextToResolve = 0;
+        // Set by the one call which decides the result, after which there is nothing left to resolve
+        private boolean resolved = false;
+
+        @SuppressWarnings("unchecked")
+        private InOrderResolution(final int size, final Boolean fallbackOn, final CompletableFuture<Boolean> result) {
+            this.futures = new CompletableFuture[size];
+            this.fallbackOn = fallbackOn;
+            this.result = result;
+        }
+
+        private void started(final CompletableFuture<Boolean> future) {
+            synchronized (this) {
+                futures[startedCount++] = future;
+            }
+            future.whenComplete((b, t) -> resolve());
+        }
+
+        private void resolve() {
+            Throwable failure = null;
+            Boolean decided = null;
+            synchronized (this) {
+                if (resolved) {
+                    return;
+                }
+                while (nextToResolve < startedCount && futures[nextToResolve].isDone()) {
+                    final CompletableFuture<Boolean> next = futures[nextToResolve++];
+                    if (next.isCompletedExceptionally()) {
+                        failure = failureOf(next);
+                        break;
+                    }
+                    if (fallbackOn.equals(next.join())) {
+                        decided = fallbackOn;
+                        break;
+                    }
+                }
+                if (failure == null && decided == null && nextToResolve == futures.length) {
+                    decided = !fallbackOn;
+                }
+                resolved = failure != null || decided != null;
+            }
+            // Completed outside the lock, as completing runs whatever is chained onto the result
+            if (failure != null) {
+                result.completeExceptionally(failure instanceof CompletionException ? failure : new CompletionException(failure));
+            } else if (decided != null) {
+                result.complete(decided);
+            }
+        }
+
+        private void cancelAll() {
+            final List<CompletableFuture<Boolean>> started = new ArrayList<>(futures.length);
+            synchronized (this) {
+                for (int i = 0; i < startedCount; i++) {
+                    started.add(futures[i]);
+                }
+            }
+            started.forEach(f -> f.cancel(true));
+        }
+
+        private static Throwable failureOf(final CompletableFuture<Boolean> failed) {
+            try {
+                failed.join();
+                throw new IllegalStateException("future has not failed");
+            } catch (final CompletionException e) {
+                return e;
+            } catch (final CancellationException e) {
+                return e;
+            }
+        }
+    }
+
+    /*
+     * Most computations passed to the combinators below wrap non-blocking code and so are already complete when we get
+     * them. Results of those are consumed in a loop, and we only chain onto a future (continuing with the remaining
+     * items once it completes) from the first one which is still pending, has failed, or has no value.
+     */
+
+    private static <T> CompletableFuture<Boolean> allInSequenceFrom(final Iterator<T> items,
+                                                                    final Function<? super T, CompletableFuture<Boolean>> evaluation,
+                                                                    final boolean anySucceeded) {
+        boolean result = anySucceeded;
+        while (items.hasNext()) {
+            final CompletableFuture<Boolean> next = evaluate(evaluation, items.next());
+            final Boolean value = completedValue(next);
+            if (value == null) {
+                final boolean resultSoFar = result;
+                return next.thenCompose(b -> allInSequenceFrom(items, evaluation, resultSoFar || b));
+            }
+            result = result || value;
+        }
+        return completedFuture(result);
+    }
+
+    private static <T> CompletableFuture<Boolean> shortCircuitFrom(final Iterator<T> items,
+                                                                   final Function<? super T, CompletableFuture<Boolean>> evaluation,
+                                                                   final Boolean fallbackOn,
+                                                                   final CompletableFuture<Boolean> last) {
+        CompletableFuture<Boolean> current = last;
+        while (items.hasNext()) {
+            final CompletableFuture<Boolean> next = evaluate(evaluation, items.next());
+            final Boolean value = completedValue(next);
+            if (value == null) {
+                return next.thenCompose(b -> !fallbackOn.equals(b) ? shortCircuitFrom(items, evaluation, fallbackOn, next) :
+                        completedFuture(fallbackOn));
+            }
+            if (fallbackOn.equals(value)) {
+                return next;
+            }
+            current = next;
+        }
+        return current != null ? current : completedFuture(!fallbackOn);
+    }
+
+    private static <T> CompletableFuture<Boolean> evaluate(final Function<? super T, CompletableFuture<Boolean>> evaluation,
+                                                           final T item) {
+        try {
+            return evaluation.apply(item);
+        } catch (Throwable t) {
+            // Surface the failure through the returned future, as it would have been had we chained to get here
+            final CompletableFuture<Boolean> failed = new CompletableFuture<>();
+            failed.completeExceptionally(t);
+            return failed;
+        }
+    }
+
+    private static Boolean completedValue(final CompletableFuture<Boolean> future) {
+        return future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
     }
 
 }
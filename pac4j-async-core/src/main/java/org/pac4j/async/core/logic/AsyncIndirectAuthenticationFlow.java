@@ -15,6 +15,8 @@ import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
+import static java.util.Collections.singletonList;
+
 /**
  * Class to wrap the initiation of an indirect authentication flow, following failure of authentication via direct
  * clients. This initiation includes both saving of the redirect url in the session and then triggering the redirect
@@ -44,7 +46,7 @@ public class AsyncIndirectAuthenticationFlow<C extends AsyncWebContext> {
         return context.getSessionStore().<String>get(context, Pac4jConstants.REQUESTED_URL)
                 .thenApply(Optional::ofNullable)
                 .thenApply(o -> o.orElse(defaultUrl))
-                .thenCompose(v -> context.getSessionStore().set(context, Pac4jConstants.REQUESTED_URL, null)
+                .thenCompose(v -> context.getSessionStore().removeAll(context, singletonList(Pac4jConstants.REQUESTED_URL))
                         .thenApply(voidResult -> {
                             logger.debug("redirectUrl: {}", v);
                             return HttpAction.redirect("redirect", context, v);
@@ -7,8 +7,11 @@ import org.pac4j.async.core.client.AsyncClient;
 import org.pac4j.async.core.config.AsyncConfig;
 import org.pac4j.async.core.context.AsyncWebContext;
 import org.pac4j.async.core.exception.handler.AsyncExceptionHandler;
+import org.pac4j.async.core.metrics.AsyncMetrics;
+import org.pac4j.async.core.metrics.NoopAsyncMetrics;
 import org.pac4j.async.core.profile.AsyncProfileManager;
 import org.pac4j.async.core.profile.save.AsyncProfileSaveStrategy;
+import org.pac4j.async.core.session.AsyncSessionUnitOfWork;
 import org.pac4j.async.core.session.renewal.AsyncSessionRenewal;
 import org.pac4j.async.core.session.renewal.AsyncSessionRenewalStrategy;
 import org.pac4j.core.client.Clients;
@@ -25,6 +28,8 @@ import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
+import static org.pac4j.async.core.metrics.AsyncMetricNames.*;
+import static org.pac4j.async.core.metrics.AsyncMetrics.CLIENT_TAG;
 import static org.pac4j.async.core.profile.save.AsyncProfileSave.MULTI_PROFILE_SAVE;
 import static org.pac4j.async.core.profile.save.AsyncProfileSave.SINGLE_PROFILE_SAVE;
 import static org.pac4j.async.core.session.renewal.AsyncSessionRenewal.NEVER_RENEW;
@@ -44,6 +49,7 @@ public class DefaultAsyncCallbackLogic<R, U extends CommonProfile, WC extends As
     protected final AsyncClientAuthenticator<U, WC> perClientAuthenticator = new AsyncClientAuthenticator<>();
     protected final AsyncConfig<R, U, WC> config;
     protected final HttpActionAdapter<R, WC> httpActionAdapter;
+    protected final AsyncMetrics metrics;
 
     public DefaultAsyncCallbackLogic(final boolean multiProfile,
                                      final boolean renewSession,
@@ -59,12 +65,15 @@ public class DefaultAsyncCallbackLogic<R, U extends CommonProfile, WC extends As
         this.config = config;
         this.httpActionAdapter = httpActionAdapter;
         this.indirectAuthenticationFlow = new AsyncIndirectAuthenticationFlow<>();
+        // fixed for the life of the logic, see AsyncConfig.setMetrics
+        this.metrics = NoopAsyncMetrics.orNoop(config.getMetrics());
     }
 
     public CompletableFuture<R> perform(final WC context,
                                         final String inputDefaultUrl) {
 
         logger.debug("=== CALLBACK ===");
+        final long startNanos = System.nanoTime();
         final String defaultUrl = Optional.ofNullable(inputDefaultUrl).orElse(Pac4jConstants.DEFAULT_URL_VALUE);
 
         // checks
@@ -77,30 +86,37 @@ public class DefaultAsyncCallbackLogic<R, U extends CommonProfile, WC extends As
         logger.debug("client: {}", client);
         assertNotNull("client", client);
         assertTrue(client.isIndirect(), "only indirect clients are allowed on the callback url");
+        if (config.isSessionUnitOfWork()) {
+            AsyncSessionUnitOfWork.begin(context);
+        }
 
         // Attempt authentication, retrieving profile if available
-        final CompletableFuture<Void> sessionRenewalFuture = perClientAuthenticator.authenticateFor(client, context)
+        final CompletableFuture<Void> sessionRenewalFuture = metrics.timer(CALLBACK_AUTHENTICATION, CLIENT_TAG, client.getName())
+                .time(() -> perClientAuthenticator.authenticateFor(client, context))
                 // Apply save strategy to the profile (absent profile will lead to completion false and no save)
-                .thenCompose(profileOption -> saveStrategy.saveProfile(getProfileManager(context, config),
-                        p -> true, profileOption.orElse(null)))
-                // If we saved, renew the session, and attempt redirect
-                .thenCompose(b -> {
-                    if (b) {
-                        // We have authenticated and saved so renew the session if supported
-                        return sessionRenewalStrategy.renewSession(context, config);
-                    } else {
-                        // Authentication failed -> expand this
-                        return CompletableFuture.completedFuture(null); // No need to renew session if we haven't written to it
-                    }
-                });
+                .thenCompose(profileOption -> metrics.timer(CALLBACK_PROFILE_SAVE).time(() ->
+                    saveStrategy.saveProfile(getProfileManager(context, config), p -> true, profileOption.orElse(null))
+                        // If we saved, renew the session, and attempt redirect
+                        .thenCompose(b -> {
+                            if (b) {
+                                // We have authenticated and saved so renew the session if supported
+                                return sessionRenewalStrategy.renewSession(context, config);
+                            } else {
+                                // Authentication failed -> expand this
+                                return CompletableFuture.completedFuture(null); // No need to renew session if we haven't written to it
+                            }
+                        })));
         // Generate redirect action for originally requested url. At time of writing this matches previous behaviour
         final CompletableFuture<HttpAction> actionFuture = sessionRenewalFuture.thenCompose(v ->
                 indirectAuthenticationFlow.redirectToOriginallyRequestedUrl(context, defaultUrl));
 
         // Apply standard exception handling including http actions thrown during processing
-        return actionFuture.handle(ExceptionSoftener.softenBiFunction(AsyncExceptionHandler::extractAsyncHttpAction))
+        return metrics.timer(CALLBACK).timeFrom(startNanos,
+                actionFuture.handle(ExceptionSoftener.softenBiFunction(AsyncExceptionHandler::extractAsyncHttpAction))
                 .handle(AsyncExceptionHandler::wrapUnexpectedException)
-                .thenApply(a -> httpActionAdapter.adapt(a.getCode(), context));
+                // Session writes must be in place before the response goes back
+                .thenCompose(a -> AsyncSessionUnitOfWork.complete(context).thenApply(v -> a))
+                .thenApply(a -> httpActionAdapter.adapt(a.getCode(), context)));
 
         }
 
@@ -6,10 +6,14 @@ import org.pac4j.async.core.logout.AsyncCentralLogout;
 import org.pac4j.async.core.logout.AsyncCentralLogoutStrategy;
 import org.pac4j.async.core.logout.AsyncLocalLogout;
 import org.pac4j.async.core.logout.AsyncLocalLogoutStrategy;
+import org.pac4j.async.core.metrics.AsyncMetrics;
+import org.pac4j.async.core.metrics.NoopAsyncMetrics;
 import org.pac4j.async.core.profile.AsyncProfileManager;
+import org.pac4j.async.core.session.AsyncSessionUnitOfWork;
 import org.pac4j.async.core.session.destruction.AsyncSessionDestruction;
 import org.pac4j.async.core.session.destruction.AsyncSessionDestructionStrategy;
 import org.pac4j.core.context.Pac4jConstants;
+import org.pac4j.core.exception.HttpAction;
 import org.pac4j.core.http.HttpActionAdapter;
 import org.pac4j.core.profile.CommonProfile;
 import org.pac4j.core.profile.ProfileManagerFactoryAware;
@@ -19,9 +23,12 @@ import org.slf4j.LoggerFactory;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Function;
 import java.util.regex.Pattern;
 
+import static org.pac4j.async.core.metrics.AsyncMetricNames.LOGOUT;
+import static org.pac4j.async.core.metrics.AsyncMetricNames.LOGOUT_LOCAL;
 import static org.pac4j.core.context.Pac4jConstants.DEFAULT_LOGOUT_URL_PATTERN_VALUE;
 import static org.pac4j.core.exception.HttpAction.ok;
 import static org.pac4j.core.exception.HttpAction.redirect;
@@ -44,6 +51,7 @@ public class DefaultAsyncLogoutLogic<R, U extends CommonProfile, WC extends Asyn
     private final AsyncLocalLogoutStrategy localLogoutStrategy;
     private final AsyncSessionDestructionStrategy sessionDestructionStrategy;
     private final AsyncCentralLogoutStrategy centralLogoutStrategy;
+    private final AsyncMetrics metrics;
 
     public DefaultAsyncLogoutLogic(final AsyncConfig<R, U, WC> config,
                                    final HttpActionAdapter<R, WC> httpActionAdapter,
@@ -65,12 +73,15 @@ public class DefaultAsyncLogoutLogic<R, U extends CommonProfile, WC extends Asyn
         sessionDestructionStrategy = getSessionDestructionStrategy(destroySession);
         this.localLogoutStrategy = getLocalLogoutStrategy(localLogout);
         this.centralLogoutStrategy = getCentralLogoutStrategy(centralLogout);
+        // fixed for the life of the logic, see AsyncConfig.setMetrics
+        this.metrics = NoopAsyncMetrics.orNoop(config.getMetrics());
 
     }
 
     @Override
     public CompletableFuture<R> perform(WC context) {
         assertNotNull("context", context);
+        final long startNanos = System.nanoTime();
 
         // compute redirection URL
         final String url = context.getRequestParameter(Pac4jConstants.URL);
@@ -78,18 +89,52 @@ public class DefaultAsyncLogoutLogic<R, U extends CommonProfile, WC extends Asyn
 
         logger.debug("redirectUrl: {}", redirectUrl);
 
+        if (config.isSessionUnitOfWork()) {
+            AsyncSessionUnitOfWork.begin(context);
+        }
         final AsyncProfileManager manager = getProfileManager(context, config);
 
-        final CompletableFuture<List<? extends U>> loggedOutProfilesFuture = localLogoutStrategy.logout(manager, sessionDestructionStrategy, context);
+        final CompletableFuture<List<? extends U>> loggedOutProfilesFuture = metrics.timer(LOGOUT_LOCAL)
+                .time(() -> localLogoutStrategy.logout(manager, sessionDestructionStrategy, context));
 
-        return loggedOutProfilesFuture.thenApply(profiles -> centralLogoutStrategy.getCentralLogoutAction(config.getClients(),
+        final CompletableFuture<HttpAction> actionFuture = loggedOutProfilesFuture.thenApply(profiles -> centralLogoutStrategy.getCentralLogoutAction(config.getClients(),
                 profiles,
                 redirectUrl,
                 context))
                 .thenApply(o -> o.map(s -> s.get())
-                        .orElseGet(() -> redirectUrl == null ? ok("ok", context) : redirect("redirect", context, redirectUrl)))
+                        .orElseGet(() -> redirectUrl == null ? ok("ok", context) : redirect("redirect", context, redirectUrl)));
+        final CompletableFuture<R> resultFuture = (config.isSessionUnitOfWork() ?
+                completeSessionUnitOfWork(actionFuture, context) : actionFuture)
                 .thenApply(action -> httpActionAdapter.adapt(action.getCode(), context));
 
+        return metrics.timer(LOGOUT).timeFrom(startNanos, resultFuture);
+
+    }
+
+    /**
+     * Complete the request's session unit of work once the logout action has been decided, whatever the outcome, so
+     * that the removal of the profiles reaches the session even where a later step such as the central logout fails.
+     * The outcome is passed on unchanged once the flush has completed.
+     *
+     * @param actionFuture the outcome of the logout steps
+     * @param context the web context
+     * @return the outcome, completing once the unit of work has been completed
+     */
+    private CompletableFuture<HttpAction> completeSessionUnitOfWork(final CompletableFuture<HttpAction> actionFuture,
+                                                                    final WC context) {
+        return actionFuture.handle((action, failure) -> AsyncSessionUnitOfWork.complete(context).handle((v, flushFailure) -> {
+            if (failure != null) {
+                if (flushFailure != null) {
+                    logger.error("Failed to flush session writes after logout logic failure", flushFailure);
+                }
+                throw failure instanceof CompletionException ? (CompletionException) failure : new CompletionException(failure);
+            }
+            if (flushFailure != null) {
+                throw flushFailure instanceof CompletionException ?
+                        (CompletionException) flushFailure : new CompletionException(flushFailure);
+            }
+            return action;
+        })).thenCompose(Function.identity());
     }
 
     @Override
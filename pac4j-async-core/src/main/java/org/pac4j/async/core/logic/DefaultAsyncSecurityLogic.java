@@ -5,6 +5,7 @@ import org.pac4j.async.core.authorization.checker.AsyncAuthorizationChecker;
 import org.pac4j.async.core.authorization.checker.DefaultAsyncAuthorizationChecker;
 import org.pac4j.async.core.client.AsyncClient;
 import org.pac4j.async.core.config.AsyncConfig;
+import org.pac4j.async.core.config.AsyncConfigRegistry;
 import org.pac4j.async.core.context.AsyncWebContext;
 import org.pac4j.async.core.exception.handler.AsyncExceptionHandler;
 import org.pac4j.async.core.exception.handler.DefaultAsyncExceptionHandler;
@@ -12,13 +13,19 @@ import org.pac4j.async.core.logic.authenticator.AsyncDirectAuthFailedAuthenticat
 import org.pac4j.async.core.logic.authenticator.AsyncDirectClientAuthenticator;
 import org.pac4j.async.core.logic.decision.AsyncLoadProfileFromSessionDecision;
 import org.pac4j.async.core.logic.decision.AsyncSaveProfileToSessionDecision;
+import org.pac4j.async.core.logic.plan.AsyncSecurityPlan;
+import org.pac4j.async.core.logic.plan.AsyncSecurityPlanCache;
 import org.pac4j.async.core.matching.AsyncMatchingChecker;
 import org.pac4j.async.core.matching.DefaultAsyncMatchingChecker;
+import org.pac4j.async.core.metrics.AsyncMetrics;
+import org.pac4j.async.core.metrics.NoopAsyncMetrics;
 import org.pac4j.async.core.profile.AsyncProfileManager;
 import org.pac4j.async.core.profile.save.AsyncProfileSaveStrategy;
+import org.pac4j.async.core.session.AsyncSessionUnitOfWork;
 import org.pac4j.core.client.Clients;
 import org.pac4j.core.client.finder.ClientFinder;
 import org.pac4j.core.client.finder.DefaultClientFinder;
+import org.pac4j.core.context.Pac4jConstants;
 import org.pac4j.core.credentials.Credentials;
 import org.pac4j.core.engine.SecurityGrantedAccessAdapter;
 import org.pac4j.core.exception.HttpAction;
@@ -28,12 +35,16 @@ import org.pac4j.core.profile.ProfileManagerFactoryAware;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Function;
 
 import static com.aol.cyclops.invokedynamic.ExceptionSoftener.softenFunction;
 import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.pac4j.async.core.deadline.AsyncDeadlines.adaptTimeout;
+import static org.pac4j.async.core.metrics.AsyncMetricNames.*;
 import static org.pac4j.async.core.profile.save.AsyncProfileSave.MULTI_PROFILE_SAVE;
 import static org.pac4j.async.core.profile.save.AsyncProfileSave.SINGLE_PROFILE_SAVE;
 import static org.pac4j.core.util.CommonHelper.*;
@@ -54,16 +65,21 @@ public class DefaultAsyncSecurityLogic<R, U extends CommonProfile, C extends Asy
 
     private final AsyncProfileSaveStrategy saveStrategy;
     private final AsyncConfig<R, U, C> config;
-    private final Clients configClients;
     private final HttpActionAdapter<R, C> httpActionAdapter;
     private final AsyncLoadProfileFromSessionDecision<C> loadFromSessionDecision = new AsyncLoadProfileFromSessionDecision<>();
     private final AsyncDirectClientAuthenticator directClientAuthenticator; // to attempt direct client authentication initially
     private final AsyncDirectAuthFailedAuthenticator<C> directAuthFailedAuthenticator = new AsyncDirectAuthFailedAuthenticator<>();
+    // compiled (clients, authorizers, matchers) triples, so that names need not be resolved on every request
+    private final AsyncSecurityPlanCache<U> planCache = new AsyncSecurityPlanCache<>(this::compilePlan);
+    // authorizers and matchers indexed by name, rebuilt whenever the configuration changes
+    private volatile AsyncConfigRegistry registry;
 
     // Can be injected to provide custom exception handling for different frameworks, defaults to throwing the exception out
     // to the execution context provided.
     private final AsyncExceptionHandler<R> exceptionHandler;
 
+    private final AsyncMetrics metrics;
+
     public DefaultAsyncSecurityLogic(final boolean saveProfileInSession,
                                      final boolean multiProfile,
                                      final AsyncConfig<R, U, C> config,
@@ -79,7 +95,6 @@ public class DefaultAsyncSecurityLogic<R, U extends CommonProfile, C extends Asy
 
         assertNotNull("config", config);
         assertNotNull("httpActionAdapter", httpActionAdapter);
-        this.configClients = config.getClients();
         assertNotNull("configClients", config.getClients());
 
         this.saveStrategy = multiProfile ? MULTI_PROFILE_SAVE : SINGLE_PROFILE_SAVE;
@@ -89,6 +104,25 @@ public class DefaultAsyncSecurityLogic<R, U extends CommonProfile, C extends Asy
         this.exceptionHandler = exceptionHandler;
         directClientAuthenticator = new AsyncDirectClientAuthenticator(saveStrategy, new AsyncSaveProfileToSessionDecision<U, C>(saveProfileInSession),
                 this.loadFromSessionDecision);
+        // Built eagerly so that a broken configuration is reported at startup rather than on the first request
+        this.registry = AsyncConfigRegistry.from(config);
+        // fixed for the life of the logic, see AsyncConfig.setMetrics
+        this.metrics = NoopAsyncMetrics.orNoop(config.getMetrics());
+        this.authorizationChecker = new DefaultAsyncAuthorizationChecker(false, metrics);
+    }
+
+    /**
+     * Compile and cache the plan for a (clients, authorizers, matchers) triple ahead of the first request using it.
+     * Frameworks which know the triple when a route is set up should call this then, so that a reference to an
+     * unknown client, authorizer or matcher is reported at startup rather than on the first request.
+     *
+     * @param clients the client names
+     * @param authorizers the authorizer names
+     * @param matchers the matcher names
+     * @throws org.pac4j.core.exception.TechnicalException if any of the names cannot be resolved
+     */
+    public void precompile(final String clients, final String authorizers, final String matchers) {
+        planCache.planFor(config.getVersion(), clients, authorizers, matchers);
     }
 
     @Override
@@ -98,6 +132,7 @@ public class DefaultAsyncSecurityLogic<R, U extends CommonProfile, C extends Asy
                                         final Object... parameters) {
 
         logger.debug("=== SECURITY ===");
+        final long startNanos = System.nanoTime();
 
         // checks
         assertNotNull("context", context);
@@ -107,25 +142,52 @@ public class DefaultAsyncSecurityLogic<R, U extends CommonProfile, C extends Asy
         logger.debug("url: {}", context.getFullRequestURL());
         logger.debug("matchers: {}", matchers);
 
-        final CompletableFuture<R> resultFuture = matchingChecker.matches(context, matchers, config.getMatchers())
+        final AsyncSecurityPlan<U> plan;
+        try {
+            plan = planCache.planFor(config.getVersion(), clients, authorizers, matchers);
+        } catch (final RuntimeException e) {
+            final CompletableFuture<R> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return exceptionHandler.applyExceptionHandling(failed, context);
+        }
+        logger.debug("plan: {}", plan);
+        final boolean sessionUnitOfWork = config.isSessionUnitOfWork();
+        if (sessionUnitOfWork) {
+            AsyncSessionUnitOfWork.begin(context);
+        }
+
+        final CompletableFuture<R> logicFuture = metrics.timer(SECURITY_MATCHING)
+                .time(() -> matchingChecker.matches(context, plan.getMatchers()))
                 .thenCompose(b -> {
                     if (b) {
 
                         logger.debug("clients: {}", clients);
-                        final List<AsyncClient<? extends Credentials, U>> currentClients = clientFinder.find(configClients, context, clients);
+                        final List<AsyncClient<? extends Credentials, U>> currentClients;
+                        final boolean loadProfilesFromSession;
+                        // Read per request, as the clients may have been replaced since the logic was created
+                        final Clients configClients = config.getClients();
+                        if (isNotBlank(clients) && context.getRequestParameter(configClients.getClientNameParameter()) != null) {
+                            // A client has been chosen on the request, so it has to be resolved (and checked) per request
+                            currentClients = clientFinder.find(configClients, context, clients);
+                            loadProfilesFromSession = loadFromSessionDecision.make(context, currentClients);
+                        } else {
+                            currentClients = plan.getClients();
+                            loadProfilesFromSession = plan.isLoadProfilesFromSession();
+                        }
                         logger.debug("currentClients: {}", currentClients);
-                        final boolean loadProfilesFromSession = loadFromSessionDecision.make(context, currentClients);
                         logger.debug("loadProfilesFromSession: {}", loadProfilesFromSession);
                         final AsyncProfileManager<U, C> manager = getProfileManager(context, config);
-                        final CompletableFuture<List<U>> profilesFuture = manager.getAll(loadProfilesFromSession);
+                        final CompletableFuture<List<U>> profilesFuture = metrics.timer(SECURITY_PROFILE_LOAD)
+                                .time(() -> manager.getAll(loadProfilesFromSession));
                         final CompletableFuture<List<U>> profilesAfterDirectAuth = profilesFuture.thenCompose(profiles -> {
                             logger.debug("profiles: {}", profiles);
 
                             // no profile and some current clients
                             if (isEmpty(profiles) && isNotEmpty(currentClients)) {
-                                return directClientAuthenticator.authenticate(currentClients,
-                                        context,
-                                        manager);
+                                return metrics.timer(SECURITY_DIRECT_AUTHENTICATION)
+                                        .time(() -> directClientAuthenticator.authenticate(currentClients,
+                                                context,
+                                                manager));
                             } else {
                                 return completedFuture(profiles);
                             }
@@ -135,14 +197,15 @@ public class DefaultAsyncSecurityLogic<R, U extends CommonProfile, C extends Asy
                         return profilesAfterDirectAuth.thenCompose(profiles -> {
                             if (isNotEmpty(profiles)) {
                                 logger.debug("authorizers: {}", authorizers);
-                                final CompletableFuture<Boolean> authorizedFuture =
-                                        authorizationChecker.isAuthorized(context, profiles, authorizers, config.getAuthorizers());
+                                final CompletableFuture<Boolean> authorizedFuture = metrics.timer(SECURITY_AUTHORIZATION)
+                                        .time(() -> authorizationChecker.isAuthorized(context, profiles, plan.getAuthorizers()));
                                 return authorizedFuture.thenCompose(authorized ->
                                         handleAuthorizationResult(authorized, securityGrantedAccessAdapter, context, parameters));
                             } else {
                                 return directAuthFailedAuthenticator.authenticate(context, currentClients)
                                         .handle(ExceptionSoftener.softenBiFunction(AsyncExceptionHandler::extractAsyncHttpAction))
                                         .handle(AsyncExceptionHandler::wrapUnexpectedException)
+                                        .thenCompose(a -> AsyncSessionUnitOfWork.complete(context).thenApply(v -> a))
                                         .thenApply(a -> httpActionAdapter.adapt(a.getCode(), context));
                             }
                         });
@@ -151,14 +214,84 @@ public class DefaultAsyncSecurityLogic<R, U extends CommonProfile, C extends Asy
                         return accessApproved(securityGrantedAccessAdapter, context, parameters);
                     }
                 });
+        final CompletableFuture<R> resultFuture = sessionUnitOfWork ?
+                completeSessionUnitOfWork(logicFuture, context) : logicFuture;
 
         // Apply exception handling to the result. If there is a desire to customize exception handling, either a different handler
         // can be injected or a noop handler can be used here, meaning that an external handler can be applied to this future instead.
-        return exceptionHandler.applyExceptionHandling(resultFuture, context);
+        // A stage exceeding the request's deadline is answered as a timeout rather than treated as unexpected
+        return metrics.timer(SECURITY).timeFrom(startNanos,
+                exceptionHandler.applyExceptionHandling(adaptTimeout(resultFuture, httpActionAdapter, context), context));
     }
 
 
 
+    /**
+     * Complete the request's session unit of work once the logic has finished, whatever its outcome. Where access is
+     * granted or a direct authentication failure is answered the unit of work has already been completed, so this does
+     * nothing; otherwise (access forbidden, a stage failing or exceeding the deadline) it flushes whatever had been
+     * written to the session, such as a profile saved by a direct client, and restores the context's own store. The
+     * logic's outcome is passed on unchanged once the flush has completed.
+     *
+     * @param logicFuture the outcome of the logic
+     * @param context the web context
+     * @return the outcome, completing once the unit of work has been completed
+     */
+    private CompletableFuture<R> completeSessionUnitOfWork(final CompletableFuture<R> logicFuture, final C context) {
+        return logicFuture.handle((result, failure) -> AsyncSessionUnitOfWork.complete(context).handle((v, flushFailure) -> {
+            if (failure != null) {
+                if (flushFailure != null) {
+                    logger.error("Failed to flush session writes after security logic failure", flushFailure);
+                }
+                throw failure instanceof CompletionException ? (CompletionException) failure : new CompletionException(failure);
+            }
+            if (flushFailure != null) {
+                throw flushFailure instanceof CompletionException ?
+                        (CompletionException) flushFailure : new CompletionException(flushFailure);
+            }
+            return result;
+        })).thenCompose(Function.identity());
+    }
+
+    /**
+     * Compile a (clients, authorizers, matchers) triple into a security plan, resolving each of the names against the
+     * configuration. Any name which cannot be resolved causes compilation to fail.
+     *
+     * @param configVersion the configuration version the plan is compiled from
+     * @param clients the client names
+     * @param authorizers the authorizer names
+     * @param matchers the matcher names
+     * @return the compiled plan
+     */
+    @SuppressWarnings("unchecked")
+    protected AsyncSecurityPlan<U> compilePlan(final int configVersion,
+                                               final String clients, final String authorizers, final String matchers) {
+        logger.debug("Compiling security plan for clients: {}, authorizers: {}, matchers: {}", clients, authorizers, matchers);
+        final List<AsyncClient<? extends Credentials, U>> planClients = new ArrayList<>();
+        final Clients configClients = config.getClients();
+        if (isNotBlank(clients)) {
+            for (final String name : clients.split(Pac4jConstants.ELEMENT_SEPRATOR)) {
+                planClients.add((AsyncClient<? extends Credentials, U>) configClients.findClient(name));
+            }
+        }
+        final AsyncConfigRegistry currentRegistry = registryFor(configVersion);
+        return new AsyncSecurityPlan<>(configVersion,
+                planClients,
+                loadFromSessionDecision.make(planClients),
+                currentRegistry.resolveMatchers(matchers),
+                currentRegistry.resolveNamedAuthorizers(authorizers));
+    }
+
+    private AsyncConfigRegistry registryFor(final int configVersion) {
+        final AsyncConfigRegistry current = registry;
+        if (current.getConfigVersion() == configVersion) {
+            return current;
+        }
+        final AsyncConfigRegistry rebuilt = AsyncConfigRegistry.from(config);
+        registry = rebuilt;
+        return rebuilt;
+    }
+
     protected CompletableFuture<R> handleAuthorizationResult(final boolean authorized,
                                                              final SecurityGrantedAccessAdapter securityGrantedAccessAdapter,
                                                              final C context,
@@ -173,9 +306,10 @@ public class DefaultAsyncSecurityLogic<R, U extends CommonProfile, C extends Asy
 
     protected CompletableFuture<R> accessApproved(final SecurityGrantedAccessAdapter<R, C> securityGrantedAccessAdapter,
                                                   final C context, final Object... parameters) {
-        return CompletableFuture.<Void>completedFuture(null)
+        // Session writes must be in place before whatever is being protected gets to run
+        return metrics.timer(SECURITY_GRANTED_ACCESS).time(() -> AsyncSessionUnitOfWork.complete(context)
                 .thenApply(softenFunction(t -> securityGrantedAccessAdapter.adapt(context, parameters)))
-                .handle(AsyncExceptionHandler::wrapUnexpectedException);
+                .handle(AsyncExceptionHandler::wrapUnexpectedException));
     }
 
     /**
@@ -189,6 +323,28 @@ public class DefaultAsyncSecurityLogic<R, U extends CommonProfile, C extends Asy
         return HttpAction.forbidden("forbidden", context);
     }
 
+    /**
+     * @return the metrics into which this logic reports, as taken from the configuration when the logic was created
+     */
+    public AsyncMetrics getMetrics() {
+        return metrics;
+    }
+
+    public AsyncAuthorizationChecker getAuthorizationChecker() {
+        return authorizationChecker;
+    }
+
+    /**
+     * Replace the authorization checker, for example with a {@link DefaultAsyncAuthorizationChecker} evaluating
+     * authorizers in parallel.
+     *
+     * @param authorizationChecker the authorization checker to use
+     */
+    public void setAuthorizationChecker(final AsyncAuthorizationChecker authorizationChecker) {
+        assertNotNull("authorizationChecker", authorizationChecker);
+        this.authorizationChecker = authorizationChecker;
+    }
+
     @Override
     protected Function<C, AsyncProfileManager<U, C>> defaultProfileManagerFactory() {
         return ctx -> new AsyncProfileManager(ctx);
@@ -19,7 +19,6 @@ import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import static java.util.concurrent.CompletableFuture.completedFuture;
 
@@ -46,10 +45,30 @@ public class AsyncDirectClientAuthenticator<U extends CommonProfile, C extends A
                      final C context,
                      final AsyncProfileManager<U, C> manager) {
 
-        final Stream<AsyncClient<? extends Credentials, U>> directClientsStream = currentClients.stream()
-                .filter(c -> !c.isIndirect());
+        final List<AsyncClient<? extends Credentials, U>> directClients = currentClients.stream()
+                .filter(c -> !c.isIndirect())
+                .collect(Collectors.toList());
 
-        final List<CompletableFuture<Supplier<CompletableFuture<Boolean>>>> saveOperationList = directClientsStream
+        final CompletableFuture<Boolean> savedFuture = saveStrategy.isMultiProfile() ?
+                authenticateAll(directClients, currentClients, context, manager) :
+                authenticateFirst(directClients, currentClients, context, manager);
+
+        // We can now determine whether we successfully saved any or not and attempt to retrieve them
+        return savedFuture
+                .thenCompose(b -> b ? manager.getAll(loadFromSessionDecision.make(context, currentClients)) :
+                        completedFuture(new LinkedList<>()));
+
+    }
+
+    /*
+     * Wait for every direct client to authenticate, then save profiles as the save strategy dictates
+     */
+    private CompletableFuture<Boolean> authenticateAll(final List<AsyncClient<? extends Credentials, U>> directClients,
+                                                       final List<AsyncClient<? extends Credentials, U>> currentClients,
+                                                       final C context,
+                                                       final AsyncProfileManager<U, C> manager) {
+
+        final List<CompletableFuture<Supplier<CompletableFuture<Boolean>>>> saveOperationList = directClients.stream()
                 .peek(c -> logger.debug("Performing authentication for direct client: {}", c))
                 .map(c -> {
                     final CompletableFuture<Optional<U>> profileOptionFuture = perClientAuthenticator.authenticateFor(c, context);
@@ -62,12 +81,57 @@ public class AsyncDirectClientAuthenticator<U extends CommonProfile, C extends A
 
                 }).collect(Collectors.toList());
 
-        // We can now determine whether we successfully saved any or not and attempt to retrieve them
-        return  FutureUtils.combineFuturesToList(saveOperationList)
-                .thenCompose(saveStrategy::combineResults)
-                .thenCompose(b -> b ? manager.getAll(loadFromSessionDecision.make(context, currentClients)) :
-                        completedFuture(new LinkedList<>()));
+        return FutureUtils.combineFuturesToList(saveOperationList)
+                .thenCompose(saveStrategy::combineResults);
+    }
+
+    /*
+     * Only one profile is to be saved, the first in client order, so start every direct client authenticating but
+     * save the profile of the highest priority client to succeed as soon as it is known, abandoning the (lower
+     * priority) authentications still in flight. This means one slow client cannot hold up a request which a higher
+     * priority client has already authenticated.
+     */
+    private CompletableFuture<Boolean> authenticateFirst(final List<AsyncClient<? extends Credentials, U>> directClients,
+                                                         final List<AsyncClient<? extends Credentials, U>> currentClients,
+                                                         final C context,
+                                                         final AsyncProfileManager<U, C> manager) {
+
+        final List<CompletableFuture<Optional<U>>> authentications = directClients.stream()
+                .peek(c -> logger.debug("Performing authentication for direct client: {}", c))
+                .map(c -> perClientAuthenticator.authenticateFor(c, context))
+                .collect(Collectors.toList());
+
+        final CompletableFuture<Boolean> savedFuture = saveFirstProfile(0, directClients, authentications, currentClients,
+                context, manager);
+        // Whether we saved a profile or failed, nothing still running is of any further use
+        savedFuture.whenComplete((b, t) -> cancelFrom(authentications, 0));
+        return savedFuture;
+    }
+
+    private CompletableFuture<Boolean> saveFirstProfile(final int index,
+                                                        final List<AsyncClient<? extends Credentials, U>> directClients,
+                                                        final List<CompletableFuture<Optional<U>>> authentications,
+                                                        final List<AsyncClient<? extends Credentials, U>> currentClients,
+                                                        final C context,
+                                                        final AsyncProfileManager<U, C> manager) {
+        if (index == authentications.size()) {
+            return completedFuture(false);
+        }
+        return authentications.get(index).thenCompose(profileOption -> {
+            final U profile = profileOption.orElse(null);
+            if (profile == null) {
+                return saveFirstProfile(index + 1, directClients, authentications, currentClients, context, manager);
+            }
+            cancelFrom(authentications, index + 1);
+            final AsyncClient<? extends Credentials, U> client = directClients.get(index);
+            logger.debug("Direct client {} authenticated, abandoning lower priority clients", client);
+            return saveStrategy.saveProfile(manager,
+                    ctx -> saveToSessionDecision.make(context, currentClients, client, profile), profile);
+        });
+    }
 
+    private static void cancelFrom(final List<? extends CompletableFuture<?>> futures, final int index) {
+        futures.subList(index, futures.size()).forEach(f -> f.cancel(true));
     }
 
 }
@@ -22,6 +22,17 @@ public class AsyncLoadProfileFromSessionDecision<WC extends AsyncWebContext> {
      * @return whether the profiles must be loaded from the web session
      */
     public <U extends CommonProfile> boolean make(final WC context, final List<AsyncClient<? extends Credentials, U>> currentClients) {
+        return make(currentClients);
+    }
+
+    /**
+     * As {@link #make(AsyncWebContext, List)}, for use where the decision is taken ahead of any request (the default
+     * decision does not depend upon the web context).
+     *
+     * @param currentClients the current clients
+     * @return whether the profiles must be loaded from the web session
+     */
+    public <U extends CommonProfile> boolean make(final List<AsyncClient<? extends Credentials, U>> currentClients) {
         return isEmpty(currentClients) || currentClients.get(0).isIndirect() || currentClients.get(0).isAnonymous();
     }
 }
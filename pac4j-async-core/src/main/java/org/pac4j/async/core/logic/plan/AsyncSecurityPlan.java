@@ -0,0 +1,71 @@
+package org.pac4j.async.core.logic.plan;
+
+import org.pac4j.async.core.authorization.authorizer.AsyncAuthorizer;
+import org.pac4j.async.core.client.AsyncClient;
+import org.pac4j.async.core.matching.AsyncMatcher;
+import org.pac4j.core.credentials.Credentials;
+import org.pac4j.core.profile.CommonProfile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable, pre-resolved form of the (clients, authorizers, matchers) triple passed to the security logic. Resolving
+ * the names in such a triple involves no i/o and gives the same result for every request until the configuration
+ * changes, so the security logic compiles each triple into a plan the first time it sees it and reuses the plan
+ * thereafter.
+ *
+ * The clients held by the plan are those which apply when no client has been chosen on the request. Where a client
+ * is chosen on the request it must still be resolved (and checked against the client names) per request.
+ */
+public final class AsyncSecurityPlan<U extends CommonProfile> {
+
+    private final int configVersion;
+    private final List<AsyncClient<? extends Credentials, U>> clients;
+    private final boolean loadProfilesFromSession;
+    private final List<AsyncMatcher> matchers;
+    private final List<AsyncAuthorizer> authorizers;
+
+    public AsyncSecurityPlan(final int configVersion,
+                             final List<AsyncClient<? extends Credentials, U>> clients,
+                             final boolean loadProfilesFromSession,
+                             final List<AsyncMatcher> matchers,
+                             final List<AsyncAuthorizer> authorizers) {
+        this.configVersion = configVersion;
+        this.clients = Collections.unmodifiableList(new ArrayList<>(clients));
+        this.loadProfilesFromSession = loadProfilesFromSession;
+        this.matchers = Collections.unmodifiableList(new ArrayList<>(matchers));
+        this.authorizers = Collections.unmodifiableList(new ArrayList<>(authorizers));
+    }
+
+    /**
+     * @return the version of the configuration from which this plan was compiled
+     */
+    public int getConfigVersion() {
+        return configVersion;
+    }
+
+    public List<AsyncClient<? extends Credentials, U>> getClients() {
+        return clients;
+    }
+
+    public boolean isLoadProfilesFromSession() {
+        return loadProfilesFromSession;
+    }
+
+    public List<AsyncMatcher> getMatchers() {
+        return matchers;
+    }
+
+    public List<AsyncAuthorizer> getAuthorizers() {
+        return authorizers;
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncSecurityPlan{configVersion=" + configVersion + ", clients=" + clients +
+                ", loadProfilesFromSession=" + loadProfilesFromSession + ", matchers=" + matchers +
+                ", authorizers=" + authorizers + "}";
+    }
+}
@@ -0,0 +1,91 @@
+package org.pac4j.async.core.logic.plan;
+
+import org.pac4j.core.profile.CommonProfile;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache of compiled security plans, keyed on the (clients, authorizers, matchers) triple from which they were compiled.
+ * A cached plan is only reused while the configuration version it was compiled from is still current, so any change
+ * made to the configuration causes each plan to be recompiled the next time it is requested.
+ *
+ * Plans are immutable, so a race between two requests compiling the same plan is harmless - the last one compiled
+ * simply wins.
+ */
+public class AsyncSecurityPlanCache<U extends CommonProfile> {
+
+    /**
+     * Compiles a (clients, authorizers, matchers) triple into a plan
+     */
+    @FunctionalInterface
+    public interface Compiler<U extends CommonProfile> {
+        AsyncSecurityPlan<U> compile(int configVersion, String clients, String authorizers, String matchers);
+    }
+
+    private final ConcurrentMap<PlanKey, AsyncSecurityPlan<U>> plans = new ConcurrentHashMap<>();
+    private final Compiler<U> compiler;
+
+    public AsyncSecurityPlanCache(final Compiler<U> compiler) {
+        this.compiler = compiler;
+    }
+
+    /**
+     * Retrieve the plan for a triple, compiling it if it is not yet known or was compiled from an earlier version of
+     * the configuration.
+     *
+     * @param configVersion the current configuration version
+     * @param clients the client names
+     * @param authorizers the authorizer names
+     * @param matchers the matcher names
+     * @return the plan for the triple
+     */
+    public AsyncSecurityPlan<U> planFor(final int configVersion,
+                                        final String clients, final String authorizers, final String matchers) {
+        final PlanKey key = new PlanKey(clients, authorizers, matchers);
+        final AsyncSecurityPlan<U> cached = plans.get(key);
+        if (cached != null && cached.getConfigVersion() == configVersion) {
+            return cached;
+        }
+        final AsyncSecurityPlan<U> compiled = compiler.compile(configVersion, clients, authorizers, matchers);
+        plans.put(key, compiled);
+        return compiled;
+    }
+
+    private static final class PlanKey {
+
+        private final String clients;
+        private final String authorizers;
+        private final String matchers;
+        private final int hash;
+
+        private PlanKey(final String clients, final String authorizers, final String matchers) {
+            this.clients = clients;
+            this.authorizers = authorizers;
+            this.matchers = matchers;
+            // computed by hand rather than via Objects.hash to avoid a varargs array per lookup
+            this.hash = 31 * (31 * Objects.hashCode(clients) + Objects.hashCode(authorizers)) + Objects.hashCode(matchers);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PlanKey)) {
+                return false;
+            }
+            final PlanKey other = (PlanKey) o;
+            return hash == other.hash
+                    && Objects.equals(clients, other.clients)
+                    && Objects.equals(authorizers, other.authorizers)
+                    && Objects.equals(matchers, other.matchers);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package org.pac4j.async.core.matching;
 
 import org.pac4j.async.core.context.AsyncWebContext;
 
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
@@ -19,6 +20,27 @@ public interface AsyncMatchingChecker {
      * @return CompletableFuture - completes with true if matches, false if not, or completes exceptionally with
      * HttpAction if an additional HTTP action is required
      */
-    CompletableFuture<Boolean> matches(AsyncWebContext context, String matcherNames, Map<String, AsyncMatcher> matchersMap);
-}
+    default CompletableFuture<Boolean> matches(AsyncWebContext context, String matcherNames, Map<String, AsyncMatcher> matchersMap) {
+        return matches(context, resolveMatchers(matcherNames, matchersMap));
+    }
+
+    /**
+     * Resolve a list of matcher names into the matchers which they represent. As this involves no i/o it is
+     * synchronous, and its result can be retained and reused for subsequent checks against the same names.
+     *
+     * @param matcherNames the async matchers to resolve
+     * @param matchersMap the map of matchers which should include a named superset of the matchers to resolve
+     * @return the resolved matchers, in the order in which they were named
+     */
+    List<AsyncMatcher> resolveMatchers(String matcherNames, Map<String, AsyncMatcher> matchersMap);
 
+    /**
+     * Check if the web context matches an already resolved list of matchers.
+     *
+     * @param context the async web context being matched
+     * @param matchers the resolved async matchers to invoke
+     * @return CompletableFuture - completes with true if matches, false if not, or completes exceptionally with
+     * HttpAction if an additional HTTP action is required
+     */
+    CompletableFuture<Boolean> matches(AsyncWebContext context, List<AsyncMatcher> matchers);
+}
@@ -1,40 +1,31 @@
 package org.pac4j.async.core.matching;
 
+import org.pac4j.async.core.config.AsyncConfigRegistry;
 import org.pac4j.async.core.context.AsyncWebContext;
-import org.pac4j.core.context.Pac4jConstants;
-import org.pac4j.core.util.CommonHelper;
+import org.pac4j.async.core.deadline.AsyncStage;
 
-import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
 
+import static org.pac4j.async.core.deadline.AsyncDeadlines.enforce;
 import static org.pac4j.async.core.future.FutureUtils.shortCircuitedFuture;
 
 /**
  *
  */
 public class DefaultAsyncMatchingChecker implements AsyncMatchingChecker {
-    @Override
-    public CompletableFuture<Boolean> matches(AsyncWebContext context, String matcherNames, Map<String, AsyncMatcher> matchersMap) {
-
-        // if we have a matcher name (which may be a list of matchers names)
-        if (CommonHelper.isNotBlank(matcherNames)) {
 
-            // we must have matchers
-            CommonHelper.assertNotNull("matchersMap", matchersMap);
-            final String[] names = matcherNames.split(Pac4jConstants.ELEMENT_SEPRATOR);
+    @Override
+    public List<AsyncMatcher> resolveMatchers(String matcherNames, Map<String, AsyncMatcher> matchersMap) {
+        return AsyncConfigRegistry.lookUpMatchers(matchersMap, matcherNames);
+    }
 
-            final List<AsyncMatcher> matchers = Arrays.stream(names)
-                    .map(n -> matchersMap.entrySet().stream()
-                            .filter(e -> CommonHelper.areEqualsIgnoreCaseAndTrim(e.getKey(), n))
-                            .peek(e -> CommonHelper.assertNotNull("matchersMap['" + n + "']", e))
-                            .findFirst().map(e -> e.getValue()).orElse(null))
-                    .collect(Collectors.toList());
+    @Override
+    public CompletableFuture<Boolean> matches(AsyncWebContext context, List<AsyncMatcher> matchers) {
 
-            return shortCircuitedFuture(matchers.stream()
-                        .map(m -> () -> m.matches(context)), false);
+        if (!matchers.isEmpty()) {
+            return shortCircuitedFuture(matchers, m -> enforce(context, AsyncStage.MATCHER, () -> m.matches(context)), false);
         }
 
         return CompletableFuture.completedFuture(true);
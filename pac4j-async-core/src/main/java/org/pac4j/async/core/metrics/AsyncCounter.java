@@ -0,0 +1,13 @@
+package org.pac4j.async.core.metrics;
+
+/**
+ * Counter of the occurrences of some outcome
+ */
+public interface AsyncCounter {
+
+    default void increment() {
+        increment(1);
+    }
+
+    void increment(long amount);
+}
@@ -0,0 +1,73 @@
+package org.pac4j.async.core.metrics;
+
+import org.pac4j.async.core.Named;
+
+/**
+ * Names of the metrics reported by pac4j-async. Timers record nanoseconds.
+ */
+public final class AsyncMetricNames {
+
+    /** Whole of the security logic */
+    public static final String SECURITY = "pac4j.security";
+    /** Evaluation of the matchers by the security logic */
+    public static final String SECURITY_MATCHING = "pac4j.security.matching";
+    /** Loading of the profiles (from request or session) by the security logic */
+    public static final String SECURITY_PROFILE_LOAD = "pac4j.security.profile.load";
+    /** Authentication via the direct clients by the security logic */
+    public static final String SECURITY_DIRECT_AUTHENTICATION = "pac4j.security.direct.authentication";
+    /** Evaluation of the authorizers by the security logic */
+    public static final String SECURITY_AUTHORIZATION = "pac4j.security.authorization";
+    /** The granted access adapter, i.e. the protected resource */
+    public static final String SECURITY_GRANTED_ACCESS = "pac4j.security.granted.access";
+
+    /** Whole of the callback logic */
+    public static final String CALLBACK = "pac4j.callback";
+    /** Authentication via the client called back, tagged by client */
+    public static final String CALLBACK_AUTHENTICATION = "pac4j.callback.authentication";
+    /** Saving of the profile, and renewal of the session, by the callback logic */
+    public static final String CALLBACK_PROFILE_SAVE = "pac4j.callback.profile.save";
+
+    /** Whole of the logout logic */
+    public static final String LOGOUT = "pac4j.logout";
+    /** Local logout, including any session destruction */
+    public static final String LOGOUT_LOCAL = "pac4j.logout.local";
+
+    /** Extraction and validation of credentials by a client, tagged by client */
+    public static final String CLIENT_CREDENTIALS = "pac4j.client.credentials";
+    /** Creation of a profile, including authorization generators, by a client, tagged by client */
+    public static final String CLIENT_PROFILE = "pac4j.client.profile";
+    /** Counter of requests on which a client found no (valid) credentials, tagged by client */
+    public static final String CLIENT_NO_CREDENTIALS = "pac4j.client.no.credentials";
+
+    /** Evaluation of one authorizer, tagged by authorizer */
+    public static final String AUTHORIZER = "pac4j.authorizer";
+    /** Counter of denials by an authorizer, tagged by authorizer */
+    public static final String AUTHORIZER_DENIED = "pac4j.authorizer.denied";
+
+    private static final ClassValue<String> SIMPLE_NAMES = new ClassValue<String>() {
+        @Override
+        protected String computeValue(final Class<?> type) {
+            // lambdas have names such as Foo$$Lambda$12/1234, keep them stable across restarts
+            final String name = type.getSimpleName();
+            final int lambda = name.indexOf("$$Lambda$");
+            return lambda < 0 ? name : name.substring(0, lambda) + "$$Lambda";
+        }
+    };
+
+    private AsyncMetricNames() {
+    }
+
+    /**
+     * The value with which to tag a metric relating to some object, such as an authorizer: its name if it is
+     * {@link Named}, otherwise its class.
+     *
+     * @param o the object
+     * @return the tag value
+     */
+    public static String tagValueFor(final Object o) {
+        if (o instanceof Named) {
+            return ((Named) o).getName();
+        }
+        return SIMPLE_NAMES.get(o.getClass());
+    }
+}
@@ -0,0 +1,55 @@
+package org.pac4j.async.core.metrics;
+
+/**
+ * Service provider interface through which the logic classes, clients and authorization checker report how long each
+ * stage of a request takes, and count notable outcomes. This keeps pac4j-async free of any dependency on a metrics
+ * library: an implementation for the metrics library of choice can be supplied via
+ * {@link org.pac4j.async.core.config.AsyncConfig#setMetrics(AsyncMetrics)}. By default nothing is recorded (see
+ * {@link NoopAsyncMetrics}); {@link InMemoryAsyncMetrics} records into histograms which can be read at runtime.
+ *
+ * Metrics are identified by a name (see {@link AsyncMetricNames}) and optionally one tag, for example the name of
+ * the client or authorizer concerned. Implementations are called on the request path so should be lock free, and
+ * should expect to be asked for the same timer or counter over and over. Callers may also hold on to the timers and
+ * counters returned and reuse them, so they should stay valid for as long as the metrics themselves.
+ */
+public interface AsyncMetrics {
+
+    /**
+     * Tag identifying the client a metric relates to
+     */
+    String CLIENT_TAG = "client";
+
+    /**
+     * Tag identifying the authorizer a metric relates to
+     */
+    String AUTHORIZER_TAG = "authorizer";
+
+    /**
+     * @param name the metric name
+     * @return the timer with that name
+     */
+    AsyncTimer timer(String name);
+
+    /**
+     * @param name the metric name
+     * @param tagName the tag name
+     * @param tagValue the tag value
+     * @return the timer with that name and tag
+     */
+    AsyncTimer timer(String name, String tagName, String tagValue);
+
+    /**
+     * @param name the metric name
+     * @return the counter with that name
+     */
+    AsyncCounter counter(String name);
+
+    /**
+     * @param name the metric name
+     * @param tagName the tag name
+     * @param tagValue the tag value
+     * @return the counter with that name and tag
+     */
+    AsyncCounter counter(String name, String tagName, String tagValue);
+
+}
@@ -0,0 +1,51 @@
+package org.pac4j.async.core.metrics;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Timer recording the latencies of one stage of a request
+ */
+public interface AsyncTimer {
+
+    /**
+     * Record a latency.
+     *
+     * @param durationNanos the latency in nanoseconds
+     */
+    void record(long durationNanos);
+
+    /**
+     * Time an asynchronous stage, from when it is started until its future completes, whether normally or not.
+     *
+     * @param stage supplier which starts the stage
+     * @return the stage's own future
+     */
+    default <T> CompletableFuture<T> time(final Supplier<CompletableFuture<T>> stage) {
+        final long startNanos = System.nanoTime();
+        final CompletableFuture<T> future;
+        try {
+            future = stage.get();
+        } catch (final RuntimeException e) {
+            record(System.nanoTime() - startNanos);
+            throw e;
+        }
+        return timeFrom(startNanos, future);
+    }
+
+    /**
+     * Time an asynchronous stage which has already been started, until its future completes.
+     *
+     * @param startNanos the {@link System#nanoTime()} at which the stage was started
+     * @param future the stage's future
+     * @return the stage's own future
+     */
+    default <T> CompletableFuture<T> timeFrom(final long startNanos, final CompletableFuture<T> future) {
+        if (future.isDone()) {
+            record(System.nanoTime() - startNanos);
+        } else {
+            future.whenComplete((v, t) -> record(System.nanoTime() - startNanos));
+        }
+        return future;
+    }
+}
@@ -0,0 +1,119 @@
+package org.pac4j.async.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.pac4j.core.util.CommonHelper.assertTrue;
+
+/**
+ * Lock-free histogram of non-negative long values (typically latencies in nanoseconds) covering the whole range of
+ * long with a bounded relative error, in the manner of HdrHistogram. Values below 128 are counted exactly. Above that
+ * each power of two is divided into 64 equal buckets, so a value is reported to within 1/64 (about 1.6%) of itself.
+ *
+ * Recording is a handful of atomic increments, so many threads can record at once. Reads are not atomic with respect
+ * to concurrent recording, but each read works from one pass over the buckets, so is self-consistent.
+ */
+public final class AtomicHistogram {
+
+    private static final int EXACT_LIMIT = 128;
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LOWEST_EXPONENT = 7;
+    private static final int BUCKET_COUNT = EXACT_LIMIT + (Long.SIZE - 1 - LOWEST_EXPONENT) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Record a value.
+     *
+     * @param value the value, which must not be negative
+     */
+    public void record(final long value) {
+        assertTrue(value >= 0, "value must not be negative");
+        counts.incrementAndGet(indexFor(value));
+        sum.add(value);
+        long currentMax = max.get();
+        while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+
+    /**
+     * @return the number of values recorded
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * @return the largest value recorded, or 0 if none has been
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @return the mean of the values recorded, or 0 if none has been
+     */
+    public double getMean() {
+        final long count = getCount();
+        return count == 0 ? 0 : (double) sum.sum() / count;
+    }
+
+    /**
+     * Get the value at a percentile, i.e. the value which that percentage of recorded values are no greater than,
+     * to within the precision of the histogram.
+     *
+     * @param percentile the percentile, from 0 to 100
+     * @return the value at the percentile, or 0 if nothing has been recorded
+     */
+    public long getValueAtPercentile(final double percentile) {
+        assertTrue(percentile >= 0 && percentile <= 100, "percentile must be between 0 and 100");
+        final long[] snapshot = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestValueFor(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    static int indexFor(final long value) {
+        if (value < EXACT_LIMIT) {
+            return (int) value;
+        }
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        // the top SUB_BUCKET_BITS + 1 bits of the value, i.e. from SUB_BUCKETS to 2 * SUB_BUCKETS - 1
+        final int mantissa = (int) (value >>> (exponent - SUB_BUCKET_BITS));
+        return EXACT_LIMIT + (exponent - LOWEST_EXPONENT) * SUB_BUCKETS + (mantissa - SUB_BUCKETS);
+    }
+
+    static long highestValueFor(final int index) {
+        if (index < EXACT_LIMIT) {
+            return index;
+        }
+        final int exponent = LOWEST_EXPONENT + (index - EXACT_LIMIT) / SUB_BUCKETS;
+        final long mantissa = SUB_BUCKETS + (index - EXACT_LIMIT) % SUB_BUCKETS;
+        final int shift = exponent - SUB_BUCKET_BITS;
+        // for the very top bucket this wraps round to exactly Long.MAX_VALUE
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,118 @@
+package org.pac4j.async.core.metrics;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Metrics recorded in process, with each timer backed by an {@link AtomicHistogram} and each counter by a
+ * {@link LongAdder}, so that recording is lock free. The recorded values can be read at any time, for example to
+ * expose them from a management endpoint or to log them periodically.
+ */
+public class InMemoryAsyncMetrics implements AsyncMetrics {
+
+    private final ConcurrentMap<MetricKey, HistogramTimer> timers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<MetricKey, AdderCounter> counters = new ConcurrentHashMap<>();
+    // Untagged metrics indexed by name as well, so that looking one up need not build a key
+    private final ConcurrentMap<String, HistogramTimer> timersByName = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AdderCounter> countersByName = new ConcurrentHashMap<>();
+
+    @Override
+    public AsyncTimer timer(final String name) {
+        return lookupByName(timersByName, timers, name, k -> new HistogramTimer());
+    }
+
+    @Override
+    public AsyncTimer timer(final String name, final String tagName, final String tagValue) {
+        return lookup(timers, new MetricKey(name, tagName, tagValue), k -> new HistogramTimer());
+    }
+
+    @Override
+    public AsyncCounter counter(final String name) {
+        return lookupByName(countersByName, counters, name, k -> new AdderCounter());
+    }
+
+    @Override
+    public AsyncCounter counter(final String name, final String tagName, final String tagValue) {
+        return lookup(counters, new MetricKey(name, tagName, tagValue), k -> new AdderCounter());
+    }
+
+    /**
+     * @param key the metric key
+     * @return the histogram of the latencies recorded by the timer with that key, if it has been used
+     */
+    public Optional<AtomicHistogram> getHistogram(final MetricKey key) {
+        return Optional.ofNullable(timers.get(key)).map(t -> t.histogram);
+    }
+
+    /**
+     * @param key the metric key
+     * @return the count recorded by the counter with that key, 0 if it has not been used
+     */
+    public long getCount(final MetricKey key) {
+        final AdderCounter counter = counters.get(key);
+        return counter == null ? 0 : counter.count.sum();
+    }
+
+    /**
+     * @return the histograms of all timers used so far
+     */
+    public Map<MetricKey, AtomicHistogram> getHistograms() {
+        final Map<MetricKey, AtomicHistogram> histograms = new HashMap<>();
+        timers.forEach((k, t) -> histograms.put(k, t.histogram));
+        return Collections.unmodifiableMap(histograms);
+    }
+
+    /**
+     * @return the counts of all counters used so far
+     */
+    public Map<MetricKey, Long> getCounts() {
+        final Map<MetricKey, Long> counts = new HashMap<>();
+        counters.forEach((k, c) -> counts.put(k, c.count.sum()));
+        return Collections.unmodifiableMap(counts);
+    }
+
+    private static <M> M lookupByName(final ConcurrentMap<String, M> metricsByName,
+                                      final ConcurrentMap<MetricKey, M> metrics, final String name,
+                                      final Function<MetricKey, M> factory) {
+        final M existing = metricsByName.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        final M metric = lookup(metrics, new MetricKey(name), factory);
+        metricsByName.putIfAbsent(name, metric);
+        return metric;
+    }
+
+    private static <M> M lookup(final ConcurrentMap<MetricKey, M> metrics, final MetricKey key,
+                                final Function<MetricKey, M> factory) {
+        // get first, as computeIfAbsent locks even when the metric is already present
+        final M existing = metrics.get(key);
+        return existing != null ? existing : metrics.computeIfAbsent(key, factory);
+    }
+
+    private static final class HistogramTimer implements AsyncTimer {
+
+        private final AtomicHistogram histogram = new AtomicHistogram();
+
+        @Override
+        public void record(final long durationNanos) {
+            histogram.record(Math.max(0, durationNanos));
+        }
+    }
+
+    private static final class AdderCounter implements AsyncCounter {
+
+        private final LongAdder count = new LongAdder();
+
+        @Override
+        public void increment(final long amount) {
+            count.add(amount);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.pac4j.async.core.metrics;
+
+import static org.pac4j.core.util.CommonHelper.assertNotBlank;
+
+/**
+ * Identity of a metric: its name and optional tag
+ */
+public final class MetricKey {
+
+    private final String name;
+    private final String tagName;
+    private final String tagValue;
+    // Worked out once, as keys are hashed on every lookup of the metric
+    private final int hash;
+
+    public MetricKey(final String name) {
+        this(name, null, null);
+    }
+
+    public MetricKey(final String name, final String tagName, final String tagValue) {
+        assertNotBlank("name", name);
+        this.name = name;
+        this.tagName = tagName;
+        this.tagValue = tagValue;
+        this.hash = 31 * (31 * name.hashCode() + hashOf(tagName)) + hashOf(tagValue);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getTagName() {
+        return tagName;
+    }
+
+    public String getTagValue() {
+        return tagValue;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MetricKey)) {
+            return false;
+        }
+        final MetricKey other = (MetricKey) o;
+        return hash == other.hash && name.equals(other.name) && equal(tagName, other.tagName) && equal(tagValue, other.tagValue);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return tagName == null ? name : name + "{" + tagName + "=" + tagValue + "}";
+    }
+
+    private static int hashOf(final String s) {
+        return s == null ? 0 : s.hashCode();
+    }
+
+    private static boolean equal(final String s1, final String s2) {
+        return s1 == null ? s2 == null : s1.equals(s2);
+    }
+}
@@ -0,0 +1,59 @@
+package org.pac4j.async.core.metrics;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Metrics which record nothing, used unless other metrics are configured. The timer neither reads the clock nor
+ * attaches anything to the futures it is given, so leaving metrics unconfigured costs next to nothing.
+ */
+public enum NoopAsyncMetrics implements AsyncMetrics, AsyncTimer, AsyncCounter {
+
+    INSTANCE;
+
+    @Override
+    public AsyncTimer timer(final String name) {
+        return this;
+    }
+
+    @Override
+    public AsyncTimer timer(final String name, final String tagName, final String tagValue) {
+        return this;
+    }
+
+    @Override
+    public AsyncCounter counter(final String name) {
+        return this;
+    }
+
+    @Override
+    public AsyncCounter counter(final String name, final String tagName, final String tagValue) {
+        return this;
+    }
+
+    @Override
+    public void record(final long durationNanos) {
+    }
+
+    @Override
+    public <T> CompletableFuture<T> time(final Supplier<CompletableFuture<T>> stage) {
+        return stage.get();
+    }
+
+    @Override
+    public <T> CompletableFuture<T> timeFrom(final long startNanos, final CompletableFuture<T> future) {
+        return future;
+    }
+
+    @Override
+    public void increment(final long amount) {
+    }
+
+    /**
+     * @param metrics metrics which may be null
+     * @return the metrics, or these no-op metrics if null
+     */
+    public static AsyncMetrics orNoop(final AsyncMetrics metrics) {
+        return metrics == null ? INSTANCE : metrics;
+    }
+}
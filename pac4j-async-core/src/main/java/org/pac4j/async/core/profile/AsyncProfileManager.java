@@ -1,6 +1,7 @@
 package org.pac4j.async.core.profile;
 
 import org.pac4j.async.core.context.AsyncWebContext;
+import org.pac4j.async.core.deadline.AsyncStage;
 import org.pac4j.core.authorization.authorizer.Authorizer;
 import org.pac4j.core.authorization.authorizer.IsAuthenticatedAuthorizer;
 import org.pac4j.core.context.WebContext;
@@ -17,13 +18,24 @@ import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
 import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.pac4j.async.core.deadline.AsyncDeadlines.enforce;
 import static org.pac4j.core.context.Pac4jConstants.USER_PROFILES;
 
 /**
  * This class is a generic way to manage the current user profile(s), i.e. the one(s) of the current authenticated user.
  * This version allows for asynchronous session storage
+ *
+ * Once the profiles have been read from the session they are remembered for the rest of the request (as a request
+ * attribute, since a profile manager is usually created per use), and kept up to date as profiles are saved and
+ * removed, so that however many times they are asked for the session store is only read once per request.
  */
 public class AsyncProfileManager<U extends CommonProfile, C extends AsyncWebContext> {
+
+    /**
+     * Request attribute holding the profiles as they currently are in the session, once read
+     */
+    public static final String SESSION_PROFILES_ATTRIBUTE = "pac4jAsyncSessionProfiles";
+
     private final Authorizer<WebContext<?>, U> IS_AUTHENTICATED_AUTHORIZER = new IsAuthenticatedAuthorizer<>();
 
     protected final AsyncWebContext context;
@@ -65,7 +77,9 @@ public class AsyncProfileManager<U extends CommonProfile, C extends AsyncWebCont
         this.context.setRequestAttribute(USER_PROFILES, new LinkedHashMap<String, U>());
 
         if (removeFromSession) {
-            return this.context.getSessionStore().set(context, USER_PROFILES, new LinkedHashMap<String, U>());
+            return enforce(context, AsyncStage.SESSION_STORE,
+                    () -> this.context.getSessionStore().set(context, USER_PROFILES, new LinkedHashMap<String, U>()))
+                    .thenAccept(v -> rememberSessionProfiles(new LinkedHashMap<>()));
         } else {
             // We've done all we need to
             return completedFuture(null);
@@ -100,9 +114,14 @@ public class AsyncProfileManager<U extends CommonProfile, C extends AsyncWebCont
 
         return updatedProfilesFuture.thenCompose(profiles -> {
             CompletableFuture<Void> saveFuture = (saveInSession ?
-                    this.context.getSessionStore().set(context, USER_PROFILES, profiles) :
+                    enforce(context, AsyncStage.SESSION_STORE, () -> this.context.getSessionStore().set(context, USER_PROFILES, profiles)) :
                     completedFuture(null))
-                        .thenAccept(v -> this.context.setRequestAttribute(USER_PROFILES, profiles));
+                        .thenAccept(v -> {
+                            this.context.setRequestAttribute(USER_PROFILES, profiles);
+                            if (saveInSession) {
+                                rememberSessionProfiles(profiles);
+                            }
+                        });
                     return saveFuture;
         });
 
@@ -149,16 +168,25 @@ public class AsyncProfileManager<U extends CommonProfile, C extends AsyncWebCont
             }
         }
         if (readFromSession) {
-            final CompletableFuture<Object> sessionAttributeFuture = this.context.getSessionStore().get(context, USER_PROFILES);
+            final Map<String, U> sessionProfiles = rememberedSessionProfiles();
+            if (sessionProfiles != null) {
+                profiles.putAll(sessionProfiles);
+                return completedFuture(profiles);
+            }
+            final CompletableFuture<Object> sessionAttributeFuture = enforce(context, AsyncStage.SESSION_STORE,
+                    () -> this.context.getSessionStore().get(context, USER_PROFILES));
             return sessionAttributeFuture.thenCompose(sessionAttribute -> {
                 final CompletableFuture<Map<String, U>> future = new CompletableFuture<>();
-                this.context.getExecutionContext().runOnContext(() -> {
+                this.context.getExecutionContext().executeOnContext(() -> {
+                    final Map<String, U> readProfiles = new LinkedHashMap<>();
                     if  (sessionAttribute instanceof Map) {
-                        profiles.putAll((Map<String, U>) sessionAttribute);
+                        readProfiles.putAll((Map<String, U>) sessionAttribute);
                     }
                     if (sessionAttribute instanceof CommonProfile) {
-                        profiles.put(retrieveClientName((U) sessionAttribute), (U) sessionAttribute);
+                        readProfiles.put(retrieveClientName((U) sessionAttribute), (U) sessionAttribute);
                     }
+                    rememberSessionProfiles(readProfiles);
+                    profiles.putAll(readProfiles);
                     future.complete(profiles);
                 });
                 return future;
@@ -169,6 +197,25 @@ public class AsyncProfileManager<U extends CommonProfile, C extends AsyncWebCont
         }
     }
 
+    /**
+     * @return the profiles as they currently are in the session, if they have already been read during this request
+     */
+    @SuppressWarnings("unchecked")
+    protected Map<String, U> rememberedSessionProfiles() {
+        final Object remembered = this.context.getRequestAttribute(SESSION_PROFILES_ATTRIBUTE);
+        return remembered instanceof Map ? (Map<String, U>) remembered : null;
+    }
+
+    /**
+     * Remember the profiles as they currently are in the session, for the rest of the request. A copy is kept, as
+     * callers go on to modify the maps of profiles they are given.
+     *
+     * @param sessionProfiles the profiles in the session
+     */
+    protected void rememberSessionProfiles(final Map<String, U> sessionProfiles) {
+        this.context.setRequestAttribute(SESSION_PROFILES_ATTRIBUTE, new LinkedHashMap<>(sessionProfiles));
+    }
+
     protected String retrieveClientName(final U profile) {
         String clientName = profile.getClientName();
         if (clientName == null) {
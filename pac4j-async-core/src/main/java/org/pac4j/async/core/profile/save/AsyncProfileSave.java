@@ -21,13 +21,13 @@ public enum AsyncProfileSave implements AsyncProfileSaveStrategy {
 
         @Override
         public CompletableFuture<Boolean> combineResults(List<Supplier<CompletableFuture<Boolean>>> saveFutureSuppliers) {
-            return shortCircuitedFuture(saveFutureSuppliers.stream(), true);
+            return shortCircuitedFuture(saveFutureSuppliers, Supplier::get, true);
         }
     },
     MULTI_PROFILE_SAVE(true) {
         @Override
         public CompletableFuture<Boolean> combineResults(List<Supplier<CompletableFuture<Boolean>>> saveFutureSuppliers) {
-            return FutureUtils.allInSequence(saveFutureSuppliers.stream());
+            return FutureUtils.allInSequence(saveFutureSuppliers, Supplier::get);
         }
     };
 
@@ -38,7 +38,8 @@ public enum AsyncProfileSave implements AsyncProfileSaveStrategy {
         this.multiProfile = multiProfile;
     }
 
-    private boolean isMultiProfile() { return multiProfile; }
+    @Override
+    public boolean isMultiProfile() { return multiProfile; }
 
     @Override
     public <T extends CommonProfile, C extends AsyncWebContext> CompletableFuture<Boolean> saveProfile(AsyncProfileManager<T, C> manager, Function<T, Boolean> determineSaveToSession, T profile) {
@@ -18,4 +18,15 @@ public interface AsyncProfileSaveStrategy {
                                                                                                final Function<T, Boolean> saveToSession,
                                                                                                T profile);
     CompletableFuture<Boolean> combineResults(final List<Supplier<CompletableFuture<Boolean>>> saveFutureSuppliers);
+
+    /**
+     * Whether more than one profile may be saved. Where only one is (the first found, in client order), callers need
+     * not wait for every client to authenticate before saving, so strategies which save at most one profile should
+     * return false.
+     *
+     * @return whether the strategy may save more than one profile
+     */
+    default boolean isMultiProfile() {
+        return true;
+    }
 }
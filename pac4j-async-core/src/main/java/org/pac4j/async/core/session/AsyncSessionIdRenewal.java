@@ -0,0 +1,32 @@
+package org.pac4j.async.core.session;
+
+import static org.pac4j.core.util.CommonHelper.assertNotNull;
+
+/**
+ * The outcome of renewing a session: the id the session had before renewal, and the id it has now.
+ */
+public final class AsyncSessionIdRenewal {
+
+    private final String oldSessionId;
+    private final String newSessionId;
+
+    public AsyncSessionIdRenewal(final String oldSessionId, final String newSessionId) {
+        assertNotNull("oldSessionId", oldSessionId);
+        assertNotNull("newSessionId", newSessionId);
+        this.oldSessionId = oldSessionId;
+        this.newSessionId = newSessionId;
+    }
+
+    public String getOldSessionId() {
+        return oldSessionId;
+    }
+
+    public String getNewSessionId() {
+        return newSessionId;
+    }
+
+    @Override
+    public String toString() {
+        return oldSessionId + " -> " + newSessionId;
+    }
+}
@@ -3,6 +3,9 @@ package org.pac4j.async.core.session;
 import org.pac4j.async.core.context.AsyncWebContext;
 import org.pac4j.core.context.WebContext;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
@@ -38,6 +41,53 @@ public interface AsyncSessionStore {
      */
     <T> CompletableFuture<Void> set(WebContext<AsyncSessionStore> context, String key, T value);
 
+    /**
+     * Get several objects from the store at once. Stores which can fetch several keys in one operation should
+     * override this, by default each key is fetched separately.
+     *
+     * @param context the web context
+     * @param keys the keys of the objects
+     * @return the objects in store, by key, in the order of the keys given (null for any key not present)
+     */
+    default CompletableFuture<Map<String, Object>> getAll(final WebContext<AsyncSessionStore> context,
+                                                          final Collection<String> keys) {
+        final Map<String, CompletableFuture<Object>> reads = new LinkedHashMap<>();
+        keys.forEach(key -> reads.put(key, get(context, key)));
+        return CompletableFuture.allOf(reads.values().toArray(new CompletableFuture[reads.size()]))
+                .thenApply(v -> {
+                    final Map<String, Object> values = new LinkedHashMap<>();
+                    reads.forEach((key, read) -> values.put(key, read.join()));
+                    return values;
+                });
+    }
+
+    /**
+     * Save several objects in the store at once. Stores which can save several keys in one operation should override
+     * this, by default each key is saved separately.
+     *
+     * @param context the web context
+     * @param values the values to save in store, by key
+     * @return future which completes once all the values have been saved
+     */
+    default CompletableFuture<Void> setAll(final WebContext<AsyncSessionStore> context, final Map<String, ?> values) {
+        return CompletableFuture.allOf(values.entrySet().stream()
+                .map(e -> set(context, e.getKey(), e.getValue()))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Remove several objects from the store at once. By default each key is set to null separately.
+     *
+     * @param context the web context
+     * @param keys the keys of the objects to remove
+     * @return future which completes once all the objects have been removed
+     */
+    default CompletableFuture<Void> removeAll(final WebContext<AsyncSessionStore> context, final Collection<String> keys) {
+        return CompletableFuture.allOf(keys.stream()
+                .map(key -> set(context, key, null))
+                .toArray(CompletableFuture[]::new));
+    }
+
     /**
      * Destroy the web session.
      *
@@ -83,4 +133,20 @@ public interface AsyncSessionStore {
         return CompletableFuture.completedFuture(false);
     }
 
+    /**
+     * Renew the native session, reporting the session id from before and after the renewal. Stores which can change
+     * the session id in place should override this to do so in one step, by default the id is read before and after
+     * calling {@link #renewSession(AsyncWebContext)}.
+     *
+     * @param context the web context
+     * @return the old and new session ids, or empty if the session store has not renewed the session
+     */
+    default CompletableFuture<Optional<AsyncSessionIdRenewal>> renewSessionId(AsyncWebContext context) {
+        return getOrCreateSessionId(context).thenCompose(oldSessionId -> renewSession(context)
+                .thenCompose(renewed -> renewed ?
+                        getOrCreateSessionId(context)
+                                .thenApply(newSessionId -> Optional.of(new AsyncSessionIdRenewal(oldSessionId, newSessionId))) :
+                        CompletableFuture.completedFuture(Optional.<AsyncSessionIdRenewal>empty())));
+    }
+
 }
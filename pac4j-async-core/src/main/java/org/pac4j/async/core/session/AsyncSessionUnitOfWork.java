@@ -0,0 +1,236 @@
+package org.pac4j.async.core.session;
+
+import org.pac4j.async.core.context.AsyncWebContext;
+import org.pac4j.core.context.WebContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.stream.Collectors.toList;
+import static org.pac4j.core.util.CommonHelper.assertNotNull;
+
+/**
+ * Session store decorator holding the session reads and writes made while handling a single request. Each key is read
+ * from the underlying store at most once, writes are held in memory (so later reads see them) and only the keys
+ * which have been written are sent to the underlying store, once each with their final value, when the unit of work
+ * is flushed. With a remote session store this means one batch of writes (plus one of removals) per request rather
+ * than a round trip for each write.
+ *
+ * A unit of work belongs to a single request, so should be begun for each request and completed before the response
+ * is sent. {@link #begin(AsyncWebContext)} and {@link #complete(AsyncWebContext)} do this by swapping it in for, then
+ * back out for, the web context's own session store.
+ */
+public class AsyncSessionUnitOfWork implements AsyncSessionStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncSessionUnitOfWork.class);
+
+    private final AsyncSessionStore delegate;
+    // Values as this request sees them, whether read from the underlying store or written during the request
+    private final Map<String, Object> values = new HashMap<>();
+    // Values written during the request and not yet flushed, in the order first written
+    private final Map<String, Object> dirty = new LinkedHashMap<>();
+    // Keys removed during the request and not yet flushed
+    private final Set<String> removed = new LinkedHashSet<>();
+
+    public AsyncSessionUnitOfWork(final AsyncSessionStore delegate) {
+        assertNotNull("delegate", delegate);
+        this.delegate = delegate;
+    }
+
+    /**
+     * Begin a unit of work for the request, wrapping the web context's session store. Calling this again for the same
+     * request returns the unit of work already begun.
+     *
+     * @param context the web context for the request
+     * @return the unit of work now acting as the context's session store
+     */
+    public static AsyncSessionUnitOfWork begin(final AsyncWebContext context) {
+        final AsyncSessionStore sessionStore = context.getSessionStore();
+        if (sessionStore instanceof AsyncSessionUnitOfWork) {
+            return (AsyncSessionUnitOfWork) sessionStore;
+        }
+        final AsyncSessionUnitOfWork unitOfWork = new AsyncSessionUnitOfWork(sessionStore);
+        context.setSessionStore(unitOfWork);
+        return unitOfWork;
+    }
+
+    /**
+     * Complete the request's unit of work, if one has been begun, flushing its writes and restoring the web context's
+     * own session store.
+     *
+     * @param context the web context for the request
+     * @return future which completes once any writes have been flushed
+     */
+    public static CompletableFuture<Void> complete(final AsyncWebContext context) {
+        final AsyncSessionStore sessionStore = context.getSessionStore();
+        if (!(sessionStore instanceof AsyncSessionUnitOfWork)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        final AsyncSessionUnitOfWork unitOfWork = (AsyncSessionUnitOfWork) sessionStore;
+        context.setSessionStore(unitOfWork.getDelegate());
+        return unitOfWork.flush(context);
+    }
+
+    /**
+     * Write the values set since the last flush to the underlying store.
+     *
+     * @param context the web context
+     * @return future which completes once all the writes have completed
+     */
+    public CompletableFuture<Void> flush(final WebContext<AsyncSessionStore> context) {
+        final Map<String, Object> toWrite;
+        final Set<String> toRemove;
+        synchronized (this) {
+            if (!isDirty()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            toWrite = new LinkedHashMap<>(dirty);
+            toRemove = new LinkedHashSet<>(removed);
+            dirty.clear();
+            removed.clear();
+        }
+        logger.debug("Flushing session keys {}, removing {}", toWrite.keySet(), toRemove);
+        final CompletableFuture<Void> writes = toWrite.isEmpty() ? CompletableFuture.completedFuture(null) :
+                delegate.setAll(context, toWrite);
+        final CompletableFuture<Void> removals = toRemove.isEmpty() ? CompletableFuture.completedFuture(null) :
+                delegate.removeAll(context, toRemove);
+        return CompletableFuture.allOf(writes, removals);
+    }
+
+    /**
+     * @return whether there are writes waiting to be flushed
+     */
+    public synchronized boolean isDirty() {
+        return !dirty.isEmpty() || !removed.isEmpty();
+    }
+
+    public AsyncSessionStore getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public CompletableFuture<String> getOrCreateSessionId(final AsyncWebContext context) {
+        return delegate.getOrCreateSessionId(context);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> get(final WebContext<AsyncSessionStore> context, final String key) {
+        synchronized (this) {
+            if (values.containsKey(key)) {
+                return CompletableFuture.completedFuture((T) values.get(key));
+            }
+        }
+        return delegate.<T>get(context, key).thenApply(value -> {
+            synchronized (this) {
+                // A write made while the read was in flight takes precedence over what was read
+                if (values.containsKey(key)) {
+                    return (T) values.get(key);
+                }
+                values.put(key, value);
+                return value;
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> getAll(final WebContext<AsyncSessionStore> context,
+                                                         final Collection<String> keys) {
+        final List<String> missing;
+        synchronized (this) {
+            missing = keys.stream().filter(key -> !values.containsKey(key)).collect(toList());
+        }
+        final CompletableFuture<Map<String, Object>> readFuture = missing.isEmpty() ?
+                CompletableFuture.completedFuture(Collections.emptyMap()) : delegate.getAll(context, missing);
+        return readFuture.thenApply(read -> {
+            final Map<String, Object> result = new LinkedHashMap<>();
+            synchronized (this) {
+                // As for get, anything written or removed while the read was in flight takes precedence
+                read.forEach((key, value) -> {
+                    if (!values.containsKey(key)) {
+                        values.put(key, value);
+                    }
+                });
+                keys.forEach(key -> result.put(key, values.get(key)));
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public <T> CompletableFuture<Void> set(final WebContext<AsyncSessionStore> context, final String key, final T value) {
+        synchronized (this) {
+            write(key, value);
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> setAll(final WebContext<AsyncSessionStore> context, final Map<String, ?> toSet) {
+        synchronized (this) {
+            toSet.forEach(this::write);
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAll(final WebContext<AsyncSessionStore> context, final Collection<String> keys) {
+        synchronized (this) {
+            keys.forEach(key -> {
+                values.put(key, null);
+                dirty.remove(key);
+                removed.add(key);
+            });
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private void write(final String key, final Object value) {
+        values.put(key, value);
+        removed.remove(key);
+        dirty.put(key, value);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> destroySession(final AsyncWebContext context) {
+        // Anything read or written so far belonged to the session being destroyed
+        synchronized (this) {
+            values.clear();
+            dirty.clear();
+            removed.clear();
+        }
+        return delegate.destroySession(context);
+    }
+
+    @Override
+    public CompletableFuture<Optional<Object>> getTrackableSession(final AsyncWebContext context) {
+        return delegate.getTrackableSession(context);
+    }
+
+    @Override
+    public Optional<AsyncSessionStore> buildFromTrackableSession(final AsyncWebContext context, final Object trackableSession) {
+        return delegate.buildFromTrackableSession(context, trackableSession);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> renewSession(final AsyncWebContext context) {
+        // Renewal copies the session's contents, so they must be up to date first
+        return flush(context).thenCompose(v -> delegate.renewSession(context));
+    }
+
+    @Override
+    public CompletableFuture<Optional<AsyncSessionIdRenewal>> renewSessionId(final AsyncWebContext context) {
+        return flush(context).thenCompose(v -> delegate.renewSessionId(context));
+    }
+
+}
@@ -0,0 +1,52 @@
+package org.pac4j.async.core.session;
+
+import java.util.Objects;
+
+import static org.pac4j.core.util.CommonHelper.assertNotNull;
+
+/**
+ * The version stamp of a session, as held by a {@link VersionedAsyncSessionStore}. The version goes up whenever the
+ * session is written to, so anything read from the session at a version is known to still be current for as long as
+ * the version remains the same.
+ */
+public final class AsyncSessionVersion {
+
+    private final String sessionId;
+    private final long version;
+
+    public AsyncSessionVersion(final String sessionId, final long version) {
+        assertNotNull("sessionId", sessionId);
+        this.sessionId = sessionId;
+        this.version = version;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final AsyncSessionVersion that = (AsyncSessionVersion) o;
+        return version == that.version && sessionId.equals(that.sessionId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sessionId, version);
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncSessionVersion{sessionId=" + sessionId + ", version=" + version + "}";
+    }
+}
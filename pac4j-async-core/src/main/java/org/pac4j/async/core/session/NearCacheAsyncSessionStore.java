@@ -0,0 +1,323 @@
+package org.pac4j.async.core.session;
+
+import org.pac4j.async.core.context.AsyncWebContext;
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.util.JavaSerializationHelper;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.stream.Collectors.toList;
+import static org.pac4j.core.util.CommonHelper.assertNotNull;
+import static org.pac4j.core.util.CommonHelper.assertTrue;
+
+/**
+ * Session store decorator keeping a bounded local copy of values read from a remote, versioned session store, so
+ * that values read on every request (such as the user profiles) need not be fetched over the network each time.
+ *
+ * Values are held per session along with the session version they were read at. On the first read in a request the
+ * session's current version is fetched from the underlying store (once per request, the result being held as a
+ * request attribute) and a cached value is only used if it was read at that same version. As the underlying store
+ * increments the version on every write, from whichever server, a stale value is never returned, and checking for
+ * one costs a single cheap read rather than re-reading every value. Entries also expire after a fixed time to live,
+ * and the least recently used sessions are dropped once the cache holds its maximum number of sessions.
+ *
+ * Values are cached in their serialized form and deserialized on every read, so that each request gets its own
+ * copy of, for example, the user profiles, and a request changing the objects it has read cannot change what other
+ * requests see. Values which are not serializable are not cached, but read from the underlying store every time.
+ */
+public class NearCacheAsyncSessionStore implements AsyncSessionStore {
+
+    public static final String SESSION_VERSION_ATTRIBUTE = "pac4jAsyncNearCacheSessionVersion";
+
+    public static final int DEFAULT_MAX_SESSIONS = 10000;
+    public static final long DEFAULT_TTL_MILLIS = 30000;
+
+    private final VersionedAsyncSessionStore delegate;
+    private final int maxSessions;
+    // Guarded by itself, in access order so the least recently used session is dropped first
+    private final LinkedHashMap<String, CachedSession> cache;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private long ttlNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_TTL_MILLIS);
+    private LongSupplier clock = System::nanoTime;
+    private JavaSerializationHelper serializationHelper = new JavaSerializationHelper();
+
+    public NearCacheAsyncSessionStore(final VersionedAsyncSessionStore delegate) {
+        this(delegate, DEFAULT_MAX_SESSIONS);
+    }
+
+    public NearCacheAsyncSessionStore(final VersionedAsyncSessionStore delegate, final int maxSessions) {
+        assertNotNull("delegate", delegate);
+        assertTrue(maxSessions > 0, "maxSessions must be greater than zero");
+        this.delegate = delegate;
+        this.maxSessions = maxSessions;
+        this.cache = new LinkedHashMap<String, CachedSession>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, CachedSession> eldest) {
+                return size() > NearCacheAsyncSessionStore.this.maxSessions;
+            }
+        };
+    }
+
+    @Override
+    public CompletableFuture<String> getOrCreateSessionId(final AsyncWebContext context) {
+        return delegate.getOrCreateSessionId(context);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> get(final WebContext<AsyncSessionStore> context, final String key) {
+        return currentVersion(context).thenCompose(version -> {
+            if (!version.isPresent()) {
+                return delegate.get(context, key);
+            }
+            final Map<String, Object> cached = cachedValues(version.get(), singletonList(key));
+            if (cached.containsKey(key)) {
+                hits.increment();
+                return completedFuture(NearCacheAsyncSessionStore.<T>cast(cached.get(key)));
+            }
+            misses.increment();
+            return delegate.<T>get(context, key).thenApply(value -> {
+                cache(version.get(), singletonMap(key, value));
+                return value;
+            });
+        });
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> getAll(final WebContext<AsyncSessionStore> context,
+                                                         final Collection<String> keys) {
+        return currentVersion(context).thenCompose(version -> {
+            if (!version.isPresent()) {
+                return delegate.getAll(context, keys);
+            }
+            final Map<String, Object> cached = cachedValues(version.get(), keys);
+            final List<String> missing = keys.stream().filter(key -> !cached.containsKey(key)).collect(toList());
+            hits.add(keys.size() - missing.size());
+            misses.add(missing.size());
+            final CompletableFuture<Map<String, Object>> fetched = missing.isEmpty() ?
+                    completedFuture(new HashMap<>()) : delegate.getAll(context, missing);
+            return fetched.thenApply(read -> {
+                cache(version.get(), read);
+                final Map<String, Object> values = new LinkedHashMap<>();
+                keys.forEach(key -> values.put(key, cached.containsKey(key) ? cached.get(key) : read.get(key)));
+                return values;
+            });
+        });
+    }
+
+    @Override
+    public <T> CompletableFuture<Void> set(final WebContext<AsyncSessionStore> context, final String key, final T value) {
+        return afterWrite(context, delegate.set(context, key, value));
+    }
+
+    @Override
+    public CompletableFuture<Void> setAll(final WebContext<AsyncSessionStore> context, final Map<String, ?> values) {
+        return afterWrite(context, delegate.setAll(context, values));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAll(final WebContext<AsyncSessionStore> context, final Collection<String> keys) {
+        return afterWrite(context, delegate.removeAll(context, keys));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> destroySession(final AsyncWebContext context) {
+        return currentVersion(context).thenCompose(version -> {
+            version.ifPresent(v -> evict(v.getSessionId()));
+            forgetVersion(context);
+            return delegate.destroySession(context);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> renewSession(final AsyncWebContext context) {
+        return currentVersion(context).thenCompose(version -> {
+            version.ifPresent(v -> evict(v.getSessionId()));
+            forgetVersion(context);
+            return delegate.renewSession(context);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Optional<AsyncSessionIdRenewal>> renewSessionId(final AsyncWebContext context) {
+        return currentVersion(context).thenCompose(version -> {
+            version.ifPresent(v -> evict(v.getSessionId()));
+            forgetVersion(context);
+            return delegate.renewSessionId(context);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Optional<Object>> getTrackableSession(final AsyncWebContext context) {
+        return delegate.getTrackableSession(context);
+    }
+
+    @Override
+    public Optional<AsyncSessionStore> buildFromTrackableSession(final AsyncWebContext context, final Object trackableSession) {
+        // The store built is for a session other than the request's own, so it bypasses the cache
+        return delegate.buildFromTrackableSession(context, trackableSession);
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public int getSize() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public VersionedAsyncSessionStore getDelegate() {
+        return delegate;
+    }
+
+    public void setTtl(final long ttl, final TimeUnit unit) {
+        assertTrue(ttl > 0, "ttl must be greater than zero");
+        this.ttlNanos = unit.toNanos(ttl);
+    }
+
+    /**
+     * Set the source of the time used to expire entries, for testing.
+     *
+     * @param clock supplier of the current time in nanoseconds, as for System.nanoTime()
+     */
+    public void setClock(final LongSupplier clock) {
+        assertNotNull("clock", clock);
+        this.clock = clock;
+    }
+
+    public JavaSerializationHelper getSerializationHelper() {
+        return serializationHelper;
+    }
+
+    public void setSerializationHelper(final JavaSerializationHelper serializationHelper) {
+        assertNotNull("serializationHelper", serializationHelper);
+        this.serializationHelper = serializationHelper;
+    }
+
+    private CompletableFuture<Optional<AsyncSessionVersion>> currentVersion(final WebContext<AsyncSessionStore> context) {
+        final Optional<AsyncSessionVersion> known = knownVersion(context);
+        if (known != null) {
+            return completedFuture(known);
+        }
+        return delegate.getVersion(context).thenApply(version -> {
+            context.setRequestAttribute(SESSION_VERSION_ATTRIBUTE, version);
+            return version;
+        });
+    }
+
+    private static Optional<AsyncSessionVersion> knownVersion(final WebContext<AsyncSessionStore> context) {
+        return cast(context.getRequestAttribute(SESSION_VERSION_ATTRIBUTE));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(final Object value) {
+        return (T) value;
+    }
+
+    private void forgetVersion(final WebContext<AsyncSessionStore> context) {
+        context.setRequestAttribute(SESSION_VERSION_ATTRIBUTE, null);
+    }
+
+    private CompletableFuture<Void> afterWrite(final WebContext<AsyncSessionStore> context,
+                                               final CompletableFuture<Void> write) {
+        return write.thenApply(v -> {
+            // The write has moved the session on to a new version, which the next read in this request must fetch
+            final Optional<AsyncSessionVersion> known = knownVersion(context);
+            if (known != null) {
+                known.ifPresent(version -> evict(version.getSessionId()));
+                forgetVersion(context);
+            }
+            return null;
+        });
+    }
+
+    private Map<String, Object> cachedValues(final AsyncSessionVersion version, final Collection<String> keys) {
+        final Map<String, byte[]> serialized = new HashMap<>();
+        synchronized (cache) {
+            final CachedSession session = cache.get(version.getSessionId());
+            if (session == null) {
+                return new HashMap<>();
+            }
+            if (session.version != version.getVersion() || session.expiresAt - clock.getAsLong() <= 0) {
+                cache.remove(version.getSessionId());
+                return new HashMap<>();
+            }
+            keys.stream().filter(session.values::containsKey).forEach(key -> serialized.put(key, session.values.get(key)));
+        }
+        // Deserialized outside the lock, giving the caller its own copy of each value
+        final Map<String, Object> values = new HashMap<>();
+        serialized.forEach((key, value) -> {
+            if (value == null) {
+                values.put(key, null);
+            } else {
+                final Serializable copy = serializationHelper.unserializeFromBytes(value);
+                // A value of a class the helper does not trust to deserialize is left to be read from the delegate
+                if (copy != null) {
+                    values.put(key, copy);
+                }
+            }
+        });
+        return values;
+    }
+
+    private void cache(final AsyncSessionVersion version, final Map<String, ?> read) {
+        final Map<String, byte[]> values = new HashMap<>();
+        read.forEach((key, value) -> {
+            if (value == null) {
+                values.put(key, null);
+            } else if (value instanceof Serializable) {
+                values.put(key, serializationHelper.serializeToBytes((Serializable) value));
+            }
+        });
+        synchronized (cache) {
+            final CachedSession session = cache.get(version.getSessionId());
+            if (session != null && session.version == version.getVersion()) {
+                session.values.putAll(values);
+            } else if (session == null || session.version < version.getVersion()) {
+                final CachedSession replacement = new CachedSession(version.getVersion(), clock.getAsLong() + ttlNanos);
+                replacement.values.putAll(values);
+                cache.put(version.getSessionId(), replacement);
+            }
+            // Otherwise the values were read at an older version than is already cached, so are dropped
+        }
+    }
+
+    private void evict(final String sessionId) {
+        synchronized (cache) {
+            cache.remove(sessionId);
+        }
+    }
+
+    private static final class CachedSession {
+
+        private final long version;
+        private final long expiresAt;
+        // Null values are kept, as knowing a key is absent saves a read just as much as knowing its value
+        private final Map<String, byte[]> values = new HashMap<>();
+
+        private CachedSession(final long version, final long expiresAt) {
+            this.version = version;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.pac4j.async.core.session;
+
+import org.pac4j.core.context.WebContext;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Session store which keeps a version stamp for each session, incremented on every write to the session. Reading
+ * the version is expected to be much cheaper than reading the session's attributes, so that values held locally can
+ * be checked for staleness without fetching them again.
+ */
+public interface VersionedAsyncSessionStore extends AsyncSessionStore {
+
+    /**
+     * Get the current version of the request's session. This must not create a session if there is none.
+     *
+     * @param context the web context
+     * @return the session's id and current version, or empty if the request has no session
+     */
+    CompletableFuture<Optional<AsyncSessionVersion>> getVersion(WebContext<AsyncSessionStore> context);
+
+}
@@ -0,0 +1,451 @@
+package org.pac4j.async.core.session.cookie;
+
+import org.pac4j.async.core.context.AsyncWebContext;
+import org.pac4j.async.core.session.AsyncSessionStore;
+import org.pac4j.core.context.Cookie;
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.JavaSerializationHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.LongSupplier;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.pac4j.core.util.CommonHelper.assertNotBlank;
+import static org.pac4j.core.util.CommonHelper.assertNotNull;
+import static org.pac4j.core.util.CommonHelper.assertTrue;
+
+/**
+ * Session store keeping the whole session in the client's cookies, so that no server-side lookup is ever needed.
+ *
+ * The session's attributes are java-serialized, compressed, then encrypted and authenticated with AES-GCM, so they can
+ * be neither read nor altered by the client. The result is split across as many cookies as needed (the first named
+ * after the cookie name, then with "_1", "_2" and so on appended). The cookies are decrypted at most once per request,
+ * the session being held as a request attribute from then on. Writes only mark the session as changed; it is encoded
+ * and its cookies written once per request, as the response is committed (see
+ * {@link AsyncWebContext#onResponseCommit(Runnable)}). Where the web context cannot run an action on commit, each
+ * write is sent straight away instead, which with a {@link org.pac4j.async.core.session.AsyncSessionUnitOfWork}
+ * (sending a request's writes as a single batch) still means once per request. A session which cannot be written
+ * on commit, for example because it has outgrown the cookies allowed, is logged and left unchanged for the client;
+ * {@link #flush(WebContext)} writes it earlier, failing if it cannot be written.
+ *
+ * As the client holds the session, destroying or renewing a session only replaces the client's cookies; an old copy
+ * of the cookies remains valid until the expiry timestamp encrypted into it. Every write pushes the expiry back by the
+ * time to live. To invalidate every session at once, rotate in a new key enough times that the old one is dropped.
+ */
+public class CookieAsyncSessionStore implements AsyncSessionStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(CookieAsyncSessionStore.class);
+
+    public static final String DEFAULT_COOKIE_NAME = "pac4jAsyncSession";
+    public static final long DEFAULT_TTL_SECONDS = 30 * 60;
+    public static final int DEFAULT_MAX_COOKIE_LENGTH = 3800;
+    public static final int DEFAULT_MAX_COOKIES = 8;
+    public static final int DEFAULT_MAX_KEYS = 2;
+
+    /**
+     * Request attribute holding the request's session once its cookies have been decrypted
+     */
+    public static final String SESSION_ATTRIBUTE = "pac4jAsyncCookieSession";
+
+    private static final String CHUNK_SEPARATOR = "_";
+    private static final int MAX_DECOMPRESSED_LENGTH = 1024 * 1024;
+
+    private final CookieSessionCipher cipher;
+
+    private String cookieName = DEFAULT_COOKIE_NAME;
+    private long ttlSeconds = DEFAULT_TTL_SECONDS;
+    private int maxCookieLength = DEFAULT_MAX_COOKIE_LENGTH;
+    private int maxCookies = DEFAULT_MAX_COOKIES;
+    private int maxKeys = DEFAULT_MAX_KEYS;
+    private JavaSerializationHelper serializationHelper = new JavaSerializationHelper();
+    private LongSupplier clock = System::currentTimeMillis;
+
+    /**
+     * @param keys AES keys of 16, 24 or 32 bytes, the first being used to encrypt, and any others only to decrypt
+     */
+    public CookieAsyncSessionStore(final byte[]... keys) {
+        this.cipher = new CookieSessionCipher(Arrays.asList(keys));
+    }
+
+    @Override
+    public CompletableFuture<String> getOrCreateSessionId(final AsyncWebContext context) {
+        final CookieSession session = session(context);
+        if (session.id == null) {
+            session.id = newSessionId();
+            return changed(context, session).thenApply(v -> session.id);
+        }
+        return completedFuture(session.id);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> get(final WebContext<AsyncSessionStore> context, final String key) {
+        return completedFuture((T) session(context).values.get(key));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> getAll(final WebContext<AsyncSessionStore> context,
+                                                         final Collection<String> keys) {
+        final Map<String, Object> sessionValues = session(context).values;
+        final Map<String, Object> values = new LinkedHashMap<>();
+        keys.forEach(key -> values.put(key, sessionValues.get(key)));
+        return completedFuture(values);
+    }
+
+    @Override
+    public <T> CompletableFuture<Void> set(final WebContext<AsyncSessionStore> context, final String key, final T value) {
+        final Map<String, Object> values = new HashMap<>();
+        values.put(key, value);
+        return setAll(context, values);
+    }
+
+    @Override
+    public CompletableFuture<Void> setAll(final WebContext<AsyncSessionStore> context, final Map<String, ?> values) {
+        if (values.isEmpty()) {
+            return completedFuture(null);
+        }
+        for (final Object value : values.values()) {
+            if (value != null && !(value instanceof Serializable)) {
+                final CompletableFuture<Void> failed = new CompletableFuture<>();
+                failed.completeExceptionally(new TechnicalException("Session values must be serializable, but got: "
+                        + value.getClass().getName()));
+                return failed;
+            }
+        }
+        final CookieSession session = session(context);
+        values.forEach((key, value) -> {
+            if (value == null) {
+                session.values.remove(key);
+            } else {
+                session.values.put(key, value);
+            }
+        });
+        if (session.id == null) {
+            session.id = newSessionId();
+        }
+        return changed(context, session);
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAll(final WebContext<AsyncSessionStore> context, final Collection<String> keys) {
+        final CookieSession session = session(context);
+        if (session.id == null || keys.isEmpty()) {
+            return completedFuture(null);
+        }
+        keys.forEach(session.values::remove);
+        return changed(context, session);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> destroySession(final AsyncWebContext context) {
+        final CookieSession session = session(context);
+        if (session.id == null && session.cookiesSent == 0) {
+            return completedFuture(false);
+        }
+        expireCookies(context, 0, session.cookiesSent);
+        // Anything written later in the request starts a new session, written by any commit action already registered
+        final CookieSession fresh = new CookieSession(null, new HashMap<>(), 0);
+        fresh.commitActionRegistered = session.commitActionRegistered;
+        context.setRequestAttribute(SESSION_ATTRIBUTE, fresh);
+        return completedFuture(true);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> renewSession(final AsyncWebContext context) {
+        final CookieSession session = session(context);
+        if (session.id == null) {
+            return completedFuture(false);
+        }
+        session.id = newSessionId();
+        return changed(context, session).thenApply(v -> true);
+    }
+
+    /**
+     * Write the request's session to the response cookies now, if it has changed since last written, rather than
+     * waiting for the response to be committed.
+     *
+     * @param context the web context
+     * @return future which completes once the cookies are written, failing if the session cannot be written
+     */
+    public CompletableFuture<Void> flush(final WebContext<?> context) {
+        final CookieSession session = session(context);
+        if (!session.changed) {
+            return completedFuture(null);
+        }
+        try {
+            writeCookies(context, session);
+            return completedFuture(null);
+        } catch (final TechnicalException e) {
+            final CompletableFuture<Void> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+    }
+
+    /**
+     * Make the given key the one used to encrypt sessions from now on. The previous keys are still used to decrypt
+     * existing sessions, up to the maximum number of keys, beyond which the oldest is dropped (and any session
+     * encrypted with it is lost).
+     *
+     * @param key the new AES key, of 16, 24 or 32 bytes
+     */
+    public void rotateKey(final byte[] key) {
+        cipher.rotate(key, maxKeys);
+    }
+
+    public String getCookieName() {
+        return cookieName;
+    }
+
+    public void setCookieName(final String cookieName) {
+        assertNotBlank("cookieName", cookieName);
+        this.cookieName = cookieName;
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(final long ttlSeconds) {
+        assertTrue(ttlSeconds > 0, "ttlSeconds must be greater than zero");
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    public void setMaxCookieLength(final int maxCookieLength) {
+        assertTrue(maxCookieLength > 0, "maxCookieLength must be greater than zero");
+        this.maxCookieLength = maxCookieLength;
+    }
+
+    public void setMaxCookies(final int maxCookies) {
+        assertTrue(maxCookies > 0, "maxCookies must be greater than zero");
+        this.maxCookies = maxCookies;
+    }
+
+    public void setMaxKeys(final int maxKeys) {
+        assertTrue(maxKeys > 0, "maxKeys must be greater than zero");
+        this.maxKeys = maxKeys;
+    }
+
+    public void setSerializationHelper(final JavaSerializationHelper serializationHelper) {
+        assertNotNull("serializationHelper", serializationHelper);
+        this.serializationHelper = serializationHelper;
+    }
+
+    /**
+     * Set the source of the time used for session expiry, for testing.
+     *
+     * @param clock supplier of the current time in milliseconds, as for System.currentTimeMillis()
+     */
+    public void setClock(final LongSupplier clock) {
+        assertNotNull("clock", clock);
+        this.clock = clock;
+    }
+
+    protected String newSessionId() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * Get the request's session, decrypting it from the request's cookies the first time it is asked for.
+     */
+    private CookieSession session(final WebContext<?> context) {
+        final Object known = context.getRequestAttribute(SESSION_ATTRIBUTE);
+        if (known instanceof CookieSession) {
+            return (CookieSession) known;
+        }
+        final CookieSession session = readCookies(context);
+        context.setRequestAttribute(SESSION_ATTRIBUTE, session);
+        return session;
+    }
+
+    private CookieSession readCookies(final WebContext<?> context) {
+        final Map<String, String> cookies = new HashMap<>();
+        final Collection<Cookie> requestCookies = context.getRequestCookies();
+        if (requestCookies != null) {
+            requestCookies.forEach(cookie -> cookies.put(cookie.getName(), cookie.getValue()));
+        }
+        final StringBuilder encoded = new StringBuilder();
+        int count = 0;
+        String chunk;
+        while ((chunk = cookies.get(chunkName(count))) != null) {
+            encoded.append(chunk);
+            count++;
+        }
+        if (count == 0 || encoded.length() == 0) {
+            return new CookieSession(null, new HashMap<>(), count);
+        }
+        try {
+            final byte[] data = Base64.getUrlDecoder().decode(encoded.toString());
+            final byte[] plaintext = cipher.decrypt(data, associatedData()).orElse(null);
+            if (plaintext == null) {
+                logger.debug("Ignoring session cookie which could not be decrypted");
+                return new CookieSession(null, new HashMap<>(), count);
+            }
+            final DataInputStream in = new DataInputStream(new ByteArrayInputStream(inflate(plaintext)));
+            final String id = in.readUTF();
+            final long expiresAt = in.readLong();
+            if (expiresAt <= clock.getAsLong()) {
+                logger.debug("Ignoring expired session {}", id);
+                return new CookieSession(null, new HashMap<>(), count);
+            }
+            final byte[] serialized = new byte[in.available()];
+            in.readFully(serialized);
+            @SuppressWarnings("unchecked")
+            final HashMap<String, Object> values = (HashMap<String, Object>) serializationHelper.unserializeFromBytes(serialized);
+            return new CookieSession(id, values == null ? new HashMap<>() : values, count);
+        } catch (final IOException | DataFormatException | IllegalArgumentException | ClassCastException e) {
+            logger.debug("Ignoring session cookie which could not be read", e);
+            return new CookieSession(null, new HashMap<>(), count);
+        }
+    }
+
+    // Note that the session has changed, to be written as the response is committed or, failing that, straight away
+    private CompletableFuture<Void> changed(final WebContext<?> context, final CookieSession session) {
+        session.changed = true;
+        if (!session.commitActionRegistered && context instanceof AsyncWebContext) {
+            session.commitActionRegistered = ((AsyncWebContext) context).onResponseCommit(() -> {
+                try {
+                    flush(context).join();
+                } catch (final CompletionException e) {
+                    logger.error("Failed to write session cookies", e.getCause());
+                }
+            });
+        }
+        return session.commitActionRegistered ? completedFuture(null) : flush(context);
+    }
+
+    private void writeCookies(final WebContext<?> context, final CookieSession session) {
+        final byte[] plaintext;
+        try {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final DataOutputStream out = new DataOutputStream(bytes);
+            out.writeUTF(session.id);
+            out.writeLong(clock.getAsLong() + ttlSeconds * 1000);
+            out.write(serializationHelper.serializeToBytes(session.values));
+            out.flush();
+            plaintext = deflate(bytes.toByteArray());
+        } catch (final IOException e) {
+            throw new TechnicalException(e);
+        }
+        final String encoded = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(cipher.encrypt(plaintext, associatedData()));
+        final int count = (encoded.length() + maxCookieLength - 1) / maxCookieLength;
+        if (count > maxCookies) {
+            throw new TechnicalException("Session needs " + count + " cookies, more than the maximum of " + maxCookies);
+        }
+        for (int i = 0; i < count; i++) {
+            final int start = i * maxCookieLength;
+            context.addResponseCookie(sessionCookie(context, chunkName(i),
+                    encoded.substring(start, Math.min(start + maxCookieLength, encoded.length()))));
+        }
+        // Drop any cookies the client holds beyond those now needed
+        expireCookies(context, count, session.cookiesSent);
+        session.cookiesSent = count;
+        session.changed = false;
+    }
+
+    private void expireCookies(final WebContext<?> context, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            final Cookie cookie = sessionCookie(context, chunkName(i), "");
+            cookie.setMaxAge(0);
+            context.addResponseCookie(cookie);
+        }
+    }
+
+    private String chunkName(final int index) {
+        return index == 0 ? cookieName : cookieName + CHUNK_SEPARATOR + index;
+    }
+
+    private Cookie sessionCookie(final WebContext<?> context, final String name, final String value) {
+        final Cookie cookie = new Cookie(name, value);
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setSecure(context.isSecure());
+        return cookie;
+    }
+
+    // Binds the encrypted data to the cookie name, so it can't be replayed under a store with another name
+    private byte[] associatedData() {
+        return cookieName.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] deflate(final byte[] data) {
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            final ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 16);
+            final byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(final byte[] data) throws DataFormatException {
+        final Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            final ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 2);
+            final byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                final int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated session data");
+                }
+                out.write(buffer, 0, inflated);
+                if (out.size() > MAX_DECOMPRESSED_LENGTH) {
+                    throw new DataFormatException("Session data too large");
+                }
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * The request's view of its session
+     */
+    private static final class CookieSession {
+
+        private String id;
+        private final HashMap<String, Object> values;
+        // How many cookies the client holds for the session, so that any no longer needed can be dropped
+        private int cookiesSent;
+        // Whether the session has changed since its cookies were last written
+        private boolean changed;
+        // Whether the session's cookies will be written as the response is committed
+        private boolean commitActionRegistered;
+
+        private CookieSession(final String id, final HashMap<String, Object> values, final int cookiesSent) {
+            this.id = id;
+            this.values = values;
+            this.cookiesSent = cookiesSent;
+        }
+    }
+}
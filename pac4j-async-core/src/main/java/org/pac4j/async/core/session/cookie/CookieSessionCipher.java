@@ -0,0 +1,124 @@
+package org.pac4j.async.core.session.cookie;
+
+import org.pac4j.core.exception.TechnicalException;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.pac4j.core.util.CommonHelper.assertNotNull;
+import static org.pac4j.core.util.CommonHelper.assertTrue;
+
+/**
+ * AES-GCM encryption of session cookie contents, with support for key rotation. Data is always encrypted with the
+ * newest key, but can be decrypted with any key still held. Each key is identified in the encrypted data by an id
+ * derived from the key itself, so that every server holding the same keys agrees on their ids.
+ */
+final class CookieSessionCipher {
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH_BITS = 128;
+    private static final int HEADER_LENGTH = 1 + 4 + IV_LENGTH;
+
+    private final SecureRandom random = new SecureRandom();
+    // Newest first, replaced as a whole on rotation
+    private volatile List<SessionKey> keys;
+
+    CookieSessionCipher(final List<byte[]> keys) {
+        assertTrue(keys != null && !keys.isEmpty(), "at least one key is required");
+        final List<SessionKey> sessionKeys = new ArrayList<>(keys.size());
+        keys.forEach(key -> sessionKeys.add(new SessionKey(key)));
+        this.keys = Collections.unmodifiableList(sessionKeys);
+    }
+
+    /**
+     * Make the given key the one used for encryption, keeping at most the given number of keys in all. Data encrypted
+     * with any key dropped as a result can no longer be decrypted.
+     */
+    synchronized void rotate(final byte[] key, final int maxKeys) {
+        assertTrue(maxKeys > 0, "maxKeys must be greater than zero");
+        final List<SessionKey> rotated = new ArrayList<>(keys.size() + 1);
+        rotated.add(new SessionKey(key));
+        for (final SessionKey existing : keys) {
+            if (rotated.size() < maxKeys) {
+                rotated.add(existing);
+            }
+        }
+        keys = Collections.unmodifiableList(rotated);
+    }
+
+    byte[] encrypt(final byte[] plaintext, final byte[] associatedData) {
+        final SessionKey key = keys.get(0);
+        final byte[] iv = new byte[IV_LENGTH];
+        random.nextBytes(iv);
+        try {
+            final Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, key.secretKey, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+            cipher.updateAAD(associatedData);
+            final byte[] ciphertext = cipher.doFinal(plaintext);
+            return ByteBuffer.allocate(HEADER_LENGTH + ciphertext.length)
+                    .put(FORMAT_VERSION).putInt(key.id).put(iv).put(ciphertext)
+                    .array();
+        } catch (final GeneralSecurityException e) {
+            throw new TechnicalException("Unable to encrypt session cookie", e);
+        }
+    }
+
+    /**
+     * Decrypt data written by {@link #encrypt(byte[], byte[])}.
+     *
+     * @return the plaintext, or empty if the data was not encrypted with a key still held, or has been tampered with
+     */
+    Optional<byte[]> decrypt(final byte[] data, final byte[] associatedData) {
+        if (data.length <= HEADER_LENGTH || data[0] != FORMAT_VERSION) {
+            return Optional.empty();
+        }
+        final ByteBuffer buffer = ByteBuffer.wrap(data);
+        buffer.get();
+        final int keyId = buffer.getInt();
+        final byte[] iv = new byte[IV_LENGTH];
+        buffer.get(iv);
+        for (final SessionKey key : keys) {
+            // Ids are short, so more than one key could share one
+            if (key.id != keyId) {
+                continue;
+            }
+            try {
+                final Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+                cipher.init(Cipher.DECRYPT_MODE, key.secretKey, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+                cipher.updateAAD(associatedData);
+                return Optional.of(cipher.doFinal(data, HEADER_LENGTH, data.length - HEADER_LENGTH));
+            } catch (final GeneralSecurityException e) {
+                // Not this key, or tampered with
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static final class SessionKey {
+
+        private final int id;
+        private final SecretKeySpec secretKey;
+
+        private SessionKey(final byte[] key) {
+            assertNotNull("key", key);
+            assertTrue(key.length == 16 || key.length == 24 || key.length == 32, "key must be 16, 24 or 32 bytes");
+            this.secretKey = new SecretKeySpec(key, "AES");
+            try {
+                this.id = ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(key)).getInt();
+            } catch (final NoSuchAlgorithmException e) {
+                throw new TechnicalException(e);
+            }
+        }
+    }
+}
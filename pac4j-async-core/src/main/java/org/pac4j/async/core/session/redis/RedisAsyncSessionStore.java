@@ -0,0 +1,385 @@
+package org.pac4j.async.core.session.redis;
+
+import org.pac4j.async.core.context.AsyncWebContext;
+import org.pac4j.async.core.session.AsyncSessionStore;
+import org.pac4j.async.core.session.AsyncSessionVersion;
+import org.pac4j.async.core.session.VersionedAsyncSessionStore;
+import org.pac4j.core.context.Cookie;
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.JavaSerializationHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Serializable;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.pac4j.async.core.session.redis.RespCodec.bytes;
+import static org.pac4j.core.util.CommonHelper.assertNotBlank;
+import static org.pac4j.core.util.CommonHelper.assertNotNull;
+import static org.pac4j.core.util.CommonHelper.assertTrue;
+
+/**
+ * Session store keeping sessions in a Redis-compatible server, spoken to using the RESP protocol over non-blocking
+ * connections. Commands from all requests are pipelined over a small pool of connections, so no thread is ever held
+ * waiting on the server.
+ *
+ * Each session is held as a hash, keyed by the key prefix plus the session id, with one field per session attribute,
+ * values being java-serialized. The session id is carried in a cookie. Every write to a session resets its time to
+ * live, destroying a session deletes its hash and renewing it renames the hash, both being single atomic commands on
+ * the server. Every write also increments a version stamp held in the hash, so that the store can back a
+ * {@link org.pac4j.async.core.session.NearCacheAsyncSessionStore}.
+ *
+ * The store is shared between requests and holds open connections, so should be closed when no longer needed.
+ */
+public class RedisAsyncSessionStore implements VersionedAsyncSessionStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisAsyncSessionStore.class);
+
+    public static final String DEFAULT_COOKIE_NAME = "pac4jAsyncSessionId";
+    public static final String DEFAULT_KEY_PREFIX = "pac4j:session:";
+    public static final int DEFAULT_POOL_SIZE = 4;
+    public static final long DEFAULT_TTL_SECONDS = 30 * 60;
+
+    /**
+     * Request attribute holding the id of the request's session, once known
+     */
+    public static final String SESSION_ID_ATTRIBUTE = "pac4jAsyncRedisSessionId";
+
+    // Held in the session id attribute once the request's session has been destroyed, so that its cookie is ignored
+    private static final String NO_SESSION = "";
+
+    /**
+     * Hash field holding the session's version stamp, so not available as a session attribute
+     */
+    public static final String VERSION_FIELD = "pac4j$sessionVersion";
+
+    private static final byte[] HGET = bytes("HGET");
+    private static final byte[] HMGET = bytes("HMGET");
+    private static final byte[] HSET = bytes("HSET");
+    private static final byte[] HDEL = bytes("HDEL");
+    private static final byte[] EXPIRE = bytes("EXPIRE");
+    private static final byte[] DEL = bytes("DEL");
+    private static final byte[] RENAME = bytes("RENAME");
+    private static final byte[] HINCRBY = bytes("HINCRBY");
+    private static final byte[] ONE = bytes("1");
+    private static final byte[] VERSION_FIELD_BYTES = bytes(VERSION_FIELD);
+
+    private final RespConnectionPool pool;
+    // Set only for a store built from a trackable session, which always acts on that session
+    private final String trackedSessionId;
+
+    private String cookieName = DEFAULT_COOKIE_NAME;
+    private String keyPrefix = DEFAULT_KEY_PREFIX;
+    private long ttlSeconds = DEFAULT_TTL_SECONDS;
+    private JavaSerializationHelper serializationHelper = new JavaSerializationHelper();
+
+    public RedisAsyncSessionStore(final String host, final int port) {
+        this(new InetSocketAddress(host, port), DEFAULT_POOL_SIZE);
+    }
+
+    public RedisAsyncSessionStore(final SocketAddress address, final int poolSize) {
+        this.pool = new RespConnectionPool(address, poolSize);
+        this.trackedSessionId = null;
+    }
+
+    private RedisAsyncSessionStore(final RedisAsyncSessionStore store, final String trackedSessionId) {
+        this.pool = store.pool;
+        this.trackedSessionId = trackedSessionId;
+        this.cookieName = store.cookieName;
+        this.keyPrefix = store.keyPrefix;
+        this.ttlSeconds = store.ttlSeconds;
+        this.serializationHelper = store.serializationHelper;
+    }
+
+    @Override
+    public CompletableFuture<String> getOrCreateSessionId(final AsyncWebContext context) {
+        return completedFuture(sessionIdFor(context));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> get(final WebContext<AsyncSessionStore> context, final String key) {
+        final Optional<String> sessionId = currentSessionId(context);
+        if (!sessionId.isPresent()) {
+            return completedFuture(null);
+        }
+        return pool.send(HGET, sessionKey(sessionId.get()), bytes(key))
+                .thenApply(reply -> deserialize((byte[]) reply));
+    }
+
+    @Override
+    public <T> CompletableFuture<Void> set(final WebContext<AsyncSessionStore> context, final String key, final T value) {
+        final Map<String, Object> values = new LinkedHashMap<>();
+        values.put(key, value);
+        return setAll(context, values);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<Map<String, Object>> getAll(final WebContext<AsyncSessionStore> context,
+                                                         final Collection<String> keys) {
+        final Map<String, Object> values = new LinkedHashMap<>();
+        final Optional<String> sessionId = currentSessionId(context);
+        if (!sessionId.isPresent() || keys.isEmpty()) {
+            keys.forEach(key -> values.put(key, null));
+            return completedFuture(values);
+        }
+        final List<byte[]> command = new ArrayList<>(keys.size() + 2);
+        command.add(HMGET);
+        command.add(sessionKey(sessionId.get()));
+        keys.forEach(key -> command.add(bytes(key)));
+        return pool.send(command).thenApply(reply -> {
+            final List<Object> read = (List<Object>) reply;
+            int i = 0;
+            for (final String key : keys) {
+                values.put(key, deserialize((byte[]) read.get(i++)));
+            }
+            return values;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> setAll(final WebContext<AsyncSessionStore> context, final Map<String, ?> values) {
+        if (values.isEmpty()) {
+            return completedFuture(null);
+        }
+        final byte[] sessionKey = sessionKey(sessionIdFor(context));
+        final List<byte[]> hset = new ArrayList<>(values.size() * 2 + 2);
+        hset.add(HSET);
+        hset.add(sessionKey);
+        final List<byte[]> hdel = new ArrayList<>();
+        hdel.add(HDEL);
+        hdel.add(sessionKey);
+        try {
+            values.forEach((key, value) -> {
+                if (value == null) {
+                    hdel.add(bytes(key));
+                } else {
+                    hset.add(bytes(key));
+                    hset.add(serialize(value));
+                }
+            });
+        } catch (final TechnicalException e) {
+            final CompletableFuture<Void> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        // The expiry has to follow the write, as it is ignored for a hash which doesn't exist yet
+        final List<List<byte[]>> commands = new ArrayList<>(4);
+        if (hset.size() > 2) {
+            commands.add(hset);
+        }
+        if (hdel.size() > 2) {
+            commands.add(hdel);
+        }
+        commands.add(Arrays.asList(HINCRBY, sessionKey, VERSION_FIELD_BYTES, ONE));
+        commands.add(Arrays.asList(EXPIRE, sessionKey, bytes(Long.toString(ttlSeconds))));
+        return pool.pipeline(commands).thenApply(replies -> null);
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAll(final WebContext<AsyncSessionStore> context, final Collection<String> keys) {
+        final Optional<String> sessionId = currentSessionId(context);
+        if (!sessionId.isPresent() || keys.isEmpty()) {
+            return completedFuture(null);
+        }
+        final byte[] sessionKey = sessionKey(sessionId.get());
+        final List<byte[]> command = new ArrayList<>(keys.size() + 2);
+        command.add(HDEL);
+        command.add(sessionKey);
+        keys.forEach(key -> command.add(bytes(key)));
+        // As for setAll, the expiry follows the write, which creates the hash if the session has expired meanwhile
+        return pool.pipeline(Arrays.asList(command, Arrays.asList(HINCRBY, sessionKey, VERSION_FIELD_BYTES, ONE),
+                Arrays.asList(EXPIRE, sessionKey, bytes(Long.toString(ttlSeconds))))).thenApply(replies -> null);
+    }
+
+    @Override
+    public CompletableFuture<Optional<AsyncSessionVersion>> getVersion(final WebContext<AsyncSessionStore> context) {
+        final Optional<String> sessionId = currentSessionId(context);
+        if (!sessionId.isPresent()) {
+            return completedFuture(Optional.empty());
+        }
+        return pool.send(HGET, sessionKey(sessionId.get()), VERSION_FIELD_BYTES).thenApply(reply -> {
+            // A session which has never been written to is at version zero
+            final long version = reply == null ? 0 : Long.parseLong(RespCodec.string((byte[]) reply));
+            return Optional.of(new AsyncSessionVersion(sessionId.get(), version));
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> destroySession(final AsyncWebContext context) {
+        final Optional<String> sessionId = currentSessionId(context);
+        if (!sessionId.isPresent()) {
+            return completedFuture(false);
+        }
+        if (trackedSessionId == null) {
+            // Forget the id, so that anything written later in the request goes to a new session
+            context.setRequestAttribute(SESSION_ID_ATTRIBUTE, NO_SESSION);
+            final Cookie cookie = sessionCookie(context, "");
+            cookie.setMaxAge(0);
+            context.addResponseCookie(cookie);
+        }
+        return pool.send(DEL, sessionKey(sessionId.get())).thenApply(reply -> true);
+    }
+
+    @Override
+    public CompletableFuture<Optional<Object>> getTrackableSession(final AsyncWebContext context) {
+        return completedFuture(currentSessionId(context).map(id -> (Object) id));
+    }
+
+    @Override
+    public Optional<AsyncSessionStore> buildFromTrackableSession(final AsyncWebContext context, final Object trackableSession) {
+        if (trackableSession instanceof String) {
+            return Optional.of(new RedisAsyncSessionStore(this, (String) trackableSession));
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> renewSession(final AsyncWebContext context) {
+        final Optional<String> sessionId = currentSessionId(context);
+        if (!sessionId.isPresent() || trackedSessionId != null) {
+            return completedFuture(false);
+        }
+        final String renewedId = newSessionId();
+        logger.debug("Renewing session {} as {}", sessionId.get(), renewedId);
+        final CompletableFuture<Object> renamed = pool.send(RENAME, sessionKey(sessionId.get()), sessionKey(renewedId));
+        return renamed.handle((reply, t) -> {
+            final Throwable cause = t instanceof CompletionException ? t.getCause() : t;
+            // A session which has never been written to doesn't exist on the server, so has nothing to rename
+            if (cause != null && !isNoSuchKey(cause)) {
+                throw cause instanceof TechnicalException ? (TechnicalException) cause : new TechnicalException(cause);
+            }
+            context.setRequestAttribute(SESSION_ID_ATTRIBUTE, renewedId);
+            context.addResponseCookie(sessionCookie(context, renewedId));
+            return true;
+        });
+    }
+
+    /**
+     * Close the connections to the server.
+     */
+    public void close() {
+        pool.close();
+    }
+
+    /**
+     * Find the id of the request's session, if it has one.
+     *
+     * @param context the web context
+     * @return the session id, if any
+     */
+    protected Optional<String> currentSessionId(final WebContext<?> context) {
+        if (trackedSessionId != null) {
+            return Optional.of(trackedSessionId);
+        }
+        final Object known = context.getRequestAttribute(SESSION_ID_ATTRIBUTE);
+        if (known instanceof String) {
+            return NO_SESSION.equals(known) ? Optional.empty() : Optional.of((String) known);
+        }
+        final Collection<Cookie> cookies = context.getRequestCookies();
+        if (cookies != null) {
+            for (final Cookie cookie : cookies) {
+                if (cookieName.equals(cookie.getName()) && cookie.getValue() != null && !cookie.getValue().isEmpty()) {
+                    context.setRequestAttribute(SESSION_ID_ATTRIBUTE, cookie.getValue());
+                    return Optional.of(cookie.getValue());
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    protected String newSessionId() {
+        return UUID.randomUUID().toString();
+    }
+
+    private String sessionIdFor(final WebContext<?> context) {
+        return currentSessionId(context).orElseGet(() -> {
+            final String sessionId = newSessionId();
+            context.setRequestAttribute(SESSION_ID_ATTRIBUTE, sessionId);
+            context.addResponseCookie(sessionCookie(context, sessionId));
+            return sessionId;
+        });
+    }
+
+    private Cookie sessionCookie(final WebContext<?> context, final String value) {
+        final Cookie cookie = new Cookie(cookieName, value);
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setSecure(context.isSecure());
+        return cookie;
+    }
+
+    private byte[] sessionKey(final String sessionId) {
+        return bytes(keyPrefix + sessionId);
+    }
+
+    private byte[] serialize(final Object value) {
+        if (!(value instanceof Serializable)) {
+            throw new TechnicalException("Session values must be serializable, but got: " + value.getClass().getName());
+        }
+        return serializationHelper.serializeToBytes((Serializable) value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T deserialize(final byte[] value) {
+        return value == null ? null : (T) serializationHelper.unserializeFromBytes(value);
+    }
+
+    private static boolean isNoSuchKey(final Throwable t) {
+        return t.getMessage() != null && t.getMessage().contains("no such key");
+    }
+
+    public String getCookieName() {
+        return cookieName;
+    }
+
+    public void setCookieName(final String cookieName) {
+        assertNotBlank("cookieName", cookieName);
+        this.cookieName = cookieName;
+    }
+
+    public String getKeyPrefix() {
+        return keyPrefix;
+    }
+
+    public void setKeyPrefix(final String keyPrefix) {
+        assertNotNull("keyPrefix", keyPrefix);
+        this.keyPrefix = keyPrefix;
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    /**
+     * Set how long a session lives after it was last written to.
+     *
+     * @param ttlSeconds time to live in seconds
+     */
+    public void setTtlSeconds(final long ttlSeconds) {
+        assertTrue(ttlSeconds > 0, "ttlSeconds must be greater than zero");
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    public JavaSerializationHelper getSerializationHelper() {
+        return serializationHelper;
+    }
+
+    public void setSerializationHelper(final JavaSerializationHelper serializationHelper) {
+        assertNotNull("serializationHelper", serializationHelper);
+        this.serializationHelper = serializationHelper;
+    }
+}
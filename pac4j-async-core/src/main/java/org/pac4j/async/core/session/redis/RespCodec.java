@@ -0,0 +1,162 @@
+package org.pac4j.async.core.session.redis;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encoding of commands to, and decoding of replies from, a server speaking the Redis serialization protocol (RESP).
+ * Replies are decoded as follows:-
+ * simple string -> String
+ * error -> {@link RespError}
+ * integer -> Long
+ * bulk string -> byte[] (null for a null bulk string)
+ * array -> List of the above (null for a null array)
+ */
+final class RespCodec {
+
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    // Returned by the decoder when the buffer does not yet hold a complete reply
+    static final Object INCOMPLETE = new Object();
+
+    private RespCodec() {
+    }
+
+    /**
+     * Encode a command as an array of bulk strings.
+     *
+     * @param arguments the command name followed by its arguments
+     * @return the encoded command
+     */
+    static byte[] encode(final List<byte[]> arguments) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(32 + arguments.size() * 16);
+        writeHeader(out, '*', arguments.size());
+        for (final byte[] argument : arguments) {
+            writeHeader(out, '$', argument.length);
+            out.write(argument, 0, argument.length);
+            out.write(CRLF, 0, CRLF.length);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode one reply from the buffer. If the buffer holds a complete reply its position is left just after it,
+     * otherwise its position is left unchanged and {@link #INCOMPLETE} returned.
+     *
+     * @param buffer buffer in read mode
+     * @return the decoded reply, or INCOMPLETE
+     */
+    static Object decode(final ByteBuffer buffer) {
+        final int start = buffer.position();
+        final Object reply = decodeValue(buffer);
+        if (reply == INCOMPLETE) {
+            buffer.position(start);
+        }
+        return reply;
+    }
+
+    static byte[] bytes(final String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    static String string(final byte[] bytes) {
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Object decodeValue(final ByteBuffer buffer) {
+        if (!buffer.hasRemaining()) {
+            return INCOMPLETE;
+        }
+        final byte type = buffer.get();
+        final String line = readLine(buffer);
+        if (line == null) {
+            return INCOMPLETE;
+        }
+        switch (type) {
+            case '+':
+                return line;
+            case '-':
+                return new RespError(line);
+            case ':':
+                return Long.parseLong(line);
+            case '$':
+                return decodeBulkString(buffer, Integer.parseInt(line));
+            case '*':
+                return decodeArray(buffer, Integer.parseInt(line));
+            default:
+                throw new IllegalStateException("Unexpected RESP type " + (char) type);
+        }
+    }
+
+    private static Object decodeBulkString(final ByteBuffer buffer, final int length) {
+        if (length < 0) {
+            return null;
+        }
+        if (buffer.remaining() < length + CRLF.length) {
+            return INCOMPLETE;
+        }
+        final byte[] value = new byte[length];
+        buffer.get(value);
+        buffer.position(buffer.position() + CRLF.length);
+        return value;
+    }
+
+    private static Object decodeArray(final ByteBuffer buffer, final int size) {
+        if (size < 0) {
+            return null;
+        }
+        final List<Object> elements = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final Object element = decodeValue(buffer);
+            if (element == INCOMPLETE) {
+                return INCOMPLETE;
+            }
+            elements.add(element);
+        }
+        return elements;
+    }
+
+    private static String readLine(final ByteBuffer buffer) {
+        final int start = buffer.position();
+        for (int i = start; i < buffer.limit() - 1; i++) {
+            if (buffer.get(i) == '\r' && buffer.get(i + 1) == '\n') {
+                final byte[] line = new byte[i - start];
+                buffer.get(line);
+                buffer.position(i + CRLF.length);
+                return new String(line, StandardCharsets.US_ASCII);
+            }
+        }
+        return null;
+    }
+
+    private static void writeHeader(final ByteArrayOutputStream out, final char type, final int size) {
+        out.write(type);
+        final byte[] digits = Integer.toString(size).getBytes(StandardCharsets.US_ASCII);
+        out.write(digits, 0, digits.length);
+        out.write(CRLF, 0, CRLF.length);
+    }
+
+    /**
+     * An error reply from the server
+     */
+    static final class RespError {
+
+        private final String message;
+
+        RespError(final String message) {
+            this.message = message;
+        }
+
+        String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "RespError{" + message + "}";
+        }
+    }
+}
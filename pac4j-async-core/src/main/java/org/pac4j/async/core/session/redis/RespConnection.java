@@ -0,0 +1,226 @@
+package org.pac4j.async.core.session.redis;
+
+import org.pac4j.core.exception.TechnicalException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A single non-blocking connection to a RESP server. Commands are pipelined: any number may be sent without waiting
+ * for replies, and commands sent while a write is in progress are gathered up and written together once it completes.
+ * Replies come back in the order the commands were sent, so each completes the oldest outstanding command.
+ */
+final class RespConnection {
+
+    private static final Logger logger = LoggerFactory.getLogger(RespConnection.class);
+
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+
+    private final AsynchronousSocketChannel channel;
+
+    // Guarded by this: commands awaiting replies, in the order sent, and bytes waiting for the current write to finish
+    private final Queue<CompletableFuture<Object>> awaitingReplies = new ArrayDeque<>();
+    private final ByteArrayOutputStream pendingWrites = new ByteArrayOutputStream();
+    private boolean writing = false;
+    private volatile boolean open = true;
+
+    // Only touched by the read loop, of which there is only ever one read outstanding
+    private ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+
+    private RespConnection(final AsynchronousSocketChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Open a connection to the server at the given address.
+     *
+     * @param address the server address
+     * @return future completing with the connection once connected
+     */
+    static CompletableFuture<RespConnection> connect(final SocketAddress address) {
+        final CompletableFuture<RespConnection> future = new CompletableFuture<>();
+        final AsynchronousSocketChannel channel;
+        try {
+            channel = AsynchronousSocketChannel.open();
+        } catch (final IOException e) {
+            future.completeExceptionally(new TechnicalException(e));
+            return future;
+        }
+        channel.connect(address, null, new CompletionHandler<Void, Void>() {
+            @Override
+            public void completed(final Void result, final Void attachment) {
+                final RespConnection connection = new RespConnection(channel);
+                connection.readNext();
+                future.complete(connection);
+            }
+
+            @Override
+            public void failed(final Throwable t, final Void attachment) {
+                closeQuietly(channel);
+                future.completeExceptionally(new TechnicalException("Unable to connect to " + address, t));
+            }
+        });
+        return future;
+    }
+
+    boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Send a command.
+     *
+     * @param arguments the command name followed by its arguments
+     * @return future completing with the decoded reply, or exceptionally with a TechnicalException for an error reply
+     * or a failed connection
+     */
+    CompletableFuture<Object> send(final byte[]... arguments) {
+        return send(Arrays.asList(arguments));
+    }
+
+    /**
+     * Send a command.
+     *
+     * @param arguments the command name followed by its arguments
+     * @return future completing with the decoded reply, or exceptionally with a TechnicalException for an error reply
+     * or a failed connection
+     */
+    CompletableFuture<Object> send(final List<byte[]> arguments) {
+        final CompletableFuture<Object> reply = new CompletableFuture<>();
+        final byte[] command = RespCodec.encode(arguments);
+        final ByteBuffer toWrite;
+        synchronized (this) {
+            if (!open) {
+                reply.completeExceptionally(new TechnicalException("Connection closed"));
+                return reply;
+            }
+            awaitingReplies.add(reply);
+            if (writing) {
+                pendingWrites.write(command, 0, command.length);
+                return reply;
+            }
+            writing = true;
+            toWrite = ByteBuffer.wrap(command);
+        }
+        write(toWrite);
+        return reply;
+    }
+
+    void close() {
+        fail(new TechnicalException("Connection closed"));
+    }
+
+    private void write(final ByteBuffer buffer) {
+        channel.write(buffer, buffer, new CompletionHandler<Integer, ByteBuffer>() {
+            @Override
+            public void completed(final Integer written, final ByteBuffer attachment) {
+                if (attachment.hasRemaining()) {
+                    write(attachment);
+                    return;
+                }
+                final ByteBuffer next;
+                synchronized (RespConnection.this) {
+                    if (pendingWrites.size() == 0) {
+                        writing = false;
+                        return;
+                    }
+                    next = ByteBuffer.wrap(pendingWrites.toByteArray());
+                    pendingWrites.reset();
+                }
+                write(next);
+            }
+
+            @Override
+            public void failed(final Throwable t, final ByteBuffer attachment) {
+                fail(t);
+            }
+        });
+    }
+
+    private void readNext() {
+        channel.read(readBuffer, null, new CompletionHandler<Integer, Void>() {
+            @Override
+            public void completed(final Integer read, final Void attachment) {
+                if (read < 0) {
+                    fail(new TechnicalException("Connection closed by server"));
+                    return;
+                }
+                try {
+                    dispatchReplies();
+                } catch (final RuntimeException e) {
+                    fail(e);
+                    return;
+                }
+                readNext();
+            }
+
+            @Override
+            public void failed(final Throwable t, final Void attachment) {
+                fail(t);
+            }
+        });
+    }
+
+    private void dispatchReplies() {
+        readBuffer.flip();
+        Object reply;
+        while ((reply = RespCodec.decode(readBuffer)) != RespCodec.INCOMPLETE) {
+            final CompletableFuture<Object> awaiting;
+            synchronized (this) {
+                awaiting = awaitingReplies.poll();
+            }
+            if (awaiting == null) {
+                throw new IllegalStateException("Reply received with no command awaiting it");
+            }
+            if (reply instanceof RespCodec.RespError) {
+                awaiting.completeExceptionally(new TechnicalException(((RespCodec.RespError) reply).getMessage()));
+            } else {
+                awaiting.complete(reply);
+            }
+        }
+        readBuffer.compact();
+        // A reply larger than the buffer needs more room before the rest of it can be read
+        if (!readBuffer.hasRemaining()) {
+            final ByteBuffer larger = ByteBuffer.allocate(readBuffer.capacity() * 2);
+            readBuffer.flip();
+            larger.put(readBuffer);
+            readBuffer = larger;
+        }
+    }
+
+    private void fail(final Throwable t) {
+        final Queue<CompletableFuture<Object>> failed;
+        synchronized (this) {
+            if (!open) {
+                return;
+            }
+            open = false;
+            failed = new ArrayDeque<>(awaitingReplies);
+            awaitingReplies.clear();
+            pendingWrites.reset();
+        }
+        logger.debug("Closing RESP connection", t);
+        closeQuietly(channel);
+        final TechnicalException cause = t instanceof TechnicalException ? (TechnicalException) t : new TechnicalException(t);
+        failed.forEach(f -> f.completeExceptionally(cause));
+    }
+
+    private static void closeQuietly(final AsynchronousSocketChannel channel) {
+        try {
+            channel.close();
+        } catch (final IOException e) {
+            logger.debug("Error closing RESP connection", e);
+        }
+    }
+}
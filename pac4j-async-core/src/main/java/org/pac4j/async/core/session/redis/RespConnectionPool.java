@@ -0,0 +1,93 @@
+package org.pac4j.async.core.session.redis;
+
+import java.net.SocketAddress;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static java.util.stream.Collectors.toList;
+import static org.pac4j.core.util.CommonHelper.assertNotNull;
+import static org.pac4j.core.util.CommonHelper.assertTrue;
+
+/**
+ * A small fixed-size pool of pipelined RESP connections. As each connection can carry any number of concurrent
+ * commands, commands are simply spread across the connections in turn rather than each taking a connection for
+ * itself. Connections are opened on first use, and reopened on the next use after they fail.
+ */
+final class RespConnectionPool {
+
+    private final SocketAddress address;
+    private final AtomicReferenceArray<CompletableFuture<RespConnection>> connections;
+    private final AtomicInteger next = new AtomicInteger();
+
+    RespConnectionPool(final SocketAddress address, final int size) {
+        assertNotNull("address", address);
+        assertTrue(size > 0, "size must be greater than zero");
+        this.address = address;
+        this.connections = new AtomicReferenceArray<>(size);
+    }
+
+    /**
+     * Send a command on the next connection in turn.
+     *
+     * @param arguments the command name followed by its arguments
+     * @return future completing with the decoded reply
+     */
+    CompletableFuture<Object> send(final List<byte[]> arguments) {
+        return connection().thenCompose(c -> c.send(arguments));
+    }
+
+    /**
+     * Send a command on the next connection in turn.
+     *
+     * @param arguments the command name followed by its arguments
+     * @return future completing with the decoded reply
+     */
+    CompletableFuture<Object> send(final byte[]... arguments) {
+        return connection().thenCompose(c -> c.send(arguments));
+    }
+
+    /**
+     * Send several commands, in order, on the same connection, for where one command relies on another having been
+     * carried out first.
+     *
+     * @param commands the commands, each being the command name followed by its arguments
+     * @return future completing with the decoded replies, in the order of the commands
+     */
+    CompletableFuture<List<Object>> pipeline(final List<List<byte[]>> commands) {
+        return connection().thenCompose(c -> {
+            final List<CompletableFuture<Object>> replies = commands.stream().map(c::send).collect(toList());
+            return CompletableFuture.allOf(replies.toArray(new CompletableFuture[replies.size()]))
+                    .thenApply(v -> replies.stream().map(CompletableFuture::join).collect(toList()));
+        });
+    }
+
+    void close() {
+        for (int i = 0; i < connections.length(); i++) {
+            final CompletableFuture<RespConnection> connection = connections.getAndSet(i, null);
+            if (connection != null) {
+                connection.thenAccept(RespConnection::close);
+            }
+        }
+    }
+
+    private CompletableFuture<RespConnection> connection() {
+        final int slot = (next.getAndIncrement() & Integer.MAX_VALUE) % connections.length();
+        final CompletableFuture<RespConnection> current = connections.get(slot);
+        if (current != null && !isFailed(current)) {
+            return current;
+        }
+        final CompletableFuture<RespConnection> replacement = RespConnection.connect(address);
+        if (connections.compareAndSet(slot, current, replacement)) {
+            return replacement;
+        }
+        // Someone else replaced it first, so use theirs
+        replacement.thenAccept(RespConnection::close);
+        return connection();
+    }
+
+    private static boolean isFailed(final CompletableFuture<RespConnection> connection) {
+        return connection.isCompletedExceptionally() || (connection.isDone() && !connection.join().isOpen());
+    }
+}
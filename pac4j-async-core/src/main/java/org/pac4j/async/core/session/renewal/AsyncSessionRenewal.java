@@ -43,26 +43,19 @@ public enum AsyncSessionRenewal implements AsyncSessionRenewalStrategy {
 
             if (sessionStore != null) {
 
-                final CompletableFuture<String> oldSessionIdFuture = sessionStore.getOrCreateSessionId(context);
-                final CompletableFuture<Boolean> renewed = sessionStore.renewSession(context);
-                CompletableFuture<Void> result = renewed.thenCompose(b -> {
-                    if (b) {
-                        final CompletableFuture<String> newSessionIdFuture = sessionStore.getOrCreateSessionId(context);
-                        return oldSessionIdFuture.thenCombine(newSessionIdFuture, (oldSessionId, newSessionId) -> {
-                            logger.debug("Renewing session: {} -> {}", oldSessionId, newSessionId);
-                            final Clients<AsyncClient<? extends Credentials, ? extends U>, AsyncAuthorizationGenerator<U>> clients = config.getClients();
-                            if (clients != null) {
-                                clients.getClients().stream()
-                                        .forEach(ac -> ac.notifySessionRenewal(oldSessionId, context));
-                            }
-                            return null;
-                        });
+                return sessionStore.renewSessionId(context).thenAccept(renewal -> {
+                    if (renewal.isPresent()) {
+                        logger.debug("Renewing session: {}", renewal.get());
+                        final String oldSessionId = renewal.get().getOldSessionId();
+                        final Clients<AsyncClient<? extends Credentials, ? extends U>, AsyncAuthorizationGenerator<U>> clients = config.getClients();
+                        if (clients != null) {
+                            clients.getClients().stream()
+                                    .forEach(ac -> ac.notifySessionRenewal(oldSessionId, context));
+                        }
                     } else {
                         logger.error("Unable to renew the session. The session store may not support this feature");
-                        return CompletableFuture.completedFuture(null);
                     }
                 });
-                return result;
 
             } else {
                 logger.error("No session store available for this web context");
@@ -11,6 +11,7 @@ import org.pac4j.core.util.CommonHelper;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 /**
@@ -36,6 +37,10 @@ public class Config<T extends Named & ConfigurableByClientsObject, C extends Web
 
     protected Function<C, PM> profileManagerFactory;
 
+    // Incremented on every modification made through this class, so that anything derived from the configuration
+    // (such as compiled security plans) can detect that it is stale
+    private final AtomicInteger version = new AtomicInteger();
+
     public Config() {}
 
     public Config(final T client) {
@@ -101,6 +106,7 @@ public class Config<T extends Named & ConfigurableByClientsObject, C extends Web
 
     public void setClients(final Clients clients) {
         this.clients = clients;
+        modified();
     }
 
     public Map<String, A> getAuthorizers() {
@@ -110,15 +116,18 @@ public class Config<T extends Named & ConfigurableByClientsObject, C extends Web
     public void setAuthorizer(final A authorizer) {
         CommonHelper.assertNotNull("authorizer", authorizer);
         this.authorizers.put(authorizer.getClass().getSimpleName(), authorizer);
+        modified();
     }
 
     public void setAuthorizers(final Map<String, A> authorizers) {
         CommonHelper.assertNotNull("authorizers", authorizers);
         this.authorizers = authorizers;
+        modified();
     }
 
     public void addAuthorizer(final String name, final A authorizer) {
         authorizers.put(name, authorizer);
+        modified();
     }
 
     public Map<String, M> getMatchers() {
@@ -128,15 +137,18 @@ public class Config<T extends Named & ConfigurableByClientsObject, C extends Web
     public void setMatcher(final M matcher) {
         CommonHelper.assertNotNull("matcher", matcher);
         this.matchers.put(matcher.getClass().getSimpleName(), matcher);
+        modified();
     }
 
     public void setMatchers(final Map<String, M> matchers) {
         CommonHelper.assertNotNull("matchers", matchers);
         this.matchers = matchers;
+        modified();
     }
 
     public void addMatcher(final String name, final M matcher) {
         matchers.put(name, matcher);
+        modified();
     }
 
     public S getSessionStore() {
@@ -145,6 +157,7 @@ public class Config<T extends Named & ConfigurableByClientsObject, C extends Web
 
     public void setSessionStore(final S sessionStore) {
         this.sessionStore = sessionStore;
+        modified();
     }
 
     public HttpActionAdapter getHttpActionAdapter() {
@@ -153,6 +166,7 @@ public class Config<T extends Named & ConfigurableByClientsObject, C extends Web
 
     public void setHttpActionAdapter(final HttpActionAdapter httpActionAdapter) {
         this.httpActionAdapter = httpActionAdapter;
+        modified();
     }
 
     public SL getSecurityLogic() {
@@ -161,6 +175,7 @@ public class Config<T extends Named & ConfigurableByClientsObject, C extends Web
 
     public void setSecurityLogic(final SL securityLogic) {
         this.securityLogic = securityLogic;
+        modified();
     }
 
     public CL getCallbackLogic() {
@@ -169,6 +184,7 @@ public class Config<T extends Named & ConfigurableByClientsObject, C extends Web
 
     public void setCallbackLogic(final CL callbackLogic) {
         this.callbackLogic = callbackLogic;
+        modified();
     }
 
     public LL getLogoutLogic() {
@@ -177,6 +193,7 @@ public class Config<T extends Named & ConfigurableByClientsObject, C extends Web
 
     public void setLogoutLogic(final LL logoutLogic) {
         this.logoutLogic = logoutLogic;
+        modified();
     }
 
     public Function<C, PM> getProfileManagerFactory() {
@@ -185,6 +202,25 @@ public class Config<T extends Named & ConfigurableByClientsObject, C extends Web
 
     public void setProfileManagerFactory(final Function<C, PM> profileManagerFactory) {
         this.profileManagerFactory = profileManagerFactory;
+        modified();
+    }
+
+    /**
+     * Get the current version of this configuration. The version changes whenever the configuration is modified via
+     * one of its setters, so it can be used to invalidate anything computed from an earlier state of the configuration.
+     * Note that modifications made directly to the objects returned by the getters are not tracked.
+     *
+     * @return the current configuration version
+     */
+    public int getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Record that this configuration has been modified.
+     */
+    protected void modified() {
+        version.incrementAndGet();
     }
 
 }
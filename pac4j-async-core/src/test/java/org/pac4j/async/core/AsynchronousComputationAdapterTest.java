@@ -256,6 +256,37 @@ public class AsynchronousComputationAdapterTest extends VertxAsyncTestBase {
         });
     }
 
+    @Test(timeout = 1000)
+    public void testFromNonBlockingOnContextRunsInlineWhenOnContext(final TestContext testContext) {
+        final Context context = rule.vertx().getOrCreateContext();
+        final Async async = testContext.async();
+        final AsynchronousComputationAdapter adapter = new VertxAsynchronousComputationAdapter(rule.vertx(), context);
+
+        context.runOnContext(v -> {
+            assertThat(adapter.getExecutionContext().isOnContext(), is(true));
+            final CompletableFuture<Integer> future = adapter.fromNonBlockingOnContext(() -> 1);
+            assertThat(future.isDone(), is(true));
+            async.complete();
+        });
+    }
+
+    @Test(timeout = 1000)
+    public void testExecuteOnContextSchedulesWhenOffContext(final TestContext testContext) {
+        final Context context = rule.vertx().getOrCreateContext();
+        final Async async = testContext.async();
+        final AsynchronousComputationAdapter adapter = new VertxAsynchronousComputationAdapter(rule.vertx(), context);
+
+        // Blocking code sees the calling context as current, but isn't running on its event loop
+        context.<Void>executeBlocking(f -> {
+            assertThat(adapter.getExecutionContext().isOnContext(), is(false));
+            adapter.getExecutionContext().executeOnContext(() -> {
+                assertThat(Context.isOnEventLoopThread(), is(true));
+                async.complete();
+            });
+            f.complete();
+        }, r -> {});
+    }
+
     public Integer incrementNow(final Integer i) {
         return i + 1;
     }
@@ -2,17 +2,24 @@ package org.pac4j.async.core;
 
 import io.vertx.core.Vertx;
 import org.pac4j.async.core.context.AsyncWebContext;
+import org.pac4j.async.core.deadline.AsyncDeadline;
+import org.pac4j.async.core.session.AsyncSessionIdRenewal;
 import org.pac4j.async.core.session.AsyncSessionStore;
 import org.pac4j.core.context.Cookie;
 import org.pac4j.core.context.HttpConstants;
 
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
+import static org.mockito.Matchers.anyCollection;
+import static org.mockito.Matchers.anyMap;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.*;
@@ -65,6 +72,14 @@ public class MockAsyncWebContextBuilder {
 
             }).when(webContext).getRequestAttribute(anyString());
 
+            // Deadline is held as a request attribute, as by the default implementation
+            doAnswer(invocation -> {
+                requestAttributes.put(AsyncWebContext.DEADLINE_ATTRIBUTE, invocation.getArguments()[0]);
+                return null;
+            }).when(webContext).setDeadline(any(AsyncDeadline.class));
+            when(webContext.getDeadline()).thenAnswer(invocation ->
+                    Optional.ofNullable((AsyncDeadline) requestAttributes.get(AsyncWebContext.DEADLINE_ATTRIBUTE)));
+
             when(webContext.getFullRequestURL()).thenReturn(DEFAULT_FULL_REQUEST_URL);
             when(webContext.getRequestMethod()).thenReturn(httpMethod.name());
         };
@@ -165,6 +180,48 @@ public class MockAsyncWebContextBuilder {
             return future;
         }).when(sessionStore).get(any(AsyncWebContext.class), anyString());
 
+        // Batch operations, each as a single delayed operation on the session
+        doAnswer(invocation -> {
+            final Collection<String> keys = (Collection<String>) invocation.getArguments()[1];
+            final CompletableFuture<Map<String, Object>> future = new CompletableFuture<>();
+            vertx.setTimer(300, v -> {
+                final Map<String, Object> values = new LinkedHashMap<>();
+                keys.forEach(key -> values.put(key, dummySession.get(key)));
+                future.complete(values);
+            });
+            return future;
+        }).when(sessionStore).getAll(anyObject(), anyCollection());
+
+        doAnswer(invocation -> {
+            final Map<String, Object> values = (Map<String, Object>) invocation.getArguments()[1];
+            final CompletableFuture<Void> future = new CompletableFuture<>();
+            vertx.setTimer(300, v -> {
+                dummySession.putAll(values);
+                future.complete(null);
+            });
+            return future;
+        }).when(sessionStore).setAll(anyObject(), anyMap());
+
+        doAnswer(invocation -> {
+            final Collection<String> keys = (Collection<String>) invocation.getArguments()[1];
+            final CompletableFuture<Void> future = new CompletableFuture<>();
+            vertx.setTimer(300, v -> {
+                keys.forEach(dummySession::remove);
+                future.complete(null);
+            });
+            return future;
+        }).when(sessionStore).removeAll(anyObject(), anyCollection());
+
+        // Renewal in terms of whatever the test stubs for the session id and renewSession
+        doAnswer(invocation -> {
+            final AsyncWebContext context = (AsyncWebContext) invocation.getArguments()[0];
+            return sessionStore.getOrCreateSessionId(context).thenCompose(oldSessionId -> sessionStore.renewSession(context)
+                    .thenCompose(renewed -> renewed ?
+                            sessionStore.getOrCreateSessionId(context)
+                                    .thenApply(newSessionId -> Optional.of(new AsyncSessionIdRenewal(oldSessionId, newSessionId))) :
+                            CompletableFuture.completedFuture(Optional.empty())));
+        }).when(sessionStore).renewSessionId(any(AsyncWebContext.class));
+
         return sessionStore;
 
     }
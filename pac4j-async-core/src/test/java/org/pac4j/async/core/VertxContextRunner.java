@@ -1,6 +1,7 @@
 package org.pac4j.async.core;
 
 import io.vertx.core.Context;
+import io.vertx.core.Vertx;
 import org.pac4j.async.core.execution.context.AsyncPac4jExecutionContext;
 
 /**
@@ -18,4 +19,11 @@ public class VertxContextRunner implements AsyncPac4jExecutionContext {
     public void runOnContext(Runnable operation) {
         vertxContext.runOnContext(a -> operation.run());
     }
+
+    @Override
+    public boolean isOnContext() {
+        // The same check as VertxAsyncPac4jExecutionContext.isOnContext in the vert.x module, see there for why
+        return vertxContext.isEventLoopContext() && Context.isOnEventLoopThread()
+                && Vertx.currentContext() == vertxContext;
+    }
 }
@@ -0,0 +1,64 @@
+package org.pac4j.async.core.authenticate.failure.recorder;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pac4j.async.core.client.AsyncClient;
+import org.pac4j.async.core.context.AsyncWebContext;
+import org.pac4j.async.core.session.AsyncSessionStore;
+import org.pac4j.core.context.Pac4jConstants;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for clearing a failed authentication record together with other session writes
+ */
+public class RecordFailedAuthTest {
+
+    private static final String CLIENT_NAME = "testClient";
+
+    private final AsyncClient client = mock(AsyncClient.class);
+    private final AsyncWebContext webContext = mock(AsyncWebContext.class);
+    private final AsyncSessionStore sessionStore = mock(AsyncSessionStore.class);
+    private final Map<String, Object> otherWrites = Collections.singletonMap(Pac4jConstants.REQUESTED_URL, "");
+
+    @Before
+    public void setUp() {
+        when(client.getName()).thenReturn(CLIENT_NAME);
+        when(webContext.getSessionStore()).thenReturn(sessionStore);
+        when(sessionStore.set(any(AsyncWebContext.class), anyString(), anyObject()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(sessionStore.setAll(any(AsyncWebContext.class), anyMap()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    public void testRecordInSessionClearsInOneBatchWrite() {
+        RecordFailedAuth.RECORD_IN_SESSION.clearFailedAuthenticationAndWrite(client, otherWrites, webContext).join();
+
+        final Map<String, Object> expectedWrites = new HashMap<>(otherWrites);
+        expectedWrites.put(CLIENT_NAME + RecordFailedAuthenticationStrategy.ATTEMPTED_AUTHENTICATION_SUFFIX, "");
+        verify(sessionStore, times(1)).setAll(webContext, expectedWrites);
+        verify(sessionStore, never()).set(any(AsyncWebContext.class), anyString(), anyObject());
+    }
+
+    @Test
+    public void testDoNotRecordMakesOnlyOtherWrites() {
+        RecordFailedAuth.DO_NOT_RECORD.clearFailedAuthenticationAndWrite(client, otherWrites, webContext).join();
+
+        verify(sessionStore, times(1)).setAll(webContext, otherWrites);
+        verify(sessionStore, never()).set(any(AsyncWebContext.class), anyString(), anyObject());
+    }
+}
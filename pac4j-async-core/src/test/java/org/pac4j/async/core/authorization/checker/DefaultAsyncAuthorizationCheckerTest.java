@@ -9,6 +9,10 @@ import org.pac4j.async.core.VertxAsyncTestBase;
 import org.pac4j.async.core.authorization.authorizer.AsyncAuthorizer;
 import org.pac4j.async.core.authorization.authorizer.csrf.DefaultAsyncCsrfTokenGenerator;
 import org.pac4j.async.core.context.AsyncWebContext;
+import org.pac4j.async.core.metrics.AsyncMetricNames;
+import org.pac4j.async.core.metrics.AsyncMetrics;
+import org.pac4j.async.core.metrics.InMemoryAsyncMetrics;
+import org.pac4j.async.core.metrics.MetricKey;
 import org.pac4j.async.core.util.TestsConstants;
 import org.pac4j.core.authorization.authorizer.RequireAnyRoleAuthorizer;
 import org.pac4j.core.context.Cookie;
@@ -197,6 +201,128 @@ public class DefaultAsyncAuthorizationCheckerTest extends VertxAsyncTestBase imp
                 b -> assertThat(b, is(false)));
     }
 
+    @Test
+    public void testParallelAllAuthorized(final TestContext testContext) throws Exception {
+        profile.setId(VALUE);
+        profile.addRole(ROLE);
+        final List<AsyncAuthorizer> authorizers = new ArrayList<>();
+        authorizers.add(new IdAuthorizer());
+        authorizers.add(fromNonBlockingAuthorizer(new RequireAnyRoleAuthorizer(ROLE)));
+        assertAuthorizationResults(testContext,
+                () -> new DefaultAsyncAuthorizationChecker(true).isAuthorized(null, profiles, authorizers),
+                b -> assertThat(b, is(true)));
+    }
+
+    @Test(timeout = 1000)
+    public void testParallelRefusalCancelsPendingAuthorizers(final TestContext testContext) throws Exception {
+        final CompletableFuture<Boolean> refusal = new CompletableFuture<>();
+        final CompletableFuture<Boolean> pending = new CompletableFuture<>();
+        final List<AsyncAuthorizer> authorizers = new ArrayList<>();
+        authorizers.add((context, profiles) -> refusal);
+        authorizers.add((context, profiles) -> pending);
+        final CompletableFuture<Boolean> result = new DefaultAsyncAuthorizationChecker(true).isAuthorized(null, profiles, authorizers);
+        refusal.complete(false);
+        assertAuthorizationResults(testContext,
+                () -> result,
+                b -> {
+                    assertThat(b, is(false));
+                    assertThat(pending.isCancelled(), is(true));
+                });
+    }
+
+    @Test(timeout = 2000)
+    public void testParallelResolvesInDeclarationOrder(final TestContext testContext) throws Exception {
+        final List<AsyncAuthorizer> authorizers = new ArrayList<>();
+        authorizers.add((context, profiles) -> delayedResult(200, () -> false));
+        authorizers.add((context, profiles) -> {
+            throw new TechnicalException("authorizer failed");
+        });
+        // The refusal comes first in declaration order, so decides the result as it would in sequence, even though
+        // the failure happens first
+        assertAuthorizationResults(testContext,
+                () -> checker.isAuthorized(null, profiles, authorizers)
+                        .thenCompose(sequential -> new DefaultAsyncAuthorizationChecker(true).isAuthorized(null, profiles, authorizers)
+                                .thenApply(parallel -> {
+                                    assertThat(parallel, is(sequential));
+                                    return parallel;
+                                })),
+                b -> assertThat(b, is(false)));
+    }
+
+    @Test(timeout = 1000)
+    public void testParallelWaitsForAllAuthorizers(final TestContext testContext) throws Exception {
+        profile.setId(VALUE);
+        final CompletableFuture<Boolean> pending = new CompletableFuture<>();
+        final List<AsyncAuthorizer> authorizers = new ArrayList<>();
+        authorizers.add(new IdAuthorizer());
+        authorizers.add((context, profiles) -> pending);
+        final CompletableFuture<Boolean> result = new DefaultAsyncAuthorizationChecker(true).isAuthorized(null, profiles, authorizers);
+        assertThat(result.isDone(), is(false));
+        pending.complete(true);
+        assertAuthorizationResults(testContext, () -> result, b -> assertThat(b, is(true)));
+    }
+
+    @Test
+    public void testAuthorizerMetricsTaggedByAuthorizer(final TestContext testContext) throws Exception {
+        final InMemoryAsyncMetrics metrics = new InMemoryAsyncMetrics();
+        final List<AsyncAuthorizer> authorizers = new ArrayList<>();
+        authorizers.add(new IdAuthorizer());
+        final MetricKey timerKey = new MetricKey(AsyncMetricNames.AUTHORIZER, AsyncMetrics.AUTHORIZER_TAG, "IdAuthorizer");
+        final MetricKey deniedKey = new MetricKey(AsyncMetricNames.AUTHORIZER_DENIED, AsyncMetrics.AUTHORIZER_TAG, "IdAuthorizer");
+        assertAuthorizationResults(testContext,
+                () -> new DefaultAsyncAuthorizationChecker(false, metrics).isAuthorized(null, profiles, authorizers),
+                b -> {
+                    assertThat(b, is(false));
+                    assertThat(metrics.getHistogram(timerKey).get().getCount(), is(1L));
+                    assertThat(metrics.getCount(deniedKey), is(1L));
+                });
+    }
+
+    @Test
+    public void testAuthorizerMetricsTaggedByConfiguredName(final TestContext testContext) throws Exception {
+        final InMemoryAsyncMetrics metrics = new InMemoryAsyncMetrics();
+        profile.addRole(ROLE);
+        final AsyncAuthorizer<CommonProfile> requireRole = fromNonBlockingAuthorizer(new RequireAnyRoleAuthorizer<>(ROLE));
+        final Map<String, AsyncAuthorizer> authorizers = new HashMap<>();
+        authorizers.put("roleCheck", requireRole);
+        authorizers.put("sameRoleCheck", requireRole);
+        authorizers.put("otherRoleCheck", fromNonBlockingAuthorizer(new RequireAnyRoleAuthorizer<>(VALUE)));
+        final String names = "roleCheck" + ELEMENT_SEPRATOR + "sameRoleCheck" + ELEMENT_SEPRATOR + "isAuthenticated"
+                + ELEMENT_SEPRATOR + "otherRoleCheck";
+        assertAuthorizationResults(testContext,
+                () -> new DefaultAsyncAuthorizationChecker(false, metrics).isAuthorized(null, profiles, names, authorizers),
+                b -> {
+                    assertThat(b, is(false));
+                    for (final String name : Arrays.asList("roleCheck", "sameRoleCheck", "isauthenticated", "otherRoleCheck")) {
+                        final MetricKey timerKey = new MetricKey(AsyncMetricNames.AUTHORIZER, AsyncMetrics.AUTHORIZER_TAG, name);
+                        assertThat(metrics.getHistogram(timerKey).get().getCount(), is(1L));
+                    }
+                    assertThat(metrics.getCount(new MetricKey(AsyncMetricNames.AUTHORIZER_DENIED,
+                            AsyncMetrics.AUTHORIZER_TAG, "otherRoleCheck")), is(1L));
+                    assertThat(metrics.getCount(new MetricKey(AsyncMetricNames.AUTHORIZER_DENIED,
+                            AsyncMetrics.AUTHORIZER_TAG, "roleCheck")), is(0L));
+                    assertThat(metrics.getHistogram(new MetricKey(AsyncMetricNames.AUTHORIZER, AsyncMetrics.AUTHORIZER_TAG,
+                            "AsyncAuthorizer$$Lambda")).isPresent(), is(false));
+                });
+    }
+
+    @Test
+    public void testAuthorizerMetricsLookedUpOnce(final TestContext testContext) throws Exception {
+        final InMemoryAsyncMetrics metrics = spy(new InMemoryAsyncMetrics());
+        final List<AsyncAuthorizer> authorizers = new ArrayList<>();
+        authorizers.add(new IdAuthorizer());
+        final DefaultAsyncAuthorizationChecker measuredChecker = new DefaultAsyncAuthorizationChecker(false, metrics);
+        final MetricKey timerKey = new MetricKey(AsyncMetricNames.AUTHORIZER, AsyncMetrics.AUTHORIZER_TAG, "IdAuthorizer");
+        assertAuthorizationResults(testContext,
+                () -> measuredChecker.isAuthorized(null, profiles, authorizers)
+                        .thenCompose(b -> measuredChecker.isAuthorized(null, profiles, authorizers)),
+                b -> {
+                    assertThat(metrics.getHistogram(timerKey).get().getCount(), is(2L));
+                    verify(metrics, times(1)).timer(AsyncMetricNames.AUTHORIZER, AsyncMetrics.AUTHORIZER_TAG, "IdAuthorizer");
+                    verify(metrics, times(1)).counter(AsyncMetricNames.AUTHORIZER_DENIED, AsyncMetrics.AUTHORIZER_TAG, "IdAuthorizer");
+                });
+    }
+
     @Test(expected = TechnicalException.class)
     public void testNullProfile(final TestContext testContext) throws Exception {
         assertAuthorizationResults(testContext,
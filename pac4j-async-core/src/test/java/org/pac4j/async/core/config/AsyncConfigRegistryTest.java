@@ -0,0 +1,183 @@
+package org.pac4j.async.core.config;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.pac4j.async.core.Named;
+import org.pac4j.async.core.authorization.authorizer.AsyncAuthorizer;
+import org.pac4j.async.core.authorization.authorizer.NamedAsyncAuthorizer;
+import org.pac4j.async.core.matching.AsyncMatcher;
+import org.pac4j.async.core.util.TestsConstants;
+import org.pac4j.core.exception.TechnicalException;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.pac4j.core.context.Pac4jConstants.ELEMENT_SEPRATOR;
+
+/**
+ * Tests for name resolution via the config registry
+ */
+public class AsyncConfigRegistryTest implements TestsConstants {
+
+    private final AsyncAuthorizer authorizer = (context, profiles) -> completedFuture(true);
+    private final AsyncMatcher matcher = context -> completedFuture(true);
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    @Test
+    public void testBlankNamesResolveToNothing() {
+        final AsyncConfigRegistry registry = new AsyncConfigRegistry(null, null);
+        assertThat(registry.resolveAuthorizers(" ").isEmpty(), is(true));
+        assertThat(registry.resolveMatchers(null).isEmpty(), is(true));
+    }
+
+    @Test
+    public void testNamesResolvedIgnoringCaseAndWhitespace() {
+        final AsyncConfigRegistry registry = new AsyncConfigRegistry(singleAuthorizer("MyAuthorizer"), singleMatcher("MyMatcher"));
+        final List<AsyncAuthorizer> authorizers = registry.resolveAuthorizers("  myauthorizer " + ELEMENT_SEPRATOR + "MYAUTHORIZER");
+        assertThat(authorizers.size(), is(2));
+        assertThat(authorizers.get(0), is(sameInstance(authorizer)));
+        assertThat(authorizers.get(1), is(sameInstance(authorizer)));
+        final List<AsyncMatcher> matchers = registry.resolveMatchers(" mymatcher");
+        assertThat(matchers.size(), is(1));
+        assertThat(matchers.get(0), is(sameInstance(matcher)));
+    }
+
+    @Test
+    public void testBuiltInAuthorizersExpanded() {
+        final AsyncConfigRegistry registry = new AsyncConfigRegistry(null, null);
+        assertThat(registry.resolveAuthorizers("securityHeaders").size(), is(5));
+        assertThat(registry.resolveAuthorizers("CSRF" + ELEMENT_SEPRATOR + "isAuthenticated").size(), is(3));
+    }
+
+    @Test
+    public void testNamedAuthorizersCarryConfiguredNames() {
+        final Map<String, AsyncAuthorizer> configured = new HashMap<>();
+        configured.put(" Admins ", authorizer);
+        configured.put("Editors", authorizer);
+        final AsyncConfigRegistry registry = new AsyncConfigRegistry(configured, null);
+
+        final List<AsyncAuthorizer> authorizers = registry.resolveNamedAuthorizers("admins" + ELEMENT_SEPRATOR + "EDITORS");
+        assertThat(names(authorizers), is(Arrays.asList("Admins", "Editors")));
+        assertThat(((NamedAsyncAuthorizer) authorizers.get(0)).getAuthorizer(), is(sameInstance(authorizer)));
+        assertThat(((NamedAsyncAuthorizer) authorizers.get(1)).getAuthorizer(), is(sameInstance(authorizer)));
+    }
+
+    @Test
+    public void testNamedBuiltInAuthorizersNamedIndividually() {
+        final AsyncConfigRegistry registry = new AsyncConfigRegistry(null, null);
+        assertThat(names(registry.resolveNamedAuthorizers("securityHeaders")),
+                is(Arrays.asList("nocache", "nosniff", "hsts", "noframe", "xssprotection")));
+        assertThat(names(registry.resolveNamedAuthorizers("csrf" + ELEMENT_SEPRATOR + "isAuthenticated")),
+                is(Arrays.asList("csrftoken", "csrfcheck", "isauthenticated")));
+        assertThat(((NamedAsyncAuthorizer) registry.resolveNamedAuthorizers("hsts").get(0)).getAuthorizer(),
+                is(sameInstance(registry.resolveAuthorizers("hsts").get(0))));
+    }
+
+    @Test
+    public void testBuiltInAuthorizerTakesPrecedence() {
+        final AsyncConfigRegistry registry = new AsyncConfigRegistry(singleAuthorizer("hsts"), null);
+        final List<AsyncAuthorizer> authorizers = registry.resolveAuthorizers("hsts");
+        assertThat(authorizers.size(), is(1));
+        assertThat(authorizers.get(0) == authorizer, is(false));
+    }
+
+    @Test
+    public void testUnknownAuthorizer() {
+        final AsyncConfigRegistry registry = new AsyncConfigRegistry(singleAuthorizer(NAME), null);
+        exception.expect(TechnicalException.class);
+        exception.expectMessage("authorizersMap['" + VALUE + "'] cannot be null");
+        registry.resolveAuthorizers(NAME + ELEMENT_SEPRATOR + VALUE);
+    }
+
+    private static List<String> names(final List<AsyncAuthorizer> authorizers) {
+        return authorizers.stream().map(a -> ((Named) a).getName()).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testUnknownMatcher() {
+        final AsyncConfigRegistry registry = new AsyncConfigRegistry(null, singleMatcher(NAME));
+        exception.expect(TechnicalException.class);
+        exception.expectMessage("matchersMap['" + VALUE + "'] cannot be null");
+        registry.resolveMatchers(VALUE);
+    }
+
+    @Test
+    public void testDuplicateAuthorizerNames() {
+        final Map<String, AsyncAuthorizer> authorizers = singleAuthorizer(NAME);
+        authorizers.put(" " + NAME.toUpperCase(), authorizer);
+        exception.expect(TechnicalException.class);
+        exception.expectMessage("Duplicate authorizer name");
+        new AsyncConfigRegistry(authorizers, null);
+    }
+
+    @Test
+    public void testDuplicateMatcherNames() {
+        final Map<String, AsyncMatcher> matchers = singleMatcher(NAME);
+        matchers.put(NAME.toUpperCase(), matcher);
+        exception.expect(TechnicalException.class);
+        exception.expectMessage("Duplicate matcher name");
+        new AsyncConfigRegistry(null, matchers);
+    }
+
+    @Test
+    public void testLookUpMatchesRegistry() {
+        final Map<String, AsyncAuthorizer> configured = singleAuthorizer(" MyAuthorizer ");
+        final AsyncConfigRegistry registry = new AsyncConfigRegistry(configured, singleMatcher("MyMatcher"));
+        final String authorizerNames = "myauthorizer" + ELEMENT_SEPRATOR + " securityHeaders" + ELEMENT_SEPRATOR + "CSRF";
+
+        assertThat(AsyncConfigRegistry.lookUpAuthorizers(configured, authorizerNames, false),
+                is(registry.resolveAuthorizers(authorizerNames)));
+        assertThat(names(AsyncConfigRegistry.lookUpAuthorizers(configured, authorizerNames, true)),
+                is(names(registry.resolveNamedAuthorizers(authorizerNames))));
+        assertThat(AsyncConfigRegistry.lookUpMatchers(singleMatcher("MyMatcher"), " MYMATCHER"),
+                is(registry.resolveMatchers(" MYMATCHER")));
+        assertThat(AsyncConfigRegistry.lookUpAuthorizers(null, " ", true).isEmpty(), is(true));
+        assertThat(AsyncConfigRegistry.lookUpMatchers(null, null).isEmpty(), is(true));
+    }
+
+    @Test
+    public void testLookUpSeesChangesToMap() {
+        final Map<String, AsyncAuthorizer> configured = singleAuthorizer(NAME);
+        assertThat(AsyncConfigRegistry.lookUpAuthorizers(configured, NAME, false).size(), is(1));
+        final AsyncAuthorizer added = (context, profiles) -> completedFuture(false);
+        configured.put(VALUE, added);
+
+        assertThat(AsyncConfigRegistry.lookUpAuthorizers(configured, VALUE, false).get(0), is(sameInstance(added)));
+    }
+
+    @Test
+    public void testLookUpUnknownAuthorizer() {
+        exception.expect(TechnicalException.class);
+        exception.expectMessage("authorizersMap['" + VALUE + "'] cannot be null");
+        AsyncConfigRegistry.lookUpAuthorizers(singleAuthorizer(NAME), NAME + ELEMENT_SEPRATOR + VALUE, true);
+    }
+
+    @Test
+    public void testLookUpUnknownMatcherWithoutMap() {
+        exception.expect(TechnicalException.class);
+        exception.expectMessage("matchersMap['" + VALUE + "'] cannot be null");
+        AsyncConfigRegistry.lookUpMatchers(null, VALUE);
+    }
+
+    private Map<String, AsyncAuthorizer> singleAuthorizer(final String name) {
+        final Map<String, AsyncAuthorizer> authorizers = new HashMap<>();
+        authorizers.put(name, authorizer);
+        return authorizers;
+    }
+
+    private Map<String, AsyncMatcher> singleMatcher(final String name) {
+        final Map<String, AsyncMatcher> matchers = new HashMap<>();
+        matchers.put(name, matcher);
+        return matchers;
+    }
+}
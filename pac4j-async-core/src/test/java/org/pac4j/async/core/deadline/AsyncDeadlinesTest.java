@@ -0,0 +1,151 @@
+package org.pac4j.async.core.deadline;
+
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import org.junit.Before;
+import org.junit.Test;
+import org.pac4j.async.core.MockAsyncWebContextBuilder;
+import org.pac4j.async.core.VertxAsyncTestBase;
+import org.pac4j.async.core.context.AsyncWebContext;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests for enforcement of web context deadlines on pipeline stages
+ */
+public class AsyncDeadlinesTest extends VertxAsyncTestBase {
+
+    private AtomicInteger status;
+    private AsyncWebContext webContext;
+
+    @Before
+    public void setUp() {
+        status = new AtomicInteger();
+        webContext = MockAsyncWebContextBuilder.from(rule.vertx(), asynchronousComputationAdapter)
+                .withStatusRecording(status)
+                .build();
+    }
+
+    @Test
+    public void testNoDeadlineReturnsStageFuture(final TestContext testContext) {
+        final CompletableFuture<Boolean> stageFuture = new CompletableFuture<>();
+        assertThat(AsyncDeadlines.enforce(webContext, AsyncStage.MATCHER, () -> stageFuture), is(sameInstance(stageFuture)));
+        assertThat(AsyncDeadlines.enforce(null, AsyncStage.MATCHER, () -> stageFuture), is(sameInstance(stageFuture)));
+    }
+
+    @Test
+    public void testCompletedStageReturnedAsIs(final TestContext testContext) {
+        webContext.setDeadline(AsyncDeadline.after(1, TimeUnit.SECONDS));
+        final CompletableFuture<Boolean> stageFuture = CompletableFuture.completedFuture(true);
+        assertThat(AsyncDeadlines.enforce(webContext, AsyncStage.MATCHER, () -> stageFuture), is(sameInstance(stageFuture)));
+    }
+
+    @Test
+    public void testExpiredDeadlineDoesNotStartStage(final TestContext testContext) {
+        webContext.setDeadline(AsyncDeadline.after(0, TimeUnit.MILLISECONDS));
+        final AtomicBoolean started = new AtomicBoolean(false);
+        final CompletableFuture<Boolean> result = AsyncDeadlines.enforce(webContext, AsyncStage.SESSION_STORE, () -> {
+            started.set(true);
+            return CompletableFuture.completedFuture(true);
+        });
+        assertThat(started.get(), is(false));
+        assertThat(result.isCompletedExceptionally(), is(true));
+        assertThat(status.get(), is(AsyncDeadlines.GATEWAY_TIMEOUT));
+    }
+
+    @Test(timeout = 1000)
+    public void testPendingStageTimesOut(final TestContext testContext) {
+        webContext.setDeadline(AsyncDeadline.after(100, TimeUnit.MILLISECONDS));
+        final CompletableFuture<Boolean> stageFuture = new CompletableFuture<>();
+        final Async async = testContext.async();
+        AsyncDeadlines.enforce(webContext, AsyncStage.AUTHORIZER, () -> stageFuture)
+                .whenComplete((b, t) -> executionContext.runOnContext(() -> {
+                    assertThat(AsyncDeadlines.isTimeout(t), is(true));
+                    assertThat(stageFuture.isCancelled(), is(true));
+                    assertThat(status.get(), is(AsyncDeadlines.GATEWAY_TIMEOUT));
+                    async.complete();
+                }));
+    }
+
+    @Test(timeout = 1000)
+    public void testStageBudgetTighterThanDeadline(final TestContext testContext) {
+        webContext.setDeadline(AsyncDeadline.after(10, TimeUnit.SECONDS)
+                .withStageBudget(AsyncStage.PROFILE_CREATOR, 100, TimeUnit.MILLISECONDS));
+        final Async async = testContext.async();
+        AsyncDeadlines.enforce(webContext, AsyncStage.PROFILE_CREATOR, () -> new CompletableFuture<Boolean>())
+                .whenComplete((b, t) -> executionContext.runOnContext(() -> {
+                    assertThat(AsyncDeadlines.isTimeout(t), is(true));
+                    async.complete();
+                }));
+    }
+
+    @Test(timeout = 1000)
+    public void testStageCompletingBeforeDeadline(final TestContext testContext) {
+        webContext.setDeadline(AsyncDeadline.after(500, TimeUnit.MILLISECONDS));
+        final Async async = testContext.async();
+        final CompletableFuture<Boolean> result = AsyncDeadlines.enforce(webContext, AsyncStage.AUTHENTICATOR,
+                () -> delayedResult(50, () -> true));
+        assertSuccessfulEvaluation(result, b -> {
+            assertThat(b, is(true));
+            assertThat(status.get(), is(-1));
+        }, async);
+    }
+
+    @Test(timeout = 1000)
+    public void testTimerWheelRunsTasksInDeadlineOrder(final TestContext testContext) throws Exception {
+        final DeadlineTimerWheel wheel = new DeadlineTimerWheel(5, TimeUnit.MILLISECONDS, 8);
+        final AtomicInteger order = new AtomicInteger();
+        final AtomicInteger first = new AtomicInteger();
+        final AtomicInteger second = new AtomicInteger();
+        final Async async = testContext.async(2);
+        // Longer than a full turn of the wheel, so must wait a round
+        wheel.schedule(100, TimeUnit.MILLISECONDS, () -> {
+            second.set(order.incrementAndGet());
+            async.countDown();
+        });
+        wheel.schedule(20, TimeUnit.MILLISECONDS, () -> {
+            first.set(order.incrementAndGet());
+            async.countDown();
+        });
+        wheel.schedule(10, TimeUnit.MILLISECONDS, () -> testContext.fail("Cancelled timeout should not run")).cancel();
+        async.awaitSuccess(1000);
+        assertThat(first.get(), is(1));
+        assertThat(second.get(), is(2));
+    }
+
+    @Test
+    public void testCancelledTimeoutReleasesTask() throws Exception {
+        final DeadlineTimerWheel wheel = new DeadlineTimerWheel(1, TimeUnit.SECONDS, 8);
+        final List<WeakReference<Object>> requestReferences = new ArrayList<>();
+        final DeadlineTimerWheel.Timeout timeout = scheduleHoldingRequest(wheel, requestReferences);
+        final WeakReference<Object> requestReference = requestReferences.get(0);
+
+        assertThat(timeout.cancel(), is(true));
+        assertThat(timeout.isCancelled(), is(true));
+        assertThat(timeout.cancel(), is(false));
+        // The timeout itself is still queued for the wheel, but no longer holds on to its task
+        for (int i = 0; i < 10 && requestReference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertThat(requestReference.get() == null, is(true));
+    }
+
+    // Schedules a timeout whose task holds the only strong reference to a request
+    private static DeadlineTimerWheel.Timeout scheduleHoldingRequest(final DeadlineTimerWheel wheel,
+                                                                     final List<WeakReference<Object>> references) {
+        final Object request = new Object();
+        references.add(new WeakReference<>(request));
+        return wheel.schedule(1, TimeUnit.HOURS, () -> request.hashCode());
+    }
+}
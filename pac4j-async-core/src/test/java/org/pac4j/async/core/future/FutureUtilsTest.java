@@ -7,10 +7,16 @@ import org.junit.Test;
 import org.pac4j.async.core.IntentionalException;
 import org.pac4j.async.core.VertxAsyncTestBase;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
@@ -218,6 +224,161 @@ public class FutureUtilsTest extends VertxAsyncTestBase {
                 }));
     }
 
+    // already completed computations are consumed without chaining, so the result is available immediately
+    @Test
+    public void testShortCircuitOnCompletedFutures(final TestContext testContext) throws Exception {
+        final CompletableFuture<Boolean> result = shortCircuitedFuture(Arrays.asList(
+                completedFutureSupplier(1, true),
+                completedFutureSupplier(2, false),
+                completedFutureSupplier(3, true))
+                .stream(), false);
+        assertThat(result.isDone(), is(true));
+        assertThat(result.join(), is(false));
+        assertThat(endStep.get(), is(2));
+    }
+
+    // computations after a pending one are only evaluated once it completes
+    @Test(timeout = 1000)
+    public void testShortCircuitResumesAfterPendingFuture(final TestContext testContext) throws Exception {
+        final Async async = testContext.async();
+        final CompletableFuture<Boolean> pending = new CompletableFuture<>();
+        final CompletableFuture<Boolean> result = shortCircuitedFuture(Arrays.asList(
+                completedFutureSupplier(1, true),
+                () -> pending,
+                completedFutureSupplier(3, true)), Supplier::get, false);
+        assertThat(result.isDone(), is(false));
+        assertThat(endStep.get(), is(1));
+        pending.complete(true);
+        result.thenAccept(b -> executionContext.runOnContext(() -> {
+            assertThat(b, is(true));
+            assertThat(endStep.get(), is(3));
+            async.complete();
+        }));
+    }
+
+    // a computation which throws rather than returning a future fails the combined future
+    @Test(timeout = 1000)
+    public void testShortCircuitWithThrowingSupplier(final TestContext testContext) throws Exception {
+        final Async async = testContext.async();
+        final CompletableFuture<Boolean> result = shortCircuitedFuture(Arrays.<Supplier<CompletableFuture<Boolean>>>asList(
+                completedFutureSupplier(1, true),
+                () -> { throw new IntentionalException(); },
+                completedFutureSupplier(3, true))
+                .stream(), false);
+        result.whenComplete((b, t) -> executionContext.runOnContext(() -> {
+            assertThat(t.getCause() instanceof IntentionalException, is(true));
+            assertThat(endStep.get(), is(1));
+            async.complete();
+        }));
+    }
+
+    @Test
+    public void allInSequenceOnCompletedFutures(final TestContext testContext) {
+        final CompletableFuture<Boolean> result = FutureUtils.allInSequence(Arrays.asList(
+                completedFutureSupplier(1, false),
+                completedFutureSupplier(2, true),
+                completedFutureSupplier(3, false)), Supplier::get);
+        assertThat(result.isDone(), is(true));
+        assertThat(result.join(), is(true));
+        assertThat(endStep.get(), is(3));
+    }
+
+    @Test(timeout = 1000)
+    public void allInSequenceResumesAfterPendingFuture(final TestContext testContext) {
+        final Async async = testContext.async();
+        FutureUtils.allInSequence(Arrays.<Supplier<CompletableFuture<Boolean>>>asList(
+                completedFutureSupplier(1, false),
+                indexedFutureSupplier(2, true),
+                completedFutureSupplier(3, false))
+                .stream())
+                .thenAccept(b -> executionContext.runOnContext(() -> {
+                    assertThat(b, is(true));
+                    assertThat(endStep.get(), is(3));
+                    async.complete();
+                }));
+    }
+
+    @Test(timeout = 1000)
+    public void shortCircuitedInParallelFailureCancelsPending(final TestContext testContext) {
+        final Async async = testContext.async();
+        final CompletableFuture<Boolean> pending = new CompletableFuture<>();
+        FutureUtils.shortCircuitedInParallel(Arrays.<Supplier<CompletableFuture<Boolean>>>asList(
+                indexedFutureSupplier(1, true),
+                () -> delayedException(100, new IntentionalException()),
+                () -> pending), Supplier::get, false)
+                .whenComplete((b, t) -> executionContext.runOnContext(() -> {
+                    assertThat(t.getCause() instanceof IntentionalException, is(true));
+                    assertThat(pending.isCancelled(), is(true));
+                    async.complete();
+                }));
+    }
+
+    @Test(timeout = 1000)
+    public void shortCircuitedInParallelEarlierFailureWinsOverLaterFallback(final TestContext testContext) {
+        final Async async = testContext.async();
+        FutureUtils.shortCircuitedInParallel(Arrays.<Supplier<CompletableFuture<Boolean>>>asList(
+                () -> delayedException(200, new IntentionalException()),
+                completedFutureSupplier(2, false)), Supplier::get, false)
+                .whenComplete((b, t) -> executionContext.runOnContext(() -> {
+                    assertThat(t.getCause() instanceof IntentionalException, is(true));
+                    async.complete();
+                }));
+    }
+
+    @Test
+    public void shortCircuitedInParallelStopsStartingOnceDecided(final TestContext testContext) {
+        final CompletableFuture<Boolean> result = FutureUtils.shortCircuitedInParallel(Arrays.asList(
+                completedFutureSupplier(1, false),
+                completedFutureSupplier(2, true)), Supplier::get, false);
+        assertThat(result.join(), is(false));
+        assertThat(endStep.get(), is(1));
+    }
+
+    @Test(timeout = 20000)
+    public void shortCircuitedInParallelNeverGrantsWhenLastDenies() throws Exception {
+        final int evaluations = 4;
+        final ExecutorService executor = Executors.newFixedThreadPool(evaluations);
+        try {
+            for (int i = 0; i < 5000; i++) {
+                final List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+                for (int j = 0; j < evaluations; j++) {
+                    futures.add(new CompletableFuture<>());
+                }
+                final CompletableFuture<Boolean> result = FutureUtils.shortCircuitedInParallel(futures, f -> f, false);
+                // Complete every evaluation at once from its own thread, the last one denying or failing
+                final boolean lastFails = i % 2 == 0;
+                final CyclicBarrier start = new CyclicBarrier(evaluations);
+                for (int j = 0; j < evaluations; j++) {
+                    final CompletableFuture<Boolean> future = futures.get(j);
+                    final boolean last = j == evaluations - 1;
+                    executor.execute(() -> {
+                        try {
+                            start.await();
+                        } catch (final Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                        if (!last) {
+                            future.complete(true);
+                        } else if (lastFails) {
+                            future.completeExceptionally(new IntentionalException());
+                        } else {
+                            future.complete(false);
+                        }
+                    });
+                }
+                try {
+                    assertThat(result.get(5, TimeUnit.SECONDS), is(false));
+                    assertThat(lastFails, is(false));
+                } catch (final ExecutionException e) {
+                    assertThat(e.getCause() instanceof IntentionalException, is(true));
+                    assertThat(lastFails, is(true));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     private CompletableFuture<Integer> delayedFuture(final int value, final int delayMs) {
         return delayedResult(delayMs, () -> value);
     }
@@ -229,4 +390,11 @@ public class FutureUtilsTest extends VertxAsyncTestBase {
         });
 
     }
-}
\ No newline at end of file
+
+    private Supplier<CompletableFuture<Boolean>> completedFutureSupplier(final int index, final boolean value) {
+        return () -> {
+            endStep.set(index);
+            return CompletableFuture.completedFuture(value);
+        };
+    }
+}
@@ -15,7 +15,10 @@ import org.pac4j.async.core.authorization.generator.AsyncAuthorizationGenerator;
 import org.pac4j.async.core.client.AsyncClient;
 import org.pac4j.async.core.config.AsyncConfig;
 import org.pac4j.async.core.context.AsyncWebContext;
+import org.pac4j.async.core.logout.AsyncLocalLogoutStrategy;
+import org.pac4j.async.core.profile.AsyncProfileManager;
 import org.pac4j.async.core.session.AsyncSessionStore;
+import org.pac4j.async.core.session.destruction.AsyncSessionDestructionStrategy;
 import org.pac4j.core.client.Clients;
 import org.pac4j.core.context.HttpConstants;
 import org.pac4j.core.context.Pac4jConstants;
@@ -26,14 +29,22 @@ import org.pac4j.core.profile.CommonProfile;
 import org.pac4j.core.redirect.RedirectAction;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
+import static org.hamcrest.CoreMatchers.allOf;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.hasProperty;
 import static org.mockito.Mockito.*;
+import static org.pac4j.async.core.exception.handler.AsyncExceptionHandler.unwrapAsyncException;
 import static org.pac4j.async.core.util.TestsConstants.*;
 
 /**
@@ -287,6 +298,67 @@ public class DefaultAsyncLogoutLogicTest extends VertxAsyncTestBase {
 
     }
 
+    @Test(timeout = 3000)
+    public void testSessionUnitOfWorkCompletedWhenLocalLogoutFails(final TestContext testContext) {
+        final Map<String, TestProfile> profiles = new HashMap<>();
+        profiles.put(NAME, TestProfile.from(TEST_CREDENTIALS));
+        when(config.getClients()).thenReturn(new Clients<>());
+        final Async async = testContext.async();
+        asyncLogoutLogic = new DefaultAsyncLogoutLogic<Object, TestProfile, AsyncWebContext>(config, httpActionAdapter, null, null, true, false, false) {
+            @Override
+            protected AsyncLocalLogoutStrategy getLocalLogoutStrategy(final boolean localLogout) {
+                return new AsyncLocalLogoutStrategy() {
+                    @Override
+                    public <U extends CommonProfile, C extends AsyncWebContext> CompletableFuture<List<? extends U>>
+                    logout(final AsyncProfileManager<U, C> profileManager,
+                           final AsyncSessionDestructionStrategy sessionDestructionStrategy,
+                           final C webContext) {
+                        return profileManager.logout().thenApply(v -> {
+                            throw new TechnicalException("local logout failed");
+                        });
+                    }
+                };
+            }
+        };
+        addProfilesToContext(profiles)
+                .thenCompose(v -> {
+                    final AsyncSessionStore underlyingStore = enableSessionUnitOfWork();
+                    return asyncLogoutLogic.perform(webContext)
+                            .whenComplete((o, t) -> executionContext.runOnContext(() -> {
+                                assertThat(unwrapAsyncException(t), allOf(instanceOf(TechnicalException.class),
+                                        hasProperty("message", is("local logout failed"))));
+                                assertSessionUnitOfWorkCompleted(underlyingStore);
+                                async.complete();
+                            }));
+                });
+    }
+
+    @Test(timeout = 3000)
+    public void testSessionUnitOfWorkCompletedWhenCentralLogoutFails(final TestContext testContext) {
+        final Map<String, TestProfile> profiles = new HashMap<>();
+        final TestProfile profile = TestProfile.from(TEST_CREDENTIALS);
+        profile.setClientName(NAME);
+        profiles.put(NAME, profile);
+        final AsyncClient<TestCredentials, TestProfile> client = indirectClient(NAME, CALLBACK_URL, targetUrl -> {
+            throw new TechnicalException("central logout failed");
+        });
+        when(config.getClients()).thenReturn(new Clients<>(client));
+        asyncLogoutLogic = new DefaultAsyncLogoutLogic<>(config, httpActionAdapter, null, ".*", true, false, true);
+        when(webContext.getRequestParameter(eq(Pac4jConstants.URL))).thenReturn(CALLBACK_URL);
+        final Async async = testContext.async();
+        addProfilesToContext(profiles)
+                .thenCompose(v -> {
+                    final AsyncSessionStore underlyingStore = enableSessionUnitOfWork();
+                    return asyncLogoutLogic.perform(webContext)
+                            .whenComplete((o, t) -> executionContext.runOnContext(() -> {
+                                assertThat(unwrapAsyncException(t), allOf(instanceOf(TechnicalException.class),
+                                        hasProperty("message", is("central logout failed"))));
+                                assertSessionUnitOfWorkCompleted(underlyingStore);
+                                async.complete();
+                            }));
+                });
+    }
+
     public CompletableFuture<Map<String, TestProfile>> profilesFromSession() {
         return webContext.getSessionStore().get(webContext, Pac4jConstants.USER_PROFILES);
     }
@@ -311,6 +383,24 @@ public class DefaultAsyncLogoutLogicTest extends VertxAsyncTestBase {
         return webContext.getSessionStore().set(webContext, Pac4jConstants.USER_PROFILES, profiles);
     }
 
+    private AsyncSessionStore enableSessionUnitOfWork() {
+        when(config.isSessionUnitOfWork()).thenReturn(true);
+        final AsyncSessionStore underlyingStore = webContext.getSessionStore();
+        doAnswer(invocation -> {
+            when(webContext.getSessionStore()).thenReturn(invocation.getArgumentAt(0, AsyncSessionStore.class));
+            return null;
+        }).when(webContext).setSessionStore(any(AsyncSessionStore.class));
+        return underlyingStore;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void assertSessionUnitOfWorkCompleted(final AsyncSessionStore underlyingStore) {
+        // The removal of the profiles has reached the session, and the context's own store is back
+        assertThat(webContext.getSessionStore(), is(sameInstance(underlyingStore)));
+        verify(underlyingStore, times(1)).setAll(anyObject(),
+                (Map<String, ?>) argThat(hasEntry(equalTo(Pac4jConstants.USER_PROFILES), equalTo((Object) new HashMap<>()))));
+    }
+
     private AsyncClient<TestCredentials, TestProfile> indirectClient(final String name, final String callbackUrl, final Function<String, RedirectAction> redirectActionGenerator) {
         final AsyncClient<TestCredentials, TestProfile> client = mock(AsyncClient.class);
         when(client.isIndirect()).thenReturn(true);
@@ -18,7 +18,14 @@ import org.pac4j.async.core.authorization.generator.AsyncAuthorizationGenerator;
 import org.pac4j.async.core.client.AsyncClient;
 import org.pac4j.async.core.config.AsyncConfig;
 import org.pac4j.async.core.context.AsyncWebContext;
+import org.pac4j.async.core.deadline.AsyncDeadline;
+import org.pac4j.async.core.deadline.AsyncDeadlines;
+import org.pac4j.async.core.exception.handler.NoopAsyncExceptionHandler;
 import org.pac4j.async.core.matching.AsyncMatcher;
+import org.pac4j.async.core.metrics.AsyncMetricNames;
+import org.pac4j.async.core.metrics.InMemoryAsyncMetrics;
+import org.pac4j.async.core.metrics.MetricKey;
+import org.pac4j.async.core.session.AsyncSessionStore;
 import org.pac4j.async.core.util.TestsConstants;
 import org.pac4j.core.authorization.authorizer.Authorizer;
 import org.pac4j.core.client.Clients;
@@ -35,14 +42,19 @@ import org.pac4j.core.redirect.RedirectAction;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.CoreMatchers.*;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.hasProperty;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.argThat;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.*;
+import static org.pac4j.async.core.exception.handler.AsyncExceptionHandler.unwrapAsyncException;
 import static org.pac4j.async.core.util.TestsConstants.*;
 import static org.pac4j.core.context.HttpConstants.LOCATION_HEADER;
 
@@ -98,6 +110,28 @@ public class DefaultAsyncSecurityLogicTest extends VertxAsyncTestBase {
         asyncSecurityLogic = new DefaultAsyncSecurityLogic<>(true, false, config, httpActionAdapter);
     }
 
+    @Test
+    public void testDuplicateAuthorizerNamesFailAtStartup() throws Exception {
+        when(config.getClients()).thenReturn(new Clients());
+        final Map<String, AsyncAuthorizer<CommonProfile>> authorizersMap = new HashMap<>();
+        authorizersMap.put(NAME, AsyncAuthorizer.fromNonBlockingAuthorizer((context, prof) -> true));
+        authorizersMap.put(NAME.toUpperCase(), AsyncAuthorizer.fromNonBlockingAuthorizer((context, prof) -> true));
+        when(config.getAuthorizers()).thenReturn(authorizersMap);
+        exception.expect(TechnicalException.class);
+        exception.expectMessage("Duplicate authorizer name");
+        asyncSecurityLogic = new DefaultAsyncSecurityLogic<>(true, false, config, httpActionAdapter);
+    }
+
+    @Test
+    public void testPrecompileUnknownAuthorizer() throws Exception {
+        when(config.getClients()).thenReturn(new Clients());
+        addSingleAuthorizerToConfig((context, prof) -> true);
+        asyncSecurityLogic = new DefaultAsyncSecurityLogic<>(true, false, config, httpActionAdapter);
+        exception.expect(TechnicalException.class);
+        exception.expectMessage("authorizersMap['" + VALUE + "'] cannot be null");
+        asyncSecurityLogic.precompile(null, VALUE, null);
+    }
+
     @Test
     public void testNullHttpActionAdapter() throws Exception {
         when(config.getClients()).thenReturn(new Clients());
@@ -141,6 +175,26 @@ public class DefaultAsyncSecurityLogicTest extends VertxAsyncTestBase {
         }), async);
     }
 
+    @Test(timeout = 2000)
+    public void testMatcherExceedingDeadline(final TestContext testContext) throws Exception {
+        final AsyncClient<TestCredentials, TestProfile> client = getMockIndirectClient(NAME);
+        final Clients<AsyncClient<? extends Credentials, ? extends CommonProfile>, AsyncAuthorizationGenerator<CommonProfile>> clients = new Clients<>(CALLBACK_URL, client);
+        when(config.getClients()).thenReturn(clients);
+        final Map<String, AsyncMatcher> matchers = new HashMap<>();
+        matchers.put(NAME, context -> new CompletableFuture<>());
+        when(config.getMatchers()).thenReturn(matchers);
+        asyncSecurityLogic = new DefaultAsyncSecurityLogic<>(true, false, config, httpActionAdapter);
+        webContext.setDeadline(AsyncDeadline.after(100, TimeUnit.MILLISECONDS));
+        final Async async = testContext.async();
+        final CompletableFuture<Object> result = asyncSecurityLogic.perform(webContext, accessGrantedAdapter, null, null, NAME);
+
+        assertSuccessfulEvaluation(result, ExceptionSoftener.softenConsumer(o -> {
+            assertThat(o, is(nullValue()));
+            assertThat(status.get(), is(AsyncDeadlines.GATEWAY_TIMEOUT));
+            verify(accessGrantedAdapter, never()).adapt(webContext);
+        }), async);
+    }
+
     @Test
     public void testAlreadyAuthenticatedAndAuthorized(final TestContext testContext) throws Exception {
         final AsyncClient<TestCredentials, TestProfile> indirectClient = getMockIndirectClient(NAME);
@@ -159,6 +213,74 @@ public class DefaultAsyncSecurityLogicTest extends VertxAsyncTestBase {
         }), async);
     }
 
+    @Test
+    public void testStageLatenciesRecorded(final TestContext testContext) throws Exception {
+        final AsyncClient<TestCredentials, TestProfile> indirectClient = getMockIndirectClient(NAME);
+        final Clients<AsyncClient<? extends Credentials, ? extends CommonProfile>, AsyncAuthorizationGenerator<CommonProfile>> clients = new Clients<>(CALLBACK_URL, indirectClient);
+        when(config.getClients()).thenReturn(clients);
+        final InMemoryAsyncMetrics metrics = new InMemoryAsyncMetrics();
+        when(config.getMetrics()).thenReturn(metrics);
+        final String authorizers = NAME;
+        addSingleAuthorizerToConfig((context, prof) -> prof.get(0).getId().equals(GOOD_USERNAME));
+        asyncSecurityLogic = new DefaultAsyncSecurityLogic<>(true, false, config, httpActionAdapter);
+        final Async async = testContext.async();
+        final CompletableFuture<Object> result = simulatePreviousAuthenticationSuccess()
+                .thenCompose(v -> asyncSecurityLogic.perform(webContext, accessGrantedAdapter, null, authorizers, null));
+        assertSuccessfulEvaluation(result, o -> {
+            for (final String stage : Arrays.asList(AsyncMetricNames.SECURITY, AsyncMetricNames.SECURITY_MATCHING,
+                    AsyncMetricNames.SECURITY_PROFILE_LOAD, AsyncMetricNames.SECURITY_AUTHORIZATION,
+                    AsyncMetricNames.SECURITY_GRANTED_ACCESS)) {
+                assertThat(stage, metrics.getHistogram(new MetricKey(stage)).get().getCount(), is(1L));
+            }
+            // profile found in session, so no direct authentication
+            assertThat(metrics.getHistogram(new MetricKey(AsyncMetricNames.SECURITY_DIRECT_AUTHENTICATION)).isPresent(), is(false));
+            assertThat(metrics.getHistogram(new MetricKey(AsyncMetricNames.SECURITY)).get().getMax() >=
+                    metrics.getHistogram(new MetricKey(AsyncMetricNames.SECURITY_PROFILE_LOAD)).get().getMax(), is(true));
+        }, async);
+    }
+
+    @Test
+    public void testSecurityPlanReusedForSameTriple(final TestContext testContext) throws Exception {
+        final AsyncClient<TestCredentials, TestProfile> indirectClient = getMockIndirectClient(NAME);
+        final Clients<AsyncClient<? extends Credentials, ? extends CommonProfile>, AsyncAuthorizationGenerator<CommonProfile>> clients = new Clients<>(CALLBACK_URL, indirectClient);
+        when(config.getClients()).thenReturn(clients);
+        final String authorizers = NAME;
+        addSingleAuthorizerToConfig((context, prof) -> prof.get(0).getId().equals(GOOD_USERNAME));
+        asyncSecurityLogic = new DefaultAsyncSecurityLogic<>(true, false, config, httpActionAdapter);
+        final Async async = testContext.async();
+        final CompletableFuture<Object> result = simulatePreviousAuthenticationSuccess()
+                .thenCompose(v -> asyncSecurityLogic.perform(webContext, accessGrantedAdapter, null, authorizers, null))
+                .thenCompose(v -> asyncSecurityLogic.perform(webContext, accessGrantedAdapter, null, authorizers, null));
+        assertSuccessfulEvaluation(result, ExceptionSoftener.softenConsumer(o -> {
+            assertThat(o, is(nullValue()));
+            verify(accessGrantedAdapter, times(2)).adapt(webContext);
+            // authorizer names were only resolved when the plan was compiled
+            verify(config, times(1)).getAuthorizers();
+        }), async);
+    }
+
+    @Test
+    public void testSecurityPlanRecompiledWhenConfigChanges(final TestContext testContext) throws Exception {
+        final AsyncClient<TestCredentials, TestProfile> indirectClient = getMockIndirectClient(NAME);
+        final Clients<AsyncClient<? extends Credentials, ? extends CommonProfile>, AsyncAuthorizationGenerator<CommonProfile>> clients = new Clients<>(CALLBACK_URL, indirectClient);
+        when(config.getClients()).thenReturn(clients);
+        final String authorizers = NAME;
+        addSingleAuthorizerToConfig((context, prof) -> prof.get(0).getId().equals(GOOD_USERNAME));
+        asyncSecurityLogic = new DefaultAsyncSecurityLogic<>(true, false, config, httpActionAdapter);
+        final Async async = testContext.async();
+        final CompletableFuture<Object> result = simulatePreviousAuthenticationSuccess()
+                .thenCompose(v -> asyncSecurityLogic.perform(webContext, accessGrantedAdapter, null, authorizers, null))
+                .thenCompose(v -> {
+                    when(config.getVersion()).thenReturn(1);
+                    return asyncSecurityLogic.perform(webContext, accessGrantedAdapter, null, authorizers, null);
+                });
+        assertSuccessfulEvaluation(result, ExceptionSoftener.softenConsumer(o -> {
+            assertThat(o, is(nullValue()));
+            verify(accessGrantedAdapter, times(2)).adapt(webContext);
+            verify(config, times(2)).getAuthorizers();
+        }), async);
+    }
+
     @Test(timeout = 1000)
     public void testAlreadyAuthenticatedNotAuthorized(final TestContext testContext) throws Exception {
         simulatePreviousAuthenticationSuccess();
@@ -206,6 +328,42 @@ public class DefaultAsyncSecurityLogicTest extends VertxAsyncTestBase {
         }), async);
     }
 
+    @Test(timeout = 3000)
+    public void testSessionUnitOfWorkCompletedWhenForbidden(final TestContext testContext) throws Exception {
+        final AsyncSessionStore underlyingStore = enableSessionUnitOfWork();
+        final AsyncClient directClient = getMockDirectClient(NAME, TEST_CREDENTIALS);
+        when(config.getClients()).thenReturn(new Clients<>(CALLBACK_URL, directClient));
+        addSingleAuthorizerToConfig((context, prof) -> false);
+        // Failures are passed back rather than thrown out to the context, so that they can be checked
+        asyncSecurityLogic = new DefaultAsyncSecurityLogic<>(true, false, config, new NoopAsyncExceptionHandler<>(), httpActionAdapter);
+        final Async async = testContext.async();
+        asyncSecurityLogic.perform(webContext, accessGrantedAdapter, NAME, NAME, null)
+                .whenComplete((o, t) -> executionContext.runOnContext(() -> {
+                    assertThat(unwrapAsyncException(t), allOf(IsInstanceOf.instanceOf(HttpAction.class),
+                            hasProperty("code", is(403))));
+                    assertSessionUnitOfWorkCompleted(underlyingStore);
+                    async.complete();
+                }));
+    }
+
+    @Test(timeout = 3000)
+    public void testSessionUnitOfWorkCompletedWhenAuthorizerFails(final TestContext testContext) throws Exception {
+        final AsyncSessionStore underlyingStore = enableSessionUnitOfWork();
+        final AsyncClient directClient = getMockDirectClient(NAME, TEST_CREDENTIALS);
+        when(config.getClients()).thenReturn(new Clients<>(CALLBACK_URL, directClient));
+        addSingleAuthorizerToConfig((context, prof) -> { throw new TechnicalException("authorizer failed"); });
+        // Failures are passed back rather than thrown out to the context, so that they can be checked
+        asyncSecurityLogic = new DefaultAsyncSecurityLogic<>(true, false, config, new NoopAsyncExceptionHandler<>(), httpActionAdapter);
+        final Async async = testContext.async();
+        asyncSecurityLogic.perform(webContext, accessGrantedAdapter, NAME, NAME, null)
+                .whenComplete((o, t) -> executionContext.runOnContext(() -> {
+                    assertThat(unwrapAsyncException(t), allOf(IsInstanceOf.instanceOf(TechnicalException.class),
+                            hasProperty("message", is("authorizer failed"))));
+                    assertSessionUnitOfWorkCompleted(underlyingStore);
+                    async.complete();
+                }));
+    }
+
     @Test
     public void testDoubleDirectClient(final TestContext testContext) throws Exception {
 
@@ -303,6 +461,22 @@ public class DefaultAsyncSecurityLogicTest extends VertxAsyncTestBase {
         assertRedirectionTo(async, result, PAC4J_URL);
     }
 
+    @Test
+    public void testClientsReplacedAfterCreation(final TestContext testContext) throws Exception {
+        final AsyncClient<TestCredentials, TestProfile> indirectClient = getMockIndirectClient(NAME, PAC4J_URL);
+        when(config.getClients()).thenReturn(new Clients<>(CALLBACK_URL, indirectClient));
+        asyncSecurityLogic = new DefaultAsyncSecurityLogic<>(true, false, config, httpActionAdapter);
+
+        // As Config.setClients would, replacing the clients and moving the configuration on to a new version
+        final AsyncClient<TestCredentials, TestProfile> replacementClient = getMockIndirectClient(NAME, PAC4J_BASE_URL);
+        when(config.getClients()).thenReturn(new Clients<>(CALLBACK_URL, replacementClient));
+        when(config.getVersion()).thenReturn(1);
+
+        final Async async = testContext.async();
+        final CompletableFuture<Object> result = asyncSecurityLogic.perform(webContext, accessGrantedAdapter, NAME, null, null);
+        assertRedirectionTo(async, result, PAC4J_BASE_URL);
+    }
+
     @Test
     public void testDoubleIndirectClientOneChosen(final TestContext testContext) throws Exception {
 
@@ -372,6 +546,24 @@ public class DefaultAsyncSecurityLogicTest extends VertxAsyncTestBase {
 
     }
 
+    private AsyncSessionStore enableSessionUnitOfWork() {
+        when(config.isSessionUnitOfWork()).thenReturn(true);
+        final AsyncSessionStore underlyingStore = webContext.getSessionStore();
+        doAnswer(invocation -> {
+            when(webContext.getSessionStore()).thenReturn(invocation.getArgumentAt(0, AsyncSessionStore.class));
+            return null;
+        }).when(webContext).setSessionStore(any(AsyncSessionStore.class));
+        return underlyingStore;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void assertSessionUnitOfWorkCompleted(final AsyncSessionStore underlyingStore) {
+        // The profile saved by the direct client has reached the session, and the context's own store is back
+        assertThat(webContext.getSessionStore(), is(sameInstance(underlyingStore)));
+        verify(underlyingStore, times(1)).setAll(anyObject(),
+                (Map<String, ?>) argThat(hasKey(Pac4jConstants.USER_PROFILES)));
+    }
+
     private Clients<AsyncClient<? extends Credentials, ? extends CommonProfile>, AsyncAuthorizationGenerator<CommonProfile>> doubleDirectClients() {
         final TestCredentials testCredentials2 = new TestCredentials(GOOD_USERNAME2, PASSWORD);
 
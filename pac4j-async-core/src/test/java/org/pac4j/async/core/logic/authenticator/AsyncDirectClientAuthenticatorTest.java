@@ -149,6 +149,44 @@ public class AsyncDirectClientAuthenticatorTest extends VertxAsyncTestBase {
 
     }
 
+    @Test(timeout = 1000)
+    public void singleProfileDoesNotWaitForLowerPriorityClients(final TestContext testContext) {
+        final AsyncDirectClientAuthenticator<TestProfile, AsyncWebContext> authenticator = new AsyncDirectClientAuthenticator<>(AsyncProfileSave.SINGLE_PROFILE_SAVE,
+                new AsyncSaveProfileToSessionDecision(true), new AsyncLoadProfileFromSessionDecision());
+        final AsyncWebContext webContext = webContextBuilder.build();
+        final AsyncClient<TestCredentials, TestProfile> directClient1 = getDirectClient(TEST_PROFILE);
+        // Second client never completes authentication
+        final AsyncClient<TestCredentials, TestProfile> directClient2 = mock(AsyncClient.class);
+        when(directClient2.isIndirect()).thenReturn(false);
+        when(directClient2.getCredentials(any(AsyncWebContext.class))).thenReturn(new CompletableFuture<>());
+        final Async async = testContext.async();
+
+        final CompletableFuture<List<TestProfile>>authResultFuture = authenticator.authenticate(Arrays.asList(directClient1, directClient2), webContext, new AsyncProfileManager<>(webContext));
+
+        assertSuccessfulEvaluation(authResultFuture,
+                profiles -> assertThat(profiles, is(Arrays.asList(TEST_PROFILE))),
+                async);
+    }
+
+    @Test(timeout = 2000)
+    public void singleProfileKeepsClientPriority(final TestContext testContext) {
+        final AsyncDirectClientAuthenticator<TestProfile, AsyncWebContext> authenticator = new AsyncDirectClientAuthenticator<>(AsyncProfileSave.SINGLE_PROFILE_SAVE,
+                new AsyncSaveProfileToSessionDecision(true), new AsyncLoadProfileFromSessionDecision());
+        final AsyncWebContext webContext = webContextBuilder.build();
+        // First client is slower to authenticate than the second, but should still win
+        final AsyncClient<TestCredentials, TestProfile> directClient1 = getDirectClient(TEST_PROFILE);
+        when(directClient1.getUserProfileFuture(eq(TEST_CREDENTIALS), any(AsyncWebContext.class))).thenReturn(
+                delayedResult(2 * DEFAULT_DELAY, () -> Optional.of(TEST_PROFILE)));
+        final AsyncClient<TestCredentials, TestProfile> directClient2 = getDirectClient(TEST_PROFILE2);
+        final Async async = testContext.async();
+
+        final CompletableFuture<List<TestProfile>>authResultFuture = authenticator.authenticate(Arrays.asList(directClient1, directClient2), webContext, new AsyncProfileManager<>(webContext));
+
+        assertSuccessfulEvaluation(authResultFuture,
+                profiles -> assertThat(profiles, is(Arrays.asList(TEST_PROFILE))),
+                async);
+    }
+
     /**
      * Return a client which will successfully authenticate
      * @param indirect
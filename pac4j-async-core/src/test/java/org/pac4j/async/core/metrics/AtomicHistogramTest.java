@@ -0,0 +1,92 @@
+package org.pac4j.async.core.metrics;
+
+import org.junit.Test;
+import org.pac4j.core.exception.TechnicalException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+/**
+ * Tests for the lock-free histogram backing in-memory timers
+ */
+public class AtomicHistogramTest {
+
+    @Test
+    public void testEmptyHistogram() {
+        final AtomicHistogram histogram = new AtomicHistogram();
+        assertThat(histogram.getCount(), is(0L));
+        assertThat(histogram.getMax(), is(0L));
+        assertThat(histogram.getValueAtPercentile(99), is(0L));
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        final AtomicHistogram histogram = new AtomicHistogram();
+        for (long i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        assertThat(histogram.getCount(), is(100L));
+        assertThat(histogram.getValueAtPercentile(50), is(50L));
+        assertThat(histogram.getValueAtPercentile(99), is(99L));
+        assertThat(histogram.getValueAtPercentile(100), is(100L));
+        assertThat(histogram.getMean(), is(50.5));
+    }
+
+    @Test
+    public void testLargeValuesWithinRelativeError() {
+        final AtomicHistogram histogram = new AtomicHistogram();
+        final long[] values = { 1_000L, 123_456L, 7_654_321L, 30_000_000_000L, Long.MAX_VALUE };
+        for (final long value : values) {
+            final long reported = AtomicHistogram.highestValueFor(AtomicHistogram.indexFor(value));
+            assertThat(reported, greaterThanOrEqualTo(value));
+            assertThat((double) (reported - value), lessThanOrEqualTo(value / 64.0));
+            histogram.record(value);
+        }
+        assertThat(histogram.getMax(), is(Long.MAX_VALUE));
+        assertThat(histogram.getValueAtPercentile(100), is(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testBucketBoundaries() {
+        for (long value = 1; value > 0 && value < Long.MAX_VALUE / 2; value = value * 3 + 1) {
+            final int index = AtomicHistogram.indexFor(value);
+            assertThat(AtomicHistogram.highestValueFor(index), greaterThanOrEqualTo(value));
+            if (index > 0) {
+                assertThat(AtomicHistogram.highestValueFor(index - 1) < value, is(true));
+            }
+        }
+    }
+
+    @Test(expected = TechnicalException.class)
+    public void testNegativeValueRejected() {
+        new AtomicHistogram().record(-1);
+    }
+
+    @Test(timeout = 10000)
+    public void testConcurrentRecording() throws Exception {
+        final AtomicHistogram histogram = new AtomicHistogram();
+        final int threads = 4;
+        final int perThread = 10_000;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    histogram.record(i);
+                }
+                done.countDown();
+            });
+        }
+        done.await(5, TimeUnit.SECONDS);
+        executor.shutdown();
+        assertThat(histogram.getCount(), is((long) threads * perThread));
+        assertThat(histogram.getMax(), is((long) perThread - 1));
+    }
+}
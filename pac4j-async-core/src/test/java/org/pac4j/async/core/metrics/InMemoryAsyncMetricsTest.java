@@ -0,0 +1,76 @@
+package org.pac4j.async.core.metrics;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests for in-memory metrics and the timer and counter contracts
+ */
+public class InMemoryAsyncMetricsTest {
+
+    private final InMemoryAsyncMetrics metrics = new InMemoryAsyncMetrics();
+
+    @Test
+    public void testSameTimerForSameKey() {
+        assertThat(metrics.timer("t", "client", "a"), is(sameInstance(metrics.timer("t", "client", "a"))));
+        assertThat(metrics.timer("t", "client", "a") == metrics.timer("t", "client", "b"), is(false));
+        assertThat(metrics.timer("t") == metrics.timer("t", "client", "a"), is(false));
+    }
+
+    @Test
+    public void testUntaggedMetricsSharedWithKeyedLookups() {
+        metrics.timer("t").record(1);
+        metrics.counter("c").increment();
+        assertThat(metrics.getHistogram(new MetricKey("t")).get().getCount(), is(1L));
+        assertThat(metrics.getHistograms().size(), is(1));
+        assertThat(metrics.getCount(new MetricKey("c")), is(1L));
+    }
+
+    @Test
+    public void testKeyEquality() {
+        assertThat(new MetricKey("t", "client", "a"), is(new MetricKey("t", "client", "a")));
+        assertThat(new MetricKey("t", "client", "a").hashCode(), is(new MetricKey("t", "client", "a").hashCode()));
+        assertThat(new MetricKey("t").equals(new MetricKey("t", "client", null)), is(false));
+        assertThat(new MetricKey("t", "client", "a").equals(new MetricKey("t", "client", "b")), is(false));
+    }
+
+    @Test
+    public void testTimeCompletedStage() {
+        final CompletableFuture<String> stage = CompletableFuture.completedFuture("done");
+        assertThat(metrics.timer("t").time(() -> stage), is(sameInstance(stage)));
+        assertThat(metrics.getHistogram(new MetricKey("t")).get().getCount(), is(1L));
+    }
+
+    @Test
+    public void testTimePendingStageRecordsOnCompletion() {
+        final CompletableFuture<String> stage = new CompletableFuture<>();
+        metrics.timer("t", "client", "a").time(() -> stage);
+        final MetricKey key = new MetricKey("t", "client", "a");
+        assertThat(metrics.getHistogram(key).get().getCount(), is(0L));
+        stage.completeExceptionally(new RuntimeException());
+        assertThat(metrics.getHistogram(key).get().getCount(), is(1L));
+    }
+
+    @Test
+    public void testCounters() {
+        metrics.counter("c").increment();
+        metrics.counter("c").increment(2);
+        metrics.counter("c", "authorizer", "a").increment();
+        assertThat(metrics.getCount(new MetricKey("c")), is(3L));
+        assertThat(metrics.getCount(new MetricKey("c", "authorizer", "a")), is(1L));
+        assertThat(metrics.getCount(new MetricKey("unused")), is(0L));
+        assertThat(metrics.getCounts().size(), is(2));
+    }
+
+    @Test
+    public void testNoopTimerReturnsStageUntouched() {
+        final CompletableFuture<String> stage = new CompletableFuture<>();
+        assertThat(NoopAsyncMetrics.INSTANCE.timer("t").time(() -> stage), is(sameInstance(stage)));
+        assertThat(stage.getNumberOfDependents(), is(0));
+    }
+}
@@ -7,6 +7,7 @@ import org.junit.Test;
 import org.pac4j.async.core.MockAsyncWebContextBuilder;
 import org.pac4j.async.core.VertxAsyncTestBase;
 import org.pac4j.async.core.context.AsyncWebContext;
+import org.pac4j.async.core.session.AsyncSessionStore;
 import org.pac4j.core.profile.AnonymousProfile;
 import org.pac4j.core.profile.CommonProfile;
 
@@ -19,6 +20,10 @@ import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.empty;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.pac4j.core.context.Pac4jConstants.USER_PROFILES;
 
 /**
@@ -313,6 +318,60 @@ public class AsyncProfileManagerTest extends VertxAsyncTestBase{
 
     }
 
+    @Test(timeout = 2000)
+    public void testSessionReadOnlyOncePerRequest(final TestContext testContext) {
+        profiles.put(CLIENT1, PROFILE1);
+
+        final Async async = testContext.async();
+
+        webContext.getSessionStore().set(webContext, USER_PROFILES, profiles)
+                .thenCompose(v -> profileManager.getAll(true))
+                .thenCompose(l -> new AsyncProfileManager<CommonProfile, AsyncWebContext>(webContext).getAll(true))
+                .thenAccept(l -> executionContext.runOnContext(() -> {
+                    assertThat(l, is(Arrays.asList(PROFILE1)));
+                    verify(webContext.<AsyncSessionStore>getSessionStore(), times(1)).get(any(AsyncWebContext.class), eq(USER_PROFILES));
+                    async.complete();
+                }));
+    }
+
+    @Test(timeout = 2000)
+    public void testSaveUpdatesProfilesReadInRequest(final TestContext testContext) {
+        profiles.put(CLIENT1, PROFILE1);
+
+        final Async async = testContext.async();
+
+        webContext.getSessionStore().set(webContext, USER_PROFILES, profiles)
+                .thenCompose(v -> profileManager.getAll(true))
+                .thenCompose(l -> profileManager.save(true, PROFILE2, true))
+                .thenCompose(v -> {
+                    // Profiles saved only to the request must not be mistaken for ones in the session
+                    webContext.setRequestAttribute(USER_PROFILES, new LinkedHashMap<String, CommonProfile>());
+                    return profileManager.getAll(true);
+                })
+                .thenAccept(l -> executionContext.runOnContext(() -> {
+                    assertThat(l, is(Arrays.asList(PROFILE1, PROFILE2)));
+                    verify(webContext.<AsyncSessionStore>getSessionStore(), times(1)).get(any(AsyncWebContext.class), eq(USER_PROFILES));
+                    async.complete();
+                }));
+    }
+
+    @Test(timeout = 2000)
+    public void testRemoveUpdatesProfilesReadInRequest(final TestContext testContext) {
+        profiles.put(CLIENT1, PROFILE1);
+
+        final Async async = testContext.async();
+
+        webContext.getSessionStore().set(webContext, USER_PROFILES, profiles)
+                .thenCompose(v -> profileManager.getAll(true))
+                .thenCompose(l -> profileManager.remove(true))
+                .thenCompose(v -> profileManager.getAll(true))
+                .thenAccept(l -> executionContext.runOnContext(() -> {
+                    assertThat(l, is(empty()));
+                    verify(webContext.<AsyncSessionStore>getSessionStore(), times(1)).get(any(AsyncWebContext.class), eq(USER_PROFILES));
+                    async.complete();
+                }));
+    }
+
     private <T> void testProfileInSessionAfter(final CompletableFuture<T> initialSetupFuture,
                                                final Function<T, CompletableFuture<Void>> operation,
                                                final BiConsumer<CompletableFuture<Optional<CommonProfile>>, Async> assertions,
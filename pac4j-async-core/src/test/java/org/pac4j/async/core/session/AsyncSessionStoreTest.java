@@ -0,0 +1,109 @@
+package org.pac4j.async.core.session;
+
+import org.junit.Test;
+import org.pac4j.async.core.context.AsyncWebContext;
+import org.pac4j.core.context.WebContext;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests for the default batch operations on the session store, which fan out to the single key operations
+ */
+public class AsyncSessionStoreTest {
+
+    private final Map<String, Object> session = new HashMap<>();
+    private final AtomicInteger sessionNumber = new AtomicInteger();
+
+    private final AsyncSessionStore sessionStore = new AsyncSessionStore() {
+        @Override
+        public CompletableFuture<String> getOrCreateSessionId(final AsyncWebContext context) {
+            return CompletableFuture.completedFuture("sessionId" + sessionNumber.get());
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> CompletableFuture<T> get(final WebContext<AsyncSessionStore> context, final String key) {
+            return CompletableFuture.completedFuture((T) session.get(key));
+        }
+
+        @Override
+        public <T> CompletableFuture<Void> set(final WebContext<AsyncSessionStore> context, final String key, final T value) {
+            session.put(key, value);
+            return CompletableFuture.completedFuture(null);
+        }
+    };
+
+    private final AsyncSessionStore renewingSessionStore = new AsyncSessionStore() {
+        @Override
+        public CompletableFuture<String> getOrCreateSessionId(final AsyncWebContext context) {
+            return sessionStore.getOrCreateSessionId(context);
+        }
+
+        @Override
+        public <T> CompletableFuture<T> get(final WebContext<AsyncSessionStore> context, final String key) {
+            return sessionStore.get(context, key);
+        }
+
+        @Override
+        public <T> CompletableFuture<Void> set(final WebContext<AsyncSessionStore> context, final String key, final T value) {
+            return sessionStore.set(context, key, value);
+        }
+
+        @Override
+        public CompletableFuture<Boolean> renewSession(final AsyncWebContext context) {
+            sessionNumber.incrementAndGet();
+            return CompletableFuture.completedFuture(true);
+        }
+    };
+
+    @Test
+    public void testSetAllThenGetAll() {
+        final Map<String, Object> values = new LinkedHashMap<>();
+        values.put("key1", "value1");
+        values.put("key2", 2);
+
+        sessionStore.setAll(null, values).join();
+        final Map<String, Object> read = sessionStore.getAll(null, Arrays.asList("key2", "key1", "key3")).join();
+
+        assertThat(read.keySet().toString(), is("[key2, key1, key3]"));
+        assertThat(read.get("key1"), is("value1"));
+        assertThat(read.get("key2"), is(2));
+        assertThat(read.get("key3"), is(nullValue()));
+    }
+
+    @Test
+    public void testRemoveAll() {
+        session.put("key1", "value1");
+        session.put("key2", "value2");
+
+        sessionStore.removeAll(null, Arrays.asList("key1")).join();
+
+        assertThat(session.get("key1"), is(nullValue()));
+        assertThat(session.get("key2"), is("value2"));
+    }
+
+    @Test
+    public void testRenewSessionIdReportsOldAndNewIds() {
+        final Optional<AsyncSessionIdRenewal> renewal = renewingSessionStore.renewSessionId(null).join();
+
+        assertThat(renewal.isPresent(), is(true));
+        assertThat(renewal.get().getOldSessionId(), is("sessionId0"));
+        assertThat(renewal.get().getNewSessionId(), is("sessionId1"));
+    }
+
+    @Test
+    public void testRenewSessionIdEmptyWhenRenewalUnsupported() {
+        assertThat(sessionStore.renewSessionId(null).join().isPresent(), is(false));
+    }
+
+}
@@ -0,0 +1,140 @@
+package org.pac4j.async.core.session;
+
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import org.junit.Before;
+import org.junit.Test;
+import org.pac4j.async.core.MockAsyncWebContextBuilder;
+import org.pac4j.async.core.VertxAsyncTestBase;
+import org.pac4j.async.core.context.AsyncWebContext;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the request-scoped session unit of work
+ */
+public class AsyncSessionUnitOfWorkTest extends VertxAsyncTestBase {
+
+    private static final String KEY = "key";
+    private static final String OTHER_KEY = "otherKey";
+
+    private AsyncWebContext webContext;
+    private AsyncSessionStore underlyingStore;
+
+    @Before
+    public void setUp() {
+        webContext = MockAsyncWebContextBuilder.from(rule.vertx(), asynchronousComputationAdapter).build();
+        underlyingStore = webContext.getSessionStore();
+        doAnswer(invocation -> {
+            when(webContext.getSessionStore()).thenReturn(invocation.getArgumentAt(0, AsyncSessionStore.class));
+            return null;
+        }).when(webContext).setSessionStore(any(AsyncSessionStore.class));
+    }
+
+    @Test(timeout = 2000)
+    public void testEachKeyReadOnce(final TestContext testContext) {
+        final Async async = testContext.async();
+        final AsyncSessionUnitOfWork unitOfWork = AsyncSessionUnitOfWork.begin(webContext);
+
+        underlyingStore.set(webContext, KEY, "value")
+                .thenCompose(v -> unitOfWork.<String>get(webContext, KEY))
+                .thenCompose(s -> unitOfWork.<String>get(webContext, KEY))
+                .thenAccept(s -> executionContext.runOnContext(() -> {
+                    assertThat(s, is("value"));
+                    verify(underlyingStore, times(1)).get(any(AsyncWebContext.class), eq(KEY));
+                    async.complete();
+                }));
+    }
+
+    @Test(timeout = 2000)
+    public void testWritesHeldUntilCompleted(final TestContext testContext) {
+        final Async async = testContext.async();
+        final AsyncSessionUnitOfWork unitOfWork = AsyncSessionUnitOfWork.begin(webContext);
+
+        unitOfWork.set(webContext, KEY, "first")
+                .thenCompose(v -> unitOfWork.set(webContext, KEY, "second"))
+                .thenCompose(v -> unitOfWork.set(webContext, OTHER_KEY, "other"))
+                .thenCompose(v -> unitOfWork.<String>get(webContext, KEY))
+                .thenCompose(s -> {
+                    assertThat(s, is("second"));
+                    assertThat(unitOfWork.isDirty(), is(true));
+                    verify(underlyingStore, never()).setAll(anyObject(), anyMap());
+                    verify(underlyingStore, never()).get(any(AsyncWebContext.class), anyString());
+                    return AsyncSessionUnitOfWork.complete(webContext);
+                })
+                .thenCompose(v -> {
+                    assertThat(webContext.getSessionStore(), is(sameInstance(underlyingStore)));
+                    assertThat(unitOfWork.isDirty(), is(false));
+                    final Map<String, Object> expectedWrites = new LinkedHashMap<>();
+                    expectedWrites.put(KEY, "second");
+                    expectedWrites.put(OTHER_KEY, "other");
+                    verify(underlyingStore, times(1)).setAll(anyObject(), eq(expectedWrites));
+                    verify(underlyingStore, never()).set(anyObject(), anyString(), anyObject());
+                    return underlyingStore.<String>get(webContext, KEY);
+                })
+                .thenAccept(s -> executionContext.runOnContext(() -> {
+                    assertThat(s, is("second"));
+                    async.complete();
+                }));
+    }
+
+    @Test(timeout = 2000)
+    public void testRemovalsFlushedAsBatch(final TestContext testContext) {
+        final Async async = testContext.async();
+        final AsyncSessionUnitOfWork unitOfWork = AsyncSessionUnitOfWork.begin(webContext);
+
+        underlyingStore.set(webContext, KEY, "value")
+                .thenCompose(v -> unitOfWork.set(webContext, OTHER_KEY, "other"))
+                .thenCompose(v -> unitOfWork.removeAll(webContext, Arrays.asList(KEY, OTHER_KEY)))
+                .thenCompose(v -> unitOfWork.getAll(webContext, Arrays.asList(KEY, OTHER_KEY)))
+                .thenCompose(values -> {
+                    assertThat(values.get(KEY), is(nullValue()));
+                    assertThat(values.get(OTHER_KEY), is(nullValue()));
+                    return AsyncSessionUnitOfWork.complete(webContext);
+                })
+                .thenCompose(v -> underlyingStore.<String>get(webContext, KEY))
+                .thenAccept(s -> executionContext.runOnContext(() -> {
+                    assertThat(s, is(nullValue()));
+                    verify(underlyingStore, times(1)).removeAll(anyObject(), eq(new LinkedHashSet<>(Arrays.asList(KEY, OTHER_KEY))));
+                    verify(underlyingStore, never()).setAll(anyObject(), anyMap());
+                    async.complete();
+                }));
+    }
+
+    @Test(timeout = 2000)
+    public void testDestroyDiscardsPendingWrites(final TestContext testContext) {
+        final Async async = testContext.async();
+        when(underlyingStore.destroySession(webContext)).thenReturn(CompletableFuture.completedFuture(true));
+        final AsyncSessionUnitOfWork unitOfWork = AsyncSessionUnitOfWork.begin(webContext);
+
+        unitOfWork.set(webContext, KEY, "value")
+                .thenCompose(v -> unitOfWork.destroySession(webContext))
+                .thenCompose(b -> AsyncSessionUnitOfWork.complete(webContext))
+                .thenAccept(v -> executionContext.runOnContext(() -> {
+                    verify(underlyingStore).destroySession(webContext);
+                    verify(underlyingStore, never()).set(anyObject(), anyString(), anyObject());
+                    async.complete();
+                }));
+    }
+
+    @Test
+    public void testBeginTwiceGivesSameUnitOfWork() {
+        final AsyncSessionUnitOfWork unitOfWork = AsyncSessionUnitOfWork.begin(webContext);
+        assertThat(AsyncSessionUnitOfWork.begin(webContext), is(sameInstance(unitOfWork)));
+        assertThat(unitOfWork.getDelegate(), is(sameInstance(underlyingStore)));
+    }
+
+}
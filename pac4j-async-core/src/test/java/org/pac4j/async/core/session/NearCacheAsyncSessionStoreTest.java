@@ -0,0 +1,215 @@
+package org.pac4j.async.core.session;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pac4j.async.core.context.AsyncWebContext;
+import org.pac4j.core.context.WebContext;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the near cache session store, decorating an in-memory versioned store which counts its reads
+ */
+public class NearCacheAsyncSessionStoreTest {
+
+    private final Map<String, Map<String, Object>> sessions = new HashMap<>();
+    private final Map<String, Long> versions = new HashMap<>();
+    private final AtomicLong reads = new AtomicLong();
+    private final AtomicLong now = new AtomicLong();
+
+    private NearCacheAsyncSessionStore sessionStore;
+
+    @Before
+    public void setUp() {
+        sessionStore = new NearCacheAsyncSessionStore(new CountingVersionedStore(), 2);
+        sessionStore.setTtl(10, TimeUnit.SECONDS);
+        sessionStore.setClock(now::get);
+    }
+
+    @Test
+    public void testRepeatedReadsAcrossRequestsServedLocally() {
+        write("session1", "profiles", "profile1");
+
+        assertThat(sessionStore.get(webContext("session1"), "profiles").join(), is("profile1"));
+        assertThat(sessionStore.get(webContext("session1"), "profiles").join(), is("profile1"));
+        assertThat(sessionStore.get(webContext("session1"), "profiles").join(), is("profile1"));
+
+        assertThat(reads.get(), is(1L));
+        assertThat(sessionStore.getMissCount(), is(1L));
+        assertThat(sessionStore.getHitCount(), is(2L));
+    }
+
+    @Test
+    public void testWriteElsewhereIsSeenOnNextRequest() {
+        write("session1", "profiles", "profile1");
+        sessionStore.get(webContext("session1"), "profiles").join();
+
+        // As if written through another server, bypassing this cache altogether
+        write("session1", "profiles", "profile2");
+
+        assertThat(sessionStore.get(webContext("session1"), "profiles").join(), is("profile2"));
+        assertThat(reads.get(), is(2L));
+    }
+
+    @Test
+    public void testWriteInRequestIsSeenByLaterReadInSameRequest() {
+        write("session1", "profiles", "profile1");
+        final AsyncWebContext context = webContext("session1");
+        sessionStore.get(context, "profiles").join();
+
+        sessionStore.set(context, "profiles", "profile2").join();
+
+        assertThat(sessionStore.get(context, "profiles").join(), is("profile2"));
+    }
+
+    @Test
+    public void testGetAllOnlyFetchesMissingKeys() {
+        write("session1", "key1", "value1");
+        write("session1", "key2", "value2");
+        sessionStore.get(webContext("session1"), "key1").join();
+
+        final Map<String, Object> read = sessionStore.getAll(webContext("session1"),
+                Arrays.asList("key1", "key2", "key3")).join();
+
+        assertThat(read.toString(), is("{key1=value1, key2=value2, key3=null}"));
+        assertThat(sessionStore.getHitCount(), is(1L));
+        assertThat(sessionStore.getMissCount(), is(3L));
+        assertThat(sessionStore.getAll(webContext("session1"), Arrays.asList("key1", "key2", "key3")).join(), is(read));
+        assertThat(sessionStore.getHitCount(), is(4L));
+    }
+
+    @Test
+    public void testEntriesExpire() {
+        write("session1", "profiles", "profile1");
+        sessionStore.get(webContext("session1"), "profiles").join();
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(11));
+        sessionStore.get(webContext("session1"), "profiles").join();
+
+        assertThat(reads.get(), is(2L));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedSessionDropped() {
+        write("session1", "key", "value1");
+        write("session2", "key", "value2");
+        write("session3", "key", "value3");
+        sessionStore.get(webContext("session1"), "key").join();
+        sessionStore.get(webContext("session2"), "key").join();
+        sessionStore.get(webContext("session1"), "key").join();
+        sessionStore.get(webContext("session3"), "key").join();
+
+        assertThat(sessionStore.getSize(), is(2));
+        sessionStore.get(webContext("session1"), "key").join();
+        assertThat(reads.get(), is(3L));
+        sessionStore.get(webContext("session2"), "key").join();
+        assertThat(reads.get(), is(4L));
+    }
+
+    @Test
+    public void testDestroySessionEvictsImmediately() {
+        write("session1", "profiles", "profile1");
+        final AsyncWebContext context = webContext("session1");
+        sessionStore.get(context, "profiles").join();
+
+        sessionStore.destroySession(context).join();
+
+        assertThat(sessionStore.getSize(), is(0));
+        assertThat(sessionStore.get(webContext("session1"), "profiles").join(), is(nullValue()));
+    }
+
+    @Test
+    public void testValuesReadAreNotSharedBetweenRequests() {
+        final HashMap<String, String> profiles = new HashMap<>();
+        profiles.put("client1", "profile1");
+        write("session1", "profiles", profiles);
+        sessionStore.get(webContext("session1"), "profiles").join();
+
+        final Map<String, String> firstRead = sessionStore.<Map<String, String>>get(webContext("session1"), "profiles").join();
+        firstRead.put("client2", "profile2");
+        final Map<String, String> secondRead = sessionStore.<Map<String, String>>get(webContext("session1"), "profiles").join();
+
+        assertThat(secondRead, is(profiles));
+        assertThat(secondRead == firstRead, is(false));
+        assertThat(reads.get(), is(1L));
+    }
+
+    @Test
+    public void testUnserializableValuesAreNotCached() {
+        final Object value = new Object();
+        write("session1", "key", value);
+
+        assertThat(sessionStore.get(webContext("session1"), "key").join(), is(value));
+        assertThat(sessionStore.get(webContext("session1"), "key").join(), is(value));
+
+        assertThat(reads.get(), is(2L));
+    }
+
+    private void write(final String sessionId, final String key, final Object value) {
+        sessions.computeIfAbsent(sessionId, id -> new HashMap<>()).put(key, value);
+        versions.merge(sessionId, 1L, Long::sum);
+    }
+
+    private static AsyncWebContext webContext(final String sessionId) {
+        final AsyncWebContext context = mock(AsyncWebContext.class);
+        final Map<String, Object> requestAttributes = new HashMap<>();
+        doAnswer(invocation -> requestAttributes.put(invocation.getArgumentAt(0, String.class),
+                invocation.getArgumentAt(1, Object.class)))
+                .when(context).setRequestAttribute(anyString(), anyObject());
+        when(context.getRequestAttribute(anyString()))
+                .thenAnswer(invocation -> requestAttributes.get(invocation.getArgumentAt(0, String.class)));
+        when(context.getRequestHeader("session")).thenReturn(sessionId);
+        return context;
+    }
+
+    private class CountingVersionedStore implements VersionedAsyncSessionStore {
+
+        @Override
+        public CompletableFuture<Optional<AsyncSessionVersion>> getVersion(final WebContext<AsyncSessionStore> context) {
+            final String sessionId = context.getRequestHeader("session");
+            return CompletableFuture.completedFuture(Optional.of(
+                    new AsyncSessionVersion(sessionId, versions.getOrDefault(sessionId, 0L))));
+        }
+
+        @Override
+        public CompletableFuture<String> getOrCreateSessionId(final AsyncWebContext context) {
+            return CompletableFuture.completedFuture(context.getRequestHeader("session"));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> CompletableFuture<T> get(final WebContext<AsyncSessionStore> context, final String key) {
+            reads.incrementAndGet();
+            return CompletableFuture.completedFuture((T) sessions
+                    .getOrDefault(context.getRequestHeader("session"), new HashMap<>()).get(key));
+        }
+
+        @Override
+        public <T> CompletableFuture<Void> set(final WebContext<AsyncSessionStore> context, final String key, final T value) {
+            write(context.getRequestHeader("session"), key, value);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<Boolean> destroySession(final AsyncWebContext context) {
+            sessions.remove(context.getRequestHeader("session"));
+            versions.merge(context.getRequestHeader("session"), 1L, Long::sum);
+            return CompletableFuture.completedFuture(true);
+        }
+    }
+}
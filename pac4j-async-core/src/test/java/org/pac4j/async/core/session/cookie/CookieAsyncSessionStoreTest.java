@@ -0,0 +1,258 @@
+package org.pac4j.async.core.session.cookie;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pac4j.async.core.context.AsyncWebContext;
+import org.pac4j.core.context.Cookie;
+import org.pac4j.core.profile.CommonProfile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.pac4j.async.core.session.cookie.CookieAsyncSessionStore.DEFAULT_COOKIE_NAME;
+
+/**
+ * Tests for the encrypted cookie session store, carrying cookies from each request's response to the next request
+ */
+public class CookieAsyncSessionStoreTest {
+
+    private static final byte[] KEY1 = key(1);
+    private static final byte[] KEY2 = key(2);
+    private static final byte[] KEY3 = key(3);
+
+    private final AtomicLong now = new AtomicLong(1000000);
+    private CookieAsyncSessionStore sessionStore;
+
+    @Before
+    public void setUp() {
+        sessionStore = new CookieAsyncSessionStore(KEY1);
+        sessionStore.setTtlSeconds(600);
+        sessionStore.setClock(now::get);
+    }
+
+    @Test
+    public void testSetThenGetInNextRequest() {
+        final List<Cookie> responseCookies = new ArrayList<>();
+        final CommonProfile profile = new CommonProfile();
+        profile.setId("ID1");
+        final LinkedHashMap<String, CommonProfile> profiles = new LinkedHashMap<>();
+        profiles.put("client1", profile);
+
+        sessionStore.set(webContext(new ArrayList<>(), responseCookies), "profiles", profiles).join();
+
+        assertThat(responseCookies.size(), is(1));
+        assertThat(responseCookies.get(0).getName(), is(DEFAULT_COOKIE_NAME));
+        assertThat(responseCookies.get(0).isHttpOnly(), is(true));
+        final Map<String, CommonProfile> read = sessionStore.<Map<String, CommonProfile>>get(
+                webContext(responseCookies, new ArrayList<>()), "profiles").join();
+        assertThat(read.get("client1").getId(), is("ID1"));
+    }
+
+    @Test
+    public void testCookiesDecryptedOncePerRequest() {
+        final List<Cookie> cookies = new ArrayList<>();
+        sessionStore.set(webContext(new ArrayList<>(), cookies), "key1", "value1").join();
+        final AsyncWebContext context = webContext(cookies, new ArrayList<>());
+
+        sessionStore.get(context, "key1").join();
+        sessionStore.get(context, "key2").join();
+        sessionStore.getAll(context, Arrays.asList("key1", "key2")).join();
+
+        verify(context, times(1)).getRequestCookies();
+    }
+
+    @Test
+    public void testLargeSessionSplitAcrossCookies() {
+        sessionStore.setMaxCookieLength(1000);
+        final Random random = new Random(0);
+        final StringBuilder incompressible = new StringBuilder();
+        for (int i = 0; i < 6000; i++) {
+            incompressible.append((char) ('!' + random.nextInt(90)));
+        }
+        final List<Cookie> cookies = new ArrayList<>();
+
+        sessionStore.set(webContext(new ArrayList<>(), cookies), "key", incompressible.toString()).join();
+
+        final int count = cookies.size();
+        assertThat(count > 4, is(true));
+        assertThat(cookies.get(1).getName(), is(DEFAULT_COOKIE_NAME + "_1"));
+        assertThat(sessionStore.get(webContext(cookies, new ArrayList<>()), "key").join(), is(incompressible.toString()));
+
+        // Shrinking the session drops the cookies no longer needed
+        final List<Cookie> shrunk = new ArrayList<>();
+        sessionStore.set(webContext(cookies, shrunk), "key", "small").join();
+        assertThat(shrunk.size(), is(count));
+        assertThat(shrunk.get(0).getMaxAge(), is(-1));
+        assertThat(shrunk.get(1).getMaxAge(), is(0));
+        assertThat(shrunk.get(count - 1).getMaxAge(), is(0));
+    }
+
+    @Test
+    public void testTamperedCookieIgnored() {
+        final List<Cookie> cookies = new ArrayList<>();
+        sessionStore.set(webContext(new ArrayList<>(), cookies), "key", "value").join();
+        final String value = cookies.get(0).getValue();
+        // The last character may only carry padding bits, so tamper with one in the middle
+        final int middle = value.length() / 2;
+        final Cookie tampered = new Cookie(DEFAULT_COOKIE_NAME, value.substring(0, middle)
+                + (value.charAt(middle) == 'A' ? 'B' : 'A') + value.substring(middle + 1));
+
+        assertThat(sessionStore.get(webContext(Arrays.asList(tampered), new ArrayList<>()), "key").join(),
+                is(nullValue()));
+    }
+
+    @Test
+    public void testExpiredSessionIgnored() {
+        final List<Cookie> cookies = new ArrayList<>();
+        sessionStore.set(webContext(new ArrayList<>(), cookies), "key", "value").join();
+
+        now.addAndGet(601000);
+
+        assertThat(sessionStore.get(webContext(cookies, new ArrayList<>()), "key").join(), is(nullValue()));
+    }
+
+    @Test
+    public void testKeyRotation() {
+        final List<Cookie> cookies = new ArrayList<>();
+        sessionStore.set(webContext(new ArrayList<>(), cookies), "key", "value").join();
+
+        sessionStore.rotateKey(KEY2);
+        assertThat(sessionStore.get(webContext(cookies, new ArrayList<>()), "key").join(), is("value"));
+
+        // With the default of two keys held, the first key is now dropped
+        sessionStore.rotateKey(KEY3);
+        assertThat(sessionStore.get(webContext(cookies, new ArrayList<>()), "key").join(), is(nullValue()));
+    }
+
+    @Test
+    public void testDestroySession() {
+        final List<Cookie> cookies = new ArrayList<>();
+        sessionStore.set(webContext(new ArrayList<>(), cookies), "key", "value").join();
+        final List<Cookie> responseCookies = new ArrayList<>();
+        final AsyncWebContext context = webContext(cookies, responseCookies);
+
+        assertThat(sessionStore.destroySession(context).join(), is(true));
+
+        assertThat(responseCookies.size(), is(1));
+        assertThat(responseCookies.get(0).getMaxAge(), is(0));
+        assertThat(sessionStore.get(context, "key").join(), is(nullValue()));
+    }
+
+    @Test
+    public void testRenewSessionKeepsContentsUnderNewId() {
+        final List<Cookie> cookies = new ArrayList<>();
+        final String originalId = sessionStore.getOrCreateSessionId(webContext(new ArrayList<>(), cookies)).join();
+        sessionStore.set(webContext(cookies, cookies), "key", "value").join();
+        final List<Cookie> renewedCookies = new ArrayList<>();
+        final AsyncWebContext context = webContext(latest(cookies), renewedCookies);
+
+        assertThat(sessionStore.renewSession(context).join(), is(true));
+
+        final AsyncWebContext next = webContext(renewedCookies, new ArrayList<>());
+        assertThat(sessionStore.getOrCreateSessionId(next).join(), is(not(originalId)));
+        assertThat(sessionStore.get(next, "key").join(), is("value"));
+    }
+
+    @Test
+    public void testCookiesWrittenOnceOnResponseCommit() {
+        final List<Cookie> cookies = new ArrayList<>();
+        final List<Runnable> commitActions = new ArrayList<>();
+        final AsyncWebContext context = committingWebContext(new ArrayList<>(), cookies, commitActions);
+
+        final String id = sessionStore.getOrCreateSessionId(context).join();
+        sessionStore.set(context, "key1", "value1").join();
+        final Map<String, Object> values = new HashMap<>();
+        values.put("key2", "value2");
+        values.put("key3", "value3");
+        sessionStore.setAll(context, values).join();
+        sessionStore.removeAll(context, Arrays.asList("key3")).join();
+
+        assertThat(cookies.size(), is(0));
+        assertThat(commitActions.size(), is(1));
+        commitActions.forEach(Runnable::run);
+        assertThat(cookies.size(), is(1));
+
+        final AsyncWebContext next = webContext(cookies, new ArrayList<>());
+        assertThat(sessionStore.getOrCreateSessionId(next).join(), is(id));
+        assertThat(sessionStore.get(next, "key1").join(), is("value1"));
+        assertThat(sessionStore.get(next, "key2").join(), is("value2"));
+        assertThat(sessionStore.get(next, "key3").join(), is(nullValue()));
+    }
+
+    @Test
+    public void testUnchangedSessionNotWrittenOnResponseCommit() {
+        final List<Cookie> cookies = new ArrayList<>();
+        sessionStore.set(webContext(new ArrayList<>(), cookies), "key", "value").join();
+        final List<Cookie> responseCookies = new ArrayList<>();
+        final List<Runnable> commitActions = new ArrayList<>();
+        final AsyncWebContext context = committingWebContext(cookies, responseCookies, commitActions);
+
+        sessionStore.get(context, "key").join();
+        sessionStore.getOrCreateSessionId(context).join();
+
+        assertThat(commitActions.size(), is(0));
+        assertThat(responseCookies.size(), is(0));
+    }
+
+    @Test
+    public void testFlushWritesBeforeResponseCommit() {
+        final List<Cookie> cookies = new ArrayList<>();
+        final List<Runnable> commitActions = new ArrayList<>();
+        final AsyncWebContext context = committingWebContext(new ArrayList<>(), cookies, commitActions);
+
+        sessionStore.set(context, "key", "value").join();
+        sessionStore.flush(context).join();
+        assertThat(cookies.size(), is(1));
+
+        commitActions.forEach(Runnable::run);
+        assertThat(cookies.size(), is(1));
+    }
+
+    private static List<Cookie> latest(final List<Cookie> cookies) {
+        final Map<String, Cookie> byName = new LinkedHashMap<>();
+        cookies.forEach(cookie -> byName.put(cookie.getName(), cookie));
+        return new ArrayList<>(byName.values());
+    }
+
+    private static byte[] key(final int seed) {
+        final byte[] key = new byte[16];
+        new Random(seed).nextBytes(key);
+        return key;
+    }
+
+    private static AsyncWebContext webContext(final Collection<Cookie> requestCookies, final List<Cookie> responseCookies) {
+        final AsyncWebContext context = mock(AsyncWebContext.class);
+        final Map<String, Object> requestAttributes = new HashMap<>();
+        doAnswer(invocation -> requestAttributes.put(invocation.getArgumentAt(0, String.class),
+                invocation.getArgumentAt(1, Object.class)))
+                .when(context).setRequestAttribute(anyString(), anyObject());
+        when(context.getRequestAttribute(anyString()))
+                .thenAnswer(invocation -> requestAttributes.get(invocation.getArgumentAt(0, String.class)));
+        when(context.getRequestCookies()).thenReturn(new ArrayList<>(requestCookies));
+        doAnswer(invocation -> responseCookies.add(invocation.getArgumentAt(0, Cookie.class)))
+                .when(context).addResponseCookie(any(Cookie.class));
+        return context;
+    }
+
+    private static AsyncWebContext committingWebContext(final Collection<Cookie> requestCookies,
+                                                        final List<Cookie> responseCookies,
+                                                        final List<Runnable> commitActions) {
+        final AsyncWebContext context = webContext(requestCookies, responseCookies);
+        when(context.onResponseCommit(any(Runnable.class)))
+                .thenAnswer(invocation -> commitActions.add(invocation.getArgumentAt(0, Runnable.class)));
+        return context;
+    }
+}
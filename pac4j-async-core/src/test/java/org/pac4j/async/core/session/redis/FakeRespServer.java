@@ -0,0 +1,229 @@
+package org.pac4j.async.core.session.redis;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-JVM stand-in for a Redis server, speaking just enough RESP, and supporting just enough commands, for the redis
+ * session store to be tested against. Each connection is served by its own thread, commands on a connection being
+ * handled in order as a real server would.
+ */
+class FakeRespServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final Map<String, Map<String, byte[]>> hashes = new ConcurrentHashMap<>();
+    private final Map<String, Long> ttls = new ConcurrentHashMap<>();
+    private final List<String> commandNames = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final List<Socket> sockets = Collections.synchronizedList(new ArrayList<>());
+
+    FakeRespServer() throws IOException {
+        serverSocket = new ServerSocket(0);
+        final Thread acceptor = new Thread(this::accept, "fake-resp-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    InetSocketAddress getAddress() {
+        return new InetSocketAddress("localhost", serverSocket.getLocalPort());
+    }
+
+    Map<String, Map<String, byte[]>> getHashes() {
+        return hashes;
+    }
+
+    Long getTtl(final String key) {
+        return ttls.get(key);
+    }
+
+    List<String> getCommandNames() {
+        synchronized (commandNames) {
+            return new ArrayList<>(commandNames);
+        }
+    }
+
+    int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        synchronized (sockets) {
+            for (final Socket socket : sockets) {
+                socket.close();
+            }
+        }
+    }
+
+    private void accept() {
+        try {
+            while (true) {
+                final Socket socket = serverSocket.accept();
+                connectionCount.incrementAndGet();
+                sockets.add(socket);
+                final Thread handler = new Thread(() -> serve(socket), "fake-resp-connection");
+                handler.setDaemon(true);
+                handler.start();
+            }
+        } catch (final IOException e) {
+            // Closed
+        }
+    }
+
+    private void serve(final Socket socket) {
+        try (final InputStream in = new BufferedInputStream(socket.getInputStream());
+             final OutputStream out = new BufferedOutputStream(socket.getOutputStream())) {
+            while (true) {
+                final List<byte[]> command = readCommand(in);
+                if (command == null) {
+                    return;
+                }
+                execute(command, out);
+                // Only flush once we've run out of pipelined commands to answer
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        } catch (final IOException e) {
+            // Connection closed
+        }
+    }
+
+    private void execute(final List<byte[]> command, final OutputStream out) throws IOException {
+        final String name = string(command.get(0)).toUpperCase();
+        commandNames.add(name);
+        switch (name) {
+            case "HGET":
+                writeBulk(out, hash(command.get(1)).get(string(command.get(2))));
+                break;
+            case "HMGET":
+                final Map<String, byte[]> read = hash(command.get(1));
+                writeLine(out, "*" + (command.size() - 2));
+                for (int i = 2; i < command.size(); i++) {
+                    writeBulk(out, read.get(string(command.get(i))));
+                }
+                break;
+            case "HSET":
+                final Map<String, byte[]> written = hashes.computeIfAbsent(string(command.get(1)), k -> new ConcurrentHashMap<>());
+                for (int i = 2; i < command.size(); i += 2) {
+                    written.put(string(command.get(i)), command.get(i + 1));
+                }
+                writeLine(out, ":" + (command.size() - 2) / 2);
+                break;
+            case "HDEL":
+                final Map<String, byte[]> deleteFrom = hash(command.get(1));
+                for (int i = 2; i < command.size(); i++) {
+                    deleteFrom.remove(string(command.get(i)));
+                }
+                writeLine(out, ":1");
+                break;
+            case "HINCRBY":
+                final Map<String, byte[]> counters = hashes.computeIfAbsent(string(command.get(1)), k -> new ConcurrentHashMap<>());
+                final byte[] current = counters.get(string(command.get(2)));
+                final long incremented = (current == null ? 0 : Long.parseLong(string(current)))
+                        + Long.parseLong(string(command.get(3)));
+                counters.put(string(command.get(2)), Long.toString(incremented).getBytes(StandardCharsets.UTF_8));
+                writeLine(out, ":" + incremented);
+                break;
+            case "EXPIRE":
+                final boolean exists = hashes.containsKey(string(command.get(1)));
+                if (exists) {
+                    ttls.put(string(command.get(1)), Long.parseLong(string(command.get(2))));
+                }
+                writeLine(out, exists ? ":1" : ":0");
+                break;
+            case "DEL":
+                ttls.remove(string(command.get(1)));
+                writeLine(out, hashes.remove(string(command.get(1))) != null ? ":1" : ":0");
+                break;
+            case "RENAME":
+                final Map<String, byte[]> renamed = hashes.remove(string(command.get(1)));
+                if (renamed == null) {
+                    writeLine(out, "-ERR no such key");
+                } else {
+                    hashes.put(string(command.get(2)), renamed);
+                    final Long ttl = ttls.remove(string(command.get(1)));
+                    if (ttl != null) {
+                        ttls.put(string(command.get(2)), ttl);
+                    }
+                    writeLine(out, "+OK");
+                }
+                break;
+            default:
+                writeLine(out, "-ERR unknown command '" + name + "'");
+        }
+    }
+
+    private Map<String, byte[]> hash(final byte[] key) {
+        return hashes.getOrDefault(string(key), Collections.emptyMap());
+    }
+
+    private static List<byte[]> readCommand(final InputStream in) throws IOException {
+        final String header = readLine(in);
+        if (header == null) {
+            return null;
+        }
+        final int size = Integer.parseInt(header.substring(1));
+        final List<byte[]> command = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final int length = Integer.parseInt(readLine(in).substring(1));
+            final byte[] argument = new byte[length];
+            int read = 0;
+            while (read < length) {
+                final int n = in.read(argument, read, length - read);
+                if (n < 0) {
+                    return null;
+                }
+                read += n;
+            }
+            readLine(in);
+            command.add(argument);
+        }
+        return command;
+    }
+
+    private static String readLine(final InputStream in) throws IOException {
+        final StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = in.read()) != '\r') {
+            if (c < 0) {
+                return null;
+            }
+            line.append((char) c);
+        }
+        in.read();
+        return line.toString();
+    }
+
+    private static void writeBulk(final OutputStream out, final byte[] value) throws IOException {
+        if (value == null) {
+            writeLine(out, "$-1");
+        } else {
+            writeLine(out, "$" + value.length);
+            out.write(value);
+            out.write(new byte[] {'\r', '\n'});
+        }
+    }
+
+    private static void writeLine(final OutputStream out, final String line) throws IOException {
+        out.write((line + "\r\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String string(final byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,253 @@
+package org.pac4j.async.core.session.redis;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.pac4j.async.core.context.AsyncWebContext;
+import org.pac4j.async.core.session.AsyncSessionVersion;
+import org.pac4j.core.context.Cookie;
+import org.pac4j.core.profile.CommonProfile;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.pac4j.async.core.session.redis.RedisAsyncSessionStore.DEFAULT_COOKIE_NAME;
+import static org.pac4j.async.core.session.redis.RedisAsyncSessionStore.DEFAULT_KEY_PREFIX;
+
+/**
+ * Tests for the redis session store, run against an in-JVM fake server
+ */
+public class RedisAsyncSessionStoreTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private FakeRespServer server;
+    private RedisAsyncSessionStore sessionStore;
+
+    @Before
+    public void startServer() throws Exception {
+        server = new FakeRespServer();
+        sessionStore = new RedisAsyncSessionStore(server.getAddress(), 2);
+        sessionStore.setTtlSeconds(600);
+    }
+
+    @After
+    public void stopServer() throws Exception {
+        sessionStore.close();
+        server.close();
+    }
+
+    @Test(timeout = 10000)
+    public void testSetThenGetInNewSession() throws Exception {
+        final List<Cookie> responseCookies = new ArrayList<>();
+        final AsyncWebContext firstRequest = webContext(null, responseCookies);
+        final CommonProfile profile = new CommonProfile();
+        profile.setId("ID1");
+        final LinkedHashMap<String, CommonProfile> profiles = new LinkedHashMap<>();
+        profiles.put("client1", profile);
+
+        await(sessionStore.set(firstRequest, "profiles", profiles));
+
+        assertThat(responseCookies.size(), is(1));
+        final String sessionId = responseCookies.get(0).getValue();
+        assertThat(responseCookies.get(0).getName(), is(DEFAULT_COOKIE_NAME));
+        assertThat(server.getTtl(DEFAULT_KEY_PREFIX + sessionId), is(600L));
+
+        final AsyncWebContext secondRequest = webContext(sessionId, new ArrayList<>());
+        final Map<String, CommonProfile> read = await(sessionStore.get(secondRequest, "profiles"));
+        assertThat(read.get("client1").getId(), is("ID1"));
+    }
+
+    @Test(timeout = 10000)
+    public void testGetWithoutSessionDoesNotTouchServer() throws Exception {
+        final List<Cookie> responseCookies = new ArrayList<>();
+        final Object value = await(sessionStore.get(webContext(null, responseCookies), "key"));
+
+        assertThat(value, is(nullValue()));
+        assertThat(responseCookies, is(empty()));
+        assertThat(server.getCommandNames(), is(empty()));
+    }
+
+    @Test(timeout = 10000)
+    public void testBatchOperations() throws Exception {
+        final AsyncWebContext context = webContext("session1", new ArrayList<>());
+        final Map<String, Object> values = new LinkedHashMap<>();
+        values.put("key1", "value1");
+        values.put("key2", "value2");
+
+        await(sessionStore.setAll(context, values));
+        await(sessionStore.removeAll(context, Arrays.asList("key1")));
+        final Map<String, Object> read = await(sessionStore.getAll(context, Arrays.asList("key1", "key2")));
+
+        assertThat(read.get("key1"), is(nullValue()));
+        assertThat(read.get("key2"), is("value2"));
+        assertThat(server.getCommandNames(), is(Arrays.asList("HSET", "HINCRBY", "EXPIRE", "HDEL", "HINCRBY", "EXPIRE", "HMGET")));
+    }
+
+    @Test(timeout = 10000)
+    public void testVersionIncrementedOnEachWrite() throws Exception {
+        final AsyncWebContext context = webContext("session1", new ArrayList<>());
+        assertThat(await(sessionStore.getVersion(context)).get().getVersion(), is(0L));
+
+        await(sessionStore.set(context, "key1", "value1"));
+        await(sessionStore.removeAll(context, Arrays.asList("key1")));
+
+        final AsyncSessionVersion version = await(sessionStore.getVersion(context)).get();
+        assertThat(version.getSessionId(), is("session1"));
+        assertThat(version.getVersion(), is(2L));
+        assertThat(await(sessionStore.getVersion(webContext(null, new ArrayList<>()))).isPresent(), is(false));
+    }
+
+    @Test(timeout = 10000)
+    public void testDestroySession() throws Exception {
+        final List<Cookie> responseCookies = new ArrayList<>();
+        final AsyncWebContext context = webContext("session1", responseCookies);
+        await(sessionStore.set(context, "key", "value"));
+
+        final boolean destroyed = await(sessionStore.destroySession(context));
+
+        assertThat(destroyed, is(true));
+        assertThat(server.getHashes().containsKey(DEFAULT_KEY_PREFIX + "session1"), is(false));
+        assertThat(responseCookies.get(0).getMaxAge(), is(0));
+        assertThat(await(sessionStore.get(context, "key")), is(nullValue()));
+    }
+
+    @Test(timeout = 10000)
+    public void testWriteAfterDestroyGoesToNewSession() throws Exception {
+        final List<Cookie> responseCookies = new ArrayList<>();
+        final AsyncWebContext context = webContext("session1", responseCookies);
+        await(sessionStore.set(context, "key", "value"));
+        await(sessionStore.destroySession(context));
+
+        assertThat(await(sessionStore.get(context, "key")), is(nullValue()));
+        await(sessionStore.set(context, "other", "value"));
+
+        assertThat(server.getHashes().containsKey(DEFAULT_KEY_PREFIX + "session1"), is(false));
+        assertThat(responseCookies.size(), is(2));
+        final String newId = responseCookies.get(1).getValue();
+        assertThat(newId, is(not("session1")));
+        assertThat(await(sessionStore.getOrCreateSessionId(context)), is(newId));
+        assertThat(await(sessionStore.get(webContext(newId, new ArrayList<>()), "other")), is("value"));
+    }
+
+    @Test(timeout = 10000)
+    public void testTrackedDestroyLeavesRequestSession() throws Exception {
+        final AsyncWebContext context = webContext("session1", new ArrayList<>());
+        await(sessionStore.set(context, "key", "value"));
+        final AsyncWebContext otherRequest = webContext("session2", new ArrayList<>());
+
+        final boolean destroyed = await(sessionStore.buildFromTrackableSession(otherRequest, "session1").get()
+                .destroySession(otherRequest));
+
+        assertThat(destroyed, is(true));
+        assertThat(server.getHashes().containsKey(DEFAULT_KEY_PREFIX + "session1"), is(false));
+        assertThat(await(sessionStore.getOrCreateSessionId(otherRequest)), is("session2"));
+    }
+
+    @Test(timeout = 10000)
+    public void testRemoveFromExpiredSessionExpires() throws Exception {
+        await(sessionStore.removeAll(webContext("expired", new ArrayList<>()), Arrays.asList("key")));
+
+        assertThat(server.getTtl(DEFAULT_KEY_PREFIX + "expired"), is(600L));
+    }
+
+    @Test(timeout = 10000)
+    public void testRenewSessionKeepsContentsUnderNewId() throws Exception {
+        final List<Cookie> responseCookies = new ArrayList<>();
+        final AsyncWebContext context = webContext("session1", responseCookies);
+        await(sessionStore.set(context, "key", "value"));
+
+        final boolean renewed = await(sessionStore.renewSession(context));
+
+        assertThat(renewed, is(true));
+        final String renewedId = responseCookies.get(0).getValue();
+        assertThat(renewedId, is(not("session1")));
+        assertThat(server.getHashes().containsKey(DEFAULT_KEY_PREFIX + "session1"), is(false));
+        assertThat(server.getTtl(DEFAULT_KEY_PREFIX + renewedId), is(600L));
+        assertThat(await(sessionStore.get(webContext(renewedId, new ArrayList<>()), "key")), is("value"));
+    }
+
+    @Test(timeout = 10000)
+    public void testRenewSessionNeverWritten() throws Exception {
+        final List<Cookie> responseCookies = new ArrayList<>();
+        final boolean renewed = await(sessionStore.renewSession(webContext("session1", responseCookies)));
+
+        assertThat(renewed, is(true));
+        assertThat(responseCookies.size(), is(1));
+    }
+
+    @Test(timeout = 10000)
+    public void testTrackableSession() throws Exception {
+        final AsyncWebContext context = webContext("session1", new ArrayList<>());
+        await(sessionStore.set(context, "key", "value"));
+
+        final Optional<Object> trackable = await(sessionStore.getTrackableSession(context));
+        final AsyncWebContext otherRequest = webContext(null, new ArrayList<>());
+        final Object value = await(sessionStore.buildFromTrackableSession(otherRequest, trackable.get()).get()
+                .get(otherRequest, "key"));
+
+        assertThat(value, is("value"));
+    }
+
+    @Test(timeout = 10000)
+    public void testConcurrentCommandsShareConnections() throws Exception {
+        final List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            writes.add(sessionStore.set(webContext("session" + i, new ArrayList<>()), "key", "value" + i));
+        }
+        await(CompletableFuture.allOf(writes.toArray(new CompletableFuture[writes.size()])));
+
+        assertThat(server.getConnectionCount(), is(lessThanOrEqualTo(2)));
+        for (int i = 0; i < 200; i++) {
+            assertThat(await(sessionStore.get(webContext("session" + i, new ArrayList<>()), "key")), is("value" + i));
+        }
+    }
+
+    @Test
+    public void testDecodeWaitsForCompleteReply() {
+        final ByteBuffer buffer = ByteBuffer.wrap("*2\r\n$5\r\nhello\r\n$-1\r\n:4".getBytes());
+        final Object reply = RespCodec.decode(buffer);
+        assertThat(reply, is(instanceOf(List.class)));
+        assertThat(RespCodec.string((byte[]) ((List) reply).get(0)), is("hello"));
+        assertThat(((List) reply).get(1), is(nullValue()));
+
+        final int position = buffer.position();
+        assertThat(RespCodec.decode(buffer), is(sameInstance(RespCodec.INCOMPLETE)));
+        assertThat(buffer.position(), is(position));
+    }
+
+    private static <T> T await(final CompletableFuture<T> future) throws Exception {
+        return future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static AsyncWebContext webContext(final String sessionId, final List<Cookie> responseCookies) {
+        final AsyncWebContext context = mock(AsyncWebContext.class);
+        final Map<String, Object> requestAttributes = new HashMap<>();
+        doAnswer(invocation -> requestAttributes.put(invocation.getArgumentAt(0, String.class),
+                invocation.getArgumentAt(1, Object.class)))
+                .when(context).setRequestAttribute(anyString(), anyObject());
+        when(context.getRequestAttribute(anyString()))
+                .thenAnswer(invocation -> requestAttributes.get(invocation.getArgumentAt(0, String.class)));
+        when(context.getRequestCookies()).thenReturn(sessionId == null ? new ArrayList<>() :
+                Arrays.asList(new Cookie(DEFAULT_COOKIE_NAME, sessionId)));
+        doAnswer(invocation -> responseCookies.add(invocation.getArgumentAt(0, Cookie.class)))
+                .when(context).addResponseCookie(any(Cookie.class));
+        return context;
+    }
+}
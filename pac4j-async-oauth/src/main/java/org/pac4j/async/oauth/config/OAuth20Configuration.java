@@ -2,6 +2,7 @@ package org.pac4j.async.oauth.config;
 
 import com.github.scribejava.core.model.OAuth2AccessToken;
 import com.github.scribejava.core.oauth.OAuth20Service;
+import com.github.scribejava.core.utils.OAuthEncoder;
 import org.pac4j.async.oauth.profile.definition.OAuthProfileDefinition;
 import org.pac4j.core.context.WebContext;
 import org.pac4j.core.profile.CommonProfile;
@@ -65,4 +66,21 @@ public class OAuth20Configuration<U extends CommonProfile,
     public OAuth20Service buildService(WebContext<?> context, String state) {
         return super.buildService(context, state);
     }
+
+    /**
+     * Compute the authorization url for the given web context and state. The url is built by the service without a
+     * state, and the state, which scribe always adds as the last parameter, is then appended to it, so that no service
+     * needs to be built for the state.
+     *
+     * @param context the web context
+     * @param state the state, or null for none
+     * @return the authorization url
+     */
+    public String getAuthorizationUrl(final WebContext<?> context, final String state) {
+        final String url = getService(context).getAuthorizationUrl(customParams);
+        if (state == null) {
+            return url;
+        }
+        return url + (url.indexOf('?') < 0 ? '?' : '&') + STATE_REQUEST_PARAMETER + '=' + OAuthEncoder.encode(state);
+    }
 }
@@ -1,6 +1,7 @@
 package org.pac4j.async.oauth.config;
 
 import com.github.scribejava.core.builder.api.BaseApi;
+import com.github.scribejava.core.httpclient.HttpClientProvider;
 import com.github.scribejava.core.model.HttpClient;
 import com.github.scribejava.core.model.OAuthConfig;
 import com.github.scribejava.core.model.SignatureType;
@@ -8,14 +9,18 @@ import com.github.scribejava.core.model.Token;
 import com.github.scribejava.core.oauth.OAuthService;
 import com.github.scribejava.httpclient.ahc.AhcHttpClientConfig;
 import org.asynchttpclient.DefaultAsyncHttpClientConfig;
+import org.pac4j.async.oauth.http.GatedHttpClient;
+import org.pac4j.async.oauth.http.OAuthProviderGate;
 import org.pac4j.async.oauth.profile.definition.OAuthProfileDefinition;
 import org.pac4j.core.context.WebContext;
+import org.pac4j.core.exception.TechnicalException;
 import org.pac4j.core.http.UrlResolver;
 import org.pac4j.core.profile.CommonProfile;
 import org.pac4j.core.util.CommonHelper;
 import org.pac4j.core.util.HttpUtils;
 import org.pac4j.core.util.InitializableWebObject;
 
+import java.util.ServiceLoader;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -29,6 +34,11 @@ public class OAuthConfiguration<U extends CommonProfile, P extends OAuthProfileD
 
     public static final String RESPONSE_TYPE_CODE = "code";
 
+    /**
+     * How long a pooled connection to the provider may stay idle before it is closed
+     */
+    public static final int POOLED_CONNECTION_IDLE_TIMEOUT_MILLIS = 60000;
+
     private UrlResolver urlResolver;
 
     private String callbackUrl;
@@ -54,7 +64,18 @@ public class OAuthConfiguration<U extends CommonProfile, P extends OAuthProfileD
     protected S service;
     private String clientName;
 
-    private Supplier<HttpClient.Config> configSupplier = () -> new AhcHttpClientConfig(new DefaultAsyncHttpClientConfig.Builder().build());
+    // Calls to the provider never exceed the gate's concurrency, so a pool of that size never turns a call away
+    private Supplier<HttpClient.Config> configSupplier = () -> new AhcHttpClientConfig(new DefaultAsyncHttpClientConfig.Builder()
+            .setKeepAlive(true)
+            .setMaxConnections(getProviderGate().getMaxConcurrentRequests())
+            .setMaxConnectionsPerHost(getProviderGate().getMaxConcurrentRequests())
+            .setPooledConnectionIdleTimeout(POOLED_CONNECTION_IDLE_TIMEOUT_MILLIS)
+            .build());
+
+    // Shared by every service built from this configuration, so that building a service never starts a new client
+    private HttpClient httpClient;
+
+    private OAuthProviderGate providerGate = new OAuthProviderGate();
 
     @Override
     protected void internalInit(final WebContext<?> context) {
@@ -65,12 +86,38 @@ public class OAuthConfiguration<U extends CommonProfile, P extends OAuthProfileD
         CommonHelper.assertNotNull("api", api);
         CommonHelper.assertNotNull("hasBeenCancelledFactory", hasBeenCancelledFactory);
         CommonHelper.assertNotNull("profileDefinition", profileDefinition);
-
+        CommonHelper.assertNotNull("providerGate", providerGate);
+
+        if (this.httpClient == null) {
+            this.httpClient = buildHttpClient();
+        }
+        if (!(this.httpClient instanceof GatedHttpClient)) {
+            this.httpClient = new GatedHttpClient(this.httpClient, providerGate);
+        }
         this.service = buildService(context, null);
     }
 
     /**
-     * Build an OAuth service from the web context and with a state.
+     * Build the HTTP client shared by all services built from this configuration, from the client config supplied
+     * by the config supplier, in the same way scribe would for a single service.
+     *
+     * @return the HTTP client
+     */
+    protected HttpClient buildHttpClient() {
+        final HttpClient.Config httpClientConfig = configSupplier.get();
+        for (final HttpClientProvider provider : ServiceLoader.load(HttpClientProvider.class)) {
+            final HttpClient client = provider.createClient(httpClientConfig);
+            if (client != null) {
+                return client;
+            }
+        }
+        throw new TechnicalException("No HTTP client provider available for " + httpClientConfig);
+    }
+
+    /**
+     * Build an OAuth service from the web context and with a state. The service uses the shared HTTP client, but
+     * building one is still more costly than reusing {@link #getService(WebContext)}, so this is best avoided per
+     * request.
      *
      * @param context the web context
      * @param state a given state
@@ -86,13 +133,29 @@ public class OAuthConfiguration<U extends CommonProfile, P extends OAuthProfileD
 
         return new OAuthConfig(this.key, this.secret, finalCallbackUrl, SignatureType.Header, this.scope,
                 null, state, this.responseType, null, HttpUtils.getConnectTimeout(), HttpUtils.getReadTimeout(),
-                configSupplier.get(), null);
+                null, httpClient);
     }
 
     public S getService() {
         return this.service;
     }
 
+    /**
+     * The service without a state for the given web context. This is the service built on initialisation unless the
+     * callback url resolves differently for this context, in which case a service is built for it.
+     *
+     * @param context the web context
+     * @return the OAuth service
+     */
+    public S getService(final WebContext<?> context) {
+        final S initialService = this.service;
+        if (initialService != null
+                && urlResolver.compute(callbackUrl, context).equals(initialService.getConfig().getCallback())) {
+            return initialService;
+        }
+        return buildService(context, null);
+    }
+
 
     public String getKey() {
         return key;
@@ -191,7 +254,8 @@ public class OAuthConfiguration<U extends CommonProfile, P extends OAuthProfileD
         return CommonHelper.toString(this.getClass(), "key", key, "secret", "[protected]", "tokenAsHeader", tokenAsHeader,
                 "connectTimeout", HttpUtils.getConnectTimeout(), "readTimeout", HttpUtils.getReadTimeout(), "responseType", responseType,
                 "scope", scope, "api", api, "hasGrantType", hasGrantType, "service", service,
-                "hasBeenCancelledFactory", hasBeenCancelledFactory, "profileDefinition", profileDefinition);
+                "hasBeenCancelledFactory", hasBeenCancelledFactory, "profileDefinition", profileDefinition,
+                "providerGate", providerGate);
     }
 
     public String getClientName() {
@@ -222,4 +286,33 @@ public class OAuthConfiguration<U extends CommonProfile, P extends OAuthProfileD
         this.configSupplier = newSupplier;
     }
 
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * Set the HTTP client to be used by the services built from this configuration, in place of one built from the
+     * config supplier. This allows one client to be shared between several configurations, each of which still makes
+     * its calls through its own provider gate.
+     *
+     * @param httpClient the HTTP client
+     */
+    public void setHttpClient(final HttpClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    public OAuthProviderGate getProviderGate() {
+        return providerGate;
+    }
+
+    /**
+     * Set the gate through which all calls to this provider are made, limiting how many are made at once and
+     * failing fast while the provider is failing. This must be set before initialisation.
+     *
+     * @param providerGate the provider gate
+     */
+    public void setProviderGate(final OAuthProviderGate providerGate) {
+        this.providerGate = providerGate;
+    }
+
 }
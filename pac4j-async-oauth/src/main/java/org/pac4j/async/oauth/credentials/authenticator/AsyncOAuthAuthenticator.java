@@ -33,7 +33,7 @@ public abstract class AsyncOAuthAuthenticator<C extends OAuthCredentials, O exte
     @Override
     public CompletableFuture<Void> validate(C credentials, AsyncWebContext context) {
         init(context);
-        return retrieveAccessToken(credentials);
+        return configuration.getProviderGate().adaptRejection(retrieveAccessToken(credentials), context);
     }
 
     /**
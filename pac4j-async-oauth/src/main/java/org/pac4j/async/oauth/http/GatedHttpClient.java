@@ -0,0 +1,90 @@
+package org.pac4j.async.oauth.http;
+
+import com.github.scribejava.core.model.HttpClient;
+import com.github.scribejava.core.model.OAuthAsyncRequestCallback;
+import com.github.scribejava.core.model.OAuthRequestAsync;
+import com.github.scribejava.core.model.Response;
+import com.github.scribejava.core.model.Verb;
+import org.pac4j.async.oauth.scribe.ScribeCallbackAdapter;
+import org.pac4j.core.util.CommonHelper;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+
+/**
+ * Scribe http client which makes the calls of another through an {@link OAuthProviderGate}. A call counts as a
+ * failure for the gate's circuit breaker if it gets no response, or a response showing that the provider is
+ * overloaded or broken (429 or 5xx). Other error responses, such as a 400 for an invalid authorization code, are the
+ * caller's problem rather than the provider's, so do not count.
+ */
+public class GatedHttpClient implements HttpClient {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final HttpClient delegate;
+
+    private final OAuthProviderGate gate;
+
+    public GatedHttpClient(final HttpClient delegate, final OAuthProviderGate gate) {
+        CommonHelper.assertNotNull("delegate", delegate);
+        CommonHelper.assertNotNull("gate", gate);
+        this.delegate = delegate;
+        this.gate = gate;
+    }
+
+    @Override
+    public <T> Future<T> executeAsync(final String userAgent, final Map<String, String> headers, final Verb httpVerb,
+                                      final String completeUrl, final String bodyContents,
+                                      final OAuthAsyncRequestCallback<T> callback,
+                                      final OAuthRequestAsync.ResponseConverter<T> converter) {
+        final CompletableFuture<T> result = gate.<Response>execute(() -> {
+            final CompletableFuture<Response> responseFuture = new CompletableFuture<>();
+            delegate.executeAsync(userAgent, headers, httpVerb, completeUrl, bodyContents,
+                    ScribeCallbackAdapter.toScribeOAuthRequestCallback(responseFuture), null);
+            return responseFuture;
+        }, GatedHttpClient::isProviderFailure)
+                .thenApply(response -> convert(response, converter));
+        if (callback != null) {
+            result.whenComplete((converted, t) -> {
+                if (t != null) {
+                    callback.onThrowable(t instanceof CompletionException && t.getCause() != null ? t.getCause() : t);
+                } else {
+                    callback.onCompleted(converted);
+                }
+            });
+        }
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    public HttpClient getDelegate() {
+        return delegate;
+    }
+
+    public OAuthProviderGate getGate() {
+        return gate;
+    }
+
+    private static boolean isProviderFailure(final Response response, final Throwable failure) {
+        return failure != null || response.getCode() == TOO_MANY_REQUESTS || response.getCode() >= 500;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T convert(final Response response, final OAuthRequestAsync.ResponseConverter<T> converter) {
+        if (converter == null) {
+            return (T) response;
+        }
+        try {
+            return converter.convert(response);
+        } catch (final IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+}
@@ -0,0 +1,543 @@
+package org.pac4j.async.oauth.http;
+
+import org.pac4j.async.core.context.AsyncWebContext;
+import org.pac4j.async.core.deadline.DeadlineTimerWheel;
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.exception.HttpAction;
+import org.pac4j.core.util.CommonHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import static org.pac4j.async.core.exception.handler.AsyncExceptionHandler.unwrapAsyncException;
+
+/**
+ * Gate through which the calls to a single OAuth provider are made, so that a slow or failing provider cannot tie up
+ * an unbounded number of requests.
+ *
+ * At most maxConcurrentRequests calls are in flight at once. Further calls wait in a queue of at most
+ * maxQueuedRequests, and are started as earlier calls complete; once the queue is full, calls are turned away, as
+ * are calls which have waited longer than maxQueueWaitMillis. A call leaving the queue goes through the circuit
+ * breaker's admission again if the circuit has changed state since the call joined it.
+ *
+ * The outcomes of the most recent calls (up to windowSize of them) are recorded by a circuit breaker. Once at least
+ * minimumCalls have been recorded and the proportion of them which failed, or which took longer than
+ * slowCallDurationMillis, reaches its threshold, the circuit opens and every call is turned away for
+ * openDurationMillis, along with every call then waiting in the queue. After that the circuit is half open, and lets
+ * halfOpenProbes calls through: if they all succeed in good time the circuit closes again, otherwise it reopens.
+ *
+ * Calls which are turned away fail with an {@link OAuthProviderUnavailableException}, without being made. Where a web
+ * context is at hand, {@link #adaptRejection(CompletableFuture, AsyncWebContext)} converts that into the configured
+ * rejection action, by default a 503 response.
+ */
+public class OAuthProviderGate {
+
+    private static final Logger logger = LoggerFactory.getLogger(OAuthProviderGate.class);
+
+    /**
+     * Status of the default action for a call turned away by the gate
+     */
+    public static final int SERVICE_UNAVAILABLE = 503;
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private int maxConcurrentRequests = 32;
+
+    private int maxQueuedRequests = 128;
+
+    private int windowSize = 50;
+
+    private int minimumCalls = 20;
+
+    private double failureRateThreshold = 0.5;
+
+    private long slowCallDurationMillis = 5000;
+
+    private double slowCallRateThreshold = 0.5;
+
+    private long openDurationMillis = 30000;
+
+    private int halfOpenProbes = 3;
+
+    private Function<WebContext<?>, HttpAction> rejectionAction =
+            ctx -> HttpAction.status("OAuth provider unavailable", SERVICE_UNAVAILABLE, ctx);
+
+    private LongSupplier nanoClock = System::nanoTime;
+
+    private long maxQueueWaitMillis = 10000;
+
+    private DeadlineTimerWheel timerWheel = DeadlineTimerWheel.shared();
+
+    // Everything below is guarded by this
+    private int activeRequests = 0;
+    private final Deque<QueuedCall<?>> waiting = new ArrayDeque<>();
+
+    private State state = State.CLOSED;
+    // Bumped on every change of state, so that outcomes of calls admitted under an earlier state are not counted
+    private long generation = 0;
+    private long openedAtNanos;
+    private int probesAdmitted;
+    private int probesSucceeded;
+
+    private boolean[] failedOutcomes;
+    private boolean[] slowOutcomes;
+    private int recordedOutcomes;
+    private int nextOutcome;
+    private int failedCount;
+    private int slowCount;
+
+    /**
+     * A call waiting in the queue for a slot
+     */
+    private final class QueuedCall<T> {
+
+        private final Supplier<CompletableFuture<T>> call;
+        private final BiPredicate<T, Throwable> isFailure;
+        private final CompletableFuture<T> result;
+        // The generation the call was admitted under, whether it was admitted as a half open probe, and when it
+        // joined the queue
+        private final long admittedGeneration;
+        private final boolean probe;
+        private final long queuedAtNanos;
+        private DeadlineTimerWheel.Timeout expiry;
+        private String rejection;
+
+        private QueuedCall(final Supplier<CompletableFuture<T>> call, final BiPredicate<T, Throwable> isFailure,
+                           final CompletableFuture<T> result, final long admittedGeneration, final boolean probe,
+                           final long queuedAtNanos) {
+            this.call = call;
+            this.isFailure = isFailure;
+            this.result = result;
+            this.admittedGeneration = admittedGeneration;
+            this.probe = probe;
+            this.queuedAtNanos = queuedAtNanos;
+        }
+
+        private void start(final long startGeneration) {
+            OAuthProviderGate.this.start(call, isFailure, result, startGeneration);
+        }
+
+        private void reject() {
+            OAuthProviderGate.reject(result, rejection);
+        }
+    }
+
+    /**
+     * Make a call through the gate. Any exceptional completion of the call counts as a failure.
+     *
+     * @param call supplier which starts the call
+     * @return future which completes as the call does, or fails with an OAuthProviderUnavailableException if the call
+     * was turned away
+     */
+    public <T> CompletableFuture<T> execute(final Supplier<CompletableFuture<T>> call) {
+        return execute(call, (result, failure) -> failure != null);
+    }
+
+    /**
+     * Make a call through the gate.
+     *
+     * @param call supplier which starts the call
+     * @param isFailure tells from the call's result or failure (one of which is null) whether the provider failed to
+     *                  serve it, as opposed to having rejected it, for example, as an invalid request
+     * @return future which completes as the call does, or fails with an OAuthProviderUnavailableException if the call
+     * was turned away
+     */
+    public <T> CompletableFuture<T> execute(final Supplier<CompletableFuture<T>> call,
+                                            final BiPredicate<T, Throwable> isFailure) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final String rejection;
+        final boolean startNow;
+        final long admittedGeneration;
+        synchronized (this) {
+            final boolean slotFree = activeRequests < maxConcurrentRequests;
+            rejection = !slotFree && waiting.size() >= maxQueuedRequests ? "too many requests waiting" : admit();
+            admittedGeneration = generation;
+            startNow = rejection == null && slotFree;
+            if (startNow) {
+                activeRequests++;
+            } else if (rejection == null) {
+                final QueuedCall<T> queued = new QueuedCall<>(call, isFailure, result, admittedGeneration,
+                        state == State.HALF_OPEN, nanoClock.getAsLong());
+                queued.expiry = timerWheel.schedule(maxQueueWaitMillis, TimeUnit.MILLISECONDS, () -> expire(queued));
+                waiting.add(queued);
+            }
+        }
+        if (rejection != null) {
+            reject(result, rejection);
+        } else if (startNow) {
+            start(call, isFailure, result, admittedGeneration);
+        }
+        return result;
+    }
+
+    /**
+     * Convert a call having been turned away by this gate into the rejection action for the web context. As building
+     * the action sets the response status, this is done on the context's execution context. Other outcomes are passed
+     * through unchanged.
+     *
+     * @param future the result of a call (or of a computation including calls) through the gate
+     * @param context the web context
+     * @return the result, with any rejection converted
+     */
+    public <T> CompletableFuture<T> adaptRejection(final CompletableFuture<T> future, final AsyncWebContext context) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        future.whenComplete((v, t) -> {
+            if (t == null) {
+                result.complete(v);
+            } else if (isRejection(t)) {
+                context.getExecutionContext().executeOnContext(() -> {
+                    try {
+                        result.completeExceptionally(rejectionAction.apply(context));
+                    } catch (final Throwable actionFailure) {
+                        result.completeExceptionally(actionFailure);
+                    }
+                });
+            } else {
+                result.completeExceptionally(t);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @param t a failure, possibly wrapped in a CompletionException
+     * @return whether the failure is the result of a call having been turned away by a gate
+     */
+    public static boolean isRejection(final Throwable t) {
+        return unwrapAsyncException(t) instanceof OAuthProviderUnavailableException;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized int getActiveRequests() {
+        return activeRequests;
+    }
+
+    public synchronized int getQueuedRequests() {
+        return waiting.size();
+    }
+
+    // Must be called holding the lock. Returns why the circuit turns the call away, or null if it lets it through
+    private String admit() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAtNanos < TimeUnit.MILLISECONDS.toNanos(openDurationMillis)) {
+                return "circuit open";
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesAdmitted >= halfOpenProbes) {
+                return "circuit half open, awaiting probes";
+            }
+            probesAdmitted++;
+        }
+        return null;
+    }
+
+    // Must be called holding the lock. Admission is run again for a call leaving the queue, unless the circuit is
+    // still in the state it was admitted under
+    private String readmit(final QueuedCall<?> queued) {
+        if (nanoClock.getAsLong() - queued.queuedAtNanos > TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMillis)) {
+            return "waited too long for a slot";
+        }
+        return queued.admittedGeneration == generation ? null : admit();
+    }
+
+    // Must be called holding the lock. A probe turned away from the queue never records an outcome, so gives back its
+    // place to another call, or the circuit would stay half open for good once every place had gone that way
+    private void dropped(final QueuedCall<?> queued) {
+        if (queued.probe && queued.admittedGeneration == generation) {
+            probesAdmitted--;
+        }
+    }
+
+    private static void reject(final CompletableFuture<?> result, final String rejection) {
+        logger.debug("Call to OAuth provider turned away: {}", rejection);
+        result.completeExceptionally(new OAuthProviderUnavailableException(rejection));
+    }
+
+    private void expire(final QueuedCall<?> queued) {
+        synchronized (this) {
+            if (!waiting.remove(queued)) {
+                return;
+            }
+            queued.rejection = "waited too long for a slot";
+            dropped(queued);
+        }
+        queued.reject();
+    }
+
+    private <T> void start(final Supplier<CompletableFuture<T>> call, final BiPredicate<T, Throwable> isFailure,
+                           final CompletableFuture<T> result, final long admittedGeneration) {
+        final long startNanos = nanoClock.getAsLong();
+        CompletableFuture<T> callFuture;
+        try {
+            callFuture = call.get();
+        } catch (final Throwable t) {
+            callFuture = new CompletableFuture<>();
+            callFuture.completeExceptionally(t);
+        }
+        callFuture.whenComplete((v, t) -> {
+            final Throwable failure = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+            final boolean failed = isFailure.test(v, failure);
+            final boolean slow = nanoClock.getAsLong() - startNanos > TimeUnit.MILLISECONDS.toNanos(slowCallDurationMillis);
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            } else {
+                result.complete(v);
+            }
+            complete(admittedGeneration, failed, slow);
+        });
+    }
+
+    // Record the outcome of a call and hand its slot to the next waiting call still admissible, turning away any
+    // waiting calls which are not
+    private void complete(final long admittedGeneration, final boolean failed, final boolean slow) {
+        final List<QueuedCall<?>> rejected = new ArrayList<>(0);
+        QueuedCall<?> next = null;
+        final long nextGeneration;
+        synchronized (this) {
+            if (admittedGeneration == generation) {
+                recordOutcome(failed, slow);
+            }
+            if (state == State.OPEN) {
+                // Nothing waiting gets through to a provider which has just been found to be failing
+                waiting.forEach(queued -> queued.rejection = "circuit open");
+                rejected.addAll(waiting);
+                waiting.clear();
+            }
+            QueuedCall<?> candidate;
+            while (next == null && (candidate = waiting.poll()) != null) {
+                candidate.expiry.cancel();
+                candidate.rejection = readmit(candidate);
+                if (candidate.rejection == null) {
+                    next = candidate;
+                } else {
+                    dropped(candidate);
+                    rejected.add(candidate);
+                }
+            }
+            if (next == null) {
+                activeRequests--;
+            }
+            nextGeneration = generation;
+        }
+        rejected.forEach(QueuedCall::reject);
+        if (next != null) {
+            next.start(nextGeneration);
+        }
+    }
+
+    // Must be called holding the lock
+    private void recordOutcome(final boolean failed, final boolean slow) {
+        switch (state) {
+            case HALF_OPEN:
+                if (failed || slow) {
+                    transitionTo(State.OPEN);
+                } else if (++probesSucceeded >= halfOpenProbes) {
+                    transitionTo(State.CLOSED);
+                }
+                break;
+            case CLOSED:
+                if (failedOutcomes == null) {
+                    failedOutcomes = new boolean[windowSize];
+                    slowOutcomes = new boolean[windowSize];
+                }
+                if (recordedOutcomes == windowSize) {
+                    failedCount -= failedOutcomes[nextOutcome] ? 1 : 0;
+                    slowCount -= slowOutcomes[nextOutcome] ? 1 : 0;
+                } else {
+                    recordedOutcomes++;
+                }
+                failedOutcomes[nextOutcome] = failed;
+                slowOutcomes[nextOutcome] = slow;
+                failedCount += failed ? 1 : 0;
+                slowCount += slow ? 1 : 0;
+                nextOutcome = (nextOutcome + 1) % windowSize;
+                if (recordedOutcomes >= minimumCalls
+                        && (failedCount >= failureRateThreshold * recordedOutcomes
+                        || slowCount >= slowCallRateThreshold * recordedOutcomes)) {
+                    transitionTo(State.OPEN);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    // Must be called holding the lock
+    private void transitionTo(final State newState) {
+        logger.info("OAuth provider circuit {} -> {}", state, newState);
+        state = newState;
+        generation++;
+        probesAdmitted = 0;
+        probesSucceeded = 0;
+        recordedOutcomes = 0;
+        nextOutcome = 0;
+        failedCount = 0;
+        slowCount = 0;
+        if (newState == State.OPEN) {
+            openedAtNanos = nanoClock.getAsLong();
+        }
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    public void setMaxConcurrentRequests(final int maxConcurrentRequests) {
+        CommonHelper.assertTrue(maxConcurrentRequests > 0, "maxConcurrentRequests must be positive");
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    public int getMaxQueuedRequests() {
+        return maxQueuedRequests;
+    }
+
+    public void setMaxQueuedRequests(final int maxQueuedRequests) {
+        CommonHelper.assertTrue(maxQueuedRequests >= 0, "maxQueuedRequests cannot be negative");
+        this.maxQueuedRequests = maxQueuedRequests;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public synchronized void setWindowSize(final int windowSize) {
+        CommonHelper.assertTrue(windowSize > 0, "windowSize must be positive");
+        this.windowSize = windowSize;
+        this.failedOutcomes = null;
+        this.slowOutcomes = null;
+        this.recordedOutcomes = 0;
+        this.nextOutcome = 0;
+        this.failedCount = 0;
+        this.slowCount = 0;
+    }
+
+    public int getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    public void setMinimumCalls(final int minimumCalls) {
+        CommonHelper.assertTrue(minimumCalls > 0, "minimumCalls must be positive");
+        this.minimumCalls = minimumCalls;
+    }
+
+    public double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public void setFailureRateThreshold(final double failureRateThreshold) {
+        CommonHelper.assertTrue(failureRateThreshold > 0 && failureRateThreshold <= 1,
+                "failureRateThreshold must be greater than 0 and at most 1");
+        this.failureRateThreshold = failureRateThreshold;
+    }
+
+    public long getSlowCallDurationMillis() {
+        return slowCallDurationMillis;
+    }
+
+    public void setSlowCallDurationMillis(final long slowCallDurationMillis) {
+        CommonHelper.assertTrue(slowCallDurationMillis > 0, "slowCallDurationMillis must be positive");
+        this.slowCallDurationMillis = slowCallDurationMillis;
+    }
+
+    public double getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    public void setSlowCallRateThreshold(final double slowCallRateThreshold) {
+        CommonHelper.assertTrue(slowCallRateThreshold > 0 && slowCallRateThreshold <= 1,
+                "slowCallRateThreshold must be greater than 0 and at most 1");
+        this.slowCallRateThreshold = slowCallRateThreshold;
+    }
+
+    public long getOpenDurationMillis() {
+        return openDurationMillis;
+    }
+
+    public void setOpenDurationMillis(final long openDurationMillis) {
+        CommonHelper.assertTrue(openDurationMillis >= 0, "openDurationMillis cannot be negative");
+        this.openDurationMillis = openDurationMillis;
+    }
+
+    public int getHalfOpenProbes() {
+        return halfOpenProbes;
+    }
+
+    public void setHalfOpenProbes(final int halfOpenProbes) {
+        CommonHelper.assertTrue(halfOpenProbes > 0, "halfOpenProbes must be positive");
+        this.halfOpenProbes = halfOpenProbes;
+    }
+
+    public Function<WebContext<?>, HttpAction> getRejectionAction() {
+        return rejectionAction;
+    }
+
+    /**
+     * Set the action with which a request fails when a call it needs to make to the provider is turned away. This is
+     * called on the web context's execution context.
+     *
+     * @param rejectionAction builds the action for the web context
+     */
+    public void setRejectionAction(final Function<WebContext<?>, HttpAction> rejectionAction) {
+        CommonHelper.assertNotNull("rejectionAction", rejectionAction);
+        this.rejectionAction = rejectionAction;
+    }
+
+    public long getMaxQueueWaitMillis() {
+        return maxQueueWaitMillis;
+    }
+
+    /**
+     * Set how long a call may wait in the queue for a slot before it is turned away.
+     *
+     * @param maxQueueWaitMillis the maximum wait, in milliseconds
+     */
+    public void setMaxQueueWaitMillis(final long maxQueueWaitMillis) {
+        CommonHelper.assertTrue(maxQueueWaitMillis > 0, "maxQueueWaitMillis must be positive");
+        this.maxQueueWaitMillis = maxQueueWaitMillis;
+    }
+
+    /**
+     * Replace the timer wheel on which the expiry of waiting calls is scheduled.
+     *
+     * @param timerWheel the timer wheel
+     */
+    public void setTimerWheel(final DeadlineTimerWheel timerWheel) {
+        CommonHelper.assertNotNull("timerWheel", timerWheel);
+        this.timerWheel = timerWheel;
+    }
+
+    /**
+     * Replace the clock used to time calls and the open period of the circuit, mainly for testing.
+     *
+     * @param nanoClock source of nanosecond times, as System.nanoTime
+     */
+    public void setNanoClock(final LongSupplier nanoClock) {
+        CommonHelper.assertNotNull("nanoClock", nanoClock);
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return CommonHelper.toString(this.getClass(), "state", state, "activeRequests", activeRequests,
+                "waitingRequests", waiting.size(), "maxConcurrentRequests", maxConcurrentRequests,
+                "maxQueuedRequests", maxQueuedRequests);
+    }
+}
@@ -0,0 +1,16 @@
+package org.pac4j.async.oauth.http;
+
+import org.pac4j.core.exception.TechnicalException;
+
+/**
+ * Exception with which a call to an OAuth provider fails when its {@link OAuthProviderGate} turns the call away
+ * without making it, either because the provider's circuit is open or because too many calls are already waiting.
+ */
+public class OAuthProviderUnavailableException extends TechnicalException {
+
+    private static final long serialVersionUID = 4925106512409413318L;
+
+    public OAuthProviderUnavailableException(final String message) {
+        super(message);
+    }
+}
@@ -3,7 +3,6 @@ package org.pac4j.async.oauth.profile.creator;
 import com.github.scribejava.core.builder.api.DefaultApi20;
 import com.github.scribejava.core.exceptions.OAuthException;
 import com.github.scribejava.core.model.*;
-import com.github.scribejava.core.oauth.OAuthService;
 import org.pac4j.async.oauth.config.FacebookConfiguration;
 import org.pac4j.async.oauth.profile.definition.FacebookProfileDefinition;
 import org.pac4j.async.oauth.profile.url.FacebookProfileUrlCalculator;
@@ -13,6 +12,7 @@ import org.pac4j.core.util.CommonHelper;
 import org.pac4j.oauth.profile.facebook.FacebookProfile;
 
 import java.io.IOException;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -30,58 +30,63 @@ public class AsyncFacebookProfileCreator extends AsyncOAuth20ProfileCreator<Face
 
     @Override
     protected CompletableFuture<FacebookProfile> retrieveUserProfileFromToken(OAuth2AccessToken accessToken) {
-        final FacebookProfileDefinition profileDefinition = configuration.getProfileDefinition();
-        final FacebookConfiguration facebookConfiguration = configuration;
         final String profileUrl = oAuthProfileUrlCalculator.getProfileUrl(accessToken, configuration);
-        final OAuthService<OAuth2AccessToken> service = this.configuration.getService();
-        CompletableFuture<String> bodyFuture = sendRequestForData(accessToken, profileUrl, Verb.GET);
-        return bodyFuture.thenApply(body -> {
-            if (body == null) {
-                throw new HttpCommunicationException("Not data found for accessToken: " + accessToken);
-            }
-            return profileDefinition.extractUserProfile(body);
-        }).thenApply(profile -> {
+        // Both calls need only the short-lived token, so the exchange is started alongside the profile fetch
+        final CompletableFuture<Optional<OAuth2AccessToken>> extendedTokenFuture = configuration.isRequiresExtendedToken() ?
+                retrieveExtendedToken(accessToken) : CompletableFuture.completedFuture(Optional.empty());
+        return sendRequestForResponse(accessToken, profileUrl, Verb.GET).thenApply(response -> {
+            final FacebookProfile profile = extractUserProfile(response, accessToken);
             addAccessTokenToProfile(profile, accessToken);
             return profile;
-        }).thenCompose(profile -> { // May need to switch this to thenCompose
-            if (profile != null && configuration.isRequiresExtendedToken()) {
-                String url = CommonHelper.addParameter(EXCHANGE_TOKEN_URL, OAuthConstants.CLIENT_ID, configuration.getKey());
-                url = CommonHelper.addParameter(url, OAuthConstants.CLIENT_SECRET, configuration.getSecret());
-                final String finalUrl = addExchangeToken(url, accessToken);
-                final OAuthRequestAsync request = createOAuthRequest(url, Verb.GET);
-                final long t0 = System.currentTimeMillis();
-                final CompletableFuture<Response> responseFuture = new CompletableFuture<>();
-                request.sendAsync(ScribeCallbackAdapter.toScribeOAuthRequestCallback(responseFuture));
-                return responseFuture.thenApply(response -> {
-                    final int code = response.getCode();
-                    try {
-                        final String body = response.getBody();
-                        final long t1 = System.currentTimeMillis();
-                        logger.debug("Request took: " + (t1 - t0) + " ms for: " + finalUrl);
-                        logger.debug("response code: {} / response body: {}", code, body);
-                        if (code == 200) {
-                            logger.debug("Retrieve extended token from  {}", body);
-                            final OAuth2AccessToken extendedAccessToken;
-                            try {
-                                extendedAccessToken = ((DefaultApi20) configuration.getApi()).getAccessTokenExtractor().extract(response);
-                            } catch (IOException | OAuthException ex) {
-                                throw new HttpCommunicationException("Error extracting token: " + ex.getMessage());
-                            }
-                            logger.debug("Extended token: {}", extendedAccessToken);
-                            addAccessTokenToProfile(profile, extendedAccessToken);
-                        } else {
-                            logger.error("Cannot get extended token: {} / {}", code, body);
-                        }
-                        return profile;
-                    } catch (IOException ex) {
-                        throw new HttpCommunicationException("Error getting body:" + ex.getMessage());
-                    }
-                });
-            } else {
-                return CompletableFuture.completedFuture(profile);
-            }
+        }).thenCombine(extendedTokenFuture, (profile, extendedAccessToken) -> {
+            extendedAccessToken.ifPresent(token -> addAccessTokenToProfile(profile, token));
+            return profile;
         });
+    }
 
+    /**
+     * Exchange the short-lived access token for a long-lived one. The exchange never fails: if it cannot be made, an
+     * error is logged and the result is empty, so that the profile keeps the short-lived token.
+     *
+     * @param accessToken the short-lived access token
+     * @return the long-lived access token, if the exchange succeeded
+     */
+    protected CompletableFuture<Optional<OAuth2AccessToken>> retrieveExtendedToken(final OAuth2AccessToken accessToken) {
+        String url = CommonHelper.addParameter(EXCHANGE_TOKEN_URL, OAuthConstants.CLIENT_ID, configuration.getKey());
+        url = CommonHelper.addParameter(url, OAuthConstants.CLIENT_SECRET, configuration.getSecret());
+        final String finalUrl = addExchangeToken(url, accessToken);
+        final OAuthRequestAsync request = createOAuthRequest(finalUrl, Verb.GET);
+        final long t0 = System.currentTimeMillis();
+        final CompletableFuture<Response> responseFuture = new CompletableFuture<>();
+        request.sendAsync(ScribeCallbackAdapter.toScribeOAuthRequestCallback(responseFuture));
+        return responseFuture.thenApply(response -> {
+            final int code = response.getCode();
+            final String body;
+            try {
+                body = response.getBody();
+            } catch (IOException ex) {
+                throw new HttpCommunicationException("Error getting body:" + ex.getMessage());
+            }
+            final long t1 = System.currentTimeMillis();
+            logger.debug("Request took: " + (t1 - t0) + " ms for: " + finalUrl);
+            logger.debug("response code: {} / response body: {}", code, body);
+            if (code != 200) {
+                logger.error("Cannot get extended token: {} / {}", code, body);
+                return Optional.<OAuth2AccessToken>empty();
+            }
+            logger.debug("Retrieve extended token from  {}", body);
+            final OAuth2AccessToken extendedAccessToken;
+            try {
+                extendedAccessToken = ((DefaultApi20) configuration.getApi()).getAccessTokenExtractor().extract(response);
+            } catch (IOException | OAuthException ex) {
+                throw new HttpCommunicationException("Error extracting token: " + ex.getMessage());
+            }
+            logger.debug("Extended token: {}", extendedAccessToken);
+            return Optional.of(extendedAccessToken);
+        }).exceptionally(t -> {
+            logger.error("Cannot get extended token, keeping the short-lived one", t);
+            return Optional.empty();
+        });
     }
 
     /**
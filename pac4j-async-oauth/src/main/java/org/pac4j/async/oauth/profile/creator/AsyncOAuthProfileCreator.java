@@ -25,7 +25,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Async version of OAuthProfileCreator
@@ -36,6 +38,10 @@ public abstract class AsyncOAuthProfileCreator<C extends OAuthCredentials, U ext
 
     protected final static Logger logger = LoggerFactory.getLogger(AsyncOAuthProfileCreator.class);
 
+    private static final String CONTENT_ENCODING = "Content-Encoding";
+
+    private static final String GZIP = "gzip";
+
     protected static final ObjectMapper mapper;
 
     static {
@@ -66,7 +72,8 @@ public abstract class AsyncOAuthProfileCreator<C extends OAuthCredentials, U ext
             } catch (HttpAction action) {
                 tokenFuture.completeExceptionally(action);
             }
-            return tokenFuture.thenCompose(this::retrieveUserProfileFromToken);
+            return configuration.getProviderGate().adaptRejection(tokenFuture.thenCompose(this::retrieveUserProfileFromToken),
+                    context);
         } catch (final OAuthException e) {
             throw new TechnicalException(e);
         }
@@ -82,18 +89,40 @@ public abstract class AsyncOAuthProfileCreator<C extends OAuthCredentials, U ext
     protected CompletableFuture<U> retrieveUserProfileFromToken(final T accessToken) {
         final OAuthProfileDefinition<U> profileDefinition = configuration.getProfileDefinition();
         final String profileUrl = oAuthProfileUrlCalculator.getProfileUrl(accessToken, configuration);
-        final CompletableFuture<String> bodyFuture = sendRequestForData(accessToken, profileUrl, profileDefinition.getProfileVerb());
-        return bodyFuture.thenApply(body -> {
-            logger.info("UserProfile: " + body);
-            if (body == null) {
-                throw new HttpCommunicationException("No data found for accessToken: " + accessToken);
-            }
-            final U profile = (U) configuration.getProfileDefinition().extractUserProfile(body);
+        return sendRequestForResponse(accessToken, profileUrl, profileDefinition.getProfileVerb()).thenApply(response -> {
+            final U profile = extractUserProfile(response, accessToken);
             addAccessTokenToProfile(profile, accessToken);
             return profile;
         });
     }
 
+    /**
+     * Extract the user profile from the successful response of the profile url. The response is parsed as it is read
+     * unless debug logging is enabled, in which case it is read whole so that it can be logged first.
+     *
+     * @param response the response of the profile url
+     * @param accessToken the access token
+     * @return the user profile
+     */
+    protected U extractUserProfile(final Response response, final T accessToken) {
+        final OAuthProfileDefinition<U> profileDefinition = configuration.getProfileDefinition();
+        final InputStream stream = response.getStream();
+        if (stream != null && !logger.isDebugEnabled()) {
+            try {
+                return profileDefinition.extractUserProfile(GZIP.equals(response.getHeader(CONTENT_ENCODING)) ?
+                        new GZIPInputStream(stream) : stream);
+            } catch (final IOException ex) {
+                throw new HttpCommunicationException("Error getting body: " + ex.getMessage());
+            }
+        }
+        final String body = getBody(response);
+        logger.debug("UserProfile: {}", body);
+        if (body == null) {
+            throw new HttpCommunicationException("No data found for accessToken: " + accessToken);
+        }
+        return profileDefinition.extractUserProfile(body);
+    }
+
     /**
      * Make a request to get the data of the authenticated user for the provider.
      *
@@ -103,6 +132,23 @@ public abstract class AsyncOAuthProfileCreator<C extends OAuthCredentials, U ext
      * @return the user data response
      */
     protected CompletableFuture<String> sendRequestForData(final T accessToken, final String dataUrl, Verb verb) {
+        return sendRequestForResponse(accessToken, dataUrl, verb).thenApply(response -> {
+            final String body = getBody(response);
+            logger.debug("response body: {}", body);
+            return body;
+        });
+    }
+
+    /**
+     * Make a request to get the data of the authenticated user for the provider, leaving the body of a successful
+     * response unread.
+     *
+     * @param accessToken the access token
+     * @param dataUrl     url of the data
+     * @param verb        method used to request data
+     * @return the successful response
+     */
+    protected CompletableFuture<Response> sendRequestForResponse(final T accessToken, final String dataUrl, Verb verb) {
         logger.debug("accessToken: {} / dataUrl: {}", accessToken, dataUrl);
         final long t0 = System.currentTimeMillis();
         final OAuthRequestAsync request = createOAuthRequest(dataUrl, verb);
@@ -111,22 +157,24 @@ public abstract class AsyncOAuthProfileCreator<C extends OAuthCredentials, U ext
         request.sendAsync(ScribeCallbackAdapter.toScribeOAuthRequestCallback(responseFuture));
         return responseFuture.thenApply(response -> {
             final int code = response.getCode();
-            final String body;
-            try {
-                body = response.getBody();
-            } catch (final IOException ex) {
-                throw new HttpCommunicationException("Error getting body: " + ex.getMessage());
-            }
             final long t1 = System.currentTimeMillis();
-            logger.debug("Request took: " + (t1 - t0) + " ms for: " + dataUrl);
-            logger.debug("response code: {} / response body: {}", code, body);
+            logger.debug("Request took: {} ms for: {}", t1 - t0, dataUrl);
+            logger.debug("response code: {}", code);
             if (code != 200) {
-                throw new HttpCommunicationException(code, body);
+                throw new HttpCommunicationException(code, getBody(response));
             }
-            return body;
+            return response;
         });
     }
 
+    private static String getBody(final Response response) {
+        try {
+            return response.getBody();
+        } catch (final IOException ex) {
+            throw new HttpCommunicationException("Error getting body: " + ex.getMessage());
+        }
+    }
+
     /**
      * Create an OAuth request.
      *
@@ -1,17 +1,30 @@
 package org.pac4j.async.oauth.profile.definition;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
 import org.pac4j.core.exception.HttpAction;
+import org.pac4j.core.exception.HttpCommunicationException;
 import org.pac4j.core.profile.converter.Converters;
 import org.pac4j.core.profile.converter.DateConverter;
+import org.pac4j.core.util.CommonHelper;
 import org.pac4j.oauth.profile.JsonHelper;
 import org.pac4j.oauth.profile.converter.JsonConverter;
 import org.pac4j.oauth.profile.facebook.*;
 import org.pac4j.oauth.profile.facebook.converter.FacebookRelationshipStatusConverter;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This class is the Facebook profile definition.
@@ -55,6 +68,24 @@ public class FacebookProfileDefinition extends OAuth20ProfileDefinition<Facebook
     public static final String MUSIC_LISTENS = "music.listens";
     public static final String PICTURE = "picture";
 
+    private static final String ID = "id";
+
+    private static final String DATA = "data";
+
+    /**
+     * Reads the value of one field of the profile response, with the parser on its first token, into the profile
+     */
+    @FunctionalInterface
+    protected interface FieldReader {
+        void read(JsonParser parser, FacebookProfile profile) throws IOException;
+    }
+
+    // Readers binding the attributes held as json objects or arrays to their types, for the streaming extraction
+    private final Map<String, ObjectReader> jsonReaders = new HashMap<>();
+
+    // Reader for each field of the profile response, built once from the attribute definitions
+    private final Map<String, FieldReader> fieldReaders;
+
     public FacebookProfileDefinition() {
         super(x -> new FacebookProfile());
         Arrays.stream(new String[] {
@@ -63,31 +94,161 @@ public class FacebookProfileDefinition extends OAuth20ProfileDefinition<Facebook
         primary(TIMEZONE, Converters.INTEGER);
         primary(VERIFIED, Converters.BOOLEAN);
         primary(LINK, Converters.URL);
-        final JsonConverter<FacebookObject> objectConverter = new JsonConverter<>(FacebookObject.class);
-        final JsonConverter multiObjectConverter = new JsonConverter(List.class, new TypeReference<List<FacebookObject>>() {});
-        final JsonConverter multiInfoConverter = new JsonConverter(List.class, new TypeReference<List<FacebookInfo>>() {});
+        final TypeReference<List<FacebookObject>> multiObjectType = new TypeReference<List<FacebookObject>>() {};
+        final TypeReference<List<FacebookInfo>> multiInfoType = new TypeReference<List<FacebookInfo>>() {};
         primary(UPDATED_TIME, Converters.DATE_TZ_GENERAL);
         primary(BIRTHDAY, new DateConverter("MM/dd/yyyy"));
         primary(RELATIONSHIP_STATUS, new FacebookRelationshipStatusConverter());
-        primary(LANGUAGES, multiObjectConverter);
-        primary(EDUCATION, new JsonConverter(List.class, new TypeReference<List<FacebookEducation>>() {}));
-        primary(HOMETOWN, objectConverter);
-        primary(INTERESTED_IN, new JsonConverter(List.class, new TypeReference<List<String>>() {}));
-        primary(LOCATION, objectConverter);
-        primary(FAVORITE_ATHLETES, multiObjectConverter);
-        primary(FAVORITE_TEAMS, multiObjectConverter);
-        primary(SIGNIFICANT_OTHER, objectConverter);
-        primary(WORK, new JsonConverter(List.class, new TypeReference<List<FacebookWork>>() {}));
-        secondary(FRIENDS, multiObjectConverter);
-        secondary(MOVIES, multiInfoConverter);
-        secondary(MUSIC, multiInfoConverter);
-        secondary(BOOKS, multiInfoConverter);
-        secondary(LIKES, multiInfoConverter);
-        secondary(ALBUMS, new JsonConverter(List.class, new TypeReference<List<FacebookPhoto>>() {}));
-        secondary(EVENTS, new JsonConverter(List.class, new TypeReference<List<FacebookEvent>>() {}));
-        secondary(GROUPS, new JsonConverter(List.class, new TypeReference<List<FacebookGroup>>() {}));
-        secondary(MUSIC_LISTENS, new JsonConverter(List.class, new TypeReference<List<FacebookMusicListen>>() {}));
-        secondary(PICTURE, new JsonConverter<>(FacebookPicture.class));
+        primaryJson(LANGUAGES, multiObjectType);
+        primaryJson(EDUCATION, new TypeReference<List<FacebookEducation>>() {});
+        primaryJson(HOMETOWN, FacebookObject.class);
+        primaryJson(INTERESTED_IN, new TypeReference<List<String>>() {});
+        primaryJson(LOCATION, FacebookObject.class);
+        primaryJson(FAVORITE_ATHLETES, multiObjectType);
+        primaryJson(FAVORITE_TEAMS, multiObjectType);
+        primaryJson(SIGNIFICANT_OTHER, FacebookObject.class);
+        primaryJson(WORK, new TypeReference<List<FacebookWork>>() {});
+        secondaryJson(FRIENDS, multiObjectType);
+        secondaryJson(MOVIES, multiInfoType);
+        secondaryJson(MUSIC, multiInfoType);
+        secondaryJson(BOOKS, multiInfoType);
+        secondaryJson(LIKES, multiInfoType);
+        secondaryJson(ALBUMS, new TypeReference<List<FacebookPhoto>>() {});
+        secondaryJson(EVENTS, new TypeReference<List<FacebookEvent>>() {});
+        secondaryJson(GROUPS, new TypeReference<List<FacebookGroup>>() {});
+        secondaryJson(MUSIC_LISTENS, new TypeReference<List<FacebookMusicListen>>() {});
+        secondaryJson(PICTURE, FacebookPicture.class);
+        fieldReaders = buildFieldReaders();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void primaryJson(final String name, final TypeReference<? extends List> type) {
+        primary(name, new JsonConverter(List.class, type));
+        jsonReaders.put(name, JsonHelper.getMapper().readerFor(type));
+    }
+
+    private void primaryJson(final String name, final Class<?> type) {
+        primary(name, new JsonConverter<>(type));
+        jsonReaders.put(name, JsonHelper.getMapper().readerFor(type));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void secondaryJson(final String name, final TypeReference<? extends List> type) {
+        secondary(name, new JsonConverter(List.class, type));
+        jsonReaders.put(name, JsonHelper.getMapper().readerFor(type));
+    }
+
+    private void secondaryJson(final String name, final Class<?> type) {
+        secondary(name, new JsonConverter<>(type));
+        jsonReaders.put(name, JsonHelper.getMapper().readerFor(type));
+    }
+
+    private Map<String, FieldReader> buildFieldReaders() {
+        final Map<String, FieldReader> readers = new HashMap<>();
+        readers.put(ID, (parser, profile) -> profile.setId(readScalar(parser)));
+        for (final String attribute : getPrimaryAttributes()) {
+            readers.put(attribute, jsonReaders.containsKey(attribute) ?
+                    (parser, profile) -> convertAndAdd(profile, attribute, readJson(parser, attribute)) :
+                    (parser, profile) -> convertAndAdd(profile, attribute, readScalar(parser)));
+        }
+        // The secondary attributes are paged, with the attribute itself held in the data field
+        for (final String attribute : getSecondaryAttributes()) {
+            readers.put(attribute, (parser, profile) -> {
+                if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    return;
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    final boolean isData = DATA.equals(parser.getCurrentName());
+                    parser.nextToken();
+                    if (isData) {
+                        convertAndAdd(profile, attribute, readJson(parser, attribute));
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            });
+        }
+        return Collections.unmodifiableMap(readers);
+    }
+
+    // Reads a value as the tree based extraction would see it: the value itself for scalars, otherwise a tree
+    private static Object readScalar(final JsonParser parser) throws IOException {
+        switch (parser.getCurrentToken()) {
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getNumberValue();
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+                return parser.getBooleanValue();
+            case VALUE_NULL:
+                return null;
+            default:
+                return JsonHelper.getMapper().readTree(parser);
+        }
+    }
+
+    /*
+     * Reads a value held as json, binding objects and arrays straight from the parser to the type of the attribute.
+     * Like the JsonConverter of the tree based extraction, a value which cannot be bound is left out rather than failing
+     * the whole profile, the rest of it being skipped. Other values are left to the converter.
+     */
+    private Object readJson(final JsonParser parser, final String attribute) throws IOException {
+        final JsonToken token = parser.getCurrentToken();
+        if (token != JsonToken.START_OBJECT && token != JsonToken.START_ARRAY) {
+            return readScalar(parser);
+        }
+        final JsonStreamContext enclosing = parser.getParsingContext().getParent();
+        try {
+            return jsonReaders.get(attribute).readValue(parser);
+        } catch (final JsonMappingException e) {
+            logger.error("Cannot convert " + attribute, e);
+            // the parser is back in the enclosing context once past the end of the value
+            while (parser.getParsingContext() != enclosing) {
+                if (parser.nextToken() == null) {
+                    throw e;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Extract the user profile as the response is read, with the same result as {@link #extractUserProfile(String)}:
+     * a response which is not valid json gives an empty profile and one without an id is refused, while a failure to
+     * read it is a {@link HttpCommunicationException}, as for other definitions.
+     */
+    @Override
+    public FacebookProfile extractUserProfile(final InputStream body) throws HttpAction {
+        final FacebookProfile profile = newProfile();
+        try (final JsonParser parser = JsonHelper.getMapper().getFactory().createParser(body)) {
+            final JsonToken first = parser.nextToken();
+            if (first == null) {
+                return profile;
+            }
+            if (first == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    final FieldReader reader = fieldReaders.get(parser.getCurrentName());
+                    parser.nextToken();
+                    if (reader != null) {
+                        reader.read(parser, profile);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+            CommonHelper.assertNotNull("id", profile.getId());
+            return profile;
+        } catch (final JsonProcessingException e) {
+            logger.error("Cannot parse profile", e);
+            return newProfile();
+        } catch (final IOException e) {
+            throw new HttpCommunicationException("Error reading profile: " + e.getMessage());
+        }
     }
 
     @Override
@@ -113,10 +274,14 @@ public class FacebookProfileDefinition extends OAuth20ProfileDefinition<Facebook
         return profile;
     }
 
+    /*
+     * The field is looked up by its literal name, as getElement would take music.listens as a path, and is only read
+     * when it is an object, as for the streaming extraction
+     */
     protected void extractData(final FacebookProfile profile, final JsonNode json, final String name) {
-        final JsonNode data = (JsonNode) JsonHelper.getElement(json, name);
-        if (data != null) {
-            convertAndAdd(profile, name, JsonHelper.getElement(data, "data"));
+        final JsonNode data = json.get(name);
+        if (data != null && data.isObject()) {
+            convertAndAdd(profile, name, JsonHelper.getElement(data, DATA));
         }
     }
 }
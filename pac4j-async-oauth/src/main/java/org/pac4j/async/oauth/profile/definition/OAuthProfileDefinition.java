@@ -1,10 +1,14 @@
 package org.pac4j.async.oauth.profile.definition;
 
 import com.github.scribejava.core.model.Verb;
+import com.github.scribejava.core.utils.StreamUtils;
 import org.pac4j.core.exception.HttpAction;
+import org.pac4j.core.exception.HttpCommunicationException;
 import org.pac4j.core.profile.CommonProfile;
 import org.pac4j.core.profile.definition.CommonProfileDefinition;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.function.Function;
 
 /**
@@ -40,4 +44,21 @@ public abstract class OAuthProfileDefinition<P extends CommonProfile> extends Co
      * @throws HttpAction whether an extra HTTP action is required
      */
     public abstract P extractUserProfile(String body) throws HttpAction;
+
+    /**
+     * Extract the user profile from the response of the profile url as it is read. Definitions which can parse the
+     * response as a stream should override this; by default the whole response is read and passed to
+     * {@link #extractUserProfile(String)}.
+     *
+     * @param body the response body, already decompressed
+     * @return the returned profile
+     * @throws HttpAction whether an extra HTTP action is required
+     */
+    public P extractUserProfile(final InputStream body) throws HttpAction {
+        try {
+            return extractUserProfile(StreamUtils.getStreamContents(body));
+        } catch (final IOException e) {
+            throw new HttpCommunicationException("Error reading profile: " + e.getMessage());
+        }
+    }
 }
@@ -1,6 +1,5 @@
 package org.pac4j.async.oauth.redirect;
 
-import com.github.scribejava.core.oauth.OAuth20Service;
 import org.pac4j.async.core.context.AsyncWebContext;
 import org.pac4j.async.core.redirect.AsyncRedirectActionBuilder;
 import org.pac4j.async.oauth.config.OAuth20Configuration;
@@ -34,21 +33,20 @@ public class AsyncOauth20RedirectActionBuilder extends InitializableWebObject<We
     public CompletableFuture<RedirectAction> redirect(AsyncWebContext context) {
         init(context);
 
-        final CompletableFuture<OAuth20Service> serviceFuture;
+        final CompletableFuture<String> authUrlFuture;
 
         if (this.configuration.isWithState()) {
             final String state = getStateParameter();
             logger.debug("save sessionState: {}", state);
-            serviceFuture = context.getSessionStore().set(context, this.configuration.getStateSessionAttributeName(), state)
-                .thenApply(v -> this.configuration.buildService(context, state));
+            authUrlFuture = context.getSessionStore().set(context, this.configuration.getStateSessionAttributeName(), state)
+                .thenApply(v -> this.configuration.getAuthorizationUrl(context, state));
         } else {
-            serviceFuture = CompletableFuture.completedFuture(this.configuration.getService());
+            authUrlFuture = CompletableFuture.completedFuture(this.configuration.getAuthorizationUrl(context, null));
         }
 
-        return serviceFuture.thenApply(service -> service.getAuthorizationUrl(this.configuration.getCustomParams()))
-                .thenApply(authUrl -> {
+        return authUrlFuture.thenApply(authUrl -> {
                     logger.debug("authorizationUrl: {}", authUrl);
-                    return RedirectAction.redirect((String) authUrl);
+                    return RedirectAction.redirect(authUrl);
                 });
 
 
@@ -0,0 +1,154 @@
+package org.pac4j.async.oauth.config;
+
+import com.github.scribejava.apis.FacebookApi;
+import com.github.scribejava.core.model.HttpClient;
+import com.github.scribejava.core.model.OAuthAsyncRequestCallback;
+import com.github.scribejava.core.model.OAuthRequestAsync;
+import com.github.scribejava.core.model.Verb;
+import com.github.scribejava.core.oauth.OAuth20Service;
+import org.junit.Before;
+import org.junit.Test;
+import org.pac4j.async.oauth.http.GatedHttpClient;
+import org.pac4j.async.oauth.profile.definition.FacebookProfileDefinition;
+import org.pac4j.oauth.profile.facebook.FacebookProfile;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests for the authorization urls and services of an OAuth 2.0 configuration. The url resolver ignores the web
+ * context, so no context is needed.
+ */
+public class OAuth20ConfigurationTest {
+
+    private static final String CALLBACK_URL = "http://localhost:8080/callback?client_name=FacebookClient";
+
+    private final AtomicInteger httpClientsBuilt = new AtomicInteger();
+    private String callbackSuffix;
+    private OAuth20Configuration<FacebookProfile, FacebookProfileDefinition> configuration;
+
+    @Before
+    public void setUp() {
+        callbackSuffix = "";
+        configuration = new OAuth20Configuration<FacebookProfile, FacebookProfileDefinition>() {
+            @Override
+            protected HttpClient buildHttpClient() {
+                httpClientsBuilt.incrementAndGet();
+                return new StubHttpClient();
+            }
+        };
+        configuration.setApi(FacebookApi.instance());
+        configuration.setKey("key");
+        configuration.setSecret("secret");
+        configuration.setScope("email,user_friends");
+        configuration.setCallbackUrl(CALLBACK_URL);
+        configuration.setUrlResolver((url, context) -> url + callbackSuffix);
+        configuration.setProfileDefinition(new FacebookProfileDefinition());
+        final Map<String, String> customParams = new HashMap<>();
+        customParams.put("display", "popup");
+        customParams.put("auth_type", "rerequest");
+        configuration.setCustomParams(customParams);
+        configuration.init(null);
+    }
+
+    @Test
+    public void testAuthorizationUrlWithoutState() {
+        assertThat(configuration.getAuthorizationUrl(null, null),
+                is(configuration.buildService(null, null).getAuthorizationUrl(configuration.getCustomParams())));
+    }
+
+    @Test
+    public void testAuthorizationUrlWithStateMatchesServiceBuiltWithState() {
+        for (final String state : Arrays.asList("aZ09-_.~", "a b&c=d/e?f+g%h#i", "\u00e9t\u00e9")) {
+            assertThat(configuration.getAuthorizationUrl(null, state),
+                    is(configuration.buildService(null, state).getAuthorizationUrl(configuration.getCustomParams())));
+        }
+    }
+
+    @Test
+    public void testAuthorizationUrlWithStateForOtherCallbackMatchesServiceBuiltWithState() {
+        callbackSuffix = "&port=8443";
+        final String state = "a b&c=d";
+
+        final String url = configuration.getAuthorizationUrl(null, state);
+
+        assertThat(url, is(configuration.buildService(null, state).getAuthorizationUrl(configuration.getCustomParams())));
+        assertThat(url, is(not(configuration.getService().getAuthorizationUrl(configuration.getCustomParams()))));
+    }
+
+    @Test
+    public void testServiceReusedWhileCallbackUnchanged() {
+        assertThat(configuration.getService(null), is(sameInstance(configuration.getService())));
+
+        callbackSuffix = "&port=8443";
+        final OAuth20Service service = configuration.getService(null);
+
+        assertThat(service, is(not(sameInstance(configuration.getService()))));
+        assertThat(service.getConfig().getCallback(), is(CALLBACK_URL + "&port=8443"));
+    }
+
+    @Test
+    public void testServicesShareOneHttpClient() {
+        final HttpClient httpClient = configuration.getHttpClient();
+        assertThat(httpClient, is(instanceOf(GatedHttpClient.class)));
+
+        callbackSuffix = "&port=8443";
+        for (final OAuth20Service service : Arrays.asList(configuration.getService(),
+                configuration.getService(null), configuration.buildService(null, "state"))) {
+            assertThat(service.getConfig().getHttpClient(), is(sameInstance(httpClient)));
+        }
+        assertThat(httpClientsBuilt.get(), is(1));
+    }
+
+    @Test
+    public void testHttpClientSharedBetweenConfigurationsEachThroughItsOwnGate() {
+        final HttpClient sharedClient = new StubHttpClient();
+        final OAuth20Configuration<FacebookProfile, FacebookProfileDefinition> first = configurationWith(sharedClient);
+        final OAuth20Configuration<FacebookProfile, FacebookProfileDefinition> second = configurationWith(sharedClient);
+
+        for (final OAuth20Configuration<FacebookProfile, FacebookProfileDefinition> each : Arrays.asList(first, second)) {
+            final GatedHttpClient gatedClient = (GatedHttpClient) each.getHttpClient();
+            assertThat(gatedClient.getDelegate(), is(sameInstance(sharedClient)));
+            assertThat(gatedClient.getGate(), is(sameInstance(each.getProviderGate())));
+            assertThat(each.getService().getConfig().getHttpClient(), is(sameInstance(gatedClient)));
+        }
+        assertThat(first.getProviderGate(), is(not(sameInstance(second.getProviderGate()))));
+    }
+
+    private static OAuth20Configuration<FacebookProfile, FacebookProfileDefinition> configurationWith(final HttpClient httpClient) {
+        final OAuth20Configuration<FacebookProfile, FacebookProfileDefinition> configuration = new OAuth20Configuration<>();
+        configuration.setApi(FacebookApi.instance());
+        configuration.setKey("key");
+        configuration.setSecret("secret");
+        configuration.setCallbackUrl(CALLBACK_URL);
+        configuration.setUrlResolver((url, context) -> url);
+        configuration.setProfileDefinition(new FacebookProfileDefinition());
+        configuration.setHttpClient(httpClient);
+        configuration.init(null);
+        return configuration;
+    }
+
+    private static class StubHttpClient implements HttpClient {
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public <T> Future<T> executeAsync(final String userAgent, final Map<String, String> headers, final Verb httpVerb,
+                                          final String completeUrl, final String bodyContents,
+                                          final OAuthAsyncRequestCallback<T> callback,
+                                          final OAuthRequestAsync.ResponseConverter<T> converter) {
+            throw new UnsupportedOperationException("no calls are made");
+        }
+    }
+}
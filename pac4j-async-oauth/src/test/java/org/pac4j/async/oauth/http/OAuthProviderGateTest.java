@@ -0,0 +1,252 @@
+package org.pac4j.async.oauth.http;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pac4j.core.exception.TechnicalException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests for the concurrency limit, queue and circuit breaker of the OAuth provider gate, driven by a fake clock
+ */
+public class OAuthProviderGateTest {
+
+    private AtomicLong nanos;
+    private OAuthProviderGate gate;
+    private List<CompletableFuture<String>> startedCalls;
+
+    @Before
+    public void setUp() {
+        nanos = new AtomicLong(0);
+        startedCalls = new ArrayList<>();
+        gate = new OAuthProviderGate();
+        gate.setNanoClock(nanos::get);
+        gate.setMaxConcurrentRequests(1);
+        gate.setMaxQueuedRequests(2);
+        gate.setWindowSize(2);
+        gate.setMinimumCalls(2);
+        gate.setOpenDurationMillis(1000);
+        gate.setHalfOpenProbes(2);
+    }
+
+    @Test
+    public void testCallsBeyondConcurrencyLimitAreQueued() {
+        final CompletableFuture<String> first = gate.execute(call());
+        final CompletableFuture<String> second = gate.execute(call());
+        assertThat(startedCalls.size(), is(1));
+        assertThat(gate.getQueuedRequests(), is(1));
+
+        startedCalls.get(0).complete("first");
+        assertThat(first.join(), is("first"));
+        assertThat(startedCalls.size(), is(2));
+        assertThat(gate.getQueuedRequests(), is(0));
+
+        startedCalls.get(1).complete("second");
+        assertThat(second.join(), is("second"));
+        assertThat(gate.getActiveRequests(), is(0));
+    }
+
+    @Test
+    public void testCallTurnedAwayWhenQueueFull() {
+        gate.execute(call());
+        gate.execute(call());
+        gate.execute(call());
+        final CompletableFuture<String> rejected = gate.execute(call());
+        assertRejected(rejected);
+        assertThat(startedCalls.size(), is(1));
+        assertThat(gate.getQueuedRequests(), is(2));
+    }
+
+    @Test
+    public void testCircuitClosesAfterSuccessfulProbes() {
+        gate.setMaxConcurrentRequests(4);
+        openCircuit();
+
+        assertRejected(gate.execute(call()));
+        assertThat(startedCalls.size(), is(2));
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        final CompletableFuture<String> firstProbe = gate.execute(call());
+        assertThat(gate.getState(), is(OAuthProviderGate.State.HALF_OPEN));
+        final CompletableFuture<String> secondProbe = gate.execute(call());
+        assertRejected(gate.execute(call()));
+        assertThat(startedCalls.size(), is(4));
+
+        startedCalls.get(2).complete("probe");
+        assertThat(gate.getState(), is(OAuthProviderGate.State.HALF_OPEN));
+        startedCalls.get(3).complete("probe");
+        assertThat(firstProbe.join(), is("probe"));
+        assertThat(secondProbe.join(), is("probe"));
+        assertThat(gate.getState(), is(OAuthProviderGate.State.CLOSED));
+
+        gate.execute(call());
+        assertThat(startedCalls.size(), is(5));
+    }
+
+    @Test
+    public void testFailedProbeReopensCircuit() {
+        gate.setMaxConcurrentRequests(4);
+        openCircuit();
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        gate.execute(call());
+        startedCalls.get(2).completeExceptionally(new TechnicalException("still failing"));
+        assertThat(gate.getState(), is(OAuthProviderGate.State.OPEN));
+        assertRejected(gate.execute(call()));
+    }
+
+    @Test
+    public void testSlowCallsOpenCircuit() {
+        gate.setMaxConcurrentRequests(4);
+        gate.setSlowCallDurationMillis(100);
+        gate.execute(call());
+        gate.execute(call());
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+        startedCalls.forEach(started -> started.complete("slow"));
+        assertThat(gate.getState(), is(OAuthProviderGate.State.OPEN));
+    }
+
+    @Test
+    public void testOutcomesNotCountedAsFailuresDoNotOpenCircuit() {
+        gate.setMaxConcurrentRequests(4);
+        gate.<String>execute(call(), (result, failure) -> false);
+        gate.<String>execute(call(), (result, failure) -> false);
+        startedCalls.forEach(started -> started.completeExceptionally(new TechnicalException("invalid request")));
+        assertThat(gate.getState(), is(OAuthProviderGate.State.CLOSED));
+    }
+
+    @Test
+    public void testQueuedCallsTurnedAwayWhenCircuitOpens() {
+        gate.setWindowSize(1);
+        gate.setMinimumCalls(1);
+        gate.execute(call());
+        final CompletableFuture<String> firstQueued = gate.execute(call());
+        final CompletableFuture<String> secondQueued = gate.execute(call());
+
+        startedCalls.get(0).completeExceptionally(new TechnicalException("provider down"));
+        assertThat(gate.getState(), is(OAuthProviderGate.State.OPEN));
+        assertRejected(firstQueued);
+        assertRejected(secondQueued);
+        assertThat(startedCalls.size(), is(1));
+        assertThat(gate.getQueuedRequests(), is(0));
+        assertThat(gate.getActiveRequests(), is(0));
+    }
+
+    @Test
+    public void testQueuedProbeReadmittedOnceCircuitCloses() {
+        gate.setMaxConcurrentRequests(2);
+        gate.setHalfOpenProbes(1);
+        openCircuit();
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        gate.setMaxConcurrentRequests(1);
+        gate.setHalfOpenProbes(2);
+        gate.execute(call());
+        final CompletableFuture<String> queued = gate.execute(call());
+        assertThat(gate.getQueuedRequests(), is(1));
+
+        // The first probe closes the circuit before the second leaves the queue
+        gate.setHalfOpenProbes(1);
+        startedCalls.get(2).complete("probe");
+        assertThat(gate.getState(), is(OAuthProviderGate.State.CLOSED));
+        assertThat(startedCalls.size(), is(4));
+        startedCalls.get(3).complete("after");
+        assertThat(queued.join(), is("after"));
+    }
+
+    @Test
+    public void testCallWaitingTooLongTurnedAwayWhenLeavingQueue() {
+        gate.setMaxQueueWaitMillis(500);
+        gate.execute(call());
+        final CompletableFuture<String> stale = gate.execute(call());
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(400));
+        final CompletableFuture<String> fresh = gate.execute(call());
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+
+        startedCalls.get(0).complete("first");
+        assertRejected(stale);
+        assertThat(fresh.isDone(), is(false));
+        assertThat(startedCalls.size(), is(2));
+        assertThat(gate.getActiveRequests(), is(1));
+    }
+
+    @Test(timeout = 2000)
+    public void testCallWaitingTooLongTurnedAwayByTimer() {
+        gate.setMaxQueueWaitMillis(50);
+        gate.execute(call());
+        final CompletableFuture<String> queued = gate.execute(call());
+        assertThat(queued.handle((v, t) -> OAuthProviderGate.isRejection(t)).join(), is(true));
+        assertThat(gate.getQueuedRequests(), is(0));
+
+        startedCalls.get(0).complete("first");
+        assertThat(startedCalls.size(), is(1));
+        assertThat(gate.getActiveRequests(), is(0));
+    }
+
+    @Test
+    public void testQueuedProbeWaitingTooLongGivesBackItsPlace() {
+        gate.setMaxConcurrentRequests(4);
+        openCircuit();
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        gate.setMaxConcurrentRequests(1);
+        gate.setMaxQueueWaitMillis(500);
+        gate.execute(call());
+        final CompletableFuture<String> stale = gate.execute(call());
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(600));
+
+        startedCalls.get(2).complete("probe");
+        assertRejected(stale);
+        assertThat(gate.getState(), is(OAuthProviderGate.State.HALF_OPEN));
+
+        final CompletableFuture<String> probe = gate.execute(call());
+        assertThat(startedCalls.size(), is(4));
+        startedCalls.get(3).complete("probe");
+        assertThat(probe.join(), is("probe"));
+        assertThat(gate.getState(), is(OAuthProviderGate.State.CLOSED));
+    }
+
+    @Test(timeout = 2000)
+    public void testQueuedProbeTurnedAwayByTimerGivesBackItsPlace() {
+        gate.setMaxConcurrentRequests(4);
+        openCircuit();
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        gate.setMaxConcurrentRequests(1);
+        gate.setMaxQueueWaitMillis(50);
+        gate.execute(call());
+        final CompletableFuture<String> queued = gate.execute(call());
+        assertThat(queued.handle((v, t) -> OAuthProviderGate.isRejection(t)).join(), is(true));
+
+        startedCalls.get(2).complete("probe");
+        final CompletableFuture<String> probe = gate.execute(call());
+        assertThat(startedCalls.size(), is(4));
+        startedCalls.get(3).complete("probe");
+        assertThat(probe.join(), is("probe"));
+        assertThat(gate.getState(), is(OAuthProviderGate.State.CLOSED));
+    }
+
+    private void openCircuit() {
+        gate.execute(call());
+        gate.execute(call());
+        startedCalls.forEach(started -> started.completeExceptionally(new TechnicalException("provider down")));
+        assertThat(gate.getState(), is(OAuthProviderGate.State.OPEN));
+    }
+
+    private Supplier<CompletableFuture<String>> call() {
+        return () -> {
+            final CompletableFuture<String> started = new CompletableFuture<>();
+            startedCalls.add(started);
+            return started;
+        };
+    }
+
+    private static void assertRejected(final CompletableFuture<?> future) {
+        assertThat(future.isDone(), is(true));
+        assertThat(future.handle((v, t) -> OAuthProviderGate.isRejection(t)).join(), is(true));
+    }
+}
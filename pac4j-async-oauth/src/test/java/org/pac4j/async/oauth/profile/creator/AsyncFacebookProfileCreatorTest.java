@@ -0,0 +1,187 @@
+package org.pac4j.async.oauth.profile.creator;
+
+import com.github.scribejava.apis.FacebookApi;
+import com.github.scribejava.core.model.HttpClient;
+import com.github.scribejava.core.model.OAuth2AccessToken;
+import com.github.scribejava.core.model.OAuthAsyncRequestCallback;
+import com.github.scribejava.core.model.OAuthRequestAsync;
+import com.github.scribejava.core.model.Response;
+import com.github.scribejava.core.model.Verb;
+import org.junit.Before;
+import org.junit.Test;
+import org.pac4j.async.oauth.config.FacebookConfiguration;
+import org.pac4j.async.oauth.profile.definition.FacebookProfileDefinition;
+import org.pac4j.async.oauth.profile.url.FacebookProfileUrlCalculator;
+import org.pac4j.oauth.profile.facebook.FacebookProfile;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests for the Facebook profile creator's exchange for a long-lived token, with the calls to Facebook made to a stub
+ * HTTP client which holds each one until the test responds to it
+ */
+public class AsyncFacebookProfileCreatorTest {
+
+    private static final String PROFILE_URL = "https://graph.facebook.com/v2.8/me";
+    private static final String EXCHANGE_URL = "https://graph.facebook.com/v2.8/oauth/access_token";
+    private static final String SHORT_LIVED_TOKEN = "shortLivedToken";
+    private static final String LONG_LIVED_TOKEN = "longLivedToken";
+    private static final String PROFILE_BODY = "{\"id\":\"12345\",\"name\":\"Jane Doe\"}";
+
+    private final List<HeldCall> calls = new ArrayList<>();
+    private FacebookConfiguration configuration;
+
+    @Before
+    public void setUp() {
+        configuration = new FacebookConfiguration();
+        configuration.setApi(FacebookApi.instance());
+        configuration.setKey("key");
+        configuration.setSecret("secret");
+        configuration.setCallbackUrl("http://localhost:8080/callback");
+        configuration.setUrlResolver((url, context) -> url);
+        configuration.setProfileDefinition(new FacebookProfileDefinition());
+        configuration.setRequiresExtendedToken(true);
+        configuration.setHttpClient(new HoldingHttpClient());
+    }
+
+    @Test
+    public void testProfileAndExchangeRequestedBeforeEitherResponds() throws Exception {
+        final CompletableFuture<FacebookProfile> profileFuture = retrieveProfile();
+
+        assertThat(calls.size(), is(2));
+        call(PROFILE_URL);
+        call(EXCHANGE_URL);
+        assertThat(profileFuture.isDone(), is(false));
+    }
+
+    @Test
+    public void testExchangeNotRequestedUnlessRequired() throws Exception {
+        configuration.setRequiresExtendedToken(false);
+        final CompletableFuture<FacebookProfile> profileFuture = retrieveProfile();
+
+        assertThat(calls.size(), is(1));
+        call(PROFILE_URL).respond(200, PROFILE_BODY);
+        assertThat(await(profileFuture).getAccessToken(), is(SHORT_LIVED_TOKEN));
+    }
+
+    @Test
+    public void testSuccessfulExchangeReplacesToken() throws Exception {
+        final CompletableFuture<FacebookProfile> profileFuture = retrieveProfile();
+
+        call(EXCHANGE_URL).respond(200, "{\"access_token\":\"" + LONG_LIVED_TOKEN + "\",\"token_type\":\"bearer\"}");
+        call(PROFILE_URL).respond(200, PROFILE_BODY);
+
+        final FacebookProfile profile = await(profileFuture);
+        assertThat(profile.getId(), is("12345"));
+        assertThat(profile.getAccessToken(), is(LONG_LIVED_TOKEN));
+    }
+
+    @Test
+    public void testFailedExchangeKeepsShortLivedToken() throws Exception {
+        final CompletableFuture<FacebookProfile> profileFuture = retrieveProfile();
+
+        call(PROFILE_URL).respond(200, PROFILE_BODY);
+        call(EXCHANGE_URL).fail(new IOException("connection reset"));
+
+        final FacebookProfile profile = await(profileFuture);
+        assertThat(profile.getId(), is("12345"));
+        assertThat(profile.getAccessToken(), is(SHORT_LIVED_TOKEN));
+    }
+
+    @Test
+    public void testRefusedExchangeKeepsShortLivedToken() throws Exception {
+        final CompletableFuture<FacebookProfile> profileFuture = retrieveProfile();
+
+        call(EXCHANGE_URL).respond(400, "{\"error\":{\"message\":\"Invalid token\"}}");
+        call(PROFILE_URL).respond(200, PROFILE_BODY);
+
+        final FacebookProfile profile = await(profileFuture);
+        assertThat(profile.getId(), is("12345"));
+        assertThat(profile.getAccessToken(), is(SHORT_LIVED_TOKEN));
+    }
+
+    @Test
+    public void testExchangeUrlCarriesShortLivedToken() throws Exception {
+        retrieveProfile();
+
+        assertThat(call(EXCHANGE_URL).url, is(EXCHANGE_URL + "?grant_type=fb_exchange_token"
+                + "&client_id=key&client_secret=secret&fb_exchange_token=" + SHORT_LIVED_TOKEN));
+    }
+
+    @Test
+    public void testExchangeUrlCarriesAppSecretProof() throws Exception {
+        configuration.setUseAppsecretProof(true);
+        retrieveProfile();
+
+        final String urlWithCredentials = EXCHANGE_URL + "?grant_type=fb_exchange_token&client_id=key&client_secret=secret";
+        final String urlWithProof = new FacebookProfileUrlCalculator().computeAppSecretProof(urlWithCredentials,
+                new OAuth2AccessToken(SHORT_LIVED_TOKEN), configuration);
+        assertThat(urlWithProof, startsWith(urlWithCredentials + "&appsecret_proof="));
+        assertThat(call(EXCHANGE_URL).url, is(urlWithProof + "&fb_exchange_token=" + SHORT_LIVED_TOKEN));
+    }
+
+    private CompletableFuture<FacebookProfile> retrieveProfile() {
+        final AsyncFacebookProfileCreator profileCreator = new AsyncFacebookProfileCreator(configuration);
+        profileCreator.init(null);
+        return profileCreator.retrieveUserProfileFromToken(new OAuth2AccessToken(SHORT_LIVED_TOKEN));
+    }
+
+    private HeldCall call(final String urlPrefix) {
+        return calls.stream()
+                .filter(call -> call.url.startsWith(urlPrefix))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No call made to " + urlPrefix));
+    }
+
+    private static <T> T await(final CompletableFuture<T> future) throws Exception {
+        return future.get(5, TimeUnit.SECONDS);
+    }
+
+    private static class HeldCall {
+
+        private final String url;
+        private final OAuthAsyncRequestCallback<Response> callback;
+
+        private HeldCall(final String url, final OAuthAsyncRequestCallback<Response> callback) {
+            this.url = url;
+            this.callback = callback;
+        }
+
+        private void respond(final int code, final String body) {
+            callback.onCompleted(new Response(code, null, Collections.emptyMap(), body, null));
+        }
+
+        private void fail(final Throwable failure) {
+            callback.onThrowable(failure);
+        }
+    }
+
+    private class HoldingHttpClient implements HttpClient {
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> Future<T> executeAsync(final String userAgent, final Map<String, String> headers, final Verb httpVerb,
+                                          final String completeUrl, final String bodyContents,
+                                          final OAuthAsyncRequestCallback<T> callback,
+                                          final OAuthRequestAsync.ResponseConverter<T> converter) {
+            // The provider gate always asks for the raw response, and converts it itself
+            calls.add(new HeldCall(completeUrl, (OAuthAsyncRequestCallback<Response>) callback));
+            return new CompletableFuture<>();
+        }
+    }
+}
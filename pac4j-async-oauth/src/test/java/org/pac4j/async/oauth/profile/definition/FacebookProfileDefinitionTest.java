@@ -0,0 +1,168 @@
+package org.pac4j.async.oauth.profile.definition;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.Test;
+import org.pac4j.core.exception.HttpCommunicationException;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.oauth.profile.JsonHelper;
+import org.pac4j.oauth.profile.facebook.FacebookProfile;
+import org.pac4j.oauth.profile.facebook.FacebookRelationshipStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests that the Facebook profile extracted as the response is read is the same as the one extracted from the whole
+ * response
+ */
+public class FacebookProfileDefinitionTest {
+
+    private static final String GRAPH_RESPONSE = "{"
+            + "\"id\":\"1234567890\","
+            + "\"name\":\"Jane Doe\","
+            + "\"middle_name\":\"Q\","
+            + "\"last_name\":\"Doe\","
+            + "\"timezone\":1,"
+            + "\"verified\":true,"
+            + "\"link\":\"https://www.facebook.com/jane.doe\","
+            + "\"updated_time\":\"2017-11-03T10:15:30+0000\","
+            + "\"birthday\":\"04/21/1990\","
+            + "\"relationship_status\":\"Married\","
+            + "\"languages\":[{\"id\":\"1\",\"name\":\"English\"},{\"id\":\"2\",\"name\":\"French\"}],"
+            + "\"education\":[{\"school\":{\"id\":\"3\",\"name\":\"High School\"},\"type\":\"High School\","
+            + "\"year\":{\"id\":\"4\",\"name\":\"2008\"}}],"
+            + "\"hometown\":{\"id\":\"5\",\"name\":\"Paris, France\"},"
+            + "\"interested_in\":[\"male\"],"
+            + "\"location\":{\"id\":\"6\",\"name\":\"London, United Kingdom\"},"
+            + "\"work\":[{\"employer\":{\"id\":\"7\",\"name\":\"Acme\"},\"start_date\":\"2015-01\"}],"
+            + "\"friends\":{\"data\":[{\"id\":\"8\",\"name\":\"John\"},{\"id\":\"9\",\"name\":\"Mary\"}],"
+            + "\"paging\":{\"next\":\"https://graph.facebook.com/next\"},\"summary\":{\"total_count\":2}},"
+            + "\"movies\":{\"summary\":{\"total_count\":0}},"
+            + "\"likes\":{\"paging\":{\"cursors\":{\"before\":\"a\",\"after\":\"b\"}},"
+            + "\"data\":[{\"id\":\"10\",\"name\":\"Some page\",\"category\":\"Community\","
+            + "\"created_time\":\"2016-05-01T00:00:00+0000\"}]},"
+            + "\"music.listens\":{\"data\":[{\"id\":\"11\",\"message\":\"listened\"}]},"
+            + "\"picture\":{\"data\":{\"is_silhouette\":false,\"url\":\"https://graph.facebook.com/picture\"}},"
+            + "\"age_range\":{\"min\":21},"
+            + "\"unknown_list\":[1,[2,{\"name\":\"nested\"}]],"
+            + "\"unknown_scalar\":\"value\""
+            + "}";
+
+    private final FacebookProfileDefinition definition = new FacebookProfileDefinition();
+
+    @Test
+    public void testGraphResponseExtractedIdentically() {
+        final FacebookProfile profile = assertSameProfile(GRAPH_RESPONSE);
+
+        assertThat(profile.getId(), is("1234567890"));
+        assertThat(profile.getDisplayName(), is("Jane Doe"));
+        assertThat(profile.getTimezone(), is(1));
+        assertThat(profile.getVerified(), is(true));
+        assertThat(profile.getRelationshipStatus(), is(FacebookRelationshipStatus.MARRIED));
+        assertThat(profile.getLanguages().size(), is(2));
+        assertThat(profile.getHometown().getName(), is("Paris, France"));
+        assertThat(profile.getInterestedIn().get(0), is("male"));
+        assertThat(profile.getFriends().size(), is(2));
+        assertThat(profile.getLikes().get(0).getName(), is("Some page"));
+        assertThat(profile.getMusicListens().size(), is(1));
+        assertThat(profile.getPicture().getUrl(), is("https://graph.facebook.com/picture"));
+        // paged without data
+        assertThat(profile.getMovies(), is(nullValue()));
+        assertThat(profile.getAttribute("age_range"), is(nullValue()));
+        assertThat(profile.getAttribute("unknown_scalar"), is(nullValue()));
+    }
+
+    @Test
+    public void testValuesOfTheWrongShapeLeftOut() {
+        final FacebookProfile profile = assertSameProfile("{\"id\":42,"
+                + "\"hometown\":[{\"id\":\"5\"}],"
+                + "\"languages\":{\"id\":\"1\"},"
+                + "\"interested_in\":\"[\\\"female\\\"]\","
+                + "\"location\":12,"
+                + "\"friends\":[{\"id\":\"8\"}],"
+                + "\"books\":\"none\","
+                + "\"music\":{\"data\":{\"id\":\"9\"}},"
+                + "\"name\":null,"
+                + "\"work\":[{\"employer\":{\"id\":\"7\",\"name\":[\"Acme\",{\"x\":[1]}]},\"start_date\":\"2015-01\"}],"
+                + "\"education\":[{\"school\":{\"id\":\"3\"}},{\"year\":7}],"
+                + "\"last_name\":\"Doe\"}");
+
+        assertThat(profile.getId(), is("42"));
+        assertThat(profile.getHometown(), is(nullValue()));
+        assertThat(profile.getWork(), is(nullValue()));
+        assertThat(profile.getAttribute(FacebookProfileDefinition.LAST_NAME), is("Doe"));
+    }
+
+    @Test
+    public void testMalformedResponsesGiveEmptyProfiles() {
+        assertEmpty(assertSameProfile(""));
+        assertEmpty(assertSameProfile("not json"));
+        assertEmpty(assertSameProfile("[{\"id\":\"1\"},"));
+        assertEmpty(assertSameProfile("{\"id\":\"1\",\"name\":\"Jane\",\"last_name\":"));
+        assertEmpty(assertSameProfile("{\"id\":\"1\",\"name\":\"Jane\" \"last_name\":\"Doe\"}"));
+    }
+
+    @Test
+    public void testResponsesWithoutIdRefused() {
+        assertBothRefused("{\"name\":\"Jane\"}");
+        assertBothRefused("{\"id\":null,\"name\":\"Jane\"}");
+        assertBothRefused("[{\"id\":\"1\"}]");
+        assertBothRefused("null");
+    }
+
+    @Test(expected = HttpCommunicationException.class)
+    public void testReadFailureIsCommunicationError() {
+        final byte[] start = "{\"id\":\"1\",\"name\":".getBytes(StandardCharsets.UTF_8);
+        definition.extractUserProfile(new InputStream() {
+            private int read = 0;
+
+            @Override
+            public int read() throws IOException {
+                if (read == start.length) {
+                    throw new IOException("connection reset");
+                }
+                return start[read++];
+            }
+        });
+    }
+
+    private FacebookProfile assertSameProfile(final String body) {
+        final FacebookProfile fromString = definition.extractUserProfile(body);
+        final FacebookProfile fromStream = definition.extractUserProfile(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        assertThat(fromStream.getId(), is(fromString.getId()));
+        assertThat(asJson(fromStream), is(asJson(fromString)));
+        return fromStream;
+    }
+
+    private void assertBothRefused(final String body) {
+        assertRefused(() -> definition.extractUserProfile(body));
+        assertRefused(() -> definition.extractUserProfile(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private static void assertRefused(final Runnable extraction) {
+        try {
+            extraction.run();
+            fail("Profile without id extracted");
+        } catch (final TechnicalException e) {
+            assertThat(e.getMessage(), is("id cannot be null"));
+        }
+    }
+
+    // The attribute values have no equals of their own, so are compared through their json
+    private static JsonNode asJson(final FacebookProfile profile) {
+        return JsonHelper.getMapper().valueToTree(profile.getAttributes());
+    }
+
+    private static void assertEmpty(final FacebookProfile profile) {
+        assertThat(profile.getId(), is(nullValue()));
+        assertThat(profile.getAttributes().isEmpty(), is(true));
+    }
+}
@@ -0,0 +1,100 @@
+package org.pac4j.async.vertx;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Verticle;
+import io.vertx.core.Vertx;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import org.pac4j.async.core.config.AsyncConfig;
+import org.pac4j.async.vertx.context.VertxAsyncWebContext;
+import org.pac4j.core.profile.CommonProfile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static org.pac4j.core.util.CommonHelper.assertNotNull;
+import static org.pac4j.core.util.CommonHelper.assertTrue;
+
+/**
+ * Deploys several instances of a verticle which serves pac4j secured routes, all sharing one configuration. Each
+ * instance is given its own event loop by vert.x, and HTTP servers listening on the same port from several instances
+ * share incoming connections between them, so the pac4j work for a request stays on the event loop of the instance
+ * which accepted it.
+ *
+ * The configuration is shared rather than copied, so it must be fully set up before deployment and not changed
+ * afterwards. The security, callback and logout logic, the clients and the authorizers are all used concurrently from
+ * every instance's event loop.
+ */
+public final class VertxAsyncDeployment {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VertxAsyncDeployment.class);
+
+    private VertxAsyncDeployment() {
+    }
+
+    /**
+     * Deploy the given number of instances, one per event loop up to the size of the event loop pool.
+     *
+     * @see #deploy(Vertx, AsyncConfig, Function, DeploymentOptions)
+     */
+    public static CompletableFuture<List<String>> deploy(final Vertx vertx,
+                                                         final AsyncConfig<Void, CommonProfile, VertxAsyncWebContext> config,
+                                                         final Function<AsyncConfig<Void, CommonProfile, VertxAsyncWebContext>, Verticle> verticleFactory,
+                                                         final int instances) {
+        return deploy(vertx, config, verticleFactory, new DeploymentOptions().setInstances(instances));
+    }
+
+    /**
+     * Deploy as many instances as the options ask for, each built by the factory over the same configuration. If any
+     * instance fails to deploy, those which did deploy are undeployed again.
+     *
+     * @param vertx the vert.x instance
+     * @param config the configuration shared by every instance
+     * @param verticleFactory builds one verticle instance for the configuration
+     * @param options the deployment options, including the number of instances
+     * @return the deployment ids of the instances, in the order they were deployed
+     */
+    public static CompletableFuture<List<String>> deploy(final Vertx vertx,
+                                                         final AsyncConfig<Void, CommonProfile, VertxAsyncWebContext> config,
+                                                         final Function<AsyncConfig<Void, CommonProfile, VertxAsyncWebContext>, Verticle> verticleFactory,
+                                                         final DeploymentOptions options) {
+        assertNotNull("vertx", vertx);
+        assertNotNull("config", config);
+        assertNotNull("verticleFactory", verticleFactory);
+        assertNotNull("options", options);
+        assertTrue(options.getInstances() > 0, "instances must be greater than zero");
+
+        // vert.x can only deploy several instances from a verticle name, so each instance is deployed on its own
+        final DeploymentOptions instanceOptions = new DeploymentOptions(options).setInstances(1);
+        final List<CompletableFuture<String>> deployments = new ArrayList<>(options.getInstances());
+        for (int i = 0; i < options.getInstances(); i++) {
+            final CompletableFuture<String> deployment = new CompletableFuture<>();
+            vertx.deployVerticle(verticleFactory.apply(config), instanceOptions, ar -> {
+                if (ar.succeeded()) {
+                    deployment.complete(ar.result());
+                } else {
+                    deployment.completeExceptionally(ar.cause());
+                }
+            });
+            deployments.add(deployment);
+        }
+
+        final CompletableFuture<List<String>> result = new CompletableFuture<>();
+        CompletableFuture.allOf(deployments.toArray(new CompletableFuture[0])).whenComplete((v, failure) -> {
+            if (failure == null) {
+                final List<String> ids = new ArrayList<>(deployments.size());
+                deployments.forEach(deployment -> ids.add(deployment.join()));
+                result.complete(ids);
+            } else {
+                LOG.error("Failed to deploy all instances, undeploying those which did deploy", failure);
+                deployments.stream()
+                        .filter(deployment -> !deployment.isCompletedExceptionally())
+                        .forEach(deployment -> vertx.undeploy(deployment.join()));
+                result.completeExceptionally(failure);
+            }
+        });
+        return result;
+    }
+}
@@ -2,9 +2,11 @@ package org.pac4j.async.vertx;
 
 import io.vertx.core.Context;
 import io.vertx.core.Vertx;
+import io.vertx.ext.web.RoutingContext;
 import org.pac4j.async.core.AsynchronousComputationAdapter;
 import org.pac4j.async.core.execution.context.AsyncPac4jExecutionContext;
 import org.pac4j.async.vertx.execution.context.VertxAsyncPac4jExecutionContext;
+import org.pac4j.core.exception.TechnicalException;
 
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
@@ -13,6 +15,9 @@ import java.util.function.Supplier;
  *
  */
 public class VertxAsynchronousComputationAdapter implements AsynchronousComputationAdapter {
+
+    private static final String CONTEXT_KEY = VertxAsynchronousComputationAdapter.class.getName();
+
     private final Vertx vertx;
     private final VertxAsyncPac4jExecutionContext executionContext;
 
@@ -21,6 +26,42 @@ public class VertxAsynchronousComputationAdapter implements AsynchronousComputat
         this.executionContext = new VertxAsyncPac4jExecutionContext(context);
     }
 
+    /**
+     * The adapter for the given context, created on first use and then held in the context's own data, so that there
+     * is one per context however many requests it handles.
+     *
+     * @param vertx the vert.x instance
+     * @param context the context on which pac4j work should run
+     * @return the adapter for that context
+     */
+    public static VertxAsynchronousComputationAdapter forContext(final Vertx vertx, final Context context) {
+        VertxAsynchronousComputationAdapter adapter = context.get(CONTEXT_KEY);
+        if (adapter == null) {
+            adapter = new VertxAsynchronousComputationAdapter(vertx, context);
+            context.put(CONTEXT_KEY, adapter);
+        }
+        return adapter;
+    }
+
+    /**
+     * The adapter for the context handling a request, so that pac4j work for the request stays on the event loop which
+     * received it, rather than on whichever context a handler happened to be created on. Must be called on the
+     * context handling the request, as route handlers are.
+     *
+     * @param routingContext the routing context of the request
+     * @return the adapter for the request's context
+     * @throws TechnicalException if not called on a vert.x context
+     */
+    public static VertxAsynchronousComputationAdapter forRequest(final RoutingContext routingContext) {
+        // Not getOrCreateContext, which off a vert.x thread would quietly create a new context unrelated to the request
+        final Context context = Vertx.currentContext();
+        if (context == null) {
+            throw new TechnicalException("Requests must be handled on a vert.x context, but " +
+                    Thread.currentThread().getName() + " has none");
+        }
+        return forContext(routingContext.vertx(), context);
+    }
+
     @Override
     public <T> CompletableFuture<T> fromBlocking(Supplier<T> syncComputation) {
 
@@ -7,13 +7,16 @@ import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.auth.AbstractUser;
 import io.vertx.ext.auth.AuthProvider;
+import org.pac4j.async.vertx.core.BinaryProfileCodec;
 import org.pac4j.async.vertx.core.DefaultJsonConverter;
 import org.pac4j.core.profile.CommonProfile;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Predicate;
 
 import static java.util.stream.Collectors.toMap;
 
@@ -24,6 +27,7 @@ import static java.util.stream.Collectors.toMap;
 public class Pac4jUser extends AbstractUser {
 
     private final LinkedHashMap<String, CommonProfile> profiles = new LinkedHashMap<>();
+    // Built from the profiles on first use, and dropped whenever they change
     private JsonObject principal;
 
     public Pac4jUser() {
@@ -45,6 +49,9 @@ public class Pac4jUser extends AbstractUser {
 
     @Override
     public JsonObject principal() {
+        if (principal == null) {
+            principal = buildPrincipal();
+        }
         return principal;
     }
 
@@ -56,42 +63,27 @@ public class Pac4jUser extends AbstractUser {
     public void writeToBuffer(Buffer buff) {
         super.writeToBuffer(buff);
         // Now write the remainder of our stuff to the buffer;
-        final JsonObject profilesAsJson = new JsonObject();
-        profiles.forEach((name, profile) -> {
-            final JsonObject profileAsJson = (JsonObject) DefaultJsonConverter.getInstance().encodeObject(profile);
-            profilesAsJson.put(name, profileAsJson);
-        });
-
-        final String json = profilesAsJson.toString();
-        byte[] jsonBytes = json.getBytes(StandardCharsets.UTF_8);
-        buff.appendInt(jsonBytes.length)
-                .appendBytes(jsonBytes);
-
+        BinaryProfileCodec.getInstance().encode(profiles, buff);
     }
 
     @Override
     public int readFromBuffer(int pos, Buffer buffer) {
         int posLocal = super.readFromBuffer(pos, buffer);
-        final int jsonByteCount = buffer.getInt(posLocal);
-        posLocal += 4;
-        final byte[] jsonBytes = buffer.getBytes(posLocal, posLocal + jsonByteCount);
-        posLocal += jsonByteCount;
-
-        final String json = new String(jsonBytes, StandardCharsets.UTF_8);
-        final JsonObject profiles = new JsonObject(json);
-
-        final Map<String, CommonProfile> decodedUserProfiles = profiles.stream()
-                .filter(e -> e.getValue() instanceof JsonObject)
-                .map(e -> new MappedPair<>(e.getKey(),
-                        (CommonProfile) DefaultJsonConverter.getInstance().decodeObject(e.getValue())))
-                .collect(toMap(e -> e.key, e -> e.value));
-
-        setUserProfiles(decodedUserProfiles);
-        return posLocal;
+        if (BinaryProfileCodec.isBinaryEncoded(buffer, posLocal)) {
+            final Map<String, CommonProfile> decodedUserProfiles = new LinkedHashMap<>();
+            posLocal = BinaryProfileCodec.getInstance().decode(buffer, posLocal, decodedUserProfiles);
+            setUserProfiles(decodedUserProfiles);
+            return posLocal;
+        }
+        return readJsonProfiles(posLocal, buffer);
     }
 
+    /**
+     * @return read-only view of the user's profiles by client name; they are changed through the user's own methods,
+     * so that its principal is kept in step
+     */
     public Map<String, CommonProfile> pac4jUserProfiles() {
-        return profiles;
+        return Collections.unmodifiableMap(profiles);
     }
 
     public void setUserProfile(final String clientName, final CommonProfile profile, final boolean multiProfile) {
@@ -99,7 +91,20 @@ public class Pac4jUser extends AbstractUser {
             profiles.clear();
         }
         profiles.put(clientName, profile);
-        updatePrincipal();
+        invalidatePrincipal();
+    }
+
+    /**
+     * Keep only the profiles matching a condition.
+     *
+     * @param condition whether to keep a profile
+     * @return whether the user has any profiles left
+     */
+    public boolean retainUserProfiles(final Predicate<CommonProfile> condition) {
+        if (profiles.values().removeIf(condition.negate())) {
+            invalidatePrincipal();
+        }
+        return !profiles.isEmpty();
     }
 
     private void setUserProfiles(final Map<String, CommonProfile> userProfiles) {
@@ -107,15 +112,44 @@ public class Pac4jUser extends AbstractUser {
         Objects.requireNonNull(userProfiles);
         profiles.clear();
         profiles.putAll(userProfiles);
-        updatePrincipal();
+        invalidatePrincipal();
+    }
+
+    /**
+     * Read profiles written as a length prefixed JSON object, as they were before the binary encoding was introduced,
+     * so that sessions written by older cluster members can still be read.
+     */
+    private int readJsonProfiles(int pos, Buffer buffer) {
+        int posLocal = pos;
+        final int jsonByteCount = buffer.getInt(posLocal);
+        posLocal += 4;
+        final byte[] jsonBytes = buffer.getBytes(posLocal, posLocal + jsonByteCount);
+        posLocal += jsonByteCount;
+
+        final String json = new String(jsonBytes, StandardCharsets.UTF_8);
+        final JsonObject profiles = new JsonObject(json);
+
+        final Map<String, CommonProfile> decodedUserProfiles = profiles.stream()
+                .filter(e -> e.getValue() instanceof JsonObject)
+                .map(e -> new MappedPair<>(e.getKey(),
+                        (CommonProfile) DefaultJsonConverter.getInstance().decodeObject(e.getValue())))
+                .collect(toMap(e -> e.key, e -> e.value));
+
+        setUserProfiles(decodedUserProfiles);
+        return posLocal;
     }
 
     /**
-     * Update the principal, to be called on any modification of the profiles map internally.
+     * Drop the principal so that it is rebuilt when next asked for, to be called on any modification of the profiles
+     * map internally. Most requests never ask for the principal, so it isn't worth building it eagerly.
      */
-    private void updatePrincipal() {
+    private void invalidatePrincipal() {
+        principal = null;
+    }
+
+    private JsonObject buildPrincipal() {
 
-        principal = new JsonObject();
+        final JsonObject principal = new JsonObject();
         profiles.forEach((name, profile) -> {
             final JsonObject jsonProfile = new JsonObject();
             profile.getAttributes()
@@ -123,6 +157,7 @@ public class Pac4jUser extends AbstractUser {
                             jsonProfile.put(attributeName, attributeValue.toString()));
             principal.put(name, jsonProfile);
         });
+        return principal;
     }
 
     private static class MappedPair<T, U> {
@@ -1,10 +1,9 @@
 package org.pac4j.async.vertx.context;
 
-import io.vertx.core.http.HttpServerRequest;
-import io.vertx.core.json.JsonArray;
-import io.vertx.core.json.JsonObject;
+import io.vertx.core.MultiMap;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.Session;
+import io.vertx.ext.web.sstore.SessionStore;
 import org.pac4j.async.core.AsynchronousComputationAdapter;
 import org.pac4j.async.core.context.AsyncWebContext;
 import org.pac4j.async.core.execution.context.AsyncPac4jExecutionContext;
@@ -27,62 +26,32 @@ public class VertxAsyncWebContext implements AsyncWebContext {
 
     final RoutingContext routingContext;
     final VertxAsynchronousComputationAdapter computationAdapter;
-    private final String method;
-    private final String serverName;
-    private final int serverPort;
-    private final String fullUrl;
-    private final String scheme;
-    private final String remoteAddress;
-    private final JsonObject headers;
-    private final JsonObject parameters;
-    private final Map<String, String[]> mapParameters;
-    private final AsyncSessionStore sessionStore;
+    // The vert.x session store behind the session handler, if sessions are to be trackable
+    private final SessionStore vertxSessionStore;
+    // Request details are computed when first asked for, as most are never needed on a given request. Computing any
+    // of them twice is harmless, so the memoised values are not guarded
+    private volatile String fullUrl;
+    private volatile RequestUrl requestUrl;
+    private volatile String remoteAddress;
+    private volatile Map<String, String[]> mapParameters;
+    private volatile List<Cookie> requestCookies;
+    private volatile AsyncSessionStore sessionStore;
 
     private boolean contentHasBeenWritten = false; // Need to set chunked before first write of any content
 
     public VertxAsyncWebContext(final RoutingContext routingContext,
                                 final VertxAsynchronousComputationAdapter computationAdapter) {
+        this(routingContext, computationAdapter, null);
+    }
+
+    public VertxAsyncWebContext(final RoutingContext routingContext,
+                                final VertxAsynchronousComputationAdapter computationAdapter,
+                                final SessionStore vertxSessionStore) {
         Objects.requireNonNull(routingContext);
         Objects.requireNonNull(computationAdapter);
         this.routingContext = routingContext;
         this.computationAdapter = computationAdapter;
-        this.sessionStore = new VertxAsyncSessionStore(routingContext.session());
-
-        final HttpServerRequest request = routingContext.request();
-        this.method = request.method().toString();
-        this.fullUrl = request.absoluteURI();
-        URI uri;
-        try {
-            uri = new URI(fullUrl);
-        } catch (URISyntaxException e) {
-            e.printStackTrace();
-            throw new InvalidParameterException("Request to invalid URL " + fullUrl + " while constructing VertxWebContext");
-        }
-        this.scheme = uri.getScheme();
-        this.serverName = uri.getHost();
-        this.serverPort = (uri.getPort() != -1) ? uri.getPort() : scheme.equals("http") ? 80 : 443;
-        this.remoteAddress = request.remoteAddress().toString();
-
-        headers = new JsonObject();
-        for (String name : request.headers().names()) {
-            headers.put(name, request.headers().get(name));
-        }
-
-        parameters = new JsonObject();
-        for (String name : request.params().names()) {
-            parameters.put(name, new JsonArray(Arrays.asList(request.params().getAll(name).toArray())));
-        }
-
-        mapParameters = new HashMap<>();
-        for (String name : parameters.fieldNames()) {
-            JsonArray params = parameters.getJsonArray(name);
-            String[] values = new String[params.size()];
-            int i = 0;
-            for (Object o : params) {
-                values[i++] = (String) o;
-            }
-            mapParameters.put(name, values);
-        }
+        this.vertxSessionStore = vertxSessionStore;
     }
 
     @Override
@@ -105,16 +74,21 @@ public class VertxAsyncWebContext implements AsyncWebContext {
 
     @Override
     public String getRequestParameter(String name) {
-        JsonArray values = parameters.getJsonArray(name);
-        if (values != null && values.size() > 0) {
-            return values.getString(0);
-        }
-        return null;
+        return routingContext.request().params().get(name);
     }
 
     @Override
     public Map<String, String[]> getRequestParameters() {
-        return mapParameters;
+        Map<String, String[]> parameters = mapParameters;
+        if (parameters == null) {
+            final MultiMap params = routingContext.request().params();
+            parameters = new HashMap<>();
+            for (String name : params.names()) {
+                parameters.put(name, params.getAll(name).toArray(new String[0]));
+            }
+            mapParameters = parameters;
+        }
+        return parameters;
     }
 
     @Override
@@ -129,17 +103,22 @@ public class VertxAsyncWebContext implements AsyncWebContext {
 
     @Override
     public String getRequestHeader(String name) {
-        return headers.getString(name);
+        return routingContext.request().getHeader(name);
     }
 
     @Override
     public String getRequestMethod() {
-        return method;
+        return routingContext.request().method().name();
     }
 
     @Override
     public String getRemoteAddr() {
-        return remoteAddress;
+        String address = remoteAddress;
+        if (address == null) {
+            address = routingContext.request().remoteAddress().toString();
+            remoteAddress = address;
+        }
+        return address;
     }
 
     @Override
@@ -176,17 +155,17 @@ public class VertxAsyncWebContext implements AsyncWebContext {
 
     @Override
     public String getServerName() {
-        return serverName;
+        return requestUrl().host;
     }
 
     @Override
     public int getServerPort() {
-        return serverPort;
+        return requestUrl().port;
     }
 
     @Override
     public String getScheme() {
-        return scheme;
+        return requestUrl().scheme;
     }
 
     @Override
@@ -196,22 +175,44 @@ public class VertxAsyncWebContext implements AsyncWebContext {
 
     @Override
     public String getFullRequestURL() {
-        return fullUrl;
+        String url = fullUrl;
+        if (url == null) {
+            url = routingContext.request().absoluteURI();
+            fullUrl = url;
+        }
+        return url;
     }
 
     @Override
     public Collection<Cookie> getRequestCookies() {
-        return routingContext.cookies().stream().map(cookie -> {
-            final Cookie p4jCookie = new Cookie(cookie.getName(), cookie.getValue());
-            p4jCookie.setDomain(cookie.getDomain());
-            p4jCookie.setPath(cookie.getPath());
-            return p4jCookie;
-        }).collect(Collectors.toList());
+        List<Cookie> cookies = requestCookies;
+        if (cookies == null) {
+            cookies = Collections.unmodifiableList(routingContext.cookies().stream().map(cookie -> {
+                final Cookie p4jCookie = new Cookie(cookie.getName(), cookie.getValue());
+                p4jCookie.setDomain(cookie.getDomain());
+                p4jCookie.setPath(cookie.getPath());
+                return p4jCookie;
+            }).collect(Collectors.toList()));
+            requestCookies = cookies;
+        }
+        return cookies;
     }
 
     @Override
     public void addResponseCookie(Cookie cookie) {
         routingContext.addCookie(io.vertx.ext.web.Cookie.cookie(cookie.getName(), cookie.getValue()));
+        // vert.x shares one cookie map between request and response, so the cookies seen from here on include this one
+        requestCookies = null;
+    }
+
+    /**
+     * Run the action from a headers end handler. vert.x runs these most recently added first, so cookies added by the
+     * action are still seen by the cookie handler's own headers end handler, which writes them.
+     */
+    @Override
+    public boolean onResponseCommit(final Runnable action) {
+        routingContext.addHeadersEndHandler(v -> action.run());
+        return true;
     }
 
     @Override
@@ -221,12 +222,17 @@ public class VertxAsyncWebContext implements AsyncWebContext {
 
     @Override
     public <T extends AsyncSessionStore> T getSessionStore() {
-        return (T) sessionStore;
+        AsyncSessionStore store = sessionStore;
+        if (store == null) {
+            store = new VertxAsyncSessionStore(routingContext.session(), vertxSessionStore);
+            sessionStore = store;
+        }
+        return (T) store;
     }
 
     @Override
     public <T extends AsyncSessionStore> void setSessionStore(T sessionStore) {
-        throw new UnsupportedOperationException("Cannot set session store on VertxAsyncWebContext");
+        this.sessionStore = sessionStore;
     }
 
     public Pac4jUser getVertxUser() {
@@ -245,4 +251,35 @@ public class VertxAsyncWebContext implements AsyncWebContext {
         return routingContext.session();
     }
 
+    private RequestUrl requestUrl() {
+        RequestUrl url = requestUrl;
+        if (url == null) {
+            url = new RequestUrl(getFullRequestURL());
+            requestUrl = url;
+        }
+        return url;
+    }
+
+    /**
+     * The parts of the absolute request URL needed by pac4j, parsed together so they are always seen consistently
+     */
+    private static final class RequestUrl {
+
+        private final String scheme;
+        private final String host;
+        private final int port;
+
+        private RequestUrl(final String fullUrl) {
+            final URI uri;
+            try {
+                uri = new URI(fullUrl);
+            } catch (URISyntaxException e) {
+                throw new InvalidParameterException("Request to invalid URL " + fullUrl + " while constructing VertxWebContext");
+            }
+            this.scheme = uri.getScheme();
+            this.host = uri.getHost();
+            this.port = (uri.getPort() != -1) ? uri.getPort() : scheme.equals("http") ? 80 : 443;
+        }
+    }
+
 }
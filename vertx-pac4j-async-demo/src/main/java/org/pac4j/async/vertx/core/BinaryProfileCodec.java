@@ -0,0 +1,439 @@
+package org.pac4j.async.vertx.core;
+
+import io.vertx.core.buffer.Buffer;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.profile.UserProfile;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Compact binary encoding of a set of named profiles, written directly into and read directly from a vert.x
+ * buffer, for storing users in a clustered session.</p>
+ * <p>The encoding starts with a marker (a negative int, so that it can never be mistaken for the length prefix of the
+ * older JSON encoding) and a format version. Each profile is then written field by field, with its class written as
+ * an id rather than as a name. Ids for the common profile classes are fixed, any other class name is written the
+ * first time it occurs in the buffer and referred to by id thereafter. Attribute values are tagged with their type,
+ * common types being written natively and anything else as JSON.</p>
+ * <p>Profiles are only written field by field if their class adds no state to that held by UserProfile, otherwise
+ * the whole profile is written as JSON, so subclasses with extra fields still round trip.</p>
+ *
+ * @since 2.0.0
+ */
+public class BinaryProfileCodec {
+
+    /**
+     * Marks a buffer as holding binary encoded profiles rather than a JSON length prefix
+     */
+    public static final int MARKER = 0xFF503441;
+
+    public static final byte VERSION_1 = 1;
+
+    // Fixed class ids, which other cluster members must agree on, so only ever append to this list
+    private static final List<String> KNOWN_CLASSES = Collections.unmodifiableList(Arrays.asList(
+            "org.pac4j.core.profile.CommonProfile",
+            "org.pac4j.core.profile.AnonymousProfile",
+            "org.pac4j.oauth.profile.OAuth10Profile",
+            "org.pac4j.oauth.profile.OAuth20Profile",
+            "org.pac4j.oauth.profile.facebook.FacebookProfile",
+            "org.pac4j.core.profile.Gender",
+            "org.pac4j.oauth.profile.facebook.FacebookObject"));
+    private static final Map<String, Integer> KNOWN_CLASS_IDS = new HashMap<>();
+    // The known classes resolved once, by id - 1, null for any not on the classpath
+    private static final Class<?>[] KNOWN_CLASS_TYPES = new Class<?>[KNOWN_CLASSES.size()];
+
+    static {
+        for (int i = 0; i < KNOWN_CLASSES.size(); i++) {
+            KNOWN_CLASS_IDS.put(KNOWN_CLASSES.get(i), i + 1);
+            try {
+                KNOWN_CLASS_TYPES[i] = Class.forName(KNOWN_CLASSES.get(i), false, BinaryProfileCodec.class.getClassLoader());
+            } catch (final ClassNotFoundException e) {
+                KNOWN_CLASS_TYPES[i] = null;
+            }
+        }
+    }
+
+    // Class id preceding a class name being written for the first time
+    private static final int NEW_CLASS = 0;
+
+    private static final byte PROFILE_FIELDS = 0;
+    private static final byte PROFILE_JSON = 1;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte BOOLEAN = 2;
+    private static final byte INTEGER = 3;
+    private static final byte LONG = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte DATE = 6;
+    private static final byte URI_VALUE = 7;
+    private static final byte LOCALE = 8;
+    private static final byte ENUM = 9;
+    private static final byte LIST = 10;
+    private static final byte OBJECT = 11;
+
+    private static final BinaryProfileCodec INSTANCE = new BinaryProfileCodec(new DefaultJsonConverter());
+
+    private final DefaultJsonConverter jsonConverter;
+    private final Map<Class<?>, Boolean> fieldEncodable = new ConcurrentHashMap<>();
+
+    public static BinaryProfileCodec getInstance() {
+        return INSTANCE;
+    }
+
+    public BinaryProfileCodec(final DefaultJsonConverter jsonConverter) {
+        this.jsonConverter = jsonConverter;
+    }
+
+    /**
+     * Whether the buffer holds binary encoded profiles at the given position, rather than the older JSON encoding.
+     */
+    public static boolean isBinaryEncoded(final Buffer buffer, final int pos) {
+        return buffer.length() >= pos + 4 && buffer.getInt(pos) == MARKER;
+    }
+
+    /**
+     * Append the profiles to the buffer.
+     *
+     * @param profiles the profiles, by client name
+     * @param buffer the buffer to append to
+     */
+    public void encode(final Map<String, ? extends CommonProfile> profiles, final Buffer buffer) {
+        final Writer writer = new Writer(buffer);
+        buffer.appendInt(MARKER).appendByte(VERSION_1).appendInt(profiles.size());
+        profiles.forEach((name, profile) -> {
+            writer.writeString(name);
+            writeProfile(writer, profile);
+        });
+    }
+
+    /**
+     * Read profiles written by {@link #encode(Map, Buffer)}.
+     *
+     * @param buffer the buffer to read from
+     * @param pos the position of the marker in the buffer
+     * @param profiles map to add the profiles read to, by client name
+     * @return the position after the profiles
+     */
+    public int decode(final Buffer buffer, final int pos, final Map<String, CommonProfile> profiles) {
+        if (!isBinaryEncoded(buffer, pos)) {
+            throw new TechnicalException("Buffer does not hold binary encoded profiles at position " + pos);
+        }
+        final Reader reader = new Reader(buffer, pos + 4);
+        final byte version = reader.readByte();
+        if (version != VERSION_1) {
+            throw new TechnicalException("Unsupported profile encoding version " + version);
+        }
+        final int count = reader.readInt();
+        for (int i = 0; i < count; i++) {
+            final String name = reader.readString();
+            profiles.put(name, readProfile(reader));
+        }
+        return reader.pos;
+    }
+
+    private void writeProfile(final Writer writer, final CommonProfile profile) {
+        final Class<?> profileClass = profile.getClass();
+        writer.writeClass(profileClass);
+        if (!isFieldEncodable(profileClass)) {
+            writer.buffer.appendByte(PROFILE_JSON);
+            writer.writeBytes(jsonConverter.encodeToBytes(profile));
+            return;
+        }
+        writer.buffer.appendByte(PROFILE_FIELDS);
+        writer.writeString(profile.getId());
+        writer.writeString(profile.getClientName());
+        writer.writeString(profile.getLinkedId());
+        writer.buffer.appendByte((byte) (profile.isRemembered() ? 1 : 0));
+        writer.writeStrings(profile.getRoles());
+        writer.writeStrings(profile.getPermissions());
+        final Map<String, Object> attributes = profile.getAttributes();
+        writer.buffer.appendInt(attributes.size());
+        attributes.forEach((attributeName, value) -> {
+            writer.writeString(attributeName);
+            writeValue(writer, value);
+        });
+    }
+
+    private CommonProfile readProfile(final Reader reader) {
+        final Class<? extends CommonProfile> profileClass = reader.readClass(CommonProfile.class);
+        if (reader.readByte() == PROFILE_JSON) {
+            return jsonConverter.decodeFromBytes(reader.readBytes(), profileClass);
+        }
+        final CommonProfile profile;
+        try {
+            profile = profileClass.newInstance();
+        } catch (final Exception e) {
+            throw new TechnicalException("Unable to instantiate profile " + profileClass.getName(), e);
+        }
+        final String id = reader.readString();
+        if (id != null) {
+            profile.setId(id);
+        }
+        profile.setClientName(reader.readString());
+        profile.setLinkedId(reader.readString());
+        profile.setRemembered(reader.readByte() != 0);
+        profile.addRoles(reader.readStrings());
+        profile.addPermissions(reader.readStrings());
+        final int attributeCount = reader.readInt();
+        for (int i = 0; i < attributeCount; i++) {
+            final String attributeName = reader.readString();
+            profile.addAttribute(attributeName, readValue(reader));
+        }
+        return profile;
+    }
+
+    private void writeValue(final Writer writer, final Object value) {
+        final Buffer buffer = writer.buffer;
+        if (value == null) {
+            buffer.appendByte(NULL);
+        } else if (value instanceof String) {
+            buffer.appendByte(STRING);
+            writer.writeString((String) value);
+        } else if (value instanceof Boolean) {
+            buffer.appendByte(BOOLEAN).appendByte((byte) ((Boolean) value ? 1 : 0));
+        } else if (value instanceof Integer) {
+            buffer.appendByte(INTEGER).appendInt((Integer) value);
+        } else if (value instanceof Long) {
+            buffer.appendByte(LONG).appendLong((Long) value);
+        } else if (value instanceof Double) {
+            buffer.appendByte(DOUBLE).appendDouble((Double) value);
+        } else if (value.getClass() == Date.class) {
+            // Subclasses of Date (such as pac4j's FormattedDate) carry more than the time, so are written as objects
+            buffer.appendByte(DATE).appendLong(((Date) value).getTime());
+        } else if (value instanceof URI) {
+            buffer.appendByte(URI_VALUE);
+            writer.writeString(value.toString());
+        } else if (value instanceof Locale) {
+            buffer.appendByte(LOCALE);
+            writer.writeString(((Locale) value).toLanguageTag());
+        } else if (value instanceof Enum) {
+            buffer.appendByte(ENUM);
+            writer.writeClass(((Enum<?>) value).getDeclaringClass());
+            writer.writeString(((Enum<?>) value).name());
+        } else if (value instanceof List) {
+            final List<?> list = (List<?>) value;
+            buffer.appendByte(LIST).appendInt(list.size());
+            list.forEach(element -> writeValue(writer, element));
+        } else {
+            buffer.appendByte(OBJECT);
+            writer.writeClass(value.getClass());
+            writer.writeBytes(jsonConverter.encodeToBytes(value));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object readValue(final Reader reader) {
+        final byte tag = reader.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return reader.readString();
+            case BOOLEAN:
+                return reader.readByte() != 0;
+            case INTEGER:
+                return reader.readInt();
+            case LONG:
+                return reader.readLong();
+            case DOUBLE:
+                return reader.readDouble();
+            case DATE:
+                return new Date(reader.readLong());
+            case URI_VALUE:
+                return URI.create(reader.readString());
+            case LOCALE:
+                return Locale.forLanguageTag(reader.readString());
+            case ENUM:
+                final Class<? extends Enum> enumClass = reader.readClass(Enum.class);
+                return Enum.valueOf(enumClass, reader.readString());
+            case LIST:
+                final int size = reader.readInt();
+                final List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(reader));
+                }
+                return list;
+            case OBJECT:
+                final Class<?> valueClass = reader.readClass();
+                return jsonConverter.decodeFromBytes(reader.readBytes(), valueClass);
+            default:
+                throw new TechnicalException("Unknown attribute type " + tag);
+        }
+    }
+
+    private boolean isFieldEncodable(final Class<?> profileClass) {
+        return fieldEncodable.computeIfAbsent(profileClass, c -> {
+            for (Class<?> current = c; current != UserProfile.class; current = current.getSuperclass()) {
+                for (final Field field : current.getDeclaredFields()) {
+                    final int modifiers = field.getModifiers();
+                    if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Appends to a buffer, keeping the ids given to classes not known in advance
+     */
+    private static final class Writer {
+
+        private final Buffer buffer;
+        private final Map<String, Integer> classIds = new HashMap<>(KNOWN_CLASS_IDS);
+
+        private Writer(final Buffer buffer) {
+            this.buffer = buffer;
+        }
+
+        private void writeClass(final Class<?> clazz) {
+            final Integer id = classIds.get(clazz.getName());
+            if (id != null) {
+                buffer.appendInt(id);
+                return;
+            }
+            buffer.appendInt(NEW_CLASS);
+            writeString(clazz.getName());
+            classIds.put(clazz.getName(), classIds.size() + 1);
+        }
+
+        private void writeString(final String value) {
+            if (value == null) {
+                buffer.appendInt(-1);
+            } else {
+                writeBytes(value.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        private void writeBytes(final byte[] bytes) {
+            buffer.appendInt(bytes.length).appendBytes(bytes);
+        }
+
+        private void writeStrings(final Collection<String> values) {
+            buffer.appendInt(values.size());
+            values.forEach(this::writeString);
+        }
+    }
+
+    /**
+     * Reads from a buffer, tracking the position and the ids given to classes not known in advance
+     */
+    private static final class Reader {
+
+        private final Buffer buffer;
+        private final List<Class<?>> classes = new ArrayList<>();
+        private int pos;
+
+        private Reader(final Buffer buffer, final int pos) {
+            this.buffer = buffer;
+            this.pos = pos;
+        }
+
+        private byte readByte() {
+            return buffer.getByte(pos++);
+        }
+
+        private int readInt() {
+            final int value = buffer.getInt(pos);
+            pos += 4;
+            return value;
+        }
+
+        private long readLong() {
+            final long value = buffer.getLong(pos);
+            pos += 8;
+            return value;
+        }
+
+        private double readDouble() {
+            final double value = buffer.getDouble(pos);
+            pos += 8;
+            return value;
+        }
+
+        private Class<?> readClass() {
+            final int id = readInt();
+            if (id == NEW_CLASS) {
+                final Class<?> clazz = load(readString());
+                classes.add(clazz);
+                return clazz;
+            } else if (id > 0 && id <= KNOWN_CLASS_TYPES.length) {
+                final Class<?> clazz = KNOWN_CLASS_TYPES[id - 1];
+                if (clazz == null) {
+                    throw new TechnicalException("Unable to load class " + KNOWN_CLASSES.get(id - 1));
+                }
+                return clazz;
+            } else if (id > KNOWN_CLASS_TYPES.length && id - KNOWN_CLASS_TYPES.length <= classes.size()) {
+                return classes.get(id - KNOWN_CLASS_TYPES.length - 1);
+            } else {
+                throw new TechnicalException("Unknown class id " + id + " at position " + (pos - 4));
+            }
+        }
+
+        /**
+         * Read a class which must be of the given type, so that nothing is done with a class named in the buffer
+         * (such as instantiating it) unless it is of the type expected at this point.
+         */
+        private <T> Class<? extends T> readClass(final Class<T> type) {
+            final int classPos = pos;
+            final Class<?> clazz = readClass();
+            if (!type.isAssignableFrom(clazz)) {
+                throw new TechnicalException("Class " + clazz.getName() + " at position " + classPos + " is not a "
+                        + type.getName());
+            }
+            return clazz.asSubclass(type);
+        }
+
+        private String readString() {
+            final int length = readInt();
+            if (length < 0) {
+                return null;
+            }
+            final String value = buffer.getString(pos, pos + length, StandardCharsets.UTF_8.name());
+            pos += length;
+            return value;
+        }
+
+        private byte[] readBytes() {
+            final int length = readInt();
+            final byte[] bytes = buffer.getBytes(pos, pos + length);
+            pos += length;
+            return bytes;
+        }
+
+        private Set<String> readStrings() {
+            final int size = readInt();
+            final Set<String> values = new LinkedHashSet<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add(readString());
+            }
+            return values;
+        }
+
+        private static Class<?> load(final String className) {
+            try {
+                // not initialised, as it has yet to be checked to be of the type expected
+                return Class.forName(className, false, BinaryProfileCodec.class.getClassLoader());
+            } catch (final ClassNotFoundException e) {
+                throw new TechnicalException("Unable to load class " + className, e);
+            }
+        }
+    }
+}
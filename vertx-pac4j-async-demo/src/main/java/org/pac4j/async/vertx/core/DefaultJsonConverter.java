@@ -125,6 +125,28 @@ public class DefaultJsonConverter implements JsonConverter {
         return (T) mapper.readValue(string, clazz);
     }
 
+    /**
+     * Serialize a value straight to UTF-8 JSON bytes, for binary formats which record the value's class themselves.
+     */
+    byte[] encodeToBytes(Object value) {
+        try {
+            return mapper.writeValueAsBytes(value);
+        } catch (Exception e) {
+            throw new TechnicalException("Error while encoding object", e);
+        }
+    }
+
+    /**
+     * Deserialize a value from UTF-8 JSON bytes written by {@link #encodeToBytes(Object)}.
+     */
+    <T> T decodeFromBytes(byte[] bytes, Class<T> clazz) {
+        try {
+            return mapper.readValue(bytes, clazz);
+        } catch (Exception e) {
+            throw new TechnicalException("Error while decoding object", e);
+        }
+    }
+
     public static class BearerAccessTokenMixin {
         @JsonIgnore
         private AccessTokenType type;
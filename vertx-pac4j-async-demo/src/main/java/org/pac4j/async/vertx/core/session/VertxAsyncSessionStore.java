@@ -1,39 +1,182 @@
 package org.pac4j.async.vertx.core.session;
 
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
 import io.vertx.ext.web.Session;
+import io.vertx.ext.web.sstore.SessionStore;
 import org.pac4j.async.core.context.AsyncWebContext;
+import org.pac4j.async.core.session.AsyncSessionIdRenewal;
 import org.pac4j.async.core.session.AsyncSessionStore;
 import org.pac4j.core.context.WebContext;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
+ * AsyncSessionStore wrapper for a vert.x session.
  *
+ * Given the vert.x session store behind the session handler, sessions can be tracked by id, so that a session other
+ * than that of the current request (for example one being ended by a back-channel logout) can be read, written,
+ * renewed or destroyed through the vert.x session store. Without it, sessions are not trackable.
  */
 public class VertxAsyncSessionStore implements AsyncSessionStore {
 
-    /**
-     * Wrapper AsyncSessionStore wrapper for a vert.x session
-     */
+    // The session of the current request, or null for a session tracked by id
     private final Session session;
 
+    private final SessionStore sessionStore;
+
+    private final String trackedSessionId;
+
     public VertxAsyncSessionStore(final Session session) {
+        this(session, null);
+    }
+
+    public VertxAsyncSessionStore(final Session session, final SessionStore sessionStore) {
         this.session = session;
+        this.sessionStore = sessionStore;
+        this.trackedSessionId = null;
+    }
+
+    private VertxAsyncSessionStore(final SessionStore sessionStore, final String trackedSessionId) {
+        this.session = null;
+        this.sessionStore = sessionStore;
+        this.trackedSessionId = trackedSessionId;
     }
 
     @Override
     public CompletableFuture<String> getOrCreateSessionId(AsyncWebContext context) {
-        return CompletableFuture.completedFuture(session.id());
+        return CompletableFuture.completedFuture(trackedSessionId != null ? trackedSessionId : session.id());
     }
 
     @Override
     public <T> CompletableFuture<T> get(WebContext<AsyncSessionStore> context, String key) {
-        return CompletableFuture.completedFuture(session.get(key));
+        return read(s -> s.get(key));
     }
 
     @Override
     public <T> CompletableFuture<Void> set(WebContext<AsyncSessionStore> context, String key, T value) {
-        session.put(key, value);
-        return CompletableFuture.completedFuture(null);
+        return write(s -> s.put(key, value));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> getAll(WebContext<AsyncSessionStore> context, Collection<String> keys) {
+        return read(s -> {
+            final Map<String, Object> values = new LinkedHashMap<>();
+            keys.forEach(key -> values.put(key, s.get(key)));
+            return values;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> setAll(WebContext<AsyncSessionStore> context, Map<String, ?> values) {
+        return write(s -> values.forEach(s::put));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAll(WebContext<AsyncSessionStore> context, Collection<String> keys) {
+        return write(s -> keys.forEach(s::remove));
+    }
+
+    /**
+     * Renew the session by regenerating its id. The session of the current request keeps its data, and the vert.x
+     * session handler removes the entry stored under the old id when the session is next stored, so nothing is copied
+     * between sessions. A tracked session is stored under its new id and deleted under its old one here.
+     */
+    @Override
+    public CompletableFuture<Boolean> renewSession(AsyncWebContext context) {
+        return renewSessionId(context).thenApply(Optional::isPresent);
+    }
+
+    @Override
+    public CompletableFuture<Optional<AsyncSessionIdRenewal>> renewSessionId(AsyncWebContext context) {
+        if (trackedSessionId == null) {
+            final String oldSessionId = session.id();
+            session.regenerateId();
+            return CompletableFuture.completedFuture(Optional.of(new AsyncSessionIdRenewal(oldSessionId, session.id())));
+        }
+        return fetchTrackedSession().thenCompose(tracked -> {
+            if (tracked == null) {
+                return CompletableFuture.completedFuture(Optional.<AsyncSessionIdRenewal>empty());
+            }
+            tracked.regenerateId();
+            return this.<Boolean>onSessionStore(handler -> sessionStore.put(tracked, handler))
+                    .thenCompose(v -> this.<Boolean>onSessionStore(handler -> sessionStore.delete(trackedSessionId, handler)))
+                    .thenApply(v -> Optional.of(new AsyncSessionIdRenewal(trackedSessionId, tracked.id())));
+        });
+    }
+
+    /**
+     * Destroy the session. The session of the current request is marked as destroyed, and removed from the vert.x
+     * session store by the session handler as the response is written; a tracked session is deleted from the vert.x
+     * session store straight away.
+     */
+    @Override
+    public CompletableFuture<Boolean> destroySession(AsyncWebContext context) {
+        if (trackedSessionId == null) {
+            session.destroy();
+            return CompletableFuture.completedFuture(true);
+        }
+        return this.<Boolean>onSessionStore(handler -> sessionStore.delete(trackedSessionId, handler))
+                .thenApply(v -> true);
+    }
+
+    @Override
+    public CompletableFuture<Optional<Object>> getTrackableSession(AsyncWebContext context) {
+        if (sessionStore == null) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return getOrCreateSessionId(context).thenApply(Optional::of);
+    }
+
+    @Override
+    public Optional<AsyncSessionStore> buildFromTrackableSession(AsyncWebContext context, Object trackableSession) {
+        if (sessionStore != null && trackableSession instanceof String) {
+            return Optional.of(new VertxAsyncSessionStore(sessionStore, (String) trackableSession));
+        }
+        return Optional.empty();
+    }
+
+    private <T> CompletableFuture<T> read(final Function<Session, T> reader) {
+        if (trackedSessionId == null) {
+            return CompletableFuture.completedFuture(reader.apply(session));
+        }
+        return fetchTrackedSession().thenApply(tracked -> tracked == null ? null : reader.apply(tracked));
+    }
+
+    private CompletableFuture<Void> write(final Consumer<Session> writer) {
+        if (trackedSessionId == null) {
+            writer.accept(session);
+            return CompletableFuture.completedFuture(null);
+        }
+        return fetchTrackedSession().thenCompose(tracked -> {
+            if (tracked == null) {
+                // The session has expired or been destroyed, so there is nothing left to write to
+                return CompletableFuture.completedFuture(null);
+            }
+            writer.accept(tracked);
+            return this.<Boolean>onSessionStore(handler -> sessionStore.put(tracked, handler)).thenApply(v -> null);
+        });
+    }
+
+    private CompletableFuture<Session> fetchTrackedSession() {
+        return onSessionStore(handler -> sessionStore.get(trackedSessionId, handler));
+    }
+
+    private <T> CompletableFuture<T> onSessionStore(final Consumer<Handler<AsyncResult<T>>> operation) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        operation.accept(asyncResult -> {
+            if (asyncResult.succeeded()) {
+                result.complete(asyncResult.result());
+            } else {
+                result.completeExceptionally(asyncResult.cause());
+            }
+        });
+        return result;
     }
 }
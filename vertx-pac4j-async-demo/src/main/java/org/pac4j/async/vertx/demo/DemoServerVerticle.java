@@ -29,6 +29,7 @@ import org.pac4j.async.vertx.handler.impl.SecurityHandlerOptions;
 import org.pac4j.async.vertx.handler.impl.VertxAsyncCallbackHandler;
 import org.pac4j.async.vertx.handler.impl.VertxAsyncLogoutHandler;
 import org.pac4j.async.vertx.handler.impl.VertxAsyncSecurityHandler;
+import org.pac4j.async.vertx.http.VertxScribeHttpClient;
 import org.pac4j.core.client.Clients;
 import org.pac4j.core.profile.CommonProfile;
 
@@ -59,24 +60,28 @@ public class DemoServerVerticle extends AbstractVerticle {
         router.get("/").handler(new IndexHandler(computationAdapter));
 
         final String callbackUrl = config().getString("baseUrl") + "/callback";
-        SecurityHandlerOptions options = new SecurityHandlerOptions().setClients("FacebookClient");
+        SecurityHandlerOptions options = new SecurityHandlerOptions().setClients("FacebookClient")
+                .setSessionStore(sessionStore);
         AsyncFacebookClient asyncFacebookClient = new AsyncFacebookClient(config().getString("fbId"), config().getString("fbSecret"));
         asyncFacebookClient.setName("FacebookClient");
+        asyncFacebookClient.getConfiguration().setHttpClient(new VertxScribeHttpClient(vertx));
         final Clients<AsyncClient, AsyncAuthorizationGenerator<CommonProfile>> clients = new Clients<>(callbackUrl, asyncFacebookClient);;
         final AsyncConfig<Void, CommonProfile, VertxAsyncWebContext> config = new AsyncConfig<>();
         config.setClients(clients);
 
         final Pac4jAuthProvider pac4jAuthProvider = new Pac4jAuthProvider();
-        router.get("/facebook/index.html").handler(new VertxAsyncSecurityHandler(vertx, context, config,
+        router.get("/facebook/index.html").handler(new VertxAsyncSecurityHandler(vertx, config,
                 pac4jAuthProvider, options));
         router.get("/facebook/index.html").handler(new SetContentTypeHandler(HttpHeaders.TEXT_HTML));
         router.get("/facebook/index.html").handler(new PrivateEndpointHandler(computationAdapter, (rc, buf) -> rc.response().end(buf)));
 
-        CallbackHandlerOptions callbackHandlerOptions = new CallbackHandlerOptions().setDefaultUrl("/");
-        VertxAsyncCallbackHandler callbackHandler = new VertxAsyncCallbackHandler(vertx, context, config, callbackHandlerOptions);
+        CallbackHandlerOptions callbackHandlerOptions = new CallbackHandlerOptions().setDefaultUrl("/")
+                .setSessionStore(sessionStore);
+        VertxAsyncCallbackHandler callbackHandler = new VertxAsyncCallbackHandler(vertx, config, callbackHandlerOptions);
         router.get("/callback").handler(callbackHandler); // This will deploy the callback handler
 
-        final VertxAsyncLogoutHandler logoutHandler = new VertxAsyncLogoutHandler(vertx, context, config, new LogoutHandlerOptions().setDefaultUrl("/"));
+        final VertxAsyncLogoutHandler logoutHandler = new VertxAsyncLogoutHandler(vertx, config, new LogoutHandlerOptions().setDefaultUrl("/")
+                .setSessionStore(sessionStore));
         router.get("/logout").handler(logoutHandler);
 
         vertx.createHttpServer()
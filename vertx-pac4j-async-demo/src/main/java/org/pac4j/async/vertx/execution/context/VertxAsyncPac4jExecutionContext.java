@@ -1,6 +1,7 @@
 package org.pac4j.async.vertx.execution.context;
 
 import io.vertx.core.Context;
+import io.vertx.core.Vertx;
 import org.pac4j.async.core.execution.context.AsyncPac4jExecutionContext;
 
 /**
@@ -19,5 +20,13 @@ public class VertxAsyncPac4jExecutionContext implements AsyncPac4jExecutionConte
     public void runOnContext(Runnable operation) {
         vertxContext.runOnContext(a -> operation.run());
     }
+
+    @Override
+    public boolean isOnContext() {
+        // Only event loop contexts are bound to a single thread. Blocking code run from an event loop context also
+        // sees that context as current, but on a worker thread, so we check we are on the event loop too
+        return vertxContext.isEventLoopContext() && Context.isOnEventLoopThread()
+                && Vertx.currentContext() == vertxContext;
+    }
 }
 
@@ -1,5 +1,6 @@
 package org.pac4j.async.vertx.handler.impl;
 
+import io.vertx.ext.web.sstore.SessionStore;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
@@ -21,4 +22,12 @@ public class CallbackHandlerOptions {
     @Getter @Setter
     private Boolean renewSession = false;
 
-}
\ No newline at end of file
+    // Time allowed for the callback pipeline to deal with each request, 0 for no limit
+    @Getter @Setter
+    private long deadlineMillis = 0;
+
+    // The vert.x session store behind the session handler, which makes sessions trackable by id (for example, to
+    // destroy them on back-channel logout). Sessions are not trackable without it
+    @Getter @Setter
+    private SessionStore sessionStore = null;
+}
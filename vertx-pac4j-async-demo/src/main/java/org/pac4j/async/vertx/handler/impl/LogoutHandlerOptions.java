@@ -15,6 +15,7 @@
  */
 package org.pac4j.async.vertx.handler.impl;
 
+import io.vertx.ext.web.sstore.SessionStore;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
@@ -54,4 +55,9 @@ public class LogoutHandlerOptions {
      */
     @Getter @Setter
     private boolean centralLogout= false;
+
+    // The vert.x session store behind the session handler, which makes sessions trackable by id (for example, to
+    // destroy them on back-channel logout). Sessions are not trackable without it
+    @Getter @Setter
+    private SessionStore sessionStore = null;
 }
@@ -1,5 +1,6 @@
 package org.pac4j.async.vertx.handler.impl;
 
+import io.vertx.ext.web.sstore.SessionStore;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.Setter;
@@ -28,4 +29,17 @@ public class SecurityHandlerOptions {
     @Setter
     private boolean saveProfileInSession = false;
 
-}
\ No newline at end of file
+    @Getter
+    @Setter
+    private boolean parallelAuthorizers = false;
+
+    // Time allowed for the security pipeline to deal with each request, 0 for no limit
+    @Getter
+    @Setter
+    private long deadlineMillis = 0;
+
+    // The vert.x session store behind the session handler, which makes sessions trackable by id (for example, to
+    // destroy them on back-channel logout). Sessions are not trackable without it
+    @Getter @Setter
+    private SessionStore sessionStore = null;
+}
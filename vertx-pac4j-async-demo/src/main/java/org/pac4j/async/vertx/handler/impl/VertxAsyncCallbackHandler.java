@@ -6,7 +6,9 @@ import io.vertx.core.Vertx;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.sstore.SessionStore;
 import org.pac4j.async.core.config.AsyncConfig;
+import org.pac4j.async.core.deadline.AsyncDeadline;
 import org.pac4j.async.core.logic.DefaultAsyncCallbackLogic;
 import org.pac4j.async.vertx.VertxAsyncProfileManager;
 import org.pac4j.async.vertx.VertxAsynchronousComputationAdapter;
@@ -14,6 +16,8 @@ import org.pac4j.async.vertx.context.VertxAsyncWebContext;
 import org.pac4j.async.vertx.http.DefaultHttpActionAdapter;
 import org.pac4j.core.profile.CommonProfile;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  *
  */
@@ -22,23 +26,50 @@ public class VertxAsyncCallbackHandler implements Handler<RoutingContext> {
     protected static final Logger LOG = LoggerFactory.getLogger(VertxAsyncCallbackHandler.class);
 
     private final DefaultAsyncCallbackLogic<Void, CommonProfile, VertxAsyncWebContext> callbackLogic;
+    /**
+     * @deprecated only set where the handler was built with a context, and not used for handling callbacks, each of
+     * which runs on the context of the request. To be removed along with the constructor taking a context.
+     */
+    @Deprecated
     protected final VertxAsynchronousComputationAdapter asynchronousComputationAdapter;
 
     // Config elements which are all optional
     private final String defaultUrl;
+    private final long deadlineMillis;
+    private final SessionStore sessionStore;
 
 
+    /**
+     * @deprecated callbacks now run on the context of the request being handled, so the context passed here is
+     * ignored. Use {@link #VertxAsyncCallbackHandler(Vertx, AsyncConfig, CallbackHandlerOptions)}
+     */
+    @Deprecated
     public  VertxAsyncCallbackHandler(final Vertx vertx,
                                      final Context context,
                                      final AsyncConfig<Void, CommonProfile, VertxAsyncWebContext> config,
                                      final CallbackHandlerOptions options) {
+        this(vertx, config, options, context == null ? null : VertxAsynchronousComputationAdapter.forContext(vertx, context));
+    }
+
+    public  VertxAsyncCallbackHandler(final Vertx vertx,
+                                     final AsyncConfig<Void, CommonProfile, VertxAsyncWebContext> config,
+                                     final CallbackHandlerOptions options) {
+        this(vertx, config, options, null);
+    }
+
+    private VertxAsyncCallbackHandler(final Vertx vertx,
+                                      final AsyncConfig<Void, CommonProfile, VertxAsyncWebContext> config,
+                                      final CallbackHandlerOptions options,
+                                      final VertxAsynchronousComputationAdapter asynchronousComputationAdapter) {
 
         callbackLogic = new DefaultAsyncCallbackLogic<>(options.getMultiProfile(),
                 options.getRenewSession(),
                 config,
                 new DefaultHttpActionAdapter());
         this.defaultUrl = options.getDefaultUrl();
-        this.asynchronousComputationAdapter = new VertxAsynchronousComputationAdapter(vertx, context);
+        this.deadlineMillis = options.getDeadlineMillis();
+        this.sessionStore = options.getSessionStore();
+        this.asynchronousComputationAdapter = asynchronousComputationAdapter;
         callbackLogic.setProfileManagerFactory(VertxAsyncProfileManager::new);
 
     }
@@ -46,7 +77,11 @@ public class VertxAsyncCallbackHandler implements Handler<RoutingContext> {
     @Override
     public void handle(RoutingContext event) {
 
-        final VertxAsyncWebContext webContext = new VertxAsyncWebContext(event, asynchronousComputationAdapter);
+        final VertxAsyncWebContext webContext = new VertxAsyncWebContext(event,
+                VertxAsynchronousComputationAdapter.forRequest(event), sessionStore);
+        if (deadlineMillis > 0) {
+            webContext.setDeadline(AsyncDeadline.after(deadlineMillis, TimeUnit.MILLISECONDS));
+        }
 
         callbackLogic.perform(webContext, defaultUrl)
                 .whenComplete((result, failure) -> {
@@ -4,6 +4,7 @@ import io.vertx.core.Context;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.sstore.SessionStore;
 import org.pac4j.async.core.config.AsyncConfig;
 import org.pac4j.async.core.logic.AsyncLogoutLogic;
 import org.pac4j.async.core.logic.DefaultAsyncLogoutLogic;
@@ -21,15 +22,38 @@ public class VertxAsyncLogoutHandler implements Handler<RoutingContext> {
 
     protected final AsyncConfig<Void, CommonProfile, VertxAsyncWebContext> config;
     private final AsyncLogoutLogic<Void, VertxAsyncWebContext> logoutLogic;
+    private final SessionStore sessionStore;
+    /**
+     * @deprecated only set where the handler was built with a context, and not used for handling logouts, each of
+     * which runs on the context of the request. To be removed along with the constructor taking a context.
+     */
+    @Deprecated
     protected final VertxAsynchronousComputationAdapter asynchronousComputationAdapter;
 
 
     protected HttpActionAdapter<Void, VertxAsyncWebContext> httpActionAdapter = new DefaultHttpActionAdapter();
 
+    /**
+     * @deprecated the context is ignored, see {@link #VertxAsyncLogoutHandler(Vertx, AsyncConfig, LogoutHandlerOptions)}
+     */
+    @Deprecated
     public VertxAsyncLogoutHandler(final Vertx vertx,
                                    final Context context,
                                    final AsyncConfig<Void, CommonProfile, VertxAsyncWebContext> config,
                                    final LogoutHandlerOptions options) {
+        this(vertx, config, options, context == null ? null : VertxAsynchronousComputationAdapter.forContext(vertx, context));
+    }
+
+    public VertxAsyncLogoutHandler(final Vertx vertx,
+                                   final AsyncConfig<Void, CommonProfile, VertxAsyncWebContext> config,
+                                   final LogoutHandlerOptions options) {
+        this(vertx, config, options, null);
+    }
+
+    private VertxAsyncLogoutHandler(final Vertx vertx,
+                                    final AsyncConfig<Void, CommonProfile, VertxAsyncWebContext> config,
+                                    final LogoutHandlerOptions options,
+                                    final VertxAsynchronousComputationAdapter asynchronousComputationAdapter) {
         DefaultAsyncLogoutLogic<Void, CommonProfile, VertxAsyncWebContext> defaultApplicationLogoutLogic = new DefaultAsyncLogoutLogic<>(config,
                 httpActionAdapter,
                 options.getDefaultUrl(),
@@ -40,12 +64,14 @@ public class VertxAsyncLogoutHandler implements Handler<RoutingContext> {
         defaultApplicationLogoutLogic.setProfileManagerFactory(c -> new VertxAsyncProfileManager(c));
         this.logoutLogic = defaultApplicationLogoutLogic;
         this.config = config;
-        this.asynchronousComputationAdapter = new VertxAsynchronousComputationAdapter(vertx, context);
+        this.sessionStore = options.getSessionStore();
+        this.asynchronousComputationAdapter = asynchronousComputationAdapter;
     }
 
     @Override
     public void handle(RoutingContext event) {
-        final VertxAsyncWebContext webContext = new VertxAsyncWebContext(event, asynchronousComputationAdapter);
+        final VertxAsyncWebContext webContext = new VertxAsyncWebContext(event,
+                VertxAsynchronousComputationAdapter.forRequest(event), sessionStore);
 
         logoutLogic.perform(webContext)
                 .whenComplete((result, failure) -> {
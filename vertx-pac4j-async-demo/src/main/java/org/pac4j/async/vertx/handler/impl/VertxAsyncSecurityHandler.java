@@ -9,8 +9,11 @@ import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.handler.impl.AuthHandlerImpl;
+import io.vertx.ext.web.sstore.SessionStore;
+import org.pac4j.async.core.authorization.checker.DefaultAsyncAuthorizationChecker;
 import org.pac4j.async.core.client.AsyncClient;
 import org.pac4j.async.core.config.AsyncConfig;
+import org.pac4j.async.core.deadline.AsyncDeadline;
 import org.pac4j.async.core.logic.AsyncSecurityLogic;
 import org.pac4j.async.core.logic.DefaultAsyncSecurityLogic;
 import org.pac4j.async.vertx.VertxAsyncProfileManager;
@@ -25,8 +28,7 @@ import org.pac4j.core.http.HttpActionAdapter;
 import org.pac4j.core.profile.CommonProfile;
 import org.pac4j.core.util.CommonHelper;
 
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
 /**
  *
@@ -41,21 +43,50 @@ public class VertxAsyncSecurityHandler<U extends CommonProfile> extends AuthHand
     protected final String authorizerName;
     protected final String matcherName;
     protected final boolean multiProfile;
+    protected final long deadlineMillis;
+    protected final SessionStore sessionStore;
+    protected final Vertx vertx;
+    /**
+     * @deprecated only set where the handler was built with a context, and not used for handling requests, each of
+     * which is handled on the context which received it. To be removed along with the constructors taking a context.
+     */
+    @Deprecated
     protected final Context context;
+    /**
+     * @deprecated the adapter for {@link #context}, which is not used for handling requests. To be removed along with
+     * the constructors taking a context.
+     */
+    @Deprecated
     protected final VertxAsynchronousComputationAdapter asynchronousComputationAdapter;
-    protected final Vertx vertx;
 
     protected final HttpActionAdapter<Void, VertxAsyncWebContext> httpActionAdapter = new DefaultHttpActionAdapter();
 
     private final AsyncSecurityLogic<Void, VertxAsyncWebContext> securityLogic;
 
+    /**
+     * @deprecated the context is no longer used, each request is handled on the context which received it. Use
+     * {@link #VertxAsyncSecurityHandler(Vertx, AsyncConfig, Pac4jAuthProvider, SecurityHandlerOptions)}
+     */
+    @Deprecated
     public VertxAsyncSecurityHandler(final Vertx vertx,
                                      final Context context,
                                      final AsyncConfig config, final Pac4jAuthProvider authProvider,
                                      final SecurityHandlerOptions options) {
+        this(vertx, config, authProvider, options, context);
+    }
+
+    public VertxAsyncSecurityHandler(final Vertx vertx,
+                                     final AsyncConfig config, final Pac4jAuthProvider authProvider,
+                                     final SecurityHandlerOptions options) {
+        this(vertx, config, authProvider, options, null);
+    }
+
+    private VertxAsyncSecurityHandler(final Vertx vertx,
+                                      final AsyncConfig config, final Pac4jAuthProvider authProvider,
+                                      final SecurityHandlerOptions options,
+                                      final Context context) {
         super(authProvider);
         CommonHelper.assertNotNull("vertx", vertx);
-        CommonHelper.assertNotNull("context", context);
         CommonHelper.assertNotNull("config", config);
         CommonHelper.assertNotNull("config.getClients()", config.getClients());
         CommonHelper.assertNotNull("authProvider", authProvider);
@@ -65,30 +96,38 @@ public class VertxAsyncSecurityHandler<U extends CommonProfile> extends AuthHand
         authorizerName = options.getAuthorizers();
         matcherName = options.getMatchers();
         multiProfile = options.isMultiProfile();
+        deadlineMillis = options.getDeadlineMillis();
+        sessionStore = options.getSessionStore();
         this.vertx = vertx;
-        this.asynchronousComputationAdapter = new VertxAsynchronousComputationAdapter(vertx, context);
         this.context = context;
+        this.asynchronousComputationAdapter = context == null ? null :
+                VertxAsynchronousComputationAdapter.forContext(vertx, context);
         this.config = config;
 
         final DefaultAsyncSecurityLogic<Void, U , VertxAsyncWebContext> securityLogic = new DefaultAsyncSecurityLogic<Void, U, VertxAsyncWebContext>(options.isSaveProfileInSession(),
                 options.isMultiProfile(), config, httpActionAdapter);
         securityLogic.setProfileManagerFactory(c -> new VertxAsyncProfileManager(c));
+        if (options.isParallelAuthorizers()) {
+            securityLogic.setAuthorizationChecker(new DefaultAsyncAuthorizationChecker(true, securityLogic.getMetrics()));
+        }
+        // Fail now, rather than on the first request, if the options refer to anything not in the config
+        securityLogic.precompile(clientNames, authorizerName, matcherName);
         this.securityLogic = securityLogic;
     }
 
     @Override
     public void handle(RoutingContext routingContext) {
-        VertxAsyncWebContext webContext = new VertxAsyncWebContext(routingContext, asynchronousComputationAdapter);
+        VertxAsyncWebContext webContext = new VertxAsyncWebContext(routingContext,
+                VertxAsynchronousComputationAdapter.forRequest(routingContext), sessionStore);
+        if (deadlineMillis > 0) {
+            webContext.setDeadline(AsyncDeadline.after(deadlineMillis, TimeUnit.MILLISECONDS));
+        }
         Pac4jUser pac4jUser = (Pac4jUser)routingContext.user();
         if (pac4jUser != null) {
-            Map<String, CommonProfile> indirectProfiles = (Map)pac4jUser.pac4jUserProfiles().entrySet().stream().filter((e) -> {
-                String clientName = ((CommonProfile)e.getValue()).getClientName();
-                return ((AsyncClient)this.config.getClients().findClient(clientName)).isIndirect();
-            }).collect(Collectors.toMap((e) -> (String)e.getKey(), (e) -> (CommonProfile)e.getValue()));
-            if (!indirectProfiles.isEmpty()) {
-                pac4jUser.pac4jUserProfiles().clear();
-                pac4jUser.pac4jUserProfiles().putAll(indirectProfiles);
-            } else {
+            // Only profiles from indirect clients are remembered between requests
+            final boolean indirectProfiles = pac4jUser.retainUserProfiles(profile ->
+                    ((AsyncClient) config.getClients().findClient(profile.getClientName())).isIndirect());
+            if (!indirectProfiles) {
                 routingContext.clearUser();
             }
         }
@@ -100,9 +139,7 @@ public class VertxAsyncSecurityHandler<U extends CommonProfile> extends AuthHand
         }, clientNames, authorizerName, matcherName)
         .whenComplete((result, failure) -> {
             if (failure != null) {
-                vertx.runOnContext(v -> {
-                    this.unexpectedFailure(routingContext, failure);
-                });
+                webContext.getExecutionContext().runOnContext(() -> this.unexpectedFailure(routingContext, failure));
 
             }
         });
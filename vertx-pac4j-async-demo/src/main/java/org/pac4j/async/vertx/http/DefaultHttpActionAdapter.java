@@ -2,6 +2,7 @@ package org.pac4j.async.vertx.http;
 
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
+import org.pac4j.async.core.deadline.AsyncDeadlines;
 import org.pac4j.async.vertx.context.VertxAsyncWebContext;
 import org.pac4j.core.context.HttpConstants;
 import org.pac4j.core.exception.TechnicalException;
@@ -27,6 +28,8 @@ public class DefaultHttpActionAdapter implements HttpActionAdapter<Void, VertxAs
             // This is clunkier than it should be due to Java 8 Optional limitation
             location.orElseThrow(() -> new TechnicalException("Redirect without a location header"));
             location.ifPresent(l -> redirect(l, context));
+        } else if (code == AsyncDeadlines.GATEWAY_TIMEOUT) {
+            sendFailureResponse(context, AsyncDeadlines.GATEWAY_TIMEOUT);
         } else if (code == HttpConstants.OK) {
             // Content should already have been written
             context.setResponseStatus(HttpConstants.OK);
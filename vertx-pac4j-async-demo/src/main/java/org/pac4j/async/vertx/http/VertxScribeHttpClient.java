@@ -0,0 +1,116 @@
+package org.pac4j.async.vertx.http;
+
+import com.github.scribejava.core.model.HttpClient;
+import com.github.scribejava.core.model.OAuthAsyncRequestCallback;
+import com.github.scribejava.core.model.OAuthRequestAsync;
+import com.github.scribejava.core.model.Response;
+import com.github.scribejava.core.model.Verb;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.client.HttpRequest;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
+import org.pac4j.core.util.CommonHelper;
+import org.pac4j.core.util.HttpUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * Scribe http client making its calls through a vert.x web client. Responses are handled on the vert.x context from
+ * which the call was made, so OAuth calls made while handling a request, such as the token exchange and the profile
+ * fetch, complete on the event loop handling that request rather than on a thread belonging to another http client.
+ *
+ * To use it, set it into the OAuth configuration of a client, for example
+ * {@code facebookClient.getConfiguration().setHttpClient(new VertxScribeHttpClient(vertx))}.
+ */
+public class VertxScribeHttpClient implements HttpClient {
+
+    private final WebClient webClient;
+
+    public VertxScribeHttpClient(final Vertx vertx) {
+        this(WebClient.create(vertx, new WebClientOptions().setConnectTimeout(HttpUtils.getConnectTimeout())));
+    }
+
+    public VertxScribeHttpClient(final WebClient webClient) {
+        CommonHelper.assertNotNull("webClient", webClient);
+        this.webClient = webClient;
+    }
+
+    @Override
+    public <T> Future<T> executeAsync(final String userAgent, final Map<String, String> headers, final Verb httpVerb,
+                                      final String completeUrl, final String bodyContents,
+                                      final OAuthAsyncRequestCallback<T> callback,
+                                      final OAuthRequestAsync.ResponseConverter<T> converter) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final HttpRequest<Buffer> request = webClient.requestAbs(HttpMethod.valueOf(httpVerb.name()), completeUrl)
+                .timeout(HttpUtils.getReadTimeout());
+        if (headers != null) {
+            headers.forEach(request::putHeader);
+        }
+        if (userAgent != null) {
+            request.putHeader("User-Agent", userAgent);
+        }
+
+        final Handler<AsyncResult<HttpResponse<Buffer>>> responseHandler = ar -> {
+            if (ar.failed()) {
+                fail(result, callback, ar.cause());
+                return;
+            }
+            final T converted;
+            try {
+                converted = convert(toScribeResponse(ar.result()), converter);
+            } catch (final Exception e) {
+                fail(result, callback, e);
+                return;
+            }
+            if (callback != null) {
+                callback.onCompleted(converted);
+            }
+            result.complete(converted);
+        };
+
+        if (bodyContents != null) {
+            request.sendBuffer(Buffer.buffer(bodyContents), responseHandler);
+        } else {
+            request.send(responseHandler);
+        }
+        return result;
+    }
+
+    @Override
+    public void close() {
+        webClient.close();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T convert(final Response response,
+                                 final OAuthRequestAsync.ResponseConverter<T> converter) throws IOException {
+        return converter == null ? (T) response : converter.convert(response);
+    }
+
+    private static Response toScribeResponse(final HttpResponse<Buffer> response) {
+        final Map<String, String> headers = new HashMap<>();
+        response.headers().forEach(header -> headers.put(header.getKey(), header.getValue()));
+        final Buffer body = response.body();
+        // Handed over as a stream, as the async http client does, so that it can be parsed without decoding it first
+        return new Response(response.statusCode(), response.statusMessage(), headers, null,
+                new ByteArrayInputStream(body == null ? new byte[0] : body.getBytes()));
+    }
+
+    private static <T> void fail(final CompletableFuture<T> result, final OAuthAsyncRequestCallback<T> callback,
+                                 final Throwable failure) {
+        if (callback != null) {
+            callback.onThrowable(failure);
+        }
+        result.completeExceptionally(failure);
+    }
+}
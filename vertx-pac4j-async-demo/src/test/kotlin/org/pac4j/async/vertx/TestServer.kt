@@ -1,6 +1,5 @@
 package org.pac4j.async.vertx
 
-import io.vertx.core.Context
 import io.vertx.core.Handler
 import io.vertx.core.Vertx
 import io.vertx.core.http.HttpServer
@@ -35,11 +34,12 @@ class TestServer(val vertx: Vertx) {
 
         fun getProfileHandler(vertx: Vertx): Handler<RoutingContext> {
             return Handler { rc: RoutingContext ->
+                // Resolved here, while still on the event loop handling the request
+                val asynchronousComputationAdapter = VertxAsynchronousComputationAdapter.forRequest(rc)
                 launch {
                     LOG.info("Get profile endpoint called")
                     LOG.info("Session id = " + rc.session().id())
                     val sessionId = rc.session().id()
-                    val asynchronousComputationAdapter = VertxAsynchronousComputationAdapter(vertx, vertx.orCreateContext)
                     val profileManager = getProfileManager(rc, asynchronousComputationAdapter)
 
                     val profile = profileManager.get(true).await()
@@ -61,23 +61,20 @@ class TestServer(val vertx: Vertx) {
         }
 
         fun securityHandler(vertx: Vertx,
-                            context: Context,
                             config: AsyncConfig<Void, CommonProfile, VertxAsyncWebContext>,
                             authProvider: Pac4jAuthProvider,
                             options: SecurityHandlerOptions): VertxAsyncSecurityHandler<CommonProfile> {
-            return VertxAsyncSecurityHandler(vertx, context, config, authProvider, options)
+            return VertxAsyncSecurityHandler(vertx, config, authProvider, options)
         }
 
         fun callbackHandler(vertx: Vertx,
-                            context: Context,
                             config: AsyncConfig<Void, CommonProfile, VertxAsyncWebContext>): VertxAsyncCallbackHandler {
-            return VertxAsyncCallbackHandler(vertx, context, config, CallbackHandlerOptions())
+            return VertxAsyncCallbackHandler(vertx, config, CallbackHandlerOptions())
         }
 
         fun logoutHandler(vertx: Vertx,
-                          context: Context,
                           config: AsyncConfig<Void, CommonProfile, VertxAsyncWebContext>): VertxAsyncLogoutHandler {
-            return VertxAsyncLogoutHandler(vertx, context, config, LogoutHandlerOptions().setDefaultUrl("/"))
+            return VertxAsyncLogoutHandler(vertx, config, LogoutHandlerOptions().setDefaultUrl("/"))
         }
 
     }
@@ -101,7 +98,6 @@ class TestServer(val vertx: Vertx) {
         val router = Router.router(vertx)
         val sessionStore = LocalSessionStore.create(vertx)
         val authProvider = Pac4jAuthProvider()
-        val context = vertx.orCreateContext
         with(router) {
 
             route().handler(CookieHandler.create())
@@ -113,14 +109,14 @@ class TestServer(val vertx: Vertx) {
 
             val pac4jAuthProvider = Pac4jAuthProvider()
             val securityHandlerOptions = SecurityHandlerOptions().setClients(TEST_CLIENT_NAME)
-            get("/profile").handler(securityHandler(vertx, context, pac4jConfiguration, pac4jAuthProvider, securityHandlerOptions))
+            get("/profile").handler(securityHandler(vertx, pac4jConfiguration, pac4jAuthProvider, securityHandlerOptions))
             get("/profile").handler(getProfileHandler(vertx))
-            val callbackHandler = callbackHandler(vertx, context, pac4jConfiguration)
+            val callbackHandler = callbackHandler(vertx, pac4jConfiguration)
             router.get("/callback").handler(callbackHandler) // This will deploy the callback handler
             router.post("/callback").handler(BodyHandler.create().setMergeFormAttributes(true))
             router.post("/callback").handler(callbackHandler)
 
-            router.get("/logout").handler(logoutHandler(vertx, context, pac4jConfiguration))
+            router.get("/logout").handler(logoutHandler(vertx, pac4jConfiguration))
         }
         AsyncSecurityHandlerTest.LOG.info("Starting server")
         awaitResult<HttpServer> { vertx.createHttpServer().requestHandler(router::accept).listen(8080, it) }
@@ -0,0 +1,193 @@
+package org.pac4j.async.vertx
+
+import io.vertx.core.AbstractVerticle
+import io.vertx.core.AsyncResult
+import io.vertx.core.Future
+import io.vertx.core.Verticle
+import io.vertx.core.Vertx
+import io.vertx.core.http.HttpServer
+import io.vertx.ext.unit.TestContext
+import io.vertx.ext.unit.junit.RunTestOnContext
+import io.vertx.ext.unit.junit.VertxUnitRunner
+import io.vertx.ext.web.Router
+import io.vertx.ext.web.client.WebClient
+import io.vertx.ext.web.client.WebClientOptions
+import io.vertx.ext.web.handler.CookieHandler
+import io.vertx.ext.web.handler.SessionHandler
+import io.vertx.ext.web.handler.UserSessionHandler
+import io.vertx.ext.web.sstore.LocalSessionStore
+import kotlinx.coroutines.experimental.future.await
+import kotlinx.coroutines.experimental.launch
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.pac4j.async.core.authorization.authorizer.AsyncAuthorizer
+import org.pac4j.async.core.config.AsyncConfig
+import org.pac4j.async.vertx.auth.Pac4jAuthProvider
+import org.pac4j.async.vertx.config.TestPac4jConfigFactory
+import org.pac4j.async.vertx.context.VertxAsyncWebContext
+import org.pac4j.async.vertx.handler.impl.SecurityHandlerOptions
+import org.pac4j.async.vertx.handler.impl.VertxAsyncSecurityHandler
+import org.pac4j.core.profile.CommonProfile
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.function.Function
+
+/**
+ * Test for deploying several instances of a secured verticle over one config, checking that each request's pac4j
+ * work stays on the event loop which accepted it, so that the instances' event loops all share the load, and that
+ * throughput grows accordingly
+ */
+@RunWith(VertxUnitRunner::class)
+class VertxAsyncDeploymentTest {
+
+    companion object {
+        const val INSTANCES = 4
+        const val REQUESTS = 200
+        const val PORT = 8181
+        const val ACCEPTING_THREAD = "acceptingThread"
+        const val BUSY_AUTHORIZER = "busy"
+        val BUSY_NANOS = TimeUnit.MILLISECONDS.toNanos(1)
+    }
+
+    @Rule
+    @JvmField
+    val rule = RunTestOnContext()
+
+    lateinit var vertx: Vertx
+
+    @Before
+    fun setExceptionHandler(testContext: TestContext) {
+        vertx = rule.vertx()
+        vertx.exceptionHandler(testContext.exceptionHandler())
+    }
+
+    @Test(timeout = 10000)
+    fun testRequestsStayOnAcceptingEventLoop(testContext: TestContext) {
+        val async = testContext.async()
+        val pac4jThreads = ConcurrentHashMap.newKeySet<String>()
+        val movedRequests = AtomicInteger()
+        launch {
+            val config = TestPac4jConfigFactory().directClientConfig()
+            val ids = VertxAsyncDeployment.deploy(vertx, config,
+                    Function<AsyncConfig<Void, CommonProfile, VertxAsyncWebContext>, Verticle> {
+                        SecuredVerticle(it, pac4jThreads, movedRequests)
+                    }, INSTANCES).await()
+            assertThat(ids.size, `is`(INSTANCES))
+
+            sendRequests()
+
+            assertThat(movedRequests.get(), `is`(0))
+            assertThat(pac4jThreads.size > 1, `is`(true))
+            async.complete()
+        }
+    }
+
+    @Test(timeout = 60000)
+    fun testThroughputScalesWithInstances(testContext: TestContext) {
+        val async = testContext.async()
+        val cores = Runtime.getRuntime().availableProcessors()
+        if (cores < 2) {
+            // Nothing for the instances to spread across, so no scaling to check
+            async.complete()
+            return
+        }
+        launch {
+            try {
+                val config = TestPac4jConfigFactory().directClientConfig()
+                // Stands in for CPU bound authorization work, such as checking a signature, done on the event loop
+                config.addAuthorizer(BUSY_AUTHORIZER, AsyncAuthorizer<CommonProfile> { _, _ ->
+                    val until = System.nanoTime() + BUSY_NANOS
+                    while (System.nanoTime() - until < 0) {
+                    }
+                    CompletableFuture.completedFuture(true)
+                })
+                // Warm up first, so that the single instance is not also paying for class loading and compilation
+                timeRequests(config, INSTANCES)
+                val singleInstanceNanos = timeRequests(config, 1)
+                val multipleInstancesNanos = timeRequests(config, INSTANCES)
+
+                // Well short of linear, as the client shares the same cores
+                val expectedSpeedup = Math.max(1.2, 0.5 * Math.min(INSTANCES, cores))
+                val speedup = singleInstanceNanos.toDouble() / multipleInstancesNanos
+                assertThat("speedup of $speedup with $INSTANCES instances on $cores cores", speedup >= expectedSpeedup, `is`(true))
+                async.complete()
+            } catch (t: Throwable) {
+                testContext.fail(t)
+            }
+        }
+    }
+
+    private suspend fun timeRequests(config: AsyncConfig<Void, CommonProfile, VertxAsyncWebContext>, instances: Int): Long {
+        val ids = VertxAsyncDeployment.deploy(vertx, config,
+                Function<AsyncConfig<Void, CommonProfile, VertxAsyncWebContext>, Verticle> {
+                    SecuredVerticle(it, ConcurrentHashMap.newKeySet<String>(), AtomicInteger(), BUSY_AUTHORIZER)
+                }, instances).await()
+        val start = System.nanoTime()
+        sendRequests()
+        val elapsed = System.nanoTime() - start
+        ids.forEach { id ->
+            val undeployed = CompletableFuture<Void>()
+            vertx.undeploy(id) { ar -> if (ar.succeeded()) undeployed.complete(null) else undeployed.completeExceptionally(ar.cause()) }
+            undeployed.await()
+        }
+        return elapsed
+    }
+
+    private suspend fun sendRequests() {
+        // Enough connections that every instance is handed some of them
+        val client = WebClient.create(vertx, WebClientOptions().setMaxPoolSize(INSTANCES * 4))
+        val statuses = (1..REQUESTS).map {
+            val status = CompletableFuture<Int>()
+            client.get(PORT, "localhost", "/secured")
+                    .putHeader("Authorization", "ABC")
+                    .putHeader(HEADER_USER_ID, GOOD_USERNAME)
+                    .putHeader(HEADER_EMAIL, TEST_EMAIL)
+                    .send { ar ->
+                        if (ar.succeeded()) status.complete(ar.result().statusCode()) else status.completeExceptionally(ar.cause())
+                    }
+            status
+        }
+        statuses.forEach { assertThat(it.await(), `is`(200)) }
+        client.close()
+    }
+
+    class SecuredVerticle(private val config: AsyncConfig<Void, CommonProfile, VertxAsyncWebContext>,
+                          private val pac4jThreads: MutableSet<String>,
+                          private val movedRequests: AtomicInteger,
+                          private val authorizers: String = "") : AbstractVerticle() {
+
+        override fun start(startFuture: Future<Void>) {
+            val router = Router.router(vertx)
+            val authProvider = Pac4jAuthProvider()
+            with(router) {
+                route().handler(CookieHandler.create())
+                route().handler(SessionHandler.create(LocalSessionStore.create(vertx)))
+                route().handler(UserSessionHandler.create(authProvider))
+                route().handler { rc ->
+                    rc.put(ACCEPTING_THREAD, Thread.currentThread().name)
+                    rc.next()
+                }
+                get("/secured").handler(VertxAsyncSecurityHandler<CommonProfile>(vertx, config, authProvider,
+                        SecurityHandlerOptions().setClients(TEST_CLIENT_NAME).setAuthorizers(authorizers)))
+                get("/secured").handler { rc ->
+                    // Called from the security logic once the request is authorised
+                    val thread = Thread.currentThread().name
+                    pac4jThreads.add(thread)
+                    if (thread != rc.get<String>(ACCEPTING_THREAD)) {
+                        movedRequests.incrementAndGet()
+                    }
+                    rc.response().end()
+                }
+            }
+            vertx.createHttpServer().requestHandler(router::accept).listen(PORT) { ar: AsyncResult<HttpServer> ->
+                if (ar.succeeded()) startFuture.complete() else startFuture.fail(ar.cause())
+            }
+        }
+    }
+}
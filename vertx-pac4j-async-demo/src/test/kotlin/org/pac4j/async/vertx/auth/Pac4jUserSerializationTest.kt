@@ -0,0 +1,118 @@
+package org.pac4j.async.vertx.auth
+
+import io.vertx.core.buffer.Buffer
+import io.vertx.core.json.JsonObject
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.pac4j.async.vertx.core.DefaultJsonConverter
+import org.pac4j.core.profile.CommonProfile
+import org.pac4j.core.profile.Gender
+import java.net.URI
+import java.nio.charset.StandardCharsets
+import java.util.*
+
+/**
+ * Tests for writing a user to, and reading it back from, a buffer as for a clustered session
+ */
+class Pac4jUserSerializationTest {
+
+    @Test
+    fun testBinaryRoundTrip() {
+        val profile = CommonProfile()
+        profile.setId("user1")
+        profile.clientName = "client1"
+        profile.addRole("ADMIN")
+        profile.addPermission("read")
+        profile.addAttribute("email", "user1@example.com")
+        profile.addAttribute("gender", Gender.FEMALE)
+        profile.addAttribute("locale", Locale.UK)
+        profile.addAttribute("picture_url", URI.create("http://example.com/user1.png"))
+        profile.addAttribute("updated", Date(1000L))
+        profile.addAttribute("friends", 3)
+        profile.addAttribute("aliases", listOf("one", "two"))
+        val user = Pac4jUser()
+        user.setUserProfile("client1", profile, false)
+
+        val buffer = Buffer.buffer()
+        user.writeToBuffer(buffer)
+        buffer.appendInt(42)
+
+        val read = Pac4jUser()
+        val pos = read.readFromBuffer(0, buffer)
+        assertEquals(42, buffer.getInt(pos))
+        val readProfile = read.pac4jUserProfiles()["client1"]!!
+        assertEquals("user1", readProfile.id)
+        assertEquals("client1", readProfile.clientName)
+        assertEquals(setOf("ADMIN"), readProfile.roles)
+        assertEquals(setOf("read"), readProfile.permissions)
+        assertEquals(profile.attributes, readProfile.attributes)
+    }
+
+    @Test
+    fun testReadsJsonEncodedUser() {
+        val profile = CommonProfile()
+        profile.setId("user1")
+        profile.addAttribute("email", "user1@example.com")
+        val profiles = JsonObject().put("client1", DefaultJsonConverter.getInstance().encodeObject(profile))
+        val json = profiles.toString().toByteArray(StandardCharsets.UTF_8)
+        // An empty permission cache, as written by AbstractUser, followed by the profiles as they used to be written
+        val buffer = Buffer.buffer().appendInt(0).appendInt(json.size).appendBytes(json)
+
+        val read = Pac4jUser()
+        val pos = read.readFromBuffer(0, buffer)
+
+        assertEquals(buffer.length(), pos)
+        assertEquals("user1", read.pac4jUserProfiles()["client1"]!!.id)
+        assertEquals("user1@example.com", read.pac4jUserProfiles()["client1"]!!.getAttribute("email"))
+    }
+
+    @Test
+    fun testPrincipalFollowsProfiles() {
+        val profile = CommonProfile()
+        profile.setId("user1")
+        profile.addAttribute("email", "user1@example.com")
+        val user = Pac4jUser()
+        user.setUserProfile("client1", profile, false)
+        val buffer = Buffer.buffer()
+        user.writeToBuffer(buffer)
+        val read = Pac4jUser()
+        read.readFromBuffer(0, buffer)
+
+        assertEquals("user1@example.com", read.principal().getJsonObject("client1").getString("email"))
+
+        val other = CommonProfile()
+        other.setId("user2")
+        other.addAttribute("email", "user2@example.com")
+        read.setUserProfile("client2", other, false)
+        assertEquals(setOf("client2"), read.principal().fieldNames())
+    }
+
+    @Test
+    fun testPrincipalFollowsRetainedProfiles() {
+        val direct = CommonProfile()
+        direct.setId("user1")
+        direct.addAttribute("email", "user1@example.com")
+        val indirect = CommonProfile()
+        indirect.setId("user2")
+        indirect.addAttribute("email", "user2@example.com")
+        val user = Pac4jUser()
+        user.setUserProfile("direct", direct, true)
+        user.setUserProfile("indirect", indirect, true)
+        assertEquals(setOf("direct", "indirect"), user.principal().fieldNames())
+
+        assertTrue(user.retainUserProfiles { profile -> profile.id == "user2" })
+        assertEquals(setOf("indirect"), user.pac4jUserProfiles().keys)
+        assertEquals(setOf("indirect"), user.principal().fieldNames())
+
+        assertFalse(user.retainUserProfiles { false })
+        assertTrue(user.principal().isEmpty)
+    }
+
+    @Test(expected = UnsupportedOperationException::class)
+    fun testProfilesViewIsReadOnly() {
+        val user = Pac4jUser()
+        user.pac4jUserProfiles().clear()
+    }
+}
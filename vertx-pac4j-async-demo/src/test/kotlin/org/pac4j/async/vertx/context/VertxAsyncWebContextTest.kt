@@ -0,0 +1,136 @@
+package org.pac4j.async.vertx.context
+
+import com.nhaarman.mockito_kotlin.mock
+import com.nhaarman.mockito_kotlin.times
+import com.nhaarman.mockito_kotlin.verify
+import com.nhaarman.mockito_kotlin.verifyZeroInteractions
+import com.nhaarman.mockito_kotlin.whenever
+import io.vertx.core.MultiMap
+import io.vertx.core.http.HttpServerRequest
+import io.vertx.core.net.impl.SocketAddressImpl
+import io.vertx.ext.web.Cookie
+import io.vertx.ext.web.RoutingContext
+import io.vertx.ext.web.Session
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.sameInstance
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Before
+import org.junit.Test
+import org.pac4j.async.core.session.AsyncSessionStore
+import org.pac4j.async.vertx.VertxAsynchronousComputationAdapter
+import java.security.InvalidParameterException
+
+/**
+ * Tests for the request details of the vert.x web context, which are read from the routing context when first asked
+ * for and then held
+ */
+class VertxAsyncWebContextTest {
+
+    val request = mock<HttpServerRequest>()
+    val routingContext = mock<RoutingContext>()
+    val computationAdapter = mock<VertxAsynchronousComputationAdapter>()
+
+    @Before
+    fun setUp() {
+        whenever(routingContext.request()).thenReturn(request)
+    }
+
+    @Test
+    fun testNothingReadOnConstruction() {
+        VertxAsyncWebContext(routingContext, computationAdapter)
+        verifyZeroInteractions(routingContext, request)
+    }
+
+    @Test
+    fun testParametersMappedOnceAndHeld() {
+        val params = MultiMap.caseInsensitiveMultiMap().add("a", "1").add("a", "2").add("b", "3")
+        whenever(request.params()).thenReturn(params)
+        val webContext = VertxAsyncWebContext(routingContext, computationAdapter)
+
+        val parameters = webContext.requestParameters
+        assertThat(parameters.keys, `is`(setOf("a", "b")))
+        assertThat(parameters["a"]!!.toList(), `is`(listOf("1", "2")))
+        assertThat(parameters["b"]!!.toList(), `is`(listOf("3")))
+        assertThat(webContext.requestParameters, sameInstance(parameters))
+        verify(request, times(1)).params()
+    }
+
+    @Test
+    fun testSingleParameterReadWithoutMapping() {
+        val params = MultiMap.caseInsensitiveMultiMap().add("a", "1").add("a", "2")
+        whenever(request.params()).thenReturn(params)
+        val webContext = VertxAsyncWebContext(routingContext, computationAdapter)
+
+        assertThat(webContext.getRequestParameter("a"), `is`("1"))
+        assertThat(webContext.getRequestParameter("missing") == null, `is`(true))
+    }
+
+    @Test
+    fun testUrlPartsParsedOnce() {
+        whenever(request.absoluteURI()).thenReturn("https://example.com/protected?x=1")
+        val webContext = VertxAsyncWebContext(routingContext, computationAdapter)
+
+        assertThat(webContext.scheme, `is`("https"))
+        assertThat(webContext.serverName, `is`("example.com"))
+        assertThat(webContext.serverPort, `is`(443))
+        assertThat(webContext.isSecure, `is`(true))
+        assertThat(webContext.fullRequestURL, `is`("https://example.com/protected?x=1"))
+        verify(request, times(1)).absoluteURI()
+    }
+
+    @Test
+    fun testExplicitAndDefaultPorts() {
+        whenever(request.absoluteURI()).thenReturn("http://example.com/protected")
+        assertThat(VertxAsyncWebContext(routingContext, computationAdapter).serverPort, `is`(80))
+        whenever(request.absoluteURI()).thenReturn("http://example.com:8080/protected")
+        assertThat(VertxAsyncWebContext(routingContext, computationAdapter).serverPort, `is`(8080))
+    }
+
+    @Test(expected = InvalidParameterException::class)
+    fun testInvalidUrlReportedOnFirstUse() {
+        whenever(request.absoluteURI()).thenReturn("http://example com/protected")
+        val webContext = VertxAsyncWebContext(routingContext, computationAdapter)
+        webContext.serverName
+    }
+
+    @Test
+    fun testRemoteAddressFormattedOnce() {
+        whenever(request.remoteAddress()).thenReturn(SocketAddressImpl(12345, "10.0.0.1"))
+        val webContext = VertxAsyncWebContext(routingContext, computationAdapter)
+
+        assertThat(webContext.remoteAddr, `is`("10.0.0.1:12345"))
+        assertThat(webContext.remoteAddr, `is`("10.0.0.1:12345"))
+        verify(request, times(1)).remoteAddress()
+    }
+
+    @Test
+    fun testCookiesHeldUntilResponseCookieAdded() {
+        val requestCookie = Cookie.cookie("requestCookie", "value1")
+        whenever(routingContext.cookies()).thenReturn(setOf(requestCookie))
+        val webContext = VertxAsyncWebContext(routingContext, computationAdapter)
+
+        val cookies = webContext.requestCookies
+        assertThat(cookies.map { it.name }, `is`(listOf("requestCookie")))
+        assertThat(webContext.requestCookies, sameInstance(cookies))
+        verify(routingContext, times(1)).cookies()
+
+        // vert.x shares one cookie map between request and response, so the added cookie is seen from then on
+        whenever(routingContext.cookies()).thenReturn(setOf(requestCookie, Cookie.cookie("responseCookie", "value2")))
+        webContext.addResponseCookie(org.pac4j.core.context.Cookie("responseCookie", "value2"))
+        assertThat(webContext.requestCookies.map { it.name }.toSet(), `is`(setOf("requestCookie", "responseCookie")))
+    }
+
+    @Test
+    fun testSessionStoreCreatedOnceUnlessReplaced() {
+        whenever(routingContext.session()).thenReturn(mock<Session>())
+        val webContext = VertxAsyncWebContext(routingContext, computationAdapter)
+
+        val sessionStore = webContext.getSessionStore<AsyncSessionStore>()
+        assertThat(webContext.getSessionStore<AsyncSessionStore>(), sameInstance(sessionStore))
+        verify(routingContext, times(1)).session()
+
+        val replacement = mock<AsyncSessionStore>()
+        webContext.setSessionStore(replacement)
+        assertThat(webContext.getSessionStore<AsyncSessionStore>(), sameInstance(replacement))
+    }
+}
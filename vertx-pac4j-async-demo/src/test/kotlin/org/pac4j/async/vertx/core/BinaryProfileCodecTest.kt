@@ -0,0 +1,115 @@
+package org.pac4j.async.vertx.core
+
+import io.vertx.core.buffer.Buffer
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.pac4j.core.exception.TechnicalException
+import org.pac4j.core.profile.CommonProfile
+import org.pac4j.core.profile.Gender
+import java.nio.charset.StandardCharsets
+
+/**
+ * Tests for the binary profile encoding's fallback to JSON and its handling of class ids and classes it does not
+ * expect
+ */
+class BinaryProfileCodecTest {
+
+    class ExtendedProfile : CommonProfile() {
+        var tier: String? = null
+    }
+
+    class NotAProfile {
+        init {
+            instances++
+        }
+
+        companion object {
+            var instances = 0
+        }
+    }
+
+    private val codec = BinaryProfileCodec.getInstance()
+
+    @Test
+    fun testSubclassWithExtraFieldsRoundTripsAsJson() {
+        val profile = ExtendedProfile()
+        profile.setId("user1")
+        profile.clientName = "client1"
+        profile.addRole("ADMIN")
+        profile.addAttribute("email", "user1@example.com")
+        profile.tier = "gold"
+        val common = CommonProfile()
+        common.setId("user2")
+        common.addAttribute("gender", Gender.MALE)
+
+        val buffer = Buffer.buffer()
+        codec.encode(linkedMapOf("client1" to profile, "client2" to common, "client3" to profile), buffer)
+        val read = LinkedHashMap<String, CommonProfile>()
+        assertEquals(buffer.length(), codec.decode(buffer, 0, read))
+
+        val readProfile = read["client1"] as ExtendedProfile
+        assertEquals("gold", readProfile.tier)
+        assertEquals("user1", readProfile.id)
+        assertEquals(setOf("ADMIN"), readProfile.roles)
+        assertEquals(profile.attributes, readProfile.attributes)
+        // The second occurrence of the class is written by id
+        assertEquals("gold", (read["client3"] as ExtendedProfile).tier)
+        assertEquals(common.attributes, read["client2"]!!.attributes)
+    }
+
+    @Test
+    fun testClassIdBeyondKnownClassesRejected() {
+        assertUnknownClassIdRejected(1000)
+    }
+
+    @Test
+    fun testClassIdNotYetDefinedRejected() {
+        // The first id after the fixed ones, for a class which has not been written in the buffer
+        assertUnknownClassIdRejected(8)
+    }
+
+    @Test
+    fun testNegativeClassIdRejected() {
+        assertUnknownClassIdRejected(-1)
+    }
+
+    @Test
+    fun testClassWhichIsNotAProfileRejectedBeforeInstantiation() {
+        val className = NotAProfile::class.java.name.toByteArray(StandardCharsets.UTF_8)
+        val buffer = singleProfileBuffer()
+        val classPos = buffer.length()
+        // A class named in the buffer, then profile fields which would otherwise be set on an instance of it
+        buffer.appendInt(0)
+                .appendInt(className.size).appendBytes(className)
+                .appendByte(0)
+        try {
+            codec.decode(buffer, 0, LinkedHashMap())
+            throw AssertionError("Class which is not a profile should have been rejected")
+        } catch (e: TechnicalException) {
+            assertEquals("Class ${NotAProfile::class.java.name} at position $classPos " +
+                    "is not a ${CommonProfile::class.java.name}", e.message)
+        }
+        assertEquals(0, NotAProfile.instances)
+    }
+
+    private fun singleProfileBuffer(): Buffer {
+        val name = "client1".toByteArray(StandardCharsets.UTF_8)
+        return Buffer.buffer()
+                .appendInt(BinaryProfileCodec.MARKER)
+                .appendByte(BinaryProfileCodec.VERSION_1)
+                .appendInt(1)
+                .appendInt(name.size).appendBytes(name)
+    }
+
+    private fun assertUnknownClassIdRejected(classId: Int) {
+        val buffer = singleProfileBuffer()
+                .appendInt(classId)
+        try {
+            codec.decode(buffer, 0, LinkedHashMap())
+            throw AssertionError("Class id $classId should have been rejected")
+        } catch (e: TechnicalException) {
+            assertTrue(e.message!!.startsWith("Unknown class id $classId"))
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package org.pac4j.async.vertx.core.session
+
+import com.nhaarman.mockito_kotlin.mock
+import io.vertx.core.AsyncResult
+import io.vertx.ext.unit.TestContext
+import io.vertx.ext.unit.junit.RunTestOnContext
+import io.vertx.ext.unit.junit.VertxUnitRunner
+import io.vertx.ext.web.Session
+import io.vertx.ext.web.sstore.LocalSessionStore
+import io.vertx.ext.web.sstore.SessionStore
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.not
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.pac4j.async.core.context.AsyncWebContext
+import java.util.*
+
+/**
+ * Tests for renewing, destroying and tracking vert.x sessions, both that of the current request and ones tracked by id
+ */
+@RunWith(VertxUnitRunner::class)
+class VertxAsyncSessionStoreTest {
+
+    @Rule
+    @JvmField
+    val rule = RunTestOnContext()
+
+    lateinit var vertxSessionStore: SessionStore
+    lateinit var session: Session
+    val webContext = mock<AsyncWebContext>()
+
+    @Before
+    fun storeSession(testContext: TestContext) {
+        vertxSessionStore = LocalSessionStore.create(rule.vertx())
+        session = vertxSessionStore.createSession(60000)
+        session.put("key", "value")
+        val stored = testContext.async()
+        vertxSessionStore.put(session) { ar: AsyncResult<Boolean> ->
+            testContext.assertTrue(ar.succeeded())
+            stored.complete()
+        }
+    }
+
+    @Test
+    fun testRequestSessionRenewedKeepsData(testContext: TestContext) {
+        val store = VertxAsyncSessionStore(session, vertxSessionStore)
+        val oldId = session.id()
+        val renewal = store.renewSessionId(webContext).join().get()
+        assertThat(renewal.oldSessionId, `is`(oldId))
+        assertThat(renewal.newSessionId, `is`(session.id()))
+        assertThat(renewal.newSessionId, not(`is`(oldId)))
+        assertThat(store.get<String>(webContext, "key").join(), `is`("value"))
+    }
+
+    @Test
+    fun testRequestSessionDestroyedIsMarked(testContext: TestContext) {
+        val store = VertxAsyncSessionStore(session, vertxSessionStore)
+        assertThat(store.destroySession(webContext).join(), `is`(true))
+        assertThat(session.isDestroyed, `is`(true))
+    }
+
+    @Test
+    fun testTrackableSessionIsId(testContext: TestContext) {
+        assertThat(VertxAsyncSessionStore(session, vertxSessionStore).getTrackableSession(webContext).join(),
+                `is`(Optional.of<Any>(session.id())))
+        assertThat(VertxAsyncSessionStore(session).getTrackableSession(webContext).join(),
+                `is`(Optional.empty<Any>()))
+        assertThat(VertxAsyncSessionStore(session).buildFromTrackableSession(webContext, session.id()),
+                `is`(Optional.empty()))
+    }
+
+    @Test(timeout = 3000)
+    fun testTrackedSessionReadAndWritten(testContext: TestContext) {
+        val async = testContext.async()
+        val tracked = trackedStore()
+        tracked.get<String>(webContext, "key")
+                .thenCompose { value ->
+                    testContext.assertEquals("value", value)
+                    tracked.setAll(webContext, mapOf("key" to "changed", "other" to "added"))
+                }
+                .thenAccept { fetch(testContext, session.id()) { stored ->
+                    testContext.assertEquals("changed", stored!!.get<String>("key"))
+                    testContext.assertEquals("added", stored.get<String>("other"))
+                    async.complete()
+                } }
+    }
+
+    @Test(timeout = 3000)
+    fun testTrackedSessionDestroyedIsDeletedFromStore(testContext: TestContext) {
+        val async = testContext.async()
+        trackedStore().destroySession(webContext)
+                .thenAccept { destroyed ->
+                    testContext.assertTrue(destroyed)
+                    fetch(testContext, session.id()) { stored ->
+                        testContext.assertNull(stored)
+                        async.complete()
+                    }
+                }
+    }
+
+    @Test(timeout = 3000)
+    fun testTrackedSessionRenewedMovesToNewId(testContext: TestContext) {
+        val async = testContext.async()
+        val oldId = session.id()
+        trackedStore().renewSessionId(webContext)
+                .thenAccept { renewal ->
+                    testContext.assertEquals(oldId, renewal.get().oldSessionId)
+                    fetch(testContext, oldId) { old ->
+                        testContext.assertNull(old)
+                        fetch(testContext, renewal.get().newSessionId) { renewed ->
+                            testContext.assertEquals("value", renewed!!.get<String>("key"))
+                            async.complete()
+                        }
+                    }
+                }
+    }
+
+    @Test(timeout = 3000)
+    fun testExpiredTrackedSessionNotRenewed(testContext: TestContext) {
+        val async = testContext.async()
+        val tracked = VertxAsyncSessionStore(session, vertxSessionStore)
+                .buildFromTrackableSession(webContext, "unknown").get()
+        tracked.renewSession(webContext)
+                .thenCompose { renewed ->
+                    testContext.assertFalse(renewed)
+                    tracked.get<String>(webContext, "key")
+                }
+                .thenAccept { value ->
+                    testContext.assertNull(value)
+                    async.complete()
+                }
+    }
+
+    private fun trackedStore() = VertxAsyncSessionStore(session, vertxSessionStore)
+            .getTrackableSession(webContext)
+            .thenApply { trackable -> VertxAsyncSessionStore(session, vertxSessionStore)
+                    .buildFromTrackableSession(webContext, trackable.get()).get() }
+            .join()
+
+    private fun fetch(testContext: TestContext, id: String, assertions: (Session?) -> Unit) {
+        vertxSessionStore.get(id) { ar: AsyncResult<Session?> ->
+            testContext.assertTrue(ar.succeeded())
+            assertions(ar.result())
+        }
+    }
+}
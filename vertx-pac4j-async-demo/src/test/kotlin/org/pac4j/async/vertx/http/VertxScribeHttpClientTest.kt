@@ -0,0 +1,92 @@
+package org.pac4j.async.vertx.http
+
+import com.github.scribejava.core.model.OAuthAsyncRequestCallback
+import com.github.scribejava.core.model.OAuthRequestAsync
+import com.github.scribejava.core.model.Verb
+import io.vertx.core.AsyncResult
+import io.vertx.core.Vertx
+import io.vertx.core.http.HttpServer
+import io.vertx.ext.unit.TestContext
+import io.vertx.ext.unit.junit.RunTestOnContext
+import io.vertx.ext.unit.junit.VertxUnitRunner
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Tests for the scribe http client backed by a vert.x web client
+ */
+@RunWith(VertxUnitRunner::class)
+class VertxScribeHttpClientTest {
+
+    companion object {
+        const val PORT = 9393
+    }
+
+    @Rule
+    @JvmField
+    val rule = RunTestOnContext()
+
+    lateinit var vertx: Vertx
+
+    @Before
+    fun startServer(testContext: TestContext) {
+        vertx = rule.vertx()
+        vertx.exceptionHandler(testContext.exceptionHandler())
+        val started = testContext.async()
+        vertx.createHttpServer().requestHandler { request ->
+            request.bodyHandler { body ->
+                request.response()
+                        .setStatusCode(if (request.getHeader("Authorization") == "Bearer token") 200 else 401)
+                        .end(request.method().name + " " + body.toString())
+            }
+        }.listen(PORT) { ar: AsyncResult<HttpServer> ->
+            testContext.assertTrue(ar.succeeded())
+            started.complete()
+        }
+    }
+
+    @Test(timeout = 3000)
+    fun testResponseConvertedOnCallingContext(testContext: TestContext) {
+        val async = testContext.async()
+        val client = VertxScribeHttpClient(vertx)
+        vertx.runOnContext {
+            val callingThread = Thread.currentThread()
+            client.executeAsync(null, mapOf("Authorization" to "Bearer token"), Verb.POST, "http://localhost:$PORT/token",
+                    "code=abc",
+                    object : OAuthAsyncRequestCallback<String> {
+                        override fun onCompleted(response: String) {
+                            assertThat(Thread.currentThread(), `is`(callingThread))
+                            assertThat(response, `is`("200 POST code=abc"))
+                            async.complete()
+                        }
+
+                        override fun onThrowable(t: Throwable) {
+                            testContext.fail(t)
+                        }
+                    },
+                    OAuthRequestAsync.ResponseConverter { response -> response.code.toString() + " " + response.body })
+        }
+    }
+
+    @Test(timeout = 3000)
+    fun testUnsuccessfulResponseStillConverted(testContext: TestContext) {
+        val async = testContext.async()
+        val client = VertxScribeHttpClient(vertx)
+        client.executeAsync(null, emptyMap(), Verb.GET, "http://localhost:$PORT/profile", null,
+                object : OAuthAsyncRequestCallback<String> {
+                    override fun onCompleted(response: String) {
+                        assertThat(response, `is`("401"))
+                        async.complete()
+                    }
+
+                    override fun onThrowable(t: Throwable) {
+                        testContext.fail(t)
+                    }
+                },
+                OAuthRequestAsync.ResponseConverter { response -> response.code.toString() })
+    }
+}